@@ -0,0 +1,18 @@
+package com.example.playlist_api.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+
+/**
+ * Variante reactiva de la API: WebFlux sobre Netty y acceso a datos con R2DBC.
+ * El {@code DataSource} JDBC se excluye porque solo Flyway usa JDBC, con su propia conexión ({@code spring.flyway.url}).
+ */
+@SpringBootApplication(exclude = DataSourceAutoConfiguration.class)
+public class PlaylistApiReactiveApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(PlaylistApiReactiveApplication.class, args);
+	}
+
+}
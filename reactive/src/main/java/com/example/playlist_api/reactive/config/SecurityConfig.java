@@ -0,0 +1,98 @@
+package com.example.playlist_api.reactive.config;
+
+import com.example.playlist_api.reactive.security.JwtAuthenticationEntryPoint;
+import com.example.playlist_api.reactive.security.JwtAuthenticationWebFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.config.Customizer;
+import org.springframework.security.config.annotation.method.configuration.EnableReactiveMethodSecurity;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.userdetails.MapReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.reactive.CorsConfigurationSource;
+import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
+
+import java.util.Arrays;
+
+/**
+ * Configuración de Spring Security para la variante reactiva: mismas reglas de autorización que la variante MVC,
+ * sin sesiones, con autenticación únicamente por token JWT.
+ * Esta variante no emite tokens: acepta los tokens de acceso de {@code /api/auth/login} de la variante MVC,
+ * firmados con la misma clave ({@code jwt.secret}).
+ */
+@Configuration
+@EnableWebFluxSecurity
+@EnableReactiveMethodSecurity
+public class SecurityConfig {
+
+    /**
+     * Usuarios conocidos y sus roles, leídos de las mismas propiedades que la variante MVC.
+     * No se guardan contraseñas: aquí nadie se autentica con ellas.
+     */
+    @Bean
+    public ReactiveUserDetailsService userDetailsService(@Value("${app.security.users.admin.username}") String adminUsername,
+                                                         @Value("${app.security.users.admin.roles}") String adminRoles,
+                                                         @Value("${app.security.users.user.username}") String regularUsername,
+                                                         @Value("${app.security.users.user.roles}") String regularRoles) {
+        return new MapReactiveUserDetailsService(
+                User.withUsername(adminUsername).password("").roles(adminRoles.split(",")).build(),
+                User.withUsername(regularUsername).password("").roles(regularRoles.split(",")).build());
+    }
+
+    /**
+     * Configura la cadena de filtros de seguridad reactiva con las reglas de autorización y el filtro JWT.
+     *
+     * @param http El objeto ServerHttpSecurity proporcionado por Spring Security.
+     * @param userDetailsService Servicio para cargar los detalles del usuario del token.
+     * @param jwtAuthenticationEntryPoint Respuesta 401 para las peticiones sin autenticar.
+     * @return La cadena de filtros de seguridad configurada.
+     */
+    @Bean
+    public SecurityWebFilterChain springSecurityFilterChain(ServerHttpSecurity http, ReactiveUserDetailsService userDetailsService,
+                                                            JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint,
+                                                            @Value("${jwt.secret}") String secreto,
+                                                            @Value("${jwt.header}") String authorizationHeaderName,
+                                                            @Value("${jwt.prefix}") String jwtPrefix) {
+        return http
+            .cors(Customizer.withDefaults())
+            .csrf(ServerHttpSecurity.CsrfSpec::disable)
+            .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+            .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+            // Sin sesiones: cada petición lleva su propio token.
+            .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+            .authorizeExchange(auth -> auth
+                .pathMatchers(HttpMethod.GET, "/api/canciones/**", "/api/listas/**").hasAnyRole("USER", "ADMIN")
+                .pathMatchers(HttpMethod.POST, "/api/canciones/**", "/api/listas/**").hasRole("ADMIN")
+                .pathMatchers(HttpMethod.PUT, "/api/canciones/**", "/api/listas/**").hasRole("ADMIN")
+                .pathMatchers(HttpMethod.DELETE, "/api/canciones/**", "/api/listas/**").hasRole("ADMIN")
+                .anyExchange().authenticated()
+            )
+            .exceptionHandling(ex -> ex.authenticationEntryPoint(jwtAuthenticationEntryPoint))
+            .addFilterAt(new JwtAuthenticationWebFilter(userDetailsService, secreto, authorizationHeaderName, jwtPrefix),
+                    SecurityWebFiltersOrder.AUTHENTICATION)
+            .build();
+    }
+
+    @Bean
+    public CorsConfigurationSource corsConfigurationSource() {
+        CorsConfiguration configuration = new CorsConfiguration();
+        configuration.setAllowedOrigins(Arrays.asList("http://localhost:4200"));
+        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
+        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "Cache-Control",
+                "X-Requested-With", "Accept", "If-Match"));
+        configuration.setAllowCredentials(true);
+        configuration.setExposedHeaders(Arrays.asList("ETag"));
+
+        UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
+        source.registerCorsConfiguration("/**", configuration);
+        return source;
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.playlist_api.reactive.controller;
+
+import com.example.playlist_api.dto.CancionDto;
+import com.example.playlist_api.dto.LoteResponseDto;
+import com.example.playlist_api.reactive.service.CancionService;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.List;
+
+/**
+ * Controlador REST reactivo para la gestión de canciones, con las mismas rutas que la variante MVC.
+ */
+@RestController
+@RequestMapping("/api/canciones")
+public class CancionController {
+
+    private final CancionService cancionService;
+
+    public CancionController(CancionService cancionService) {
+        this.cancionService = cancionService;
+    }
+
+    /**
+     * Crea una nueva canción. Solo accesible por usuarios con rol ADMIN.
+     *
+     * @param cancionDto DTO con los datos de la canción a crear.
+     * @param request Petición en curso, para construir la cabecera {@code Location}.
+     * @return La canción creada y el estado HTTP 201 (Created).
+     */
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<ResponseEntity<CancionDto>> crearCancion(@Valid @RequestBody CancionDto cancionDto, ServerHttpRequest request) {
+        return cancionService.crearCancion(cancionDto)
+                .map(createdCancion -> {
+                    URI location = UriComponentsBuilder.fromUri(request.getURI())
+                            .path("/{id}")
+                            .buildAndExpand(createdCancion.getId())
+                            .toUri();
+                    return ResponseEntity.created(location).body(createdCancion);
+                });
+    }
+
+    /**
+     * Obtiene todas las canciones. Accesible por usuarios con rol ADMIN o USER.
+     * Con {@code Accept: application/x-ndjson} cada canción se envía en cuanto se lee, una por línea,
+     * y el ritmo de lectura de la base de datos lo marca el cliente.
+     *
+     * @return Las canciones ordenadas por ID.
+     */
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    public Flux<CancionDto> obtenerTodasLasCanciones() {
+        return cancionService.obtenerTodasLasCanciones();
+    }
+
+    /**
+     * Obtiene varias canciones por sus IDs en una sola petición, p. ej. {@code GET /api/canciones?ids=3,1,7}.
+     * Accesible por usuarios con rol ADMIN o USER.
+     *
+     * @param ids IDs de las canciones a obtener.
+     * @return Las canciones encontradas (en el orden solicitado), los IDs inexistentes y el estado HTTP 200 (OK).
+     */
+    @GetMapping(params = "ids")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    public Mono<ResponseEntity<LoteResponseDto<CancionDto>>> obtenerCancionesPorIds(@RequestParam List<Long> ids) {
+        return cancionService.obtenerCancionesPorIds(ids).map(ResponseEntity::ok);
+    }
+
+    /**
+     * Obtiene una canción por su ID. Accesible por usuarios con rol ADMIN o USER.
+     *
+     * @param id ID de la canción a buscar.
+     * @return La canción encontrada, con su versión como {@code ETag}, y el estado HTTP 200 (OK).
+     */
+    @GetMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    public Mono<ResponseEntity<CancionDto>> obtenerCancionPorId(@PathVariable Long id) {
+        return cancionService.obtenerCancionPorId(id)
+                .map(cancion -> VersionETag.ok(cancion, cancion.getVersion()));
+    }
+
+    /**
+     * Actualiza una canción existente por su ID. Solo accesible por usuarios con rol ADMIN.
+     *
+     * @param id ID de la canción a actualizar.
+     * @param cancionDto DTO con los datos actualizados de la canción.
+     * @param ifMatch Versión (ETag) leída por el cliente; si no coincide con la actual se responde 412 (Precondition Failed).
+     * @return La canción actualizada y el estado HTTP 200 (OK).
+     */
+    @PutMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<ResponseEntity<CancionDto>> actualizarCancion(@PathVariable Long id, @Valid @RequestBody CancionDto cancionDto,
+                                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long versionEsperada = VersionETag.parsearIfMatch(ifMatch);
+        return cancionService.actualizarCancion(id, cancionDto, versionEsperada)
+                .map(updatedCancion -> VersionETag.ok(updatedCancion, updatedCancion.getVersion()));
+    }
+
+    /**
+     * Elimina una canción por su ID. Solo accesible por usuarios con rol ADMIN.
+     *
+     * @param id ID de la canción a eliminar.
+     * @return Estado HTTP 204 (No Content) si la eliminación es exitosa.
+     */
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<ResponseEntity<Void>> eliminarCancion(@PathVariable Long id) {
+        return cancionService.eliminarCancion(id).thenReturn(ResponseEntity.noContent().build());
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.playlist_api.reactive.controller;
+
+import com.example.playlist_api.dto.ListaReproduccionRequestDto;
+import com.example.playlist_api.dto.ListaReproduccionResponseDto;
+import com.example.playlist_api.dto.LoteResponseDto;
+import com.example.playlist_api.reactive.service.ListaReproduccionService;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.List;
+
+/**
+ * Controlador REST reactivo para la gestión de listas de reproducción, con las mismas rutas que la variante MVC.
+ * No incluye la escritura diferida ni las proyecciones con {@code fields}, que dependen de JPA.
+ */
+@RestController
+@RequestMapping("/api/listas")
+public class ListaReproduccionController {
+
+    private final ListaReproduccionService listaReproduccionService;
+
+    public ListaReproduccionController(ListaReproduccionService listaReproduccionService) {
+        this.listaReproduccionService = listaReproduccionService;
+    }
+
+    /**
+     * Crea una nueva lista de reproducción. Solo accesible por usuarios con rol ADMIN.
+     *
+     * @param listaReproduccionRequestDto DTO con los datos de la lista de reproducción a crear.
+     * @param request Petición en curso, para construir la cabecera {@code Location}.
+     * @return La lista de reproducción creada y el estado HTTP 201 (Created).
+     */
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<ResponseEntity<ListaReproduccionResponseDto>> crearListaReproduccion(@Valid @RequestBody ListaReproduccionRequestDto listaReproduccionRequestDto,
+                                                                                     ServerHttpRequest request) {
+        return listaReproduccionService.crearListaReproduccion(listaReproduccionRequestDto)
+                .map(creada -> ResponseEntity.created(ubicacion(request, "/{id}", creada.getId())).body(creada));
+    }
+
+    /**
+     * Crea una lista de reproducción si no existe otra con el mismo nombre; si ya existe, la devuelve.
+     * Solo accesible por usuarios con rol ADMIN.
+     *
+     * @param listaReproduccionRequestDto DTO con los datos de la lista; el nombre identifica la lista.
+     * @param request Petición en curso, para construir la cabecera {@code Location}.
+     * @return La lista y el estado HTTP 201 (Created) si se creó, o 200 (OK) si ya existía.
+     */
+    @PostMapping("/si-no-existe")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<ResponseEntity<ListaReproduccionResponseDto>> crearListaReproduccionSiNoExiste(@Valid @RequestBody ListaReproduccionRequestDto listaReproduccionRequestDto,
+                                                                                               ServerHttpRequest request) {
+        return listaReproduccionService.crearListaReproduccionSiNoExiste(listaReproduccionRequestDto)
+                .map(resultado -> {
+                    ListaReproduccionResponseDto lista = resultado.listaReproduccion();
+                    return resultado.creada()
+                            ? ResponseEntity.created(ubicacion(request, "/../{id}", lista.getId())).body(lista)
+                            : VersionETag.ok(lista, lista.getVersion());
+                });
+    }
+
+    /**
+     * Clase interna para el DTO que contiene el nombre y la descripción de la lista.
+     */
+    static class NombreDescripcionListaDto {
+        @jakarta.validation.constraints.NotBlank
+        private String nombre;
+        private String descripcion;
+        public String getNombre() { return nombre; }
+        public void setNombre(String nombre) { this.nombre = nombre; }
+        public String getDescripcion() { return descripcion; }
+        public void setDescripcion(String descripcion) { this.descripcion = descripcion; }
+    }
+
+    /**
+     * Crea una nueva lista de reproducción y le asocia una canción inicial. Solo accesible por usuarios con rol ADMIN.
+     *
+     * @param idCancion ID de la canción a asociar inicialmente.
+     * @param listaDetails DTO con el nombre y la descripción de la lista.
+     * @param request Petición en curso, para construir la cabecera {@code Location}.
+     * @return La lista de reproducción creada y el estado HTTP 201 (Created).
+     */
+    @PostMapping("/con-cancion-inicial/{idCancion}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<ResponseEntity<ListaReproduccionResponseDto>> crearListaReproduccionConCancionInicial(
+            @PathVariable Long idCancion,
+            @Valid @RequestBody NombreDescripcionListaDto listaDetails,
+            ServerHttpRequest request) {
+        return listaReproduccionService.crearListaReproduccionConCancion(listaDetails.getNombre(), listaDetails.getDescripcion(), idCancion)
+                .map(creada -> ResponseEntity.created(ubicacion(request, "/../../{id}", creada.getId())).body(creada));
+    }
+
+    /**
+     * Obtiene todas las listas de reproducción con sus canciones. Accesible por usuarios con rol ADMIN o USER.
+     * Con {@code Accept: application/x-ndjson} cada lista se envía en cuanto se lee, una por línea.
+     *
+     * @return Las listas ordenadas por ID.
+     */
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    public Flux<ListaReproduccionResponseDto> obtenerTodasLasListasReproduccion() {
+        return listaReproduccionService.obtenerTodasLasListasReproduccion();
+    }
+
+    /**
+     * Obtiene varias listas de reproducción por sus IDs en una sola petición, p. ej. {@code GET /api/listas?ids=3,1,7}.
+     * Accesible por usuarios con rol ADMIN o USER.
+     *
+     * @param ids IDs de las listas a obtener.
+     * @return Las listas encontradas (en el orden solicitado), los IDs inexistentes y el estado HTTP 200 (OK).
+     */
+    @GetMapping(params = "ids")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    public Mono<ResponseEntity<LoteResponseDto<ListaReproduccionResponseDto>>> obtenerListasReproduccionPorIds(@RequestParam List<Long> ids) {
+        return listaReproduccionService.obtenerListasReproduccionPorIds(ids).map(ResponseEntity::ok);
+    }
+
+    /**
+     * Obtiene una lista de reproducción por su nombre. Accesible por usuarios con rol ADMIN o USER.
+     *
+     * @param nombreLista Nombre de la lista de reproducción a buscar.
+     * @return La lista encontrada y el estado HTTP 200 (OK).
+     */
+    @GetMapping("/porNombre/{nombreLista}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    public Mono<ResponseEntity<ListaReproduccionResponseDto>> obtenerListaReproduccionPorNombre(@PathVariable String nombreLista) {
+        return listaReproduccionService.obtenerListaReproduccionPorNombre(nombreLista).map(ResponseEntity::ok);
+    }
+
+    /**
+     * Obtiene una lista de reproducción por su ID. Accesible por usuarios con rol ADMIN o USER.
+     *
+     * @param id ID de la lista de reproducción a buscar.
+     * @return La lista encontrada, con su versión como {@code ETag}, y el estado HTTP 200 (OK).
+     */
+    @GetMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    public Mono<ResponseEntity<ListaReproduccionResponseDto>> obtenerListaReproduccionPorId(@PathVariable Long id) {
+        return listaReproduccionService.obtenerListaReproduccionPorId(id)
+                .map(lista -> VersionETag.ok(lista, lista.getVersion()));
+    }
+
+    /**
+     * Actualiza una lista de reproducción existente por su ID. Solo accesible por usuarios con rol ADMIN.
+     *
+     * @param id ID de la lista de reproducción a actualizar.
+     * @param listaReproduccionRequestDto DTO con los datos actualizados de la lista de reproducción.
+     * @param ifMatch Versión (ETag) leída por el cliente; si no coincide con la actual se responde 412 (Precondition Failed).
+     * @return La lista actualizada y el estado HTTP 200 (OK).
+     */
+    @PutMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<ResponseEntity<ListaReproduccionResponseDto>> actualizarListaReproduccion(@PathVariable Long id, @Valid @RequestBody ListaReproduccionRequestDto listaReproduccionRequestDto,
+                                                                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long versionEsperada = VersionETag.parsearIfMatch(ifMatch);
+        return listaReproduccionService.actualizarListaReproduccion(id, listaReproduccionRequestDto, versionEsperada)
+                .map(lista -> VersionETag.ok(lista, lista.getVersion()));
+    }
+
+    /**
+     * Añade una canción a una lista de reproducción existente. Solo accesible por usuarios con rol ADMIN.
+     * Los conflictos con otras escrituras concurrentes se reintentan en el servidor.
+     *
+     * @param id ID de la lista de reproducción.
+     * @param idCancion ID de la canción a añadir.
+     * @return La lista actualizada y el estado HTTP 200 (OK).
+     */
+    @PostMapping("/{id}/canciones/{idCancion}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<ResponseEntity<ListaReproduccionResponseDto>> agregarCancion(@PathVariable Long id, @PathVariable Long idCancion) {
+        return listaReproduccionService.agregarCancion(id, idCancion)
+                .map(lista -> VersionETag.ok(lista, lista.getVersion()));
+    }
+
+    /**
+     * Quita una canción de una lista de reproducción existente. Solo accesible por usuarios con rol ADMIN.
+     * Los conflictos con otras escrituras concurrentes se reintentan en el servidor.
+     *
+     * @param id ID de la lista de reproducción.
+     * @param idCancion ID de la canción a quitar.
+     * @return La lista actualizada y el estado HTTP 200 (OK).
+     */
+    @DeleteMapping("/{id}/canciones/{idCancion}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<ResponseEntity<ListaReproduccionResponseDto>> quitarCancion(@PathVariable Long id, @PathVariable Long idCancion) {
+        return listaReproduccionService.quitarCancion(id, idCancion)
+                .map(lista -> VersionETag.ok(lista, lista.getVersion()));
+    }
+
+    /**
+     * Elimina una lista de reproducción por su nombre. Solo accesible por usuarios con rol ADMIN.
+     *
+     * @param nombreLista Nombre de la lista de reproducción a eliminar.
+     * @return Estado HTTP 204 (No Content) si la eliminación es exitosa.
+     */
+    @DeleteMapping("/porNombre/{nombreLista}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<ResponseEntity<Void>> eliminarListaReproduccionPorNombre(@PathVariable String nombreLista) {
+        return listaReproduccionService.eliminarListaReproduccionPorNombre(nombreLista).thenReturn(ResponseEntity.noContent().build());
+    }
+
+    /**
+     * Elimina una lista de reproducción por su ID. Solo accesible por usuarios con rol ADMIN.
+     *
+     * @param id ID de la lista de reproducción a eliminar.
+     * @return Estado HTTP 204 (No Content) si la eliminación es exitosa.
+     */
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<ResponseEntity<Void>> eliminarListaReproduccionPorId(@PathVariable Long id) {
+        return listaReproduccionService.eliminarListaReproduccionPorId(id).thenReturn(ResponseEntity.noContent().build());
+    }
+
+    private static URI ubicacion(ServerHttpRequest request, String ruta, Long id) {
+        return UriComponentsBuilder.fromUri(request.getURI())
+                .path(ruta)
+                .buildAndExpand(id)
+                .normalize()
+                .toUri();
+    }
+}
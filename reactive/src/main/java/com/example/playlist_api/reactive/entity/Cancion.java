@@ -0,0 +1,49 @@
+package com.example.playlist_api.reactive.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.ReadOnlyProperty;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Fila de la tabla {@code canciones}. A diferencia de la entidad JPA, no conoce sus listas de reproducción:
+ * la tabla de unión se consulta explícitamente.
+ */
+@Table("canciones")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Cancion {
+
+    @Id
+    private Long id;
+
+    private String titulo;
+
+    private Long artistaId;
+
+    private Long albumId;
+
+    private String anno;
+
+    private Long generoId;
+
+    @Version
+    private Long version;
+
+    /** Huella de título, artista y álbum normalizados, como en la variante MVC. */
+    private String huella;
+
+    /** Nombres de artista, álbum y género, leídos de sus tablas de nombres con {@link com.example.playlist_api.reactive.repository.CancionRepository#SELECT_CANCIONES}. */
+    @ReadOnlyProperty
+    private String artista;
+
+    @ReadOnlyProperty
+    private String album;
+
+    @ReadOnlyProperty
+    private String genero;
+}
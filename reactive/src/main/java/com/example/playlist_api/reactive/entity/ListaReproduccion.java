@@ -0,0 +1,35 @@
+package com.example.playlist_api.reactive.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Fila de la tabla {@code listas_reproduccion}. Sus canciones están en {@code lista_reproduccion_canciones}
+ * y las gestiona {@code ListaReproduccionService}.
+ */
+@Table("listas_reproduccion")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ListaReproduccion {
+
+    /** Nombre de la restricción única sobre {@code nombre}; el manejador global la reconoce por este nombre. */
+    public static final String UK_NOMBRE = "uk_listas_reproduccion_nombre";
+
+    @Id
+    private Long id;
+
+    private String nombre;
+
+    private String descripcion;
+
+    @Version
+    private Long version;
+
+    /** Número de canciones de la lista, mantenido por el servicio en cada escritura de sus canciones. */
+    private int numeroCanciones;
+}
@@ -0,0 +1,106 @@
+package com.example.playlist_api.reactive.exception;
+
+import com.example.playlist_api.dto.ErrorResponseDto;
+import com.example.playlist_api.exception.BadRequestException;
+import com.example.playlist_api.exception.CancionDuplicadaException;
+import com.example.playlist_api.exception.PreconditionFailedException;
+import com.example.playlist_api.exception.ResourceNotFoundException;
+import com.example.playlist_api.reactive.entity.ListaReproduccion;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebInputException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Traduce las excepciones de la variante reactiva al mismo {@link ErrorResponseDto} y los mismos códigos HTTP
+ * que el manejador global de la variante MVC.
+ */
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<ErrorResponseDto> handleResourceNotFoundException(ResourceNotFoundException ex, ServerWebExchange exchange) {
+        return error(HttpStatus.NOT_FOUND, "Not Found", ex.getMessage(), exchange, null);
+    }
+
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<ErrorResponseDto> handleBadRequestException(BadRequestException ex, ServerWebExchange exchange) {
+        return error(HttpStatus.BAD_REQUEST, "Bad Request", ex.getMessage(), exchange, null);
+    }
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ErrorResponseDto> handleValidationExceptions(WebExchangeBindException ex, ServerWebExchange exchange) {
+        Map<String, List<String>> errors = ex.getBindingResult().getFieldErrors().stream()
+                .collect(Collectors.groupingBy(FieldError::getField,
+                        Collectors.mapping(FieldError::getDefaultMessage, Collectors.toList())));
+        return error(HttpStatus.BAD_REQUEST, "Validation Error", "La validación de los datos de entrada falló.", exchange, errors);
+    }
+
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<ErrorResponseDto> handleServerWebInputException(ServerWebInputException ex, ServerWebExchange exchange) {
+        return error(HttpStatus.BAD_REQUEST, "Bad Request", ex.getReason(), exchange, null);
+    }
+
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ErrorResponseDto> handleDataIntegrityViolationException(DataIntegrityViolationException ex, ServerWebExchange exchange) {
+        String message = "Error de integridad de datos.";
+        // R2DBC no expone el nombre de la restricción: H2 lo incluye en el mensaje.
+        if (ex.getMessage() != null && ex.getMessage().toLowerCase(Locale.ROOT).contains(ListaReproduccion.UK_NOMBRE)) {
+            message = "Ya existe una lista de reproducción con ese nombre.";
+        }
+        return error(HttpStatus.CONFLICT, "Data Integrity Violation", message, exchange, null);
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ErrorResponseDto> handlePreconditionFailedException(PreconditionFailedException ex, ServerWebExchange exchange) {
+        return error(HttpStatus.PRECONDITION_FAILED, "Precondition Failed", ex.getMessage(), exchange, null);
+    }
+
+    @ExceptionHandler(CancionDuplicadaException.class)
+    public ResponseEntity<ErrorResponseDto> handleCancionDuplicadaException(CancionDuplicadaException ex, ServerWebExchange exchange) {
+        return error(HttpStatus.CONFLICT, "Conflict", ex.getMessage(), exchange, null);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponseDto> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex, ServerWebExchange exchange) {
+        return error(HttpStatus.CONFLICT, "Conflict",
+                "El recurso fue modificado por otra petición concurrente. Vuelva a leerlo y reintente la operación.", exchange, null);
+    }
+
+    @ExceptionHandler(AccessDeniedException.class)
+    public ResponseEntity<ErrorResponseDto> handleAccessDeniedException(AccessDeniedException ex, ServerWebExchange exchange) {
+        return error(HttpStatus.FORBIDDEN, "Forbidden", "No tiene permiso para acceder a este recurso.", exchange, null);
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<ErrorResponseDto> handleGlobalException(Exception ex, ServerWebExchange exchange) {
+        return error(HttpStatus.INTERNAL_SERVER_ERROR, "Internal Server Error",
+                "Ocurrió un error inesperado: " + ex.getMessage(), exchange, null);
+    }
+
+    private static ResponseEntity<ErrorResponseDto> error(HttpStatus status, String error, String message, ServerWebExchange exchange,
+                                                          Map<String, List<String>> validationErrors) {
+        ErrorResponseDto errorResponse = new ErrorResponseDto(
+                LocalDateTime.now(),
+                status.value(),
+                error,
+                message,
+                exchange.getRequest().getPath().value(),
+                validationErrors
+        );
+        return new ResponseEntity<>(errorResponse, status);
+    }
+}
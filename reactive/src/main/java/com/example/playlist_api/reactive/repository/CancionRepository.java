@@ -0,0 +1,70 @@
+package com.example.playlist_api.reactive.repository;
+
+import com.example.playlist_api.reactive.entity.Cancion;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+@Repository
+public interface CancionRepository extends ReactiveCrudRepository<Cancion, Long> {
+
+    /** Canciones con los nombres de artista, álbum y género resueltos desde sus tablas de nombres. */
+    String SELECT_CANCIONES = "SELECT c.*, a.nombre AS artista, al.nombre AS album, g.nombre AS genero FROM canciones c "
+            + "JOIN artistas a ON a.id = c.artista_id JOIN albumes al ON al.id = c.album_id JOIN generos g ON g.id = c.genero_id ";
+
+    @Override
+    @Query(SELECT_CANCIONES + "WHERE c.id = :id")
+    Mono<Cancion> findById(Long id);
+
+    /**
+     * Canciones con esos IDs, en una única consulta {@code IN}.
+     */
+    @Query(SELECT_CANCIONES + "WHERE c.id IN (:ids)")
+    Flux<Cancion> buscarPorIds(Collection<Long> ids);
+
+    /**
+     * Canciones de una lista de reproducción, a través de la tabla de unión.
+     */
+    @Query(SELECT_CANCIONES + "JOIN lista_reproduccion_canciones lrc ON lrc.cancion_id = c.id "
+            + "WHERE lrc.lista_reproduccion_id = :listaId")
+    Flux<Cancion> findByListaReproduccionId(Long listaId);
+
+    /**
+     * Todas las canciones ordenadas por ID, para transmitirlas en orden estable.
+     */
+    @Query(SELECT_CANCIONES + "ORDER BY c.id")
+    Flux<Cancion> findAllByOrderById();
+
+    /**
+     * ID de la canción más antigua con esa huella, por el índice de huellas.
+     */
+    @Query("SELECT id FROM canciones WHERE huella = :huella ORDER BY id LIMIT 1")
+    Mono<Long> buscarIdPorHuella(String huella);
+
+    /**
+     * Como {@link #buscarIdPorHuella} pero sin tener en cuenta la canción indicada.
+     */
+    @Query("SELECT id FROM canciones WHERE huella = :huella AND id <> :id ORDER BY id LIMIT 1")
+    Mono<Long> buscarOtraIdPorHuella(String huella, Long id);
+
+    /**
+     * Descuenta la canción de las listas que la contienen e incrementa su versión; debe ir antes de {@link #quitarDeListas}.
+     */
+    @Modifying
+    @Query("UPDATE listas_reproduccion SET numero_canciones = numero_canciones - 1, version = version + 1"
+            + " WHERE id IN (SELECT lrc.lista_reproduccion_id FROM lista_reproduccion_canciones lrc WHERE lrc.cancion_id = :id)")
+    Mono<Integer> descontarDeListas(Long id);
+
+    @Modifying
+    @Query("DELETE FROM lista_reproduccion_canciones WHERE cancion_id = :id")
+    Mono<Integer> quitarDeListas(Long id);
+
+    @Modifying
+    @Query("DELETE FROM canciones WHERE id = :id")
+    Mono<Integer> borrarPorId(Long id);
+}
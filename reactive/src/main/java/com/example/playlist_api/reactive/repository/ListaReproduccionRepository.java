@@ -0,0 +1,28 @@
+package com.example.playlist_api.reactive.repository;
+
+import com.example.playlist_api.reactive.entity.ListaReproduccion;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface ListaReproduccionRepository extends ReactiveCrudRepository<ListaReproduccion, Long> {
+
+    Mono<ListaReproduccion> findByNombre(String nombre);
+
+    Mono<Boolean> existsByNombre(String nombre);
+
+    @Modifying
+    @Query("INSERT INTO lista_reproduccion_canciones (lista_reproduccion_id, cancion_id) VALUES (:listaId, :cancionId)")
+    Mono<Integer> insertarCancion(Long listaId, Long cancionId);
+
+    @Modifying
+    @Query("DELETE FROM lista_reproduccion_canciones WHERE lista_reproduccion_id = :listaId AND cancion_id = :cancionId")
+    Mono<Integer> quitarCancion(Long listaId, Long cancionId);
+
+    @Modifying
+    @Query("DELETE FROM lista_reproduccion_canciones WHERE lista_reproduccion_id = :listaId")
+    Mono<Integer> quitarCanciones(Long listaId);
+}
@@ -0,0 +1,42 @@
+package com.example.playlist_api.reactive.repository;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * IDs de las tablas de nombres ({@code artistas}, {@code albumes}, {@code generos}) que referencian las canciones.
+ * Cada consulta registra el nombre si aún no existe, dentro de la transacción de quien la pide. A diferencia de la
+ * variante MVC, no guarda los nombres en memoria.
+ */
+@Repository
+public class NombreRepository {
+
+    private final DatabaseClient databaseClient;
+
+    public NombreRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<Long> idArtista(String nombre) {
+        return idDe("artistas", nombre);
+    }
+
+    public Mono<Long> idAlbum(String nombre) {
+        return idDe("albumes", nombre);
+    }
+
+    public Mono<Long> idGenero(String nombre) {
+        return idDe("generos", nombre);
+    }
+
+    private Mono<Long> idDe(String tabla, String nombre) {
+        return databaseClient.sql("MERGE INTO " + tabla + " (nombre) KEY (nombre) VALUES (:nombre)")
+                .bind("nombre", nombre)
+                .fetch().rowsUpdated()
+                .then(databaseClient.sql("SELECT id FROM " + tabla + " WHERE nombre = :nombre")
+                        .bind("nombre", nombre)
+                        .map(fila -> fila.get("id", Long.class))
+                        .one());
+    }
+}
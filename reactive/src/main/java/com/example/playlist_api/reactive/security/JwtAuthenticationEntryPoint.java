@@ -0,0 +1,49 @@
+package com.example.playlist_api.reactive.security;
+
+import com.example.playlist_api.dto.ErrorResponseDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.server.ServerAuthenticationEntryPoint;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Equivalente reactivo del punto de entrada de la variante MVC: responde 401 (Unauthorized) con un
+ * {@link ErrorResponseDto} en JSON cuando una petición sin token válido intenta acceder a un recurso protegido.
+ */
+@Component
+public class JwtAuthenticationEntryPoint implements ServerAuthenticationEntryPoint {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Override
+    public Mono<Void> commence(ServerWebExchange exchange, AuthenticationException authException) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.UNAUTHORIZED);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+
+        ErrorResponseDto errorResponse = new ErrorResponseDto(
+                LocalDateTime.now(),
+                HttpStatus.UNAUTHORIZED.value(),
+                "Unauthorized",
+                "Se requiere autenticación para acceder a este recurso. " + authException.getMessage(),
+                exchange.getRequest().getPath().value(),
+                null
+        );
+        try {
+            DataBuffer buffer = response.bufferFactory().wrap(OBJECT_MAPPER.writeValueAsBytes(errorResponse));
+            return response.writeWith(Mono.just(buffer));
+        } catch (JsonProcessingException e) {
+            return Mono.error(e);
+        }
+    }
+}
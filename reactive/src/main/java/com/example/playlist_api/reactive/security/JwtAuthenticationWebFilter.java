@@ -0,0 +1,84 @@
+package com.example.playlist_api.reactive.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Equivalente reactivo de {@code JwtRequestFilter}: valida el token JWT del encabezado de autorización
+ * y, si es un token de acceso vigente de un usuario conocido, publica la autenticación en el contexto de Reactor
+ * para el resto de la cadena. Las peticiones sin token, o con uno inválido, siguen sin autenticar y las
+ * reglas de autorización deciden.
+ * La lista de tokens revocados vive en memoria en la variante MVC, que es la que emite los tokens: aquí
+ * un token revocado sigue siendo válido hasta que expira.
+ * No se registra como {@code @Component}: WebFlux lo añadiría también como filtro global, fuera de Spring Security.
+ */
+public class JwtAuthenticationWebFilter implements WebFilter {
+
+    private static final Log logger = LogFactory.getLog(JwtAuthenticationWebFilter.class);
+
+    // Claim con el tipo de token; los tokens sin él se consideran de acceso.
+    private static final String CLAIM_TIPO = "typ";
+    private static final String TIPO_ACCESO = "access";
+
+    private final ReactiveUserDetailsService userDetailsService;
+    private final JwtParser parser;
+    private final String authorizationHeaderName;
+    private final String jwtPrefix;
+
+    /**
+     * @param userDetailsService Servicio reactivo para cargar los detalles del usuario del token.
+     * @param secreto Clave HMAC compartida con la variante MVC.
+     * @param authorizationHeaderName Nombre del encabezado con el token (p. ej. {@code Authorization}).
+     * @param jwtPrefix Prefijo del token en el encabezado (p. ej. {@code Bearer}).
+     */
+    public JwtAuthenticationWebFilter(ReactiveUserDetailsService userDetailsService, String secreto,
+                                      String authorizationHeaderName, String jwtPrefix) {
+        this.userDetailsService = userDetailsService;
+        // El parser es inmutable y seguro entre hilos: se construye una sola vez.
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(secreto.getBytes(StandardCharsets.UTF_8)))
+                .build();
+        this.authorizationHeaderName = authorizationHeaderName;
+        this.jwtPrefix = jwtPrefix + " ";
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String authorizationHeader = exchange.getRequest().getHeaders().getFirst(authorizationHeaderName);
+        if (authorizationHeader == null || !authorizationHeader.startsWith(jwtPrefix)) {
+            return chain.filter(exchange);
+        }
+        final Claims claims;
+        try {
+            // Verifica la firma y la expiración y extrae los claims una sola vez.
+            claims = parser.parseClaimsJws(authorizationHeader.substring(jwtPrefix.length())).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.warn("Token JWT inválido: " + e.getMessage());
+            return chain.filter(exchange);
+        }
+        Object tipo = claims.get(CLAIM_TIPO);
+        if (claims.getSubject() == null || (tipo != null && !TIPO_ACCESO.equals(tipo))) {
+            return chain.filter(exchange);
+        }
+        return userDetailsService.findByUsername(claims.getSubject())
+                .map(userDetails -> ReactiveSecurityContextHolder.withAuthentication(
+                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities())))
+                .defaultIfEmpty(Context.empty())
+                .flatMap(contexto -> chain.filter(exchange).contextWrite(contexto));
+    }
+}
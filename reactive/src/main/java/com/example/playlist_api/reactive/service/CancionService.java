@@ -0,0 +1,178 @@
+package com.example.playlist_api.reactive.service;
+
+import com.example.playlist_api.dto.CancionDto;
+import com.example.playlist_api.dto.LoteResponseDto;
+import com.example.playlist_api.exception.BadRequestException;
+import com.example.playlist_api.exception.CancionDuplicadaException;
+import com.example.playlist_api.exception.PreconditionFailedException;
+import com.example.playlist_api.exception.ResourceNotFoundException;
+import com.example.playlist_api.reactive.entity.Cancion;
+import com.example.playlist_api.reactive.repository.CancionRepository;
+import com.example.playlist_api.reactive.repository.NombreRepository;
+import com.example.playlist_api.service.HuellaCancion;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Versión reactiva de las operaciones sobre canciones. Mantiene las mismas reglas y los mismos errores
+ * que la variante MVC, pero ningún método bloquea el hilo: devuelven {@link Mono} o {@link Flux}.
+ * Las lecturas no abren transacción: el driver R2DBC de H2 no admite transacciones de solo lectura.
+ */
+@Service
+public class CancionService {
+
+    /** Número máximo de IDs aceptados en una lectura por lotes. */
+    public static final int MAX_IDS_POR_LOTE = 500;
+
+    private final CancionRepository cancionRepository;
+    private final NombreRepository nombreRepository;
+    private final int prefetch;
+
+    public CancionService(CancionRepository cancionRepository, NombreRepository nombreRepository,
+                          @Value("${app.streaming.prefetch:256}") int prefetch) {
+        this.cancionRepository = cancionRepository;
+        this.nombreRepository = nombreRepository;
+        this.prefetch = prefetch;
+    }
+
+    /**
+     * Crea una canción si no existe ya otra con la misma huella, como la variante MVC.
+     */
+    @Transactional
+    public Mono<CancionDto> crearCancion(CancionDto cancionDto) {
+        Cancion cancion = mapToEntity(cancionDto);
+        return cancionRepository.buscarIdPorHuella(cancion.getHuella())
+                .flatMap(existente -> Mono.<Cancion>error(new CancionDuplicadaException(existente)))
+                .switchIfEmpty(Mono.defer(() -> guardar(cancion)))
+                .map(CancionService::mapToDto);
+    }
+
+    /**
+     * Transmite todas las canciones a medida que llegan de la base de datos. La demanda del cliente se propaga
+     * hasta R2DBC, que pide las filas de {@code prefetch} en {@code prefetch}: un cliente lento no obliga
+     * a tener todo el listado en memoria.
+     *
+     * @return Las canciones ordenadas por ID.
+     */
+    public Flux<CancionDto> obtenerTodasLasCanciones() {
+        return cancionRepository.findAllByOrderById()
+                .limitRate(prefetch)
+                .map(CancionService::mapToDto);
+    }
+
+    public Mono<CancionDto> obtenerCancionPorId(Long id) {
+        return cancionRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Cancion", "id", id.toString())))
+                .map(CancionService::mapToDto);
+    }
+
+    /**
+     * Obtiene varias canciones por ID con una única consulta {@code IN}.
+     *
+     * @param ids IDs solicitados; los duplicados se ignoran.
+     * @return Las canciones encontradas en el orden solicitado y los IDs que no existen.
+     */
+    public Mono<LoteResponseDto<CancionDto>> obtenerCancionesPorIds(List<Long> ids) {
+        LinkedHashSet<Long> idsUnicos = new LinkedHashSet<>(ids);
+        if (idsUnicos.size() > MAX_IDS_POR_LOTE) {
+            return Mono.error(new BadRequestException("No se pueden solicitar más de " + MAX_IDS_POR_LOTE + " canciones a la vez."));
+        }
+        return cancionRepository.buscarPorIds(idsUnicos)
+                .collectMap(Cancion::getId)
+                .map(porId -> {
+                    List<CancionDto> encontradas = new ArrayList<>(porId.size());
+                    List<Long> noEncontradas = new ArrayList<>();
+                    for (Long id : idsUnicos) {
+                        Cancion cancion = porId.get(id);
+                        if (cancion != null) {
+                            encontradas.add(mapToDto(cancion));
+                        } else {
+                            noEncontradas.add(id);
+                        }
+                    }
+                    return new LoteResponseDto<>(encontradas, noEncontradas);
+                });
+    }
+
+    /**
+     * Actualiza una canción comprobando que su versión actual coincide con la esperada por el cliente.
+     *
+     * @param id ID de la canción a actualizar.
+     * @param cancionDto DTO con los nuevos datos.
+     * @param versionEsperada Versión que el cliente leyó ({@code If-Match}); {@code null} para no comprobarla.
+     * @return La canción actualizada con su nueva versión.
+     */
+    @Transactional
+    public Mono<CancionDto> actualizarCancion(Long id, CancionDto cancionDto, Long versionEsperada) {
+        return cancionRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Cancion", "id", id.toString())))
+                .flatMap(existente -> {
+                    if (versionEsperada != null && !versionEsperada.equals(existente.getVersion())) {
+                        return Mono.error(new PreconditionFailedException("Cancion", id.toString(), versionEsperada, existente.getVersion()));
+                    }
+                    existente.setTitulo(cancionDto.getTitulo());
+                    existente.setArtista(cancionDto.getArtista());
+                    existente.setAlbum(cancionDto.getAlbum());
+                    existente.setAnno(cancionDto.getAnno());
+                    existente.setGenero(cancionDto.getGenero());
+                    String huella = HuellaCancion.de(cancionDto.getTitulo(), cancionDto.getArtista(), cancionDto.getAlbum());
+                    if (huella.equals(existente.getHuella())) {
+                        return guardar(existente);
+                    }
+                    existente.setHuella(huella);
+                    return cancionRepository.buscarOtraIdPorHuella(huella, id)
+                            .flatMap(otra -> Mono.<Cancion>error(new CancionDuplicadaException(otra)))
+                            .switchIfEmpty(Mono.defer(() -> guardar(existente)));
+                })
+                .map(CancionService::mapToDto);
+    }
+
+    /**
+     * Elimina una canción y la quita de todas sus listas con sentencias por conjuntos, como la variante MVC.
+     */
+    @Transactional
+    public Mono<Void> eliminarCancion(Long id) {
+        return cancionRepository.descontarDeListas(id)
+                .then(cancionRepository.quitarDeListas(id))
+                .then(cancionRepository.borrarPorId(id))
+                .flatMap(borradas -> borradas == 0
+                        ? Mono.error(new ResourceNotFoundException("Cancion", "id", id.toString()))
+                        : Mono.empty());
+    }
+
+    /**
+     * Resuelve los IDs de artista, álbum y género en sus tablas de nombres y guarda la canción. Las consultas van
+     * una detrás de otra porque comparten la conexión de la transacción.
+     */
+    private Mono<Cancion> guardar(Cancion cancion) {
+        return nombreRepository.idArtista(cancion.getArtista()).doOnNext(cancion::setArtistaId)
+                .then(nombreRepository.idAlbum(cancion.getAlbum())).doOnNext(cancion::setAlbumId)
+                .then(nombreRepository.idGenero(cancion.getGenero())).doOnNext(cancion::setGeneroId)
+                .then(Mono.defer(() -> cancionRepository.save(cancion)));
+    }
+
+    static CancionDto mapToDto(Cancion cancion) {
+        return new CancionDto(
+                cancion.getId(),
+                cancion.getTitulo(),
+                cancion.getArtista(),
+                cancion.getAlbum(),
+                cancion.getAnno(),
+                cancion.getGenero(),
+                cancion.getVersion()
+        );
+    }
+
+    private static Cancion mapToEntity(CancionDto cancionDto) {
+        return new Cancion(null, cancionDto.getTitulo(), null, null, cancionDto.getAnno(), null, null,
+                HuellaCancion.de(cancionDto.getTitulo(), cancionDto.getArtista(), cancionDto.getAlbum()),
+                cancionDto.getArtista(), cancionDto.getAlbum(), cancionDto.getGenero());
+    }
+}
@@ -0,0 +1,366 @@
+package com.example.playlist_api.reactive.service;
+
+import com.example.playlist_api.dto.CancionDto;
+import com.example.playlist_api.dto.ListaReproduccionRequestDto;
+import com.example.playlist_api.dto.ListaReproduccionResponseDto;
+import com.example.playlist_api.dto.LoteResponseDto;
+import com.example.playlist_api.exception.BadRequestException;
+import com.example.playlist_api.exception.PreconditionFailedException;
+import com.example.playlist_api.exception.ResourceNotFoundException;
+import com.example.playlist_api.reactive.entity.Cancion;
+import com.example.playlist_api.reactive.entity.ListaReproduccion;
+import com.example.playlist_api.reactive.repository.CancionRepository;
+import com.example.playlist_api.reactive.repository.ListaReproduccionRepository;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Versión reactiva de las operaciones sobre listas de reproducción. La relación con las canciones no la gestiona
+ * un ORM: se lee con un {@code JOIN} y se escribe directamente en {@code lista_reproduccion_canciones}.
+ * Cualquier cambio en las canciones de una lista guarda también la lista, de modo que su versión aumenta
+ * igual que con JPA y las escrituras concurrentes se detectan por {@code @Version}.
+ */
+@Service
+public class ListaReproduccionService {
+
+    /**
+     * Número máximo de intentos para las operaciones conmutativas (añadir o quitar una canción)
+     * que fallan por un conflicto de versión con otra escritura concurrente.
+     */
+    static final int MAX_INTENTOS_OPTIMISTAS = 3;
+
+    /** Listas con sus canciones en una sola consulta; las filas de una misma lista salen consecutivas. */
+    private static final String SELECT_LISTAS_CON_CANCIONES =
+            "SELECT l.id, l.nombre, l.descripcion, l.version, "
+            + "c.id AS cancion_id, c.titulo, a.nombre AS artista, al.nombre AS album, c.anno, g.nombre AS genero, "
+            + "c.version AS cancion_version "
+            + "FROM listas_reproduccion l "
+            + "LEFT JOIN lista_reproduccion_canciones lrc ON lrc.lista_reproduccion_id = l.id "
+            + "LEFT JOIN canciones c ON c.id = lrc.cancion_id "
+            + "LEFT JOIN artistas a ON a.id = c.artista_id "
+            + "LEFT JOIN albumes al ON al.id = c.album_id "
+            + "LEFT JOIN generos g ON g.id = c.genero_id ";
+
+    private final ListaReproduccionRepository listaReproduccionRepository;
+    private final CancionRepository cancionRepository;
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+    private final int prefetch;
+
+    public ListaReproduccionService(ListaReproduccionRepository listaReproduccionRepository, CancionRepository cancionRepository,
+                                    DatabaseClient databaseClient, ReactiveTransactionManager transactionManager,
+                                    @Value("${app.streaming.prefetch:256}") int prefetch) {
+        this.listaReproduccionRepository = listaReproduccionRepository;
+        this.cancionRepository = cancionRepository;
+        this.databaseClient = databaseClient;
+        this.transactionalOperator = TransactionalOperator.create(transactionManager);
+        this.prefetch = prefetch;
+    }
+
+    /**
+     * Crea una lista de reproducción. La unicidad del nombre la garantiza la restricción
+     * {@link ListaReproduccion#UK_NOMBRE}: un nombre duplicado se propaga como {@link DataIntegrityViolationException}.
+     */
+    @Transactional
+    public Mono<ListaReproduccionResponseDto> crearListaReproduccion(ListaReproduccionRequestDto listaReproduccionRequestDto) {
+        return buscarCanciones(listaReproduccionRequestDto.getCancionIds())
+                .flatMap(canciones -> listaReproduccionRepository
+                        .save(new ListaReproduccion(null, listaReproduccionRequestDto.getNombre(), listaReproduccionRequestDto.getDescripcion(), null, canciones.size()))
+                        .flatMap(lista -> insertarCanciones(lista.getId(), canciones).thenReturn(mapToResponseDto(lista, canciones))));
+    }
+
+    @Transactional
+    public Mono<ListaReproduccionResponseDto> crearListaReproduccionConCancion(String nombreLista, String descripcionLista, Long idCancion) {
+        return crearListaReproduccion(new ListaReproduccionRequestDto(nombreLista, descripcionLista, Set.of(idCancion)));
+    }
+
+    /**
+     * Crea la lista de reproducción si no existe ninguna con el mismo nombre; en caso contrario devuelve la existente.
+     * Si una petición concurrente gana la carrera del INSERT, la restricción única lo detecta y se devuelve la lista creada por ella.
+     *
+     * @param listaReproduccionRequestDto DTO con los datos de la lista (el nombre actúa como clave).
+     * @return El resultado con la lista y si fue creada por esta petición.
+     */
+    public Mono<ResultadoCreacionLista> crearListaReproduccionSiNoExiste(ListaReproduccionRequestDto listaReproduccionRequestDto) {
+        String nombre = listaReproduccionRequestDto.getNombre();
+        Mono<ResultadoCreacionLista> existente = listaReproduccionRepository.findByNombre(nombre)
+                .flatMap(this::conCanciones)
+                .map(lista -> new ResultadoCreacionLista(lista, false));
+        return existente.switchIfEmpty(Mono.defer(() -> crearListaReproduccion(listaReproduccionRequestDto)
+                .as(transactionalOperator::transactional)
+                .map(lista -> new ResultadoCreacionLista(lista, true))
+                .onErrorResume(DataIntegrityViolationException.class, e -> existente.switchIfEmpty(Mono.error(e)))));
+    }
+
+    /**
+     * Transmite todas las listas de reproducción con sus canciones. Se lee una única consulta ordenada por lista
+     * y cada lista se emite en cuanto llegan todas sus filas, con la demanda del cliente propagada hasta R2DBC.
+     *
+     * @return Las listas ordenadas por ID.
+     */
+    public Flux<ListaReproduccionResponseDto> obtenerTodasLasListasReproduccion() {
+        return databaseClient.sql(SELECT_LISTAS_CON_CANCIONES + "ORDER BY l.id")
+                .map(ListaReproduccionService::leerFila)
+                .all()
+                .limitRate(prefetch)
+                .bufferUntilChanged(FilaListaCancion::listaId)
+                .map(ListaReproduccionService::agruparFilas);
+    }
+
+    /**
+     * Obtiene varias listas de reproducción por ID, con sus canciones, en una única consulta {@code IN}.
+     *
+     * @param ids IDs solicitados; los duplicados se ignoran.
+     * @return Las listas encontradas en el orden solicitado y los IDs que no existen.
+     */
+    public Mono<LoteResponseDto<ListaReproduccionResponseDto>> obtenerListasReproduccionPorIds(List<Long> ids) {
+        LinkedHashSet<Long> idsUnicos = new LinkedHashSet<>(ids);
+        if (idsUnicos.size() > CancionService.MAX_IDS_POR_LOTE) {
+            return Mono.error(new BadRequestException("No se pueden solicitar más de " + CancionService.MAX_IDS_POR_LOTE + " listas de reproducción a la vez."));
+        }
+        if (idsUnicos.isEmpty()) {
+            return Mono.just(new LoteResponseDto<>(List.of(), List.of()));
+        }
+        return databaseClient.sql(SELECT_LISTAS_CON_CANCIONES + "WHERE l.id IN (:ids) ORDER BY l.id")
+                .bind("ids", idsUnicos)
+                .map(ListaReproduccionService::leerFila)
+                .all()
+                .bufferUntilChanged(FilaListaCancion::listaId)
+                .map(ListaReproduccionService::agruparFilas)
+                .collectMap(ListaReproduccionResponseDto::getId)
+                .map(porId -> {
+                    List<ListaReproduccionResponseDto> encontradas = new ArrayList<>(porId.size());
+                    List<Long> noEncontradas = new ArrayList<>();
+                    for (Long id : idsUnicos) {
+                        ListaReproduccionResponseDto lista = porId.get(id);
+                        if (lista != null) {
+                            encontradas.add(lista);
+                        } else {
+                            noEncontradas.add(id);
+                        }
+                    }
+                    return new LoteResponseDto<>(encontradas, noEncontradas);
+                });
+    }
+
+    public Mono<ListaReproduccionResponseDto> obtenerListaReproduccionPorNombre(String nombre) {
+        return listaReproduccionRepository.findByNombre(nombre)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("ListaReproduccion", "nombre", nombre)))
+                .flatMap(this::conCanciones);
+    }
+
+    public Mono<ListaReproduccionResponseDto> obtenerListaReproduccionPorId(Long id) {
+        return buscarLista(id).flatMap(this::conCanciones);
+    }
+
+    /**
+     * Actualiza una lista de reproducción comprobando que su versión actual coincide con la esperada por el cliente.
+     *
+     * @param id ID de la lista de reproducción a actualizar.
+     * @param listaReproduccionRequestDto DTO con los nuevos datos.
+     * @param versionEsperada Versión que el cliente leyó ({@code If-Match}); {@code null} para no comprobarla.
+     * @return La lista actualizada con su nueva versión.
+     */
+    @Transactional
+    public Mono<ListaReproduccionResponseDto> actualizarListaReproduccion(Long id, ListaReproduccionRequestDto listaReproduccionRequestDto, Long versionEsperada) {
+        String nombre = listaReproduccionRequestDto.getNombre();
+        return buscarLista(id)
+                .flatMap(existente -> {
+                    if (versionEsperada != null && !versionEsperada.equals(existente.getVersion())) {
+                        return Mono.error(new PreconditionFailedException("ListaReproduccion", id.toString(), versionEsperada, existente.getVersion()));
+                    }
+                    Mono<Boolean> nombreOcupado = existente.getNombre().equals(nombre)
+                            ? Mono.just(false)
+                            : listaReproduccionRepository.existsByNombre(nombre);
+                    return nombreOcupado.flatMap(ocupado -> ocupado
+                            ? Mono.error(new BadRequestException("Ya existe otra lista de reproducción con el nombre: " + nombre))
+                            : Mono.just(existente));
+                })
+                .zipWhen(existente -> buscarCanciones(listaReproduccionRequestDto.getCancionIds()))
+                .flatMap(listaYCanciones -> {
+                    ListaReproduccion existente = listaYCanciones.getT1();
+                    List<Cancion> canciones = listaYCanciones.getT2();
+                    existente.setNombre(nombre);
+                    existente.setDescripcion(listaReproduccionRequestDto.getDescripcion());
+                    existente.setNumeroCanciones(canciones.size());
+                    return listaReproduccionRepository.quitarCanciones(id)
+                            .then(insertarCanciones(id, canciones))
+                            .then(listaReproduccionRepository.save(existente))
+                            .map(guardada -> mapToResponseDto(guardada, canciones));
+                });
+    }
+
+    /**
+     * Añade una canción a una lista de reproducción. Al ser una operación conmutativa, si otra escritura
+     * concurrente modifica la lista se reintenta en una nueva transacción hasta {@link #MAX_INTENTOS_OPTIMISTAS} veces.
+     *
+     * @param id ID de la lista de reproducción.
+     * @param idCancion ID de la canción a añadir.
+     * @return La lista de reproducción actualizada.
+     */
+    public Mono<ListaReproduccionResponseDto> agregarCancion(Long id, Long idCancion) {
+        return conReintentosOptimistas(() -> buscarLista(id)
+                .zipWith(cancionRepository.findById(idCancion)
+                        .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Cancion", "id", idCancion.toString()))))
+                .flatMap(listaYCancion -> cancionRepository.findByListaReproduccionId(id).collectList()
+                        .flatMap(canciones -> {
+                            if (canciones.stream().anyMatch(c -> idCancion.equals(c.getId()))) {
+                                return Mono.just(mapToResponseDto(listaYCancion.getT1(), canciones));
+                            }
+                            canciones.add(listaYCancion.getT2());
+                            listaYCancion.getT1().setNumeroCanciones(canciones.size());
+                            return listaReproduccionRepository.insertarCancion(id, idCancion)
+                                    .then(listaReproduccionRepository.save(listaYCancion.getT1()))
+                                    .map(guardada -> mapToResponseDto(guardada, canciones));
+                        })));
+    }
+
+    /**
+     * Quita una canción de una lista de reproducción, con los mismos reintentos que {@link #agregarCancion}.
+     *
+     * @param id ID de la lista de reproducción.
+     * @param idCancion ID de la canción a quitar.
+     * @return La lista de reproducción actualizada.
+     */
+    public Mono<ListaReproduccionResponseDto> quitarCancion(Long id, Long idCancion) {
+        return conReintentosOptimistas(() -> buscarLista(id)
+                .flatMap(lista -> cancionRepository.findByListaReproduccionId(id).collectList()
+                        .flatMap(canciones -> {
+                            if (!canciones.removeIf(c -> idCancion.equals(c.getId()))) {
+                                return Mono.error(new ResourceNotFoundException("Cancion", "id", idCancion.toString()));
+                            }
+                            lista.setNumeroCanciones(canciones.size());
+                            return listaReproduccionRepository.quitarCancion(id, idCancion)
+                                    .then(listaReproduccionRepository.save(lista))
+                                    .map(guardada -> mapToResponseDto(guardada, canciones));
+                        })));
+    }
+
+    private <T> Mono<T> conReintentosOptimistas(Supplier<Mono<T>> operacion) {
+        return Mono.defer(operacion)
+                .as(transactionalOperator::transactional)
+                .retryWhen(Retry.max(MAX_INTENTOS_OPTIMISTAS - 1)
+                        .filter(OptimisticLockingFailureException.class::isInstance)
+                        .onRetryExhaustedThrow((spec, senal) -> senal.failure()));
+    }
+
+    @Transactional
+    public Mono<Void> eliminarListaReproduccionPorNombre(String nombre) {
+        return listaReproduccionRepository.findByNombre(nombre)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("ListaReproduccion", "nombre", nombre)))
+                .flatMap(this::eliminar);
+    }
+
+    @Transactional
+    public Mono<Void> eliminarListaReproduccionPorId(Long id) {
+        return buscarLista(id).flatMap(this::eliminar);
+    }
+
+    private Mono<Void> eliminar(ListaReproduccion listaReproduccion) {
+        return listaReproduccionRepository.quitarCanciones(listaReproduccion.getId())
+                .then(listaReproduccionRepository.delete(listaReproduccion));
+    }
+
+    private Mono<ListaReproduccion> buscarLista(Long id) {
+        return listaReproduccionRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("ListaReproduccion", "id", id.toString())));
+    }
+
+    /**
+     * Carga las canciones indicadas con una consulta {@code IN}; si falta alguna, falla con la primera que no existe.
+     */
+    private Mono<List<Cancion>> buscarCanciones(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return Mono.just(new ArrayList<>());
+        }
+        return cancionRepository.buscarPorIds(ids).collectList()
+                .flatMap(canciones -> {
+                    Set<Long> encontradas = canciones.stream().map(Cancion::getId).collect(Collectors.toSet());
+                    for (Long id : ids) {
+                        if (!encontradas.contains(id)) {
+                            return Mono.error(new ResourceNotFoundException("Cancion", "id", id.toString()));
+                        }
+                    }
+                    return Mono.just(canciones);
+                });
+    }
+
+    private Mono<Void> insertarCanciones(Long listaId, List<Cancion> canciones) {
+        return Flux.fromIterable(canciones)
+                .concatMap(cancion -> listaReproduccionRepository.insertarCancion(listaId, cancion.getId()))
+                .then();
+    }
+
+    private Mono<ListaReproduccionResponseDto> conCanciones(ListaReproduccion listaReproduccion) {
+        return cancionRepository.findByListaReproduccionId(listaReproduccion.getId())
+                .collectList()
+                .map(canciones -> mapToResponseDto(listaReproduccion, canciones));
+    }
+
+    private static ListaReproduccionResponseDto mapToResponseDto(ListaReproduccion listaReproduccion, List<Cancion> canciones) {
+        Set<CancionDto> cancionDtos = canciones.stream()
+                .map(CancionService::mapToDto)
+                .collect(Collectors.toSet());
+        return new ListaReproduccionResponseDto(
+                listaReproduccion.getId(),
+                listaReproduccion.getNombre(),
+                listaReproduccion.getDescripcion(),
+                cancionDtos,
+                listaReproduccion.getVersion()
+        );
+    }
+
+    /**
+     * Una fila de {@link #SELECT_LISTAS_CON_CANCIONES}: los datos de la lista y, si la tiene, una de sus canciones.
+     */
+    private record FilaListaCancion(Long listaId, String nombre, String descripcion, Long version, CancionDto cancion) {
+    }
+
+    private static FilaListaCancion leerFila(Readable fila) {
+        Long cancionId = fila.get("cancion_id", Long.class);
+        CancionDto cancion = cancionId == null ? null : new CancionDto(
+                cancionId,
+                fila.get("titulo", String.class),
+                fila.get("artista", String.class),
+                fila.get("album", String.class),
+                fila.get("anno", String.class),
+                fila.get("genero", String.class),
+                fila.get("cancion_version", Long.class));
+        return new FilaListaCancion(
+                fila.get("id", Long.class),
+                fila.get("nombre", String.class),
+                fila.get("descripcion", String.class),
+                fila.get("version", Long.class),
+                cancion);
+    }
+
+    private static ListaReproduccionResponseDto agruparFilas(List<FilaListaCancion> filas) {
+        FilaListaCancion primera = filas.get(0);
+        Set<CancionDto> canciones = new HashSet<>();
+        for (FilaListaCancion fila : filas) {
+            if (fila.cancion() != null) {
+                canciones.add(fila.cancion());
+            }
+        }
+        return new ListaReproduccionResponseDto(primera.listaId(), primera.nombre(), primera.descripcion(), canciones, primera.version());
+    }
+}
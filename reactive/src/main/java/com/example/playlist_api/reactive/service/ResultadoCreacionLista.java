@@ -0,0 +1,9 @@
+package com.example.playlist_api.reactive.service;
+
+import com.example.playlist_api.dto.ListaReproduccionResponseDto;
+
+/**
+ * Resultado de {@link ListaReproduccionService#crearListaReproduccionSiNoExiste}: la lista y si fue creada por la petición.
+ */
+public record ResultadoCreacionLista(ListaReproduccionResponseDto listaReproduccion, boolean creada) {
+}
@@ -0,0 +1,277 @@
+package com.example.playlist_api.reactive;
+
+import com.example.playlist_api.dto.CancionDto;
+import com.example.playlist_api.dto.ListaReproduccionRequestDto;
+import com.example.playlist_api.dto.ListaReproduccionResponseDto;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Sin apagado ordenado: al cerrar el contexto, Netty se quedaba a veces esperando a una conexión del WebTestClient
+// y Surefire tenía que matar la JVM a los 30 s.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.r2dbc.url=r2dbc:h2:mem:///api-reactiva;DB_CLOSE_DELAY=-1",
+        "spring.flyway.url=jdbc:h2:mem:api-reactiva;DB_CLOSE_DELAY=-1",
+        "server.shutdown=immediate"})
+class ApiReactivaTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Value("${jwt.secret}")
+    private String secreto;
+
+    /** Token con el mismo formato que emite {@code JwtUtil} en la variante MVC. */
+    private String token(String usuario, String roles, String tipo) {
+        long ahora = System.currentTimeMillis();
+        return Jwts.builder()
+                .setClaims(Map.of("roles", roles, "typ", tipo))
+                .setSubject(usuario)
+                .setId(UUID.randomUUID().toString())
+                .setIssuedAt(new Date(ahora))
+                .setExpiration(new Date(ahora + 60_000))
+                .signWith(Keys.hmacShaKeyFor(secreto.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS512)
+                .compact();
+    }
+
+    private String admin() {
+        return "Bearer " + token("admin", "ROLE_ADMIN", "access");
+    }
+
+    private CancionDto crearCancion(String titulo) {
+        return webTestClient.post().uri("/api/canciones")
+                .header(HttpHeaders.AUTHORIZATION, admin())
+                .bodyValue(new CancionDto(null, titulo, "Artista", "Album", "2024", "Rock"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(CancionDto.class)
+                .returnResult().getResponseBody();
+    }
+
+    @Test
+    void sinTokenOConTokenDeRefresco_responde401() {
+        webTestClient.get().uri("/api/canciones").exchange().expectStatus().isUnauthorized();
+        webTestClient.get().uri("/api/canciones")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token("admin", "ROLE_ADMIN", "refresh"))
+                .exchange()
+                .expectStatus().isUnauthorized()
+                .expectBody().jsonPath("$.status").isEqualTo(401);
+    }
+
+    @Test
+    void usuarioSinRolAdmin_noPuedeCrear() {
+        webTestClient.post().uri("/api/canciones")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token("user", "ROLE_USER", "access"))
+                .bodyValue(new CancionDto(null, "T", "A", "B", "2024", "Pop"))
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    void cancion_crearLeerYActualizarConIfMatch() {
+        CancionDto creada = crearCancion("Reactiva");
+        assertNotNull(creada.getId());
+
+        webTestClient.get().uri("/api/canciones/{id}", creada.getId())
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token("user", "ROLE_USER", "access"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"" + creada.getVersion() + "\"")
+                .expectBody().jsonPath("$.titulo").isEqualTo("Reactiva");
+
+        CancionDto cambios = new CancionDto(null, "Reactiva 2", "Artista", "Album", "2024", "Rock");
+        webTestClient.put().uri("/api/canciones/{id}", creada.getId())
+                .header(HttpHeaders.AUTHORIZATION, admin())
+                .header(HttpHeaders.IF_MATCH, "\"" + creada.getVersion() + "\"")
+                .bodyValue(cambios)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.version").isEqualTo(creada.getVersion() + 1);
+        webTestClient.put().uri("/api/canciones/{id}", creada.getId())
+                .header(HttpHeaders.AUTHORIZATION, admin())
+                .header(HttpHeaders.IF_MATCH, "\"" + creada.getVersion() + "\"")
+                .bodyValue(cambios)
+                .exchange()
+                .expectStatus().isEqualTo(412);
+
+        webTestClient.get().uri("/api/canciones/{id}", 999_999)
+                .header(HttpHeaders.AUTHORIZATION, admin())
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody().jsonPath("$.path").isEqualTo("/api/canciones/999999");
+    }
+
+    @Test
+    void cancion_duplicadaSalvoMayusculasYAcentos_responde409() {
+        CancionDto original = crearCancion("Canción duplicada");
+        webTestClient.post().uri("/api/canciones")
+                .header(HttpHeaders.AUTHORIZATION, admin())
+                .bodyValue(new CancionDto(null, "CANCION  duplicada", "artista", "ALBUM", "1999", "Jazz"))
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody()
+                .jsonPath("$.message").value(mensaje -> assertTrue(mensaje.toString().contains("'" + original.getId() + "'")));
+    }
+
+    @Test
+    void cancion_datosInvalidos_responde400ConErroresDeValidacion() {
+        webTestClient.post().uri("/api/canciones")
+                .header(HttpHeaders.AUTHORIZATION, admin())
+                .bodyValue(new CancionDto(null, "", "A", "B", "2024", "Pop"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.validationErrors.titulo").exists();
+    }
+
+    @Test
+    void lista_crearAgregarQuitarYEliminar() {
+        CancionDto c1 = crearCancion("Uno");
+        CancionDto c2 = crearCancion("Dos");
+
+        ListaReproduccionResponseDto lista = webTestClient.post().uri("/api/listas")
+                .header(HttpHeaders.AUTHORIZATION, admin())
+                .bodyValue(new ListaReproduccionRequestDto("Reactiva", "Desc", Set.of(c1.getId())))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(ListaReproduccionResponseDto.class)
+                .returnResult().getResponseBody();
+        assertEquals(1, lista.getCanciones().size());
+
+        webTestClient.post().uri("/api/listas")
+                .header(HttpHeaders.AUTHORIZATION, admin())
+                .bodyValue(new ListaReproduccionRequestDto("Reactiva", "Otra", null))
+                .exchange()
+                .expectStatus().isEqualTo(409);
+
+        ListaReproduccionResponseDto conDos = webTestClient.post().uri("/api/listas/{id}/canciones/{idCancion}", lista.getId(), c2.getId())
+                .header(HttpHeaders.AUTHORIZATION, admin())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ListaReproduccionResponseDto.class)
+                .returnResult().getResponseBody();
+        assertEquals(2, conDos.getCanciones().size());
+        assertTrue(conDos.getVersion() > lista.getVersion());
+
+        webTestClient.delete().uri("/api/listas/{id}/canciones/{idCancion}", lista.getId(), c1.getId())
+                .header(HttpHeaders.AUTHORIZATION, admin())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.canciones.length()").isEqualTo(1);
+
+        webTestClient.get().uri("/api/listas/porNombre/Reactiva")
+                .header(HttpHeaders.AUTHORIZATION, admin())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.canciones[0].titulo").isEqualTo("Dos");
+
+        webTestClient.delete().uri("/api/listas/{id}", lista.getId())
+                .header(HttpHeaders.AUTHORIZATION, admin())
+                .exchange()
+                .expectStatus().isNoContent();
+        webTestClient.get().uri("/api/listas/{id}", lista.getId())
+                .header(HttpHeaders.AUTHORIZATION, admin())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void eliminarCancion_enVariasListas_laQuitaDeTodasYSubeSuVersion() {
+        CancionDto compartida = crearCancion("Compartida");
+        CancionDto otra = crearCancion("Otra");
+        List<ListaReproduccionResponseDto> listas = List.of("Con compartida 1", "Con compartida 2").stream()
+                .map(nombre -> webTestClient.post().uri("/api/listas")
+                        .header(HttpHeaders.AUTHORIZATION, admin())
+                        .bodyValue(new ListaReproduccionRequestDto(nombre, null, Set.of(compartida.getId(), otra.getId())))
+                        .exchange()
+                        .expectStatus().isCreated()
+                        .expectBody(ListaReproduccionResponseDto.class)
+                        .returnResult().getResponseBody())
+                .toList();
+
+        webTestClient.delete().uri("/api/canciones/{id}", compartida.getId())
+                .header(HttpHeaders.AUTHORIZATION, admin())
+                .exchange()
+                .expectStatus().isNoContent();
+
+        for (ListaReproduccionResponseDto lista : listas) {
+            webTestClient.get().uri("/api/listas/{id}", lista.getId())
+                    .header(HttpHeaders.AUTHORIZATION, admin())
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody()
+                    .jsonPath("$.canciones.length()").isEqualTo(1)
+                    .jsonPath("$.canciones[0].titulo").isEqualTo("Otra")
+                    .jsonPath("$.version").isEqualTo(lista.getVersion() + 1);
+        }
+        webTestClient.delete().uri("/api/canciones/{id}", compartida.getId())
+                .header(HttpHeaders.AUTHORIZATION, admin())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void listados_seTransmitenComoNdjson() {
+        CancionDto cancion = crearCancion("Stream");
+        webTestClient.post().uri("/api/listas")
+                .header(HttpHeaders.AUTHORIZATION, admin())
+                .bodyValue(new ListaReproduccionRequestDto("Stream", null, Set.of(cancion.getId())))
+                .exchange()
+                .expectStatus().isCreated();
+
+        Flux<CancionDto> canciones = webTestClient.get().uri("/api/canciones")
+                .header(HttpHeaders.AUTHORIZATION, admin())
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(CancionDto.class)
+                .getResponseBody();
+        StepVerifier.create(canciones.filter(c -> c.getId().equals(cancion.getId())))
+                .expectNextMatches(c -> c.getTitulo().equals("Stream"))
+                .verifyComplete();
+
+        List<ListaReproduccionResponseDto> listas = webTestClient.get().uri("/api/listas")
+                .header(HttpHeaders.AUTHORIZATION, admin())
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(ListaReproduccionResponseDto.class)
+                .getResponseBody()
+                .filter(l -> l.getNombre().equals("Stream"))
+                .collectList()
+                .block();
+        assertEquals(1, listas.size());
+        assertEquals(Set.of(cancion.getId()), Set.of(listas.get(0).getCanciones().iterator().next().getId()));
+    }
+
+    @Test
+    void lecturaPorLotes_devuelveEncontradasYNoEncontradas() {
+        CancionDto cancion = crearCancion("Lote");
+
+        webTestClient.get().uri("/api/canciones?ids={a},{b}", cancion.getId(), 987_654)
+                .header(HttpHeaders.AUTHORIZATION, admin())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.elementos[0].id").isEqualTo(cancion.getId())
+                .jsonPath("$.idsNoEncontrados[0]").isEqualTo(987_654);
+    }
+}
@@ -0,0 +1,277 @@
+package com.example.playlist_api.reactive.benchmark;
+
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compara la variante MVC (Tomcat + JPA) con la reactiva (Netty + R2DBC) bajo la misma carga: cada aplicación
+ * se arranca sola, en su propio proceso, con los mismos datos (canciones y listas creadas por HTTP), y recibe
+ * las mismas peticiones desde {@value #CLIENTES} clientes concurrentes. El token lo emite la variante MVC y sirve
+ * para las dos, que comparten la clave JWT.
+ * Necesita los dos jars: {@code ./mvnw package -DskipTests} en la raíz y {@code ../mvnw package -DskipTests} aquí;
+ * después {@code ../mvnw test -Dgroups=benchmark -Dbenchmark.excluded= -Dtest=CargaMvcVsReactivaBenchmarkTest}.
+ */
+@Tag("benchmark")
+class CargaMvcVsReactivaBenchmarkTest {
+
+    private static final Path JAR_MVC = Path.of("..", "target", "playlist-api-0.0.1-SNAPSHOT.jar");
+    private static final Path JAR_REACTIVA = Path.of("target", "playlist-api-reactive-0.0.1-SNAPSHOT.jar");
+    private static final String LOGIN = "{\"username\":\"admin\",\"password\":\"adminpass\"}";
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+    private static final int CANCIONES = 200;
+    private static final int LISTAS = 20;
+    private static final int CANCIONES_POR_LISTA = 10;
+    private static final int CLIENTES = 64;
+    private static final Duration CALENTAMIENTO = Duration.ofSeconds(5);
+    private static final Duration MEDICION = Duration.ofSeconds(10);
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(500))
+            .executor(Executors.newFixedThreadPool(CLIENTES))
+            .build();
+
+    @Test
+    void compararMvcYReactivaBajoLaMismaCarga() throws Exception {
+        Assumptions.assumeTrue(Files.exists(JAR_MVC), "Falta el jar MVC: ./mvnw package en la raíz");
+        Assumptions.assumeTrue(Files.exists(JAR_REACTIVA), "Falta el jar reactivo: ../mvnw package");
+
+        String token;
+        List<Resultado> mvc;
+        try (Aplicacion aplicacion = Aplicacion.arrancar(JAR_MVC,
+                "--spring.jpa.show-sql=false", "--app.rate-limit.enabled=false", "--app.concurrency.enabled=false")) {
+            token = login(aplicacion.base());
+            mvc = medir(aplicacion, token);
+        }
+        List<Resultado> reactiva;
+        try (Aplicacion aplicacion = Aplicacion.arrancar(JAR_REACTIVA)) {
+            reactiva = medir(aplicacion, token);
+        }
+
+        for (int i = 0; i < mvc.size(); i++) {
+            System.out.printf("MVC      %s%n", mvc.get(i));
+            System.out.printf("reactiva %s%n", reactiva.get(i));
+        }
+    }
+
+    private List<Resultado> medir(Aplicacion aplicacion, String token) throws Exception {
+        String base = aplicacion.base();
+        long[] idsCanciones = new long[CANCIONES];
+        for (int i = 0; i < CANCIONES; i++) {
+            idsCanciones[i] = crear(base + "/api/canciones", token, String.format(
+                    "{\"titulo\":\"Cancion %d\",\"artista\":\"Artista %d\",\"album\":\"Album\",\"anno\":\"2024\",\"genero\":\"Rock\"}", i, i % 20));
+        }
+        long[] idsListas = new long[LISTAS];
+        for (int i = 0; i < LISTAS; i++) {
+            StringBuilder ids = new StringBuilder();
+            for (int j = 0; j < CANCIONES_POR_LISTA; j++) {
+                ids.append(j == 0 ? "" : ",").append(idsCanciones[(i * CANCIONES_POR_LISTA + j) % CANCIONES]);
+            }
+            idsListas[i] = crear(base + "/api/listas", token,
+                    String.format("{\"nombre\":\"Lista %d\",\"descripcion\":\"Desc\",\"cancionIds\":[%s]}", i, ids));
+        }
+
+        List<Resultado> resultados = new ArrayList<>();
+        resultados.add(carga(aplicacion, "GET /api/canciones/{id}", token,
+                () -> base + "/api/canciones/" + idsCanciones[ThreadLocalRandom.current().nextInt(CANCIONES)]));
+        resultados.add(carga(aplicacion, "GET /api/listas/{id}   ", token,
+                () -> base + "/api/listas/" + idsListas[ThreadLocalRandom.current().nextInt(LISTAS)]));
+        resultados.add(carga(aplicacion, "GET /api/canciones     ", token, () -> base + "/api/canciones"));
+        return resultados;
+    }
+
+    /**
+     * Lanza {@value #CLIENTES} clientes que repiten peticiones sin pausa; descarta el calentamiento y mide
+     * peticiones por segundo y latencias durante {@link #MEDICION}.
+     */
+    private Resultado carga(Aplicacion aplicacion, String nombre, String token, Supplier<String> uri) throws Exception {
+        ExecutorService clientes = Executors.newFixedThreadPool(CLIENTES);
+        try {
+            long inicioMedicion = System.nanoTime() + CALENTAMIENTO.toNanos();
+            long fin = inicioMedicion + MEDICION.toNanos();
+            List<Future<long[]>> futuros = new ArrayList<>();
+            for (int c = 0; c < CLIENTES; c++) {
+                futuros.add(clientes.submit(() -> {
+                    long[] latencias = new long[1024];
+                    int n = 0;
+                    int errores = 0;
+                    while (true) {
+                        long t0 = System.nanoTime();
+                        if (t0 >= fin) {
+                            break;
+                        }
+                        HttpRequest peticion = HttpRequest.newBuilder(URI.create(uri.get()))
+                                .header("Authorization", "Bearer " + token)
+                                .header("Accept", "application/json")
+                                .GET().build();
+                        int estado = httpClient.send(peticion, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        long t1 = System.nanoTime();
+                        if (t0 >= inicioMedicion) {
+                            if (estado != 200) {
+                                errores++;
+                            }
+                            if (n == latencias.length) {
+                                latencias = Arrays.copyOf(latencias, n * 2);
+                            }
+                            latencias[n++] = t1 - t0;
+                        }
+                    }
+                    long[] resultado = Arrays.copyOf(latencias, n + 1);
+                    resultado[n] = errores;
+                    return resultado;
+                }));
+            }
+            List<Long> todas = new ArrayList<>();
+            long errores = 0;
+            for (Future<long[]> futuro : futuros) {
+                long[] latencias = futuro.get();
+                for (int i = 0; i < latencias.length - 1; i++) {
+                    todas.add(latencias[i]);
+                }
+                errores += latencias[latencias.length - 1];
+            }
+            long[] ordenadas = todas.stream().mapToLong(Long::longValue).sorted().toArray();
+            return new Resultado(nombre, ordenadas.length / (double) MEDICION.toSeconds(),
+                    percentil(ordenadas, 0.50), percentil(ordenadas, 0.99), errores,
+                    aplicacion.rssKb(), aplicacion.hilos());
+        } finally {
+            clientes.shutdownNow();
+        }
+    }
+
+    private static double percentil(long[] ordenadas, double p) {
+        if (ordenadas.length == 0) {
+            return Double.NaN;
+        }
+        return ordenadas[(int) Math.min(ordenadas.length - 1, Math.floor(p * ordenadas.length))] / 1_000_000.0;
+    }
+
+    private String login(String base) throws Exception {
+        HttpRequest login = HttpRequest.newBuilder(URI.create(base + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(LOGIN))
+                .build();
+        Matcher matcher = TOKEN.matcher(httpClient.send(login, HttpResponse.BodyHandlers.ofString()).body());
+        if (!matcher.find()) {
+            throw new IllegalStateException("No se pudo obtener el token");
+        }
+        return matcher.group(1);
+    }
+
+    private long crear(String uri, String token, String json) throws Exception {
+        HttpRequest peticion = HttpRequest.newBuilder(URI.create(uri))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        HttpResponse<String> respuesta = httpClient.send(peticion, HttpResponse.BodyHandlers.ofString());
+        Matcher matcher = ID.matcher(respuesta.body());
+        if (respuesta.statusCode() != 201 || !matcher.find()) {
+            throw new IllegalStateException("Creación fallida en " + uri + ": " + respuesta.statusCode() + " " + respuesta.body());
+        }
+        return Long.parseLong(matcher.group(1));
+    }
+
+    /**
+     * Una aplicación arrancada en un proceso propio, en un puerto libre; se detiene al cerrarla.
+     */
+    private record Aplicacion(Process proceso, int puerto) implements AutoCloseable {
+
+        static Aplicacion arrancar(Path jar, String... argumentos) throws Exception {
+            int puerto;
+            try (ServerSocket socket = new ServerSocket(0)) {
+                puerto = socket.getLocalPort();
+            }
+            List<String> comando = new ArrayList<>(List.of(
+                    ProcessHandle.current().info().command().orElse("java"), "-jar", jar.toAbsolutePath().toString(),
+                    "--server.port=" + puerto, "--logging.level.root=WARN"));
+            comando.addAll(Arrays.asList(argumentos));
+            Process proceso = new ProcessBuilder(comando)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .redirectError(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            Aplicacion aplicacion = new Aplicacion(proceso, puerto);
+            HttpClient cliente = HttpClient.newHttpClient();
+            HttpRequest sonda = HttpRequest.newBuilder(URI.create(aplicacion.base() + "/api/canciones")).GET().build();
+            long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(120);
+            while (true) {
+                if (!proceso.isAlive() || System.nanoTime() > limite) {
+                    aplicacion.close();
+                    throw new IllegalStateException("La aplicación no arrancó: " + comando);
+                }
+                try {
+                    // Cualquier respuesta (401 sin token) indica que el servidor ya atiende peticiones.
+                    cliente.send(sonda, HttpResponse.BodyHandlers.discarding());
+                    return aplicacion;
+                } catch (ConnectException e) {
+                    Thread.sleep(100);
+                }
+            }
+        }
+
+        String base() {
+            return "http://localhost:" + puerto;
+        }
+
+        /** Memoria residente según {@code /proc/<pid>/status} (solo Linux); -1 si no está disponible. */
+        long rssKb() throws IOException {
+            return campoStatus("VmRSS:");
+        }
+
+        /** Hilos del proceso según {@code /proc/<pid>/status} (solo Linux); -1 si no está disponible. */
+        long hilos() throws IOException {
+            return campoStatus("Threads:");
+        }
+
+        private long campoStatus(String campo) throws IOException {
+            Path status = Path.of("/proc", Long.toString(proceso.pid()), "status");
+            if (!Files.exists(status)) {
+                return -1;
+            }
+            return Files.readAllLines(status).stream()
+                    .filter(linea -> linea.startsWith(campo))
+                    .mapToLong(linea -> Long.parseLong(linea.replaceAll("\\D", "")))
+                    .findFirst()
+                    .orElse(-1);
+        }
+
+        @Override
+        public void close() throws InterruptedException {
+            proceso.destroy();
+            proceso.waitFor(30, TimeUnit.SECONDS);
+        }
+    }
+
+    private record Resultado(String nombre, double peticionesPorSegundo, double p50Ms, double p99Ms, long errores,
+                             long rssKb, long hilos) {
+        @Override
+        public String toString() {
+            return String.format("%s: %8.0f pet/s, p50 %6.2f ms, p99 %7.2f ms, %d errores, %d MB RSS, %d hilos",
+                    nombre, peticionesPorSegundo, p50Ms, p99Ms, errores, rssKb / 1024, hilos);
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package com.example.playlist_api;
 
+import com.example.playlist_api.config.NativeRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(NativeRuntimeHints.class)
 public class PlaylistApiApplication {
 
 	public static void main(String[] args) {
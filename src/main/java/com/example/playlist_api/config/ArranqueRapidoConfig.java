@@ -0,0 +1,43 @@
+package com.example.playlist_api.config;
+
+import com.example.playlist_api.controller.AuthController;
+import com.example.playlist_api.security.JwtUtil;
+import com.example.playlist_api.service.DeduplicadorCanciones;
+import com.example.playlist_api.service.DespachadorOutbox;
+import com.example.playlist_api.service.EscrituraDiferidaListaService;
+import com.example.playlist_api.service.IndicePertenencia;
+import com.example.playlist_api.service.RecomendadorCanciones;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+/**
+ * Configuración del perfil "arranque-rapido" ({@code application-arranque-rapido.properties}).
+ * El perfil activa la inicialización diferida de beans; aquí se excluyen de ella los beans que no deben esperar
+ * a la primera petición: los del login, para que el primer {@code /api/auth/login} no pague su creación,
+ * y los que trabajan en segundo plano desde el arranque. La escritura diferida reproduce su journal y el despachador
+ * del outbox entrega lo que quedó pendiente antes del reinicio, aunque no llegue ninguna escritura nueva.
+ * El índice de pertenencia, las recomendaciones y el relleno de huellas quedan listos antes de la primera petición
+ * que los usa.
+ */
+@Configuration
+@Profile("arranque-rapido")
+public class ArranqueRapidoConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter beansNoDiferidos() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+                AuthController.class,
+                AuthenticationManager.class,
+                UserDetailsService.class,
+                JwtUtil.class,
+                EscrituraDiferidaListaService.class,
+                DespachadorOutbox.class,
+                IndicePertenencia.class,
+                RecomendadorCanciones.class,
+                DeduplicadorCanciones.class);
+    }
+}
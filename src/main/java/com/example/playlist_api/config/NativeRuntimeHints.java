@@ -0,0 +1,83 @@
+package com.example.playlist_api.config;
+
+import com.example.playlist_api.dto.AuthRequestDto;
+import com.example.playlist_api.dto.AuthResponseDto;
+import com.example.playlist_api.dto.CancionDto;
+import com.example.playlist_api.dto.CancionRelacionadaDto;
+import com.example.playlist_api.dto.CombinacionListasRequestDto;
+import com.example.playlist_api.dto.ErrorResponseDto;
+import com.example.playlist_api.dto.FusionDuplicadosDto;
+import com.example.playlist_api.dto.ListaReproduccionRequestDto;
+import com.example.playlist_api.dto.ListaReproduccionResponseDto;
+import com.example.playlist_api.dto.ListaReproduccionResumenDto;
+import com.example.playlist_api.dto.LoteResponseDto;
+import com.example.playlist_api.dto.RefreshTokenRequestDto;
+import com.example.playlist_api.entity.Cancion;
+import com.example.playlist_api.entity.EventoOutbox;
+import com.example.playlist_api.entity.ListaReproduccion;
+import com.example.playlist_api.service.EntradaJournalLista;
+import com.example.playlist_api.service.EventoCambio;
+import com.example.playlist_api.service.MensajeOutbox;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+import java.util.List;
+
+/**
+ * Metadatos de alcanzabilidad para la imagen nativa de GraalVM (perfil Maven {@code native}).
+ * Registra para reflexión los tipos que Jackson e Hibernate construyen por reflexión y que el análisis AOT de Spring
+ * no siempre descubre (por ejemplo, el cuerpo de {@code ResponseEntity<?>}, el journal de escritura diferida o los eventos SSE),
+ * y las clases de jjwt 0.11.5 que {@code jjwt-api} carga por nombre desde {@code jjwt-impl} y {@code jjwt-jackson}.
+ */
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final List<String> CLASES_JJWT = List.of(
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParser",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.DefaultClaims",
+            "io.jsonwebtoken.impl.DefaultHeader",
+            "io.jsonwebtoken.impl.DefaultJwsHeader",
+            "io.jsonwebtoken.impl.crypto.MacProvider",
+            "io.jsonwebtoken.impl.compression.DeflateCompressionCodec",
+            "io.jsonwebtoken.impl.compression.GzipCompressionCodec",
+            "io.jsonwebtoken.jackson.io.JacksonSerializer",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer");
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                AuthRequestDto.class,
+                AuthResponseDto.class,
+                CancionDto.class,
+                CancionRelacionadaDto.class,
+                CombinacionListasRequestDto.class,
+                ErrorResponseDto.class,
+                FusionDuplicadosDto.class,
+                ListaReproduccionRequestDto.class,
+                ListaReproduccionResponseDto.class,
+                ListaReproduccionResumenDto.class,
+                LoteResponseDto.class,
+                RefreshTokenRequestDto.class,
+                EntradaJournalLista.class,
+                EventoCambio.class,
+                MensajeOutbox.class);
+
+        for (Class<?> entidad : List.of(Cancion.class, ListaReproduccion.class, EventoOutbox.class)) {
+            hints.reflection().registerType(entidad,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_DECLARED_METHODS,
+                    MemberCategory.DECLARED_FIELDS);
+        }
+
+        for (String clase : CLASES_JJWT) {
+            hints.reflection().registerType(TypeReference.of(clase),
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+        hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.*");
+    }
+}
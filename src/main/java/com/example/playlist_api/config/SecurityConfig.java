@@ -1,8 +1,11 @@
 package com.example.playlist_api.config;
 
+import com.example.playlist_api.security.CachingPasswordEncoder;
 import com.example.playlist_api.security.JwtAuthenticationEntryPoint;
 import com.example.playlist_api.security.JwtRequestFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -33,9 +36,13 @@ public class SecurityConfig {
     @Autowired
     private JwtRequestFilter jwtRequestFilter;
 
+    /**
+     * BCrypt con una caché corta de comprobaciones correctas, para que los logins repetidos no repitan BCrypt.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${app.login.credential-cache-ttl-ms:300000}") long ttlMs,
+                                           @Value("${app.login.credential-cache-max-entries:10000}") int maxEntradas) {
+        return new CachingPasswordEncoder(new BCryptPasswordEncoder(), ttlMs, maxEntradas);
     }
 
     @Bean
@@ -60,10 +67,16 @@ public class SecurityConfig {
             .csrf(csrf -> csrf.disable())
             // Configura las reglas de autorización para las peticiones HTTP.
             .authorizeHttpRequests(auth -> auth
-                // Permite el acceso público al endpoint de login.
-                .requestMatchers("/api/auth/login").permitAll()
+                // Los despachos asíncronos (fin del canal de cambios SSE) continúan una petición ya autorizada,
+                // y el filtro JWT no vuelve a ejecutarse en ellos.
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                // Permite el acceso público a los endpoints de login y de renovación de tokens.
+                .requestMatchers("/api/auth/login", "/api/auth/refresh").permitAll()
                 // Permite el acceso público a la consola H2 (útil para desarrollo).
                 .requestMatchers("/h2-console/**").permitAll()
+                // Salud pública para los balanceadores; el resto de Actuator (métricas) solo para ADMIN.
+                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 // Permite a usuarios con roles 'USER' o 'ADMIN' acceder a los métodos GET de canciones y listas.
                 .requestMatchers(HttpMethod.GET, "/api/canciones/**", "/api/listas/**").hasAnyRole("USER", "ADMIN")
                 // Restringe los métodos POST de canciones y listas solo a usuarios con rol 'ADMIN'.
@@ -104,12 +117,16 @@ public class SecurityConfig {
             "Content-Type",  // Para el tipo de contenido de la solicitud (ej. application/json)
             "Cache-Control",
             "X-Requested-With",
-            "Accept"
+            "Accept",
+            "If-Match",       // Versión esperada para actualizaciones con control optimista
+            "Idempotency-Key", // Clave para reintentos seguros de peticiones POST
+            "X-Lista-Version", // Token de versión para lecturas tras escrituras diferidas
+            "Last-Event-ID"    // Último evento recibido al reconectarse al canal de cambios (SSE)
         ));
         // Permitir credenciales (si se usan cookies o autenticación HTTP básica, aunque para JWT stateless puede no ser estrictamente necesario)
         configuration.setAllowCredentials(true); 
         // Exponer cabeceras (si el frontend necesita leer alguna cabecera específica de la respuesta)
-        // configuration.setExposedHeaders(Arrays.asList("Authorization")); 
+        configuration.setExposedHeaders(Arrays.asList("ETag", "X-Lista-Version", "Idempotent-Replayed", "Retry-After"));
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         // Aplicar esta configuración CORS a todas las rutas de la API
@@ -2,24 +2,34 @@ package com.example.playlist_api.controller;
 
 import com.example.playlist_api.dto.AuthRequestDto;
 import com.example.playlist_api.dto.AuthResponseDto;
+import com.example.playlist_api.dto.RefreshTokenRequestDto;
+import com.example.playlist_api.exception.TooManyRequestsException;
 import com.example.playlist_api.security.JwtUtil;
+import com.example.playlist_api.security.LimitadorIntentosLogin;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 /**
  * Controlador REST para la autenticación de usuarios.
- * Proporciona un endpoint para que los usuarios inicien sesión y obtengan un token JWT.
+ * Proporciona endpoints para que los usuarios inicien sesión y obtengan un token JWT de acceso y otro de refresco,
+ * para renovarlos con el token de refresco y para cerrar la sesión revocándolos.
  */
 @RestController
 @RequestMapping("/api/auth")
@@ -34,19 +44,87 @@ public class AuthController {
     @Autowired
     private UserDetailsService userDetailsService;
 
+    @Autowired
+    private LimitadorIntentosLogin limitadorIntentosLogin;
+
+    @Value("${jwt.prefix}")
+    private String jwtPrefix;
+
     /**
      * Autentica a un usuario y genera un token JWT si las credenciales son válidas.
+     * Tras varios fallos seguidos del mismo usuario o de la misma IP, los nuevos intentos se rechazan con 429
+     * durante un tiempo que crece exponencialmente.
      *
      * @param authenticationRequest DTO que contiene el nombre de usuario y la contraseña.
+     * @param request Petición HTTP, para obtener la IP del cliente.
      * @return ResponseEntity con el token JWT si la autenticación es exitosa.
      * @throws Exception Si el usuario está deshabilitado o las credenciales son inválidas.
      */
     @PostMapping("/login")
-    public ResponseEntity<?> createAuthenticationToken(@Valid @RequestBody AuthRequestDto authenticationRequest) throws Exception {
-        authenticate(authenticationRequest.getUsername(), authenticationRequest.getPassword());
-        final UserDetails userDetails = userDetailsService.loadUserByUsername(authenticationRequest.getUsername());
-        final String token = jwtUtil.generateToken(userDetails);
-        return ResponseEntity.ok(new AuthResponseDto(token));
+    public ResponseEntity<?> createAuthenticationToken(@Valid @RequestBody AuthRequestDto authenticationRequest,
+                                                       HttpServletRequest request) throws Exception {
+        String username = authenticationRequest.getUsername();
+        String ip = request.getRemoteAddr();
+        long bloqueoMs = limitadorIntentosLogin.milisegundosBloqueo(username, ip, System.currentTimeMillis());
+        if (bloqueoMs > 0) {
+            throw new TooManyRequestsException("Demasiados intentos de login fallidos. Reintente más tarde.",
+                    Math.max(1L, (bloqueoMs + 999) / 1000));
+        }
+
+        final Authentication authentication;
+        try {
+            authentication = authenticate(username, authenticationRequest.getPassword());
+        } catch (BadCredentialsException e) {
+            limitadorIntentosLogin.registrarFallo(username, ip, System.currentTimeMillis());
+            throw e;
+        }
+        limitadorIntentosLogin.registrarExito(username);
+
+        // El principal autenticado ya es el UserDetails cargado por el AuthenticationManager: no se vuelve a buscar.
+        final UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+        return ResponseEntity.ok(emitirTokens(userDetails));
+    }
+
+    /**
+     * Emite un nuevo par de tokens (acceso y refresco) a cambio de un token de refresco válido, sin volver a
+     * comprobar la contraseña. El token de refresco usado queda revocado: cada uno solo sirve una vez.
+     *
+     * @param refreshRequest DTO con el token de refresco.
+     * @return ResponseEntity con los nuevos tokens.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponseDto> refreshToken(@Valid @RequestBody RefreshTokenRequestDto refreshRequest) {
+        String username = jwtUtil.consumeRefreshToken(refreshRequest.getRefreshToken());
+        final UserDetails userDetails;
+        try {
+            userDetails = userDetailsService.loadUserByUsername(username);
+        } catch (UsernameNotFoundException e) {
+            throw new BadCredentialsException("Token de refresco inválido");
+        }
+        return ResponseEntity.ok(emitirTokens(userDetails));
+    }
+
+    /**
+     * Cierra la sesión revocando el token de acceso de la petición y, si se envía, el token de refresco.
+     *
+     * @param authorizationHeader Cabecera con el token de acceso.
+     * @param refreshRequest DTO opcional con el token de refresco a revocar.
+     * @return ResponseEntity con el estado HTTP 204 (No Content).
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorizationHeader,
+                                       @RequestBody(required = false) RefreshTokenRequestDto refreshRequest) {
+        if (authorizationHeader.startsWith(jwtPrefix + " ")) {
+            jwtUtil.revokeToken(authorizationHeader.substring(jwtPrefix.length() + 1));
+        }
+        if (refreshRequest != null && refreshRequest.getRefreshToken() != null) {
+            jwtUtil.revokeToken(refreshRequest.getRefreshToken());
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    private AuthResponseDto emitirTokens(UserDetails userDetails) {
+        return new AuthResponseDto(jwtUtil.generateToken(userDetails), jwtUtil.generateRefreshToken(userDetails));
     }
 
     /**
@@ -54,11 +132,12 @@ public class AuthController {
      *
      * @param username Nombre de usuario.
      * @param password Contraseña.
+     * @return La autenticación resultante, cuyo principal es el {@link UserDetails} del usuario.
      * @throws Exception Si la autenticación falla (usuario deshabilitado o credenciales inválidas).
      */
-    private void authenticate(String username, String password) throws Exception {
+    private Authentication authenticate(String username, String password) throws Exception {
         try {
-            authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(username, password));
+            return authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(username, password));
         } catch (DisabledException e) {
             throw new Exception("USER_DISABLED", e);
         } catch (BadCredentialsException e) {
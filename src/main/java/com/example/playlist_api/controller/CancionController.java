@@ -1,9 +1,13 @@
 package com.example.playlist_api.controller;
 
 import com.example.playlist_api.dto.CancionDto;
+import com.example.playlist_api.dto.CancionRelacionadaDto;
+import com.example.playlist_api.dto.FusionDuplicadosDto;
+import com.example.playlist_api.dto.LoteResponseDto;
 import com.example.playlist_api.service.CancionService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -11,6 +15,7 @@ import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Controlador REST para la gestión de canciones.
@@ -55,6 +60,32 @@ public class CancionController {
         return ResponseEntity.ok(cancionService.obtenerTodasLasCanciones());
     }
 
+    /**
+     * Obtiene todas las canciones devolviendo solo los campos indicados, p. ej. {@code GET /api/canciones?fields=id,titulo,artista}.
+     * Solo se seleccionan en la base de datos las columnas pedidas. Accesible por usuarios con rol ADMIN o USER.
+     *
+     * @param fields Campos a devolver, separados por comas.
+     * @return ResponseEntity con una lista de objetos con los campos pedidos y el estado HTTP 200 (OK).
+     */
+    @GetMapping(params = {"fields", "!ids"})
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    public ResponseEntity<List<Map<String, Object>>> obtenerTodasLasCanciones(@RequestParam List<String> fields) {
+        return ResponseEntity.ok(cancionService.obtenerTodasLasCanciones(fields));
+    }
+
+    /**
+     * Obtiene varias canciones por sus IDs en una sola petición, p. ej. {@code GET /api/canciones?ids=3,1,7}.
+     * Accesible por usuarios con rol ADMIN o USER.
+     *
+     * @param ids IDs de las canciones a obtener.
+     * @return ResponseEntity con las canciones encontradas (en el orden solicitado), los IDs inexistentes y el estado HTTP 200 (OK).
+     */
+    @GetMapping(params = "ids")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    public ResponseEntity<LoteResponseDto<CancionDto>> obtenerCancionesPorIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(cancionService.obtenerCancionesPorIds(ids));
+    }
+
     /**
      * Obtiene una canción por su ID. Accesible por usuarios con rol ADMIN o USER.
      *
@@ -64,7 +95,63 @@ public class CancionController {
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
     public ResponseEntity<CancionDto> obtenerCancionPorId(@PathVariable Long id) {
-        return ResponseEntity.ok(cancionService.obtenerCancionPorId(id));
+        CancionDto cancion = cancionService.obtenerCancionPorId(id);
+        return VersionETag.ok(cancion, cancion.getVersion());
+    }
+
+    /**
+     * Obtiene una canción por su ID devolviendo solo los campos indicados. Accesible por usuarios con rol ADMIN o USER.
+     *
+     * @param id ID de la canción a buscar.
+     * @param fields Campos a devolver, separados por comas.
+     * @return ResponseEntity con un objeto con los campos pedidos y el estado HTTP 200 (OK).
+     */
+    @GetMapping(value = "/{id}", params = "fields")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    public ResponseEntity<Map<String, Object>> obtenerCancionPorId(@PathVariable Long id, @RequestParam List<String> fields) {
+        return ResponseEntity.ok(cancionService.obtenerCancionPorId(id, fields));
+    }
+
+    /**
+     * Obtiene los IDs de las listas de reproducción que contienen una canción, de menor a mayor.
+     * Se responde desde un índice en memoria, sin consultar la tabla de unión. Accesible por usuarios con rol ADMIN o USER.
+     *
+     * @param id ID de la canción.
+     * @return ResponseEntity con los IDs de las listas y el estado HTTP 200 (OK).
+     */
+    @GetMapping("/{id}/listas")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    public ResponseEntity<long[]> obtenerListasDeCancion(@PathVariable Long id) {
+        return ResponseEntity.ok(cancionService.obtenerIdsListasDeCancion(id));
+    }
+
+    /**
+     * Fusiona las canciones duplicadas: en cada grupo de canciones con el mismo título, artista y álbum (salvo
+     * mayúsculas, acentos o espacios) conserva la más antigua, la pone en las listas de las demás y borra el resto.
+     * Solo accesible por usuarios con rol ADMIN.
+     *
+     * @return ResponseEntity con el resumen de la fusión y el estado HTTP 200 (OK).
+     */
+    @PostMapping("/duplicados/fusion")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<FusionDuplicadosDto> fusionarCancionesDuplicadas() {
+        return ResponseEntity.ok(cancionService.fusionarCancionesDuplicadas());
+    }
+
+    /**
+     * Obtiene las canciones que más listas de reproducción comparten con una canción, de más a menos listas en común.
+     * Se responde desde un cálculo en memoria que se actualiza en segundo plano. Accesible por usuarios con rol ADMIN o USER.
+     *
+     * @param id ID de la canción.
+     * @param limit Número máximo de canciones a devolver, entre 1 y {@code app.recommendations.top-k}; por defecto 10,
+     *              o {@code top-k} si es menor.
+     * @return ResponseEntity con las canciones relacionadas y el estado HTTP 200 (OK).
+     */
+    @GetMapping("/{id}/relacionadas")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    public ResponseEntity<List<CancionRelacionadaDto>> obtenerCancionesRelacionadas(@PathVariable Long id,
+                                                                                    @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(cancionService.obtenerCancionesRelacionadas(id, limit));
     }
 
     /**
@@ -72,12 +159,18 @@ public class CancionController {
      *
      * @param id ID de la canción a actualizar.
      * @param cancionDto DTO con los datos actualizados de la canción.
+     * @param ifMatch Versión (ETag) leída por el cliente; si no coincide con la actual se responde 412 (Precondition Failed).
      * @return ResponseEntity con la CancionDto actualizada y el estado HTTP 200 (OK).
      */
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<CancionDto> actualizarCancion(@PathVariable Long id, @Valid @RequestBody CancionDto cancionDto) {
-        return ResponseEntity.ok(cancionService.actualizarCancion(id, cancionDto));
+    public ResponseEntity<CancionDto> actualizarCancion(@PathVariable Long id, @Valid @RequestBody CancionDto cancionDto,
+                                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long versionEsperada = VersionETag.parsearIfMatch(ifMatch);
+        CancionDto updatedCancion = versionEsperada == null
+                ? cancionService.actualizarCancion(id, cancionDto)
+                : cancionService.actualizarCancion(id, cancionDto, versionEsperada);
+        return VersionETag.ok(updatedCancion, updatedCancion.getVersion());
     }
 
     /**
@@ -1,17 +1,28 @@
 package com.example.playlist_api.controller;
 
+import com.example.playlist_api.dto.CombinacionListasRequestDto;
 import com.example.playlist_api.dto.ListaReproduccionRequestDto;
+import com.example.playlist_api.dto.LoteResponseDto;
 import com.example.playlist_api.dto.ListaReproduccionResponseDto;
+import com.example.playlist_api.dto.ListaReproduccionResumenDto;
+import com.example.playlist_api.service.CanalCambios;
+import com.example.playlist_api.service.EscrituraDiferidaListaService;
 import com.example.playlist_api.service.ListaReproduccionService;
+import com.example.playlist_api.service.ResultadoCreacionLista;
 import jakarta.validation.Valid;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Controlador REST para la gestión de listas de reproducción.
@@ -19,13 +30,28 @@ import java.util.List;
  */
 @RestController
 @RequestMapping("/api/listas")
+@RegisterReflectionForBinding({
+        ListaReproduccionController.CrearListaReproduccionConCancionRequest.class,
+        ListaReproduccionController.NombreDescripcionListaDto.class})
 public class ListaReproduccionController {
 
+    /**
+     * Cabecera con el token de versión devuelto por las actualizaciones diferidas y que el cliente
+     * reenvía en sus lecturas para observar sus propias escrituras.
+     */
+    public static final String VERSION_HEADER = "X-Lista-Version";
+
     private final ListaReproduccionService listaReproduccionService;
+    private final EscrituraDiferidaListaService escrituraDiferidaListaService;
+    private final CanalCambios canalCambios;
 
     @Autowired
-    public ListaReproduccionController(ListaReproduccionService listaReproduccionService) {
+    public ListaReproduccionController(ListaReproduccionService listaReproduccionService,
+                                       EscrituraDiferidaListaService escrituraDiferidaListaService,
+                                       CanalCambios canalCambios) {
         this.listaReproduccionService = listaReproduccionService;
+        this.escrituraDiferidaListaService = escrituraDiferidaListaService;
+        this.canalCambios = canalCambios;
     }
 
     /**
@@ -45,6 +71,30 @@ public class ListaReproduccionController {
         return ResponseEntity.created(location).body(createdListaReproduccion);
     }
     
+    /**
+     * Crea una lista de reproducción si no existe otra con el mismo nombre; si ya existe, la devuelve.
+     * Pensado para clientes que reintentan la creación: repetir la petición no produce conflictos.
+     * Solo accesible por usuarios con rol ADMIN.
+     *
+     * @param listaReproduccionRequestDto DTO con los datos de la lista; el nombre identifica la lista.
+     * @return ResponseEntity con la lista y el estado HTTP 201 (Created) si se creó, o 200 (OK) si ya existía.
+     */
+    @PostMapping("/si-no-existe")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ListaReproduccionResponseDto> crearListaReproduccionSiNoExiste(@Valid @RequestBody ListaReproduccionRequestDto listaReproduccionRequestDto) {
+        ResultadoCreacionLista resultado = listaReproduccionService.crearListaReproduccionSiNoExiste(listaReproduccionRequestDto);
+        ListaReproduccionResponseDto listaReproduccion = resultado.getListaReproduccion();
+        if (!resultado.isCreada()) {
+            return VersionETag.ok(listaReproduccion, listaReproduccion.getVersion());
+        }
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/../{id}")
+                .buildAndExpand(listaReproduccion.getId())
+                .normalize()
+                .toUri();
+        return ResponseEntity.created(location).body(listaReproduccion);
+    }
+
     /**
      * Clase interna para el DTO de la petición de creación de lista con canción inicial.
      */
@@ -97,23 +147,92 @@ public class ListaReproduccionController {
     /**
      * Obtiene todas las listas de reproducción existentes. Accesible por usuarios con rol ADMIN o USER.
      *
+     * @param version Token de versión opcional; si se indica, la lectura refleja al menos esa actualización diferida.
      * @return ResponseEntity con una lista de ListaReproduccionResponseDto y el estado HTTP 200 (OK).
      */
     @GetMapping
     @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
-    public ResponseEntity<List<ListaReproduccionResponseDto>> obtenerTodasLasListasReproduccion() {
+    public ResponseEntity<List<ListaReproduccionResponseDto>> obtenerTodasLasListasReproduccion(
+            @RequestHeader(value = VERSION_HEADER, required = false) Long version) {
+        escrituraDiferidaListaService.esperarVersion(version);
         return ResponseEntity.ok(listaReproduccionService.obtenerTodasLasListasReproduccion());
     }
 
+    /**
+     * Obtiene todas las listas de reproducción devolviendo solo los campos indicados, p. ej. {@code GET /api/listas?fields=id,nombre}.
+     * Si no se pide {@code canciones}, no se cargan las canciones de cada lista. Accesible por usuarios con rol ADMIN o USER.
+     *
+     * @param fields Campos a devolver, separados por comas.
+     * @param version Token de versión opcional; si se indica, la lectura refleja al menos esa actualización diferida.
+     * @return ResponseEntity con una lista de objetos con los campos pedidos y el estado HTTP 200 (OK).
+     */
+    @GetMapping(params = {"fields", "!ids"})
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    public ResponseEntity<List<Map<String, Object>>> obtenerTodasLasListasReproduccion(@RequestParam List<String> fields,
+            @RequestHeader(value = VERSION_HEADER, required = false) Long version) {
+        escrituraDiferidaListaService.esperarVersion(version);
+        return ResponseEntity.ok(listaReproduccionService.obtenerTodasLasListasReproduccion(fields));
+    }
+
+    /**
+     * Obtiene un resumen de todas las listas de reproducción (datos y número de canciones, sin las canciones).
+     * Pensado para las pantallas de listado: no lee la tabla de unión. Accesible por usuarios con rol ADMIN o USER.
+     *
+     * @param version Token de versión opcional; si se indica, la lectura refleja al menos esa actualización diferida.
+     * @return ResponseEntity con los resúmenes ordenados por ID y el estado HTTP 200 (OK).
+     */
+    @GetMapping("/resumen")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    public ResponseEntity<List<ListaReproduccionResumenDto>> obtenerResumenListasReproduccion(
+            @RequestHeader(value = VERSION_HEADER, required = false) Long version) {
+        escrituraDiferidaListaService.esperarVersion(version);
+        return ResponseEntity.ok(listaReproduccionService.obtenerResumenListasReproduccion());
+    }
+
+    /**
+     * Obtiene varias listas de reproducción por sus IDs en una sola petición, p. ej. {@code GET /api/listas?ids=3,1,7}.
+     * Accesible por usuarios con rol ADMIN o USER.
+     *
+     * @param ids IDs de las listas a obtener.
+     * @param version Token de versión opcional; si se indica, la lectura refleja al menos esa actualización diferida.
+     * @return ResponseEntity con las listas encontradas (en el orden solicitado), los IDs inexistentes y el estado HTTP 200 (OK).
+     */
+    @GetMapping(params = "ids")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    public ResponseEntity<LoteResponseDto<ListaReproduccionResponseDto>> obtenerListasReproduccionPorIds(@RequestParam List<Long> ids,
+            @RequestHeader(value = VERSION_HEADER, required = false) Long version) {
+        escrituraDiferidaListaService.esperarVersion(version);
+        return ResponseEntity.ok(listaReproduccionService.obtenerListasReproduccionPorIds(ids));
+    }
+
+    /**
+     * Canal de cambios (Server-Sent Events) de listas de reproducción y canciones, para no tener que sondear
+     * {@code GET /api/listas}. Cada evento lleva el tipo de recurso, la acción, el ID y la versión resultante;
+     * solo se emiten cambios ya confirmados. Al reconectarse, el cliente recibe los eventos posteriores a
+     * {@code Last-Event-ID}, o un evento {@code reset} si ya no están disponibles y debe releer el estado completo.
+     * Accesible por usuarios con rol ADMIN o USER.
+     *
+     * @param lastEventId ID del último evento recibido, enviado automáticamente por {@code EventSource} al reconectarse.
+     * @return El flujo de eventos {@code text/event-stream}.
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    public SseEmitter suscribirCambios(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return canalCambios.suscribir(lastEventId);
+    }
+
     /**
      * Obtiene una lista de reproducción por su nombre. Accesible por usuarios con rol ADMIN o USER.
      *
      * @param nombreLista Nombre de la lista de reproducción a buscar.
+     * @param version Token de versión opcional; si se indica, la lectura refleja al menos esa actualización diferida.
      * @return ResponseEntity con la ListaReproduccionResponseDto encontrada y el estado HTTP 200 (OK).
      */
     @GetMapping("/porNombre/{nombreLista}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
-    public ResponseEntity<ListaReproduccionResponseDto> obtenerListaReproduccionPorNombre(@PathVariable String nombreLista) {
+    public ResponseEntity<ListaReproduccionResponseDto> obtenerListaReproduccionPorNombre(@PathVariable String nombreLista,
+            @RequestHeader(value = VERSION_HEADER, required = false) Long version) {
+        escrituraDiferidaListaService.esperarVersion(version);
         return ResponseEntity.ok(listaReproduccionService.obtenerListaReproduccionPorNombre(nombreLista));
     }
 
@@ -121,26 +240,122 @@ public class ListaReproduccionController {
      * Obtiene una lista de reproducción por su ID. Accesible por usuarios con rol ADMIN o USER.
      *
      * @param id ID de la lista de reproducción a buscar.
+     * @param version Token de versión opcional; si se indica, la lectura refleja al menos esa actualización diferida.
      * @return ResponseEntity con la ListaReproduccionResponseDto encontrada y el estado HTTP 200 (OK).
      */
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
-    public ResponseEntity<ListaReproduccionResponseDto> obtenerListaReproduccionPorId(@PathVariable Long id) {
-        return ResponseEntity.ok(listaReproduccionService.obtenerListaReproduccionPorId(id));
+    public ResponseEntity<ListaReproduccionResponseDto> obtenerListaReproduccionPorId(@PathVariable Long id,
+            @RequestHeader(value = VERSION_HEADER, required = false) Long version) {
+        escrituraDiferidaListaService.esperarVersion(version);
+        ListaReproduccionResponseDto listaReproduccion = listaReproduccionService.obtenerListaReproduccionPorId(id);
+        return VersionETag.ok(listaReproduccion, listaReproduccion.getVersion());
     }
     
+    /**
+     * Obtiene una lista de reproducción por su ID devolviendo solo los campos indicados. Accesible por usuarios con rol ADMIN o USER.
+     *
+     * @param id ID de la lista de reproducción a buscar.
+     * @param fields Campos a devolver, separados por comas.
+     * @param version Token de versión opcional; si se indica, la lectura refleja al menos esa actualización diferida.
+     * @return ResponseEntity con un objeto con los campos pedidos y el estado HTTP 200 (OK).
+     */
+    @GetMapping(value = "/{id}", params = "fields")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    public ResponseEntity<Map<String, Object>> obtenerListaReproduccionPorId(@PathVariable Long id, @RequestParam List<String> fields,
+            @RequestHeader(value = VERSION_HEADER, required = false) Long version) {
+        escrituraDiferidaListaService.esperarVersion(version);
+        return ResponseEntity.ok(listaReproduccionService.obtenerListaReproduccionPorId(id, fields));
+    }
+
     /**
      * Actualiza una lista de reproducción existente por su ID. Solo accesible por usuarios con rol ADMIN.
+     * Con la escritura diferida habilitada, la actualización se registra en el journal y se responde con
+     * HTTP 202 (Accepted) y el token de versión en la cabecera {@value #VERSION_HEADER}; las actualizaciones
+     * condicionales ({@code If-Match}) se aplican siempre de forma síncrona.
      *
      * @param id ID de la lista de reproducción a actualizar.
      * @param listaReproduccionRequestDto DTO con los datos actualizados de la lista de reproducción.
+     * @param ifMatch Versión (ETag) leída por el cliente; si no coincide con la actual se responde 412 (Precondition Failed).
      * @return ResponseEntity con la ListaReproduccionResponseDto actualizada y el estado HTTP 200 (OK).
      */
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<ListaReproduccionResponseDto> actualizarListaReproduccion(@PathVariable Long id, @Valid @RequestBody ListaReproduccionRequestDto listaReproduccionRequestDto) {
-        ListaReproduccionResponseDto updatedListaReproduccion = listaReproduccionService.actualizarListaReproduccion(id, listaReproduccionRequestDto);
-        return ResponseEntity.ok(updatedListaReproduccion);
+    public ResponseEntity<ListaReproduccionResponseDto> actualizarListaReproduccion(@PathVariable Long id, @Valid @RequestBody ListaReproduccionRequestDto listaReproduccionRequestDto,
+                                                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long versionEsperada = VersionETag.parsearIfMatch(ifMatch);
+        if (versionEsperada == null && escrituraDiferidaListaService.isHabilitada()) {
+            long version = escrituraDiferidaListaService.encolarActualizacion(id, listaReproduccionRequestDto);
+            return ResponseEntity.accepted().header(VERSION_HEADER, Long.toString(version)).build();
+        }
+        ListaReproduccionResponseDto updatedListaReproduccion = versionEsperada == null
+                ? listaReproduccionService.actualizarListaReproduccion(id, listaReproduccionRequestDto)
+                : listaReproduccionService.actualizarListaReproduccion(id, listaReproduccionRequestDto, versionEsperada);
+        return VersionETag.ok(updatedListaReproduccion, updatedListaReproduccion.getVersion());
+    }
+
+    /**
+     * Añade una canción a una lista de reproducción existente. Solo accesible por usuarios con rol ADMIN.
+     * Los conflictos con otras escrituras concurrentes se reintentan en el servidor.
+     *
+     * @param id ID de la lista de reproducción.
+     * @param idCancion ID de la canción a añadir.
+     * @return ResponseEntity con la ListaReproduccionResponseDto actualizada y el estado HTTP 200 (OK).
+     */
+    @PostMapping("/{id}/canciones/{idCancion}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ListaReproduccionResponseDto> agregarCancion(@PathVariable Long id, @PathVariable Long idCancion) {
+        ListaReproduccionResponseDto listaReproduccion = listaReproduccionService.agregarCancion(id, idCancion);
+        return VersionETag.ok(listaReproduccion, listaReproduccion.getVersion());
+    }
+
+    /**
+     * Quita una canción de una lista de reproducción existente. Solo accesible por usuarios con rol ADMIN.
+     * Los conflictos con otras escrituras concurrentes se reintentan en el servidor.
+     *
+     * @param id ID de la lista de reproducción.
+     * @param idCancion ID de la canción a quitar.
+     * @return ResponseEntity con la ListaReproduccionResponseDto actualizada y el estado HTTP 200 (OK).
+     */
+    @DeleteMapping("/{id}/canciones/{idCancion}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ListaReproduccionResponseDto> quitarCancion(@PathVariable Long id, @PathVariable Long idCancion) {
+        ListaReproduccionResponseDto listaReproduccion = listaReproduccionService.quitarCancion(id, idCancion);
+        return VersionETag.ok(listaReproduccion, listaReproduccion.getVersion());
+    }
+
+    /**
+     * Crea una lista de reproducción combinando otras en el servidor: clonar, unión, intersección o diferencia.
+     * Solo accesible por usuarios con rol ADMIN.
+     *
+     * @param peticion Operación, IDs de las listas de origen y nombre y descripción de la lista nueva.
+     * @return ResponseEntity con el resumen de la lista creada y el estado HTTP 201 (Created).
+     */
+    @PostMapping("/combinaciones")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ListaReproduccionResumenDto> combinarEnNuevaLista(@Valid @RequestBody CombinacionListasRequestDto peticion) {
+        ListaReproduccionResumenDto listaReproduccion = listaReproduccionService.combinarEnNuevaLista(peticion);
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/../{id}")
+                .buildAndExpand(listaReproduccion.getId())
+                .normalize()
+                .toUri();
+        return ResponseEntity.created(location).body(listaReproduccion);
+    }
+
+    /**
+     * Añade a una lista de reproducción existente el resultado de combinar otras; las canciones que ya tiene se conservan.
+     * Solo accesible por usuarios con rol ADMIN.
+     *
+     * @param id ID de la lista de destino.
+     * @param peticion Operación e IDs de las listas de origen; el nombre y la descripción se ignoran.
+     * @return ResponseEntity con el resumen de la lista actualizada y el estado HTTP 200 (OK).
+     */
+    @PostMapping("/{id}/combinaciones")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ListaReproduccionResumenDto> combinarEnLista(@PathVariable Long id, @Valid @RequestBody CombinacionListasRequestDto peticion) {
+        ListaReproduccionResumenDto listaReproduccion = listaReproduccionService.combinarEnLista(id, peticion);
+        return VersionETag.ok(listaReproduccion, listaReproduccion.getVersion());
     }
 
     /**
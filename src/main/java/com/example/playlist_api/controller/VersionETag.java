@@ -0,0 +1,47 @@
+package com.example.playlist_api.controller;
+
+import com.example.playlist_api.exception.BadRequestException;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Conversión entre la versión de una entidad ({@code @Version}) y las cabeceras HTTP {@code ETag} / {@code If-Match}.
+ */
+final class VersionETag {
+
+    private VersionETag() {
+    }
+
+    /**
+     * Construye una respuesta 200 (OK) con el cuerpo indicado y, si se conoce, la versión como {@code ETag}.
+     */
+    static <T> ResponseEntity<T> ok(T body, Long version) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (version != null) {
+            builder.eTag(Long.toString(version));
+        }
+        return builder.body(body);
+    }
+
+    /**
+     * Extrae la versión esperada de una cabecera {@code If-Match}.
+     *
+     * @param ifMatch Valor de la cabecera, p. ej. {@code "3"} o {@code W/"3"}.
+     * @return La versión esperada, o {@code null} si la cabecera no existe o es {@code *}.
+     * @throws BadRequestException Si la cabecera no contiene una versión válida.
+     */
+    static Long parsearIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String valor = ifMatch.trim();
+        if (valor.startsWith("W/")) {
+            valor = valor.substring(2);
+        }
+        valor = valor.replace("\"", "");
+        try {
+            return Long.parseLong(valor);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Cabecera If-Match inválida: " + ifMatch);
+        }
+    }
+}
@@ -25,4 +25,10 @@ public class CancionDto {
 
     @NotBlank(message = "El género no puede estar vacío ni ser nulo.")
     private String genero;
+
+    private Long version;
+
+    public CancionDto(Long id, String titulo, String artista, String album, String anno, String genero) {
+        this(id, titulo, artista, album, anno, genero, null);
+    }
 }
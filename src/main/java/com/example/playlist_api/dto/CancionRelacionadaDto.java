@@ -0,0 +1,16 @@
+package com.example.playlist_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Canción relacionada con otra y número de listas de reproducción en las que coinciden.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CancionRelacionadaDto {
+    private Long id;
+    private int listasEnComun;
+}
@@ -0,0 +1,61 @@
+package com.example.playlist_api.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Petición de combinación de listas de reproducción en el servidor: las canciones resultantes de aplicar
+ * {@code operacion} a las listas {@code origenes} se añaden a una lista nueva ({@code nombre} y {@code descripcion})
+ * o a una existente.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CombinacionListasRequestDto {
+
+    @NotNull(message = "La operación debe ser clonar, union, interseccion o diferencia.")
+    private Operacion operacion;
+
+    @NotEmpty(message = "Debe indicarse al menos una lista de origen.")
+    private List<Long> origenes;
+
+    /** Nombre de la lista nueva; se ignora al combinar en una lista existente. */
+    private String nombre;
+
+    private String descripcion;
+
+    public enum Operacion {
+        /** Copia las canciones de una única lista. */
+        CLONAR,
+        /** Canciones que están en alguna de las listas. */
+        UNION,
+        /** Canciones que están en todas las listas. */
+        INTERSECCION,
+        /** Canciones de la primera lista que no están en ninguna de las demás. */
+        DIFERENCIA;
+
+        @JsonValue
+        public String valor() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+
+        /** Admite el nombre en cualquier capitalización; un valor desconocido se trata como ausente para que lo rechace la validación. */
+        @JsonCreator
+        public static Operacion de(String valor) {
+            for (Operacion operacion : values()) {
+                if (operacion.name().equalsIgnoreCase(valor)) {
+                    return operacion;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.playlist_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de una fusión de canciones duplicadas: grupos encontrados, canciones eliminadas al fusionarlas en la más
+ * antigua de su grupo, listas de reproducción modificadas y grupos que no se pudieron fusionar en esta pasada.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FusionDuplicadosDto {
+    private int grupos;
+    private int cancionesEliminadas;
+    private int listasActualizadas;
+    private int gruposPendientes;
+}
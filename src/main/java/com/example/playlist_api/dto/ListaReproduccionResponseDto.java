@@ -13,4 +13,9 @@ public class ListaReproduccionResponseDto {
     private String nombre;
     private String descripcion;
     private Set<CancionDto> canciones;
+    private Long version;
+
+    public ListaReproduccionResponseDto(Long id, String nombre, String descripcion, Set<CancionDto> canciones) {
+        this(id, nombre, descripcion, canciones, null);
+    }
 }
@@ -0,0 +1,19 @@
+package com.example.playlist_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resumen de una lista de reproducción para los listados: sus datos y el número de canciones, sin las canciones.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ListaReproduccionResumenDto {
+    private Long id;
+    private String nombre;
+    private String descripcion;
+    private int numeroCanciones;
+    private Long version;
+}
@@ -0,0 +1,14 @@
+package com.example.playlist_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoteResponseDto<T> {
+    private List<T> elementos;
+    private List<Long> idsNoEncontrados;
+}
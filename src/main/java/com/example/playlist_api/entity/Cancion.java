@@ -24,12 +24,18 @@ public class Cancion {
     @Column(nullable = false)
     private String titulo;
 
+    /**
+     * Artista, álbum y género se guardan como IDs de sus tablas de nombres ({@code DiccionarioNombres}); al leerlos,
+     * todas las canciones comparten la misma instancia de cada nombre.
+     */
     @NotBlank(message = "El artista no puede estar vacío ni ser nulo.")
-    @Column(nullable = false)
+    @Convert(converter = DiccionarioConverter.Artista.class)
+    @Column(name = "artista_id", nullable = false)
     private String artista;
 
     @NotBlank(message = "El álbum no puede estar vacío ni ser nulo.")
-    @Column(nullable = false)
+    @Convert(converter = DiccionarioConverter.Album.class)
+    @Column(name = "album_id", nullable = false)
     private String album;
 
     @NotBlank(message = "El año no puede estar vacío ni ser nulo.")
@@ -37,12 +43,31 @@ public class Cancion {
     private String anno;
 
     @NotBlank(message = "El género no puede estar vacío ni ser nulo.")
-    @Column(nullable = false)
+    @Convert(converter = DiccionarioConverter.Genero.class)
+    @Column(name = "genero_id", nullable = false)
     private String genero;
 
     @ManyToMany(mappedBy = "canciones")
     private Set<ListaReproduccion> listasReproduccion = new HashSet<>();
 
+    @Version
+    private Long version;
+
+    /**
+     * Huella de título, artista y álbum normalizados ({@code HuellaCancion}), indexada para detectar duplicados
+     * con una búsqueda por índice. La asigna el servicio al crear o modificar la canción.
+     */
+    @Column(length = 64)
+    private String huella;
+
+    public Cancion(Long id, String titulo, String artista, String album, String anno, String genero, Set<ListaReproduccion> listasReproduccion) {
+        this(id, titulo, artista, album, anno, genero, listasReproduccion, null);
+    }
+
+    public Cancion(Long id, String titulo, String artista, String album, String anno, String genero, Set<ListaReproduccion> listasReproduccion, Long version) {
+        this(id, titulo, artista, album, anno, genero, listasReproduccion, version, null);
+    }
+
     @Override
     public String toString() {
         return "Cancion{" +
@@ -52,6 +77,7 @@ public class Cancion {
                ", album='" + album + '\'' +
                ", anno='" + anno + '\'' +
                ", genero='" + genero + '\'' +
+               ", version=" + version +
                '}';
     }
 
@@ -0,0 +1,51 @@
+package com.example.playlist_api.entity;
+
+import com.example.playlist_api.repository.DiccionarioNombres;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Guarda un nombre como el ID de su fila en una tabla de nombres y lo lee de vuelta a través de
+ * {@link DiccionarioNombres}, de modo que las entidades comparten la instancia de cada nombre.
+ */
+abstract class DiccionarioConverter implements AttributeConverter<String, Long> {
+
+    private final DiccionarioNombres diccionario;
+    private final DiccionarioNombres.Tabla tabla;
+
+    DiccionarioConverter(DiccionarioNombres diccionario, DiccionarioNombres.Tabla tabla) {
+        this.diccionario = diccionario;
+        this.tabla = tabla;
+    }
+
+    @Override
+    public Long convertToDatabaseColumn(String nombre) {
+        return nombre == null ? null : diccionario.idDe(tabla, nombre);
+    }
+
+    @Override
+    public String convertToEntityAttribute(Long id) {
+        return id == null ? null : diccionario.nombreDe(tabla, id);
+    }
+
+    @Converter
+    static class Artista extends DiccionarioConverter {
+        Artista(DiccionarioNombres diccionario) {
+            super(diccionario, DiccionarioNombres.Tabla.ARTISTAS);
+        }
+    }
+
+    @Converter
+    static class Album extends DiccionarioConverter {
+        Album(DiccionarioNombres diccionario) {
+            super(diccionario, DiccionarioNombres.Tabla.ALBUMES);
+        }
+    }
+
+    @Converter
+    static class Genero extends DiccionarioConverter {
+        Genero(DiccionarioNombres diccionario) {
+            super(diccionario, DiccionarioNombres.Tabla.GENEROS);
+        }
+    }
+}
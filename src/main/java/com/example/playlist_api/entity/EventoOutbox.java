@@ -0,0 +1,39 @@
+package com.example.playlist_api.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Evento pendiente de entregar, escrito en la misma transacción que el cambio que describe.
+ * Los IDs crecientes dan el orden de entrega; la fila se borra cuando todos los destinos la han recibido.
+ */
+@Entity
+@Table(name = "outbox_eventos")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventoOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 16)
+    private String tipo;
+
+    @Column(nullable = false, length = 16)
+    private String accion;
+
+    @Column(name = "recurso_id", nullable = false)
+    private Long recursoId;
+
+    @Column(name = "version_recurso")
+    private Long versionRecurso;
+
+    @Column(name = "creado_en", nullable = false)
+    private Instant creadoEn;
+}
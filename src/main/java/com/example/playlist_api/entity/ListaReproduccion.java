@@ -10,18 +10,22 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "listas_reproduccion")
+@Table(name = "listas_reproduccion",
+       uniqueConstraints = @UniqueConstraint(name = ListaReproduccion.UK_NOMBRE, columnNames = "nombre"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class ListaReproduccion {
 
+    /** Nombre de la restricción única sobre {@code nombre}; el manejador global la reconoce por este nombre. */
+    public static final String UK_NOMBRE = "uk_listas_reproduccion_nombre";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     @NotBlank(message = "El nombre de la lista no puede estar vacío ni ser nulo.")
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String nombre;
 
     @Column
@@ -35,13 +39,41 @@ public class ListaReproduccion {
     )
     private Set<Cancion> canciones = new HashSet<>();
 
+    @Version
+    private Long version;
+
+    /**
+     * Número de canciones de la lista, guardado en la propia fila para que los listados no toquen la tabla de unión.
+     * Lo mantienen {@link #addCancion}, {@link #removeCancion} y {@link #setCanciones}; al ir en la misma fila
+     * versionada que el resto de la lista, se actualiza de forma atómica con ella.
+     */
+    @Column(name = "numero_canciones", nullable = false)
+    private int numeroCanciones;
+
+    public ListaReproduccion(Long id, String nombre, String descripcion, Set<Cancion> canciones) {
+        this(id, nombre, descripcion, canciones, null);
+    }
+
+    public ListaReproduccion(Long id, String nombre, String descripcion, Set<Cancion> canciones, Long version) {
+        this(id, nombre, descripcion, canciones, version, canciones == null ? 0 : canciones.size());
+    }
+
+    public void setCanciones(Set<Cancion> canciones) {
+        this.canciones = canciones;
+        this.numeroCanciones = canciones.size();
+    }
+
     public void addCancion(Cancion cancion) {
-        this.canciones.add(cancion);
+        if (this.canciones.add(cancion)) {
+            numeroCanciones++;
+        }
         cancion.getListasReproduccion().add(this);
     }
 
     public void removeCancion(Cancion cancion) {
-        this.canciones.remove(cancion);
+        if (this.canciones.remove(cancion)) {
+            numeroCanciones--;
+        }
         cancion.getListasReproduccion().remove(this);
     }
     
@@ -51,6 +83,8 @@ public class ListaReproduccion {
                "id=" + id +
                ", nombre='" + nombre + '\'' +
                ", descripcion='" + descripcion + '\'' +
+               ", version=" + version +
+               ", numeroCanciones=" + numeroCanciones +
                '}';
     }
 
@@ -0,0 +1,11 @@
+package com.example.playlist_api.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ActualizacionRechazadaException extends RuntimeException {
+    public ActualizacionRechazadaException(long version, String motivo) {
+        super(String.format("La actualización diferida con versión '%s' se rechazó al aplicarla: %s", version, motivo));
+    }
+}
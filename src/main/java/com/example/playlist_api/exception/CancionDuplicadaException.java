@@ -0,0 +1,11 @@
+package com.example.playlist_api.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class CancionDuplicadaException extends RuntimeException {
+    public CancionDuplicadaException(Long idExistente) {
+        super(String.format("Ya existe una canción con el mismo título, artista y álbum: id '%s'", idExistente));
+    }
+}
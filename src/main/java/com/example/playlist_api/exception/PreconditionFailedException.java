@@ -0,0 +1,11 @@
+package com.example.playlist_api.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String resourceName, String id, Long versionEsperada, Long versionActual) {
+        super(String.format("%s con id '%s' fue modificada: versión esperada %s, versión actual %s", resourceName, id, versionEsperada, versionActual));
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.playlist_api.filter;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Almacén acotado y con caducidad (TTL) de respuestas asociadas a claves {@code Idempotency-Key}.
+ * Mantiene además las peticiones en curso para que los duplicados concurrentes esperen a la primera
+ * en lugar de ejecutarse dos veces.
+ */
+class AlmacenRespuestasIdempotentes {
+
+    /**
+     * Respuesta completada que se reenvía tal cual a los reintentos, con la huella de la petición que la produjo
+     * para rechazar los reintentos con la misma clave y otro contenido.
+     */
+    record RespuestaAlmacenada(int status, String location, String contentType, byte[] body, long expiraEnMs,
+                               String huellaPeticion) {
+    }
+
+    private final int maxEntradas;
+    private final long ttlMs;
+    // Orden de inserción == orden de caducidad, porque todas las entradas comparten el mismo TTL.
+    private final LinkedHashMap<String, RespuestaAlmacenada> respuestas = new LinkedHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<RespuestaAlmacenada>> enCurso = new ConcurrentHashMap<>();
+
+    AlmacenRespuestasIdempotentes(int maxEntradas, long ttlMs) {
+        this.maxEntradas = maxEntradas;
+        this.ttlMs = ttlMs;
+    }
+
+    /**
+     * Devuelve la respuesta almacenada para la clave si existe y no ha caducado.
+     */
+    synchronized RespuestaAlmacenada obtener(String clave, long ahoraMs) {
+        purgarCaducadas(ahoraMs);
+        return respuestas.get(clave);
+    }
+
+    /**
+     * Intenta reservar la clave para ejecutar la petición. Una reserva con éxito no garantiza que la clave siga libre:
+     * la petición anterior pudo completarse justo antes, así que hay que volver a consultar {@link #obtener}.
+     *
+     * @return {@code null} si la reserva tuvo éxito; en otro caso, el futuro de la petición en curso con la misma clave.
+     */
+    CompletableFuture<RespuestaAlmacenada> reservar(String clave) {
+        return enCurso.putIfAbsent(clave, new CompletableFuture<>());
+    }
+
+    /**
+     * Libera la reserva de la clave. Si {@code respuesta} no es {@code null} se almacena y se entrega a los duplicados
+     * en espera; si es {@code null}, los duplicados vuelven a intentar ejecutar la petición.
+     */
+    void completar(String clave, RespuestaAlmacenada respuesta) {
+        if (respuesta != null) {
+            synchronized (this) {
+                respuestas.remove(clave);
+                respuestas.put(clave, respuesta);
+                while (respuestas.size() > maxEntradas) {
+                    Iterator<String> it = respuestas.keySet().iterator();
+                    it.next();
+                    it.remove();
+                }
+            }
+        }
+        CompletableFuture<RespuestaAlmacenada> futuro = enCurso.remove(clave);
+        if (futuro != null) {
+            futuro.complete(respuesta);
+        }
+    }
+
+    long expiracionDesde(long ahoraMs) {
+        return ahoraMs + ttlMs;
+    }
+
+    synchronized int size() {
+        return respuestas.size();
+    }
+
+    private void purgarCaducadas(long ahoraMs) {
+        Iterator<Map.Entry<String, RespuestaAlmacenada>> it = respuestas.entrySet().iterator();
+        while (it.hasNext() && it.next().getValue().expiraEnMs() <= ahoraMs) {
+            it.remove();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.playlist_api.filter;
+
+import com.example.playlist_api.dto.ErrorResponseDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Control de admisión para canciones y listas: limita las peticiones concurrentes con un límite adaptativo
+ * ({@link LimitadorConcurrenciaAdaptativo}) y rechaza al instante el exceso con 503 y {@code Retry-After},
+ * en lugar de dejar que se acumule en la cola de Tomcat esperando una conexión del pool.
+ * Las lecturas (GET/HEAD) tienen prioridad sobre las escrituras.
+ * Publica el límite actual, las peticiones en curso y los rechazos como métricas
+ * ({@code playlist.concurrency.*} en {@code /actuator/metrics}).
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 2)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter implements MeterBinder {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private final boolean habilitado;
+    private final long retryAfterSegundos;
+    private final LimitadorConcurrenciaAdaptativo limitador;
+
+    public ConcurrencyLimitFilter(@Value("${app.concurrency.enabled:true}") boolean habilitado,
+                                  @Value("${app.concurrency.initial-limit:20}") int limiteInicial,
+                                  @Value("${app.concurrency.min-limit:2}") int limiteMinimo,
+                                  @Value("${app.concurrency.max-limit:200}") int limiteMaximo,
+                                  @Value("${app.concurrency.latency-threshold-ms:500}") long latenciaMaximaMs,
+                                  @Value("${app.concurrency.backoff-ratio:0.9}") double factorReduccion,
+                                  @Value("${app.concurrency.write-share:0.8}") double fraccionEscrituras,
+                                  @Value("${app.concurrency.retry-after-s:1}") long retryAfterSegundos) {
+        this.habilitado = habilitado;
+        this.retryAfterSegundos = retryAfterSegundos;
+        this.limitador = new LimitadorConcurrenciaAdaptativo(limiteInicial, limiteMinimo, limiteMaximo,
+                TimeUnit.MILLISECONDS.toNanos(latenciaMaximaMs), factorReduccion, fraccionEscrituras);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return !habilitado || !(uri.startsWith("/api/canciones") || uri.startsWith("/api/listas"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        LimitadorConcurrenciaAdaptativo.Prioridad prioridad =
+                HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod())
+                        ? LimitadorConcurrenciaAdaptativo.Prioridad.LECTURA
+                        : LimitadorConcurrenciaAdaptativo.Prioridad.ESCRITURA;
+        if (!limitador.adquirir(prioridad)) {
+            rechazar(request, response);
+            return;
+        }
+        long inicio = System.nanoTime();
+        boolean fallida = true;
+        try {
+            chain.doFilter(request, response);
+            fallida = response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value();
+        } finally {
+            limitador.liberar(System.nanoTime() - inicio, fallida);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("playlist.concurrency.limit", limitador, LimitadorConcurrenciaAdaptativo::getLimite)
+                .description("Límite adaptativo de peticiones concurrentes")
+                .register(registry);
+        Gauge.builder("playlist.concurrency.in-flight", limitador, LimitadorConcurrenciaAdaptativo::getEnCurso)
+                .description("Peticiones admitidas en curso")
+                .register(registry);
+        for (LimitadorConcurrenciaAdaptativo.Prioridad prioridad : LimitadorConcurrenciaAdaptativo.Prioridad.values()) {
+            FunctionCounter.builder("playlist.concurrency.rejected", limitador, l -> l.getRechazos(prioridad))
+                    .description("Peticiones rechazadas con 503 por el control de admisión")
+                    .tag("priority", prioridad == LimitadorConcurrenciaAdaptativo.Prioridad.LECTURA ? "read" : "write")
+                    .register(registry);
+        }
+    }
+
+    LimitadorConcurrenciaAdaptativo getLimitador() {
+        return limitador;
+    }
+
+    private void rechazar(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSegundos));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        ErrorResponseDto errorResponse = new ErrorResponseDto(
+                LocalDateTime.now(),
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Service Unavailable",
+                "El servicio está saturado. Reintente en " + retryAfterSegundos + " s.",
+                request.getRequestURI(),
+                null
+        );
+        OBJECT_MAPPER.writeValue(response.getOutputStream(), errorResponse);
+    }
+}
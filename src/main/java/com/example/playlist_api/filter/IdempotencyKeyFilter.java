@@ -0,0 +1,270 @@
+package com.example.playlist_api.filter;
+
+import com.example.playlist_api.dto.ErrorResponseDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Filtro que da soporte a la cabecera {@code Idempotency-Key} en las peticiones POST de canciones y listas.
+ * La primera petición con una clave se ejecuta normalmente y, si termina con éxito (2xx), su estado, {@code Location}
+ * y cuerpo se guardan en memoria; los reintentos con la misma clave se responden desde ahí sin tocar la base de datos.
+ * Las peticiones duplicadas que llegan mientras la primera está en curso esperan a su resultado.
+ * Con cada respuesta se guarda el SHA-256 de la petición (query string y cuerpo): reutilizar la clave con otro
+ * contenido se responde con 422 (Unprocessable Entity) en lugar de devolver la respuesta de la primera petición.
+ * Se ejecuta después de la cadena de Spring Security, por lo que las claves se aíslan por usuario autenticado.
+ */
+@Component
+public class IdempotencyKeyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private final AlmacenRespuestasIdempotentes almacen;
+    private final long esperaMaximaMs;
+
+    @Autowired
+    public IdempotencyKeyFilter(@Value("${app.idempotency.max-entries:10000}") int maxEntradas,
+                                @Value("${app.idempotency.ttl-ms:3600000}") long ttlMs,
+                                @Value("${app.idempotency.wait-timeout-ms:30000}") long esperaMaximaMs) {
+        this(new AlmacenRespuestasIdempotentes(maxEntradas, ttlMs), esperaMaximaMs);
+    }
+
+    IdempotencyKeyFilter(AlmacenRespuestasIdempotentes almacen, long esperaMaximaMs) {
+        this.almacen = almacen;
+        this.esperaMaximaMs = esperaMaximaMs;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!HttpMethod.POST.matches(request.getMethod()) || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null) {
+            return true;
+        }
+        String uri = request.getRequestURI();
+        return !(uri.startsWith("/api/canciones") || uri.startsWith("/api/listas"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String clave = construirClave(request);
+        byte[] cuerpo = request.getInputStream().readAllBytes();
+        String huella = huellaPeticion(request.getQueryString(), cuerpo);
+        HttpServletRequest releible = new PeticionReleible(request, cuerpo);
+
+        while (true) {
+            AlmacenRespuestasIdempotentes.RespuestaAlmacenada almacenada = almacen.obtener(clave, System.currentTimeMillis());
+            if (almacenada != null) {
+                reenviar(almacenada, huella, request, response);
+                return;
+            }
+            CompletableFuture<AlmacenRespuestasIdempotentes.RespuestaAlmacenada> enCurso = almacen.reservar(clave);
+            if (enCurso == null) {
+                // La petición anterior pudo completarse entre la consulta y la reserva: su respuesta ya está guardada.
+                almacenada = almacen.obtener(clave, System.currentTimeMillis());
+                if (almacenada != null) {
+                    almacen.completar(clave, null);
+                    reenviar(almacenada, huella, request, response);
+                    return;
+                }
+                ejecutarYAlmacenar(clave, huella, releible, response, chain);
+                return;
+            }
+            AlmacenRespuestasIdempotentes.RespuestaAlmacenada resultado = esperar(enCurso, request, response);
+            if (response.isCommitted()) {
+                return;
+            }
+            if (resultado != null) {
+                reenviar(resultado, huella, request, response);
+                return;
+            }
+            // La petición original falló y no se almacenó: este reintento intenta ejecutarla de nuevo.
+        }
+    }
+
+    private void ejecutarYAlmacenar(String clave, String huella, HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain)
+            throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        AlmacenRespuestasIdempotentes.RespuestaAlmacenada respuesta = null;
+        try {
+            chain.doFilter(request, wrapper);
+            int status = wrapper.getStatus();
+            if (status >= 200 && status < 300) {
+                respuesta = new AlmacenRespuestasIdempotentes.RespuestaAlmacenada(
+                        status,
+                        wrapper.getHeader(HttpHeaders.LOCATION),
+                        wrapper.getContentType(),
+                        wrapper.getContentAsByteArray(),
+                        almacen.expiracionDesde(System.currentTimeMillis()),
+                        huella);
+            }
+        } finally {
+            almacen.completar(clave, respuesta);
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private AlmacenRespuestasIdempotentes.RespuestaAlmacenada esperar(
+            CompletableFuture<AlmacenRespuestasIdempotentes.RespuestaAlmacenada> enCurso, HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        try {
+            return enCurso.get(esperaMaximaMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            rechazar(request, response, HttpStatus.CONFLICT, "Una petición con la misma Idempotency-Key sigue en curso.");
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            return null;
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    private void reenviar(AlmacenRespuestasIdempotentes.RespuestaAlmacenada almacenada, String huella,
+                          HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!almacenada.huellaPeticion().equals(huella)) {
+            rechazar(request, response, HttpStatus.UNPROCESSABLE_ENTITY, "La Idempotency-Key ya se usó con una petición distinta.");
+            return;
+        }
+        response.setStatus(almacenada.status());
+        if (almacenada.location() != null) {
+            response.setHeader(HttpHeaders.LOCATION, almacenada.location());
+        }
+        if (almacenada.contentType() != null) {
+            response.setContentType(almacenada.contentType());
+        }
+        response.setHeader(IDEMPOTENT_REPLAYED_HEADER, "true");
+        response.setContentLength(almacenada.body().length);
+        response.getOutputStream().write(almacenada.body());
+    }
+
+    private String construirClave(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String usuario = authentication != null ? authentication.getName() : "";
+        return usuario + '\n' + request.getRequestURI() + '\n' + request.getHeader(IDEMPOTENCY_KEY_HEADER);
+    }
+
+    /**
+     * Responde con el cuerpo habitual de {@link ErrorResponseDto}. No usa {@code sendError}: el reenvío a
+     * {@code /error} pasaría otra vez por la seguridad y el cliente recibiría un 401.
+     */
+    private void rechazar(HttpServletRequest request, HttpServletResponse response, HttpStatus status, String mensaje)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        ErrorResponseDto errorResponse = new ErrorResponseDto(
+                LocalDateTime.now(),
+                status.value(),
+                status.getReasonPhrase(),
+                mensaje,
+                request.getRequestURI(),
+                null
+        );
+        OBJECT_MAPPER.writeValue(response.getOutputStream(), errorResponse);
+        response.flushBuffer();
+    }
+
+    static String huellaPeticion(String queryString, byte[] cuerpo) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            if (queryString != null) {
+                sha256.update(queryString.getBytes(StandardCharsets.UTF_8));
+            }
+            sha256.update((byte) '\n');
+            return HexFormat.of().formatHex(sha256.digest(cuerpo));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no está disponible", e);
+        }
+    }
+
+    /**
+     * Petición cuyo cuerpo ya se leyó para calcular su huella; lo vuelve a ofrecer a la cadena de filtros.
+     */
+    private static final class PeticionReleible extends HttpServletRequestWrapper {
+        private final byte[] cuerpo;
+
+        PeticionReleible(HttpServletRequest request, byte[] cuerpo) {
+            super(request);
+            this.cuerpo = cuerpo;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream entrada = new ByteArrayInputStream(cuerpo);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return entrada.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return entrada.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return entrada.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    // El cuerpo ya está en memoria: todo está disponible desde el primer momento.
+                    try {
+                        readListener.onDataAvailable();
+                        readListener.onAllDataRead();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String charset = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            return new BufferedReader(new InputStreamReader(getInputStream(), Charset.forName(charset)));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.playlist_api.filter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Límite de peticiones concurrentes que se ajusta solo con AIMD (incremento aditivo, decremento multiplicativo)
+ * según la latencia observada: cada petición lenta o fallida multiplica el límite por {@code factorReduccion}
+ * y cada petición rápida con el límite en uso lo aumenta en uno.
+ * Las escrituras solo pueden ocupar una fracción del límite, de modo que bajo saturación se rechazan antes que las lecturas.
+ */
+class LimitadorConcurrenciaAdaptativo {
+
+    enum Prioridad { LECTURA, ESCRITURA }
+
+    private final int limiteMinimo;
+    private final int limiteMaximo;
+    private final long latenciaMaximaNanos;
+    private final double factorReduccion;
+    private final double fraccionEscrituras;
+
+    private final AtomicInteger enCurso = new AtomicInteger();
+    private final LongAdder rechazosLectura = new LongAdder();
+    private final LongAdder rechazosEscritura = new LongAdder();
+    private volatile double limite;
+
+    LimitadorConcurrenciaAdaptativo(int limiteInicial, int limiteMinimo, int limiteMaximo, long latenciaMaximaNanos,
+                                    double factorReduccion, double fraccionEscrituras) {
+        this.limite = limiteInicial;
+        this.limiteMinimo = limiteMinimo;
+        this.limiteMaximo = limiteMaximo;
+        this.latenciaMaximaNanos = latenciaMaximaNanos;
+        this.factorReduccion = factorReduccion;
+        this.fraccionEscrituras = fraccionEscrituras;
+    }
+
+    /**
+     * Intenta ocupar un hueco. Si devuelve {@code true}, el llamante debe invocar {@link #liberar} al terminar.
+     */
+    boolean adquirir(Prioridad prioridad) {
+        int maximo = prioridad == Prioridad.LECTURA
+                ? getLimite()
+                : Math.max(1, (int) (getLimite() * fraccionEscrituras));
+        while (true) {
+            int actual = enCurso.get();
+            if (actual >= maximo) {
+                (prioridad == Prioridad.LECTURA ? rechazosLectura : rechazosEscritura).increment();
+                return false;
+            }
+            if (enCurso.compareAndSet(actual, actual + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Libera el hueco y ajusta el límite con la muestra de la petición.
+     *
+     * @param latenciaNanos Duración de la petición.
+     * @param fallida {@code true} si terminó con error del servidor (p. ej. sin conexiones libres en el pool).
+     */
+    void liberar(long latenciaNanos, boolean fallida) {
+        int enCursoAlTerminar = enCurso.getAndDecrement();
+        synchronized (this) {
+            double actual = limite;
+            if (fallida || latenciaNanos > latenciaMaximaNanos) {
+                limite = Math.max(limiteMinimo, actual * factorReduccion);
+            } else if (enCursoAlTerminar * 2 >= actual) {
+                // Solo se sube el límite cuando se está usando: con poca carga no hay información para hacerlo.
+                limite = Math.min(limiteMaximo, actual + 1);
+            }
+        }
+    }
+
+    int getLimite() {
+        return (int) limite;
+    }
+
+    int getEnCurso() {
+        return enCurso.get();
+    }
+
+    long getRechazos(Prioridad prioridad) {
+        return (prioridad == Prioridad.LECTURA ? rechazosLectura : rechazosEscritura).sum();
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.playlist_api.filter;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Conjunto de token buckets sin bloqueos, uno por clave.
+ * Cada bucket se guarda como un único {@code long} (el instante teórico de la siguiente petición, algoritmo GCRA,
+ * equivalente a un token bucket) que se actualiza con CAS, de modo que consumir un token no toma ningún lock.
+ * Los buckets completamente recargados equivalen a no tenerlos y se eliminan cuando el mapa supera {@code maxClaves}.
+ */
+class LimitadorTokenBucket {
+
+    /**
+     * Límite de un bucket: hasta {@code capacidad} peticiones seguidas y {@code recargaPorSegundo} tokens por segundo.
+     */
+    record Limite(int capacidad, double recargaPorSegundo) {
+
+        Limite {
+            if (capacidad < 1 || recargaPorSegundo <= 0) {
+                throw new IllegalArgumentException("Límite inválido: capacidad=" + capacidad + ", recarga=" + recargaPorSegundo);
+            }
+        }
+
+        long intervaloNanos() {
+            return (long) (1_000_000_000L / recargaPorSegundo);
+        }
+
+        long toleranciaNanos() {
+            return intervaloNanos() * (capacidad - 1);
+        }
+    }
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean limpiando = new AtomicBoolean();
+    private final int maxClaves;
+
+    LimitadorTokenBucket(int maxClaves) {
+        this.maxClaves = maxClaves;
+    }
+
+    /**
+     * Intenta consumir un token del bucket de la clave.
+     *
+     * @return 0 si la petición se admite; en otro caso, los nanosegundos que faltan para que haya un token disponible.
+     */
+    long intentarConsumir(String clave, Limite limite, long ahoraNanos) {
+        AtomicLong bucket = buckets.get(clave);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(clave, k -> new AtomicLong(ahoraNanos));
+            if (buckets.size() > maxClaves) {
+                eliminarRecargados(ahoraNanos);
+            }
+        }
+        long intervalo = limite.intervaloNanos();
+        long tolerancia = limite.toleranciaNanos();
+        while (true) {
+            long actual = bucket.get();
+            long llegadaTeorica = Math.max(actual, ahoraNanos);
+            long adelanto = llegadaTeorica - ahoraNanos;
+            if (adelanto > tolerancia) {
+                return adelanto - tolerancia;
+            }
+            if (bucket.compareAndSet(actual, llegadaTeorica + intervalo)) {
+                return 0L;
+            }
+        }
+    }
+
+    int size() {
+        return buckets.size();
+    }
+
+    private void eliminarRecargados(long ahoraNanos) {
+        if (limpiando.compareAndSet(false, true)) {
+            try {
+                buckets.values().removeIf(bucket -> bucket.get() <= ahoraNanos);
+            } finally {
+                limpiando.set(false);
+            }
+        }
+    }
+}
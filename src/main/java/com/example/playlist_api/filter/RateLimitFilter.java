@@ -0,0 +1,142 @@
+package com.example.playlist_api.filter;
+
+import com.example.playlist_api.dto.ErrorResponseDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filtro de limitación de peticiones (rate limiting) con token buckets por usuario autenticado y por ruta.
+ * Se ejecuta justo después de la cadena de Spring Security (y por tanto de {@code JwtRequestFilter}), con el usuario
+ * ya resuelto. La ruta es el método más la URI con los segmentos numéricos sustituidos por {@code {id}},
+ * p. ej. {@code GET /api/canciones/{id}}; las rutas sin límite propio en {@code app.rate-limit.routes} usan el límite por defecto.
+ * Cuando el bucket está vacío responde 429 con {@code Retry-After} y el cuerpo habitual de {@link ErrorResponseDto}.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 1)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private final boolean habilitado;
+    private final LimitadorTokenBucket limitador;
+    private final LimitadorTokenBucket.Limite limitePorDefecto;
+    private final Map<String, LimitadorTokenBucket.Limite> limitesPorRuta;
+
+    /**
+     * @param rutas Límites por ruta con el formato {@code MÉTODO ruta=capacidad/recarga por segundo}, separados por {@code ;}.
+     */
+    public RateLimitFilter(@Value("${app.rate-limit.enabled:true}") boolean habilitado,
+                           @Value("${app.rate-limit.capacity:100}") int capacidad,
+                           @Value("${app.rate-limit.refill-per-second:50}") double recargaPorSegundo,
+                           @Value("${app.rate-limit.routes:}") String rutas,
+                           @Value("${app.rate-limit.max-keys:100000}") int maxClaves) {
+        this.habilitado = habilitado;
+        this.limitador = new LimitadorTokenBucket(maxClaves);
+        this.limitePorDefecto = new LimitadorTokenBucket.Limite(capacidad, recargaPorSegundo);
+        this.limitesPorRuta = parsearRutas(rutas);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !habilitado || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || authentication instanceof AnonymousAuthenticationToken) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String ruta = request.getMethod() + ' ' + normalizarRuta(request.getRequestURI());
+        LimitadorTokenBucket.Limite limite = limitesPorRuta.getOrDefault(ruta, limitePorDefecto);
+        long esperaNanos = limitador.intentarConsumir(authentication.getName() + '\n' + ruta, limite, System.nanoTime());
+        if (esperaNanos == 0L) {
+            chain.doFilter(request, response);
+            return;
+        }
+        rechazar(request, response, esperaNanos);
+    }
+
+    private void rechazar(HttpServletRequest request, HttpServletResponse response, long esperaNanos) throws IOException {
+        long segundos = Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(esperaNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(segundos));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        ErrorResponseDto errorResponse = new ErrorResponseDto(
+                LocalDateTime.now(),
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                "Too Many Requests",
+                "Se ha superado el límite de peticiones. Reintente en " + segundos + " s.",
+                request.getRequestURI(),
+                null
+        );
+        OBJECT_MAPPER.writeValue(response.getOutputStream(), errorResponse);
+    }
+
+    /**
+     * Sustituye los segmentos numéricos de la URI por {@code {id}} para que todas las peticiones a un mismo endpoint
+     * compartan bucket.
+     */
+    static String normalizarRuta(String uri) {
+        StringBuilder ruta = new StringBuilder(uri.length() + 4);
+        int i = 0;
+        while (i < uri.length()) {
+            char c = uri.charAt(i++);
+            ruta.append(c);
+            if (c == '/') {
+                int fin = i;
+                while (fin < uri.length() && Character.isDigit(uri.charAt(fin))) {
+                    fin++;
+                }
+                if (fin > i && (fin == uri.length() || uri.charAt(fin) == '/')) {
+                    ruta.append("{id}");
+                    i = fin;
+                }
+            }
+        }
+        return ruta.toString();
+    }
+
+    private static Map<String, LimitadorTokenBucket.Limite> parsearRutas(String rutas) {
+        Map<String, LimitadorTokenBucket.Limite> limites = new HashMap<>();
+        for (String definicion : rutas.split(";")) {
+            if (definicion.isBlank()) {
+                continue;
+            }
+            int igual = definicion.lastIndexOf('=');
+            int barra = definicion.lastIndexOf('/');
+            if (igual < 0 || barra < igual) {
+                throw new IllegalArgumentException("Límite de ruta inválido en app.rate-limit.routes: " + definicion);
+            }
+            String ruta = definicion.substring(0, igual).trim().replaceAll("\\s+", " ");
+            int capacidad = Integer.parseInt(definicion.substring(igual + 1, barra).trim());
+            double recarga = Double.parseDouble(definicion.substring(barra + 1).trim());
+            limites.put(ruta, new LimitadorTokenBucket.Limite(capacidad, recarga));
+        }
+        return Map.copyOf(limites);
+    }
+}
@@ -2,8 +2,116 @@ package com.example.playlist_api.repository;
 
 import com.example.playlist_api.entity.Cancion;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface CancionRepository extends JpaRepository<Cancion, Long> {
+
+    /**
+     * Descuenta la canción de todas las listas que la contienen con un único UPDATE, incrementando también su versión
+     * para que las cachés de los clientes ({@code ETag}) y las escrituras optimistas en curso detecten el cambio.
+     * Debe ejecutarse antes de {@link #quitarDeListas}, mientras las filas de la tabla de unión siguen existiendo.
+     *
+     * @return El número de listas afectadas.
+     */
+    @Modifying
+    @Query(value = "UPDATE listas_reproduccion SET numero_canciones = numero_canciones - 1, version = version + 1"
+            + " WHERE id IN (SELECT lrc.lista_reproduccion_id FROM lista_reproduccion_canciones lrc WHERE lrc.cancion_id = :id)",
+            nativeQuery = true)
+    int descontarDeListas(@Param("id") Long id);
+
+    /**
+     * Borra las filas de la tabla de unión de una canción con un único DELETE, sin cargar las listas.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM lista_reproduccion_canciones WHERE cancion_id = :id", nativeQuery = true)
+    int quitarDeListas(@Param("id") Long id);
+
+    /**
+     * Borra una canción sin cargarla ni cargar sus listas.
+     *
+     * @return 1 si existía, 0 en caso contrario.
+     */
+    @Modifying
+    @Query("delete from Cancion c where c.id = :id")
+    int borrarPorId(@Param("id") Long id);
+
+    /**
+     * Busca por el índice de huellas la canción más antigua con esa huella.
+     */
+    @Query(value = "SELECT id FROM canciones WHERE huella = :huella ORDER BY id LIMIT 1", nativeQuery = true)
+    Optional<Long> buscarIdPorHuella(@Param("huella") String huella);
+
+    /**
+     * Como {@link #buscarIdPorHuella} pero sin tener en cuenta la canción indicada, para comprobar una modificación.
+     */
+    @Query(value = "SELECT id FROM canciones WHERE huella = :huella AND id <> :id ORDER BY id LIMIT 1", nativeQuery = true)
+    Optional<Long> buscarOtraIdPorHuella(@Param("huella") String huella, @Param("id") Long id);
+
+    /**
+     * IDs de las listas que contienen alguna de las canciones indicadas.
+     */
+    @Query(value = "SELECT DISTINCT lista_reproduccion_id FROM lista_reproduccion_canciones WHERE cancion_id IN (:ids)",
+            nativeQuery = true)
+    List<Long> buscarIdsListasConCanciones(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Ajusta las listas que contienen alguna de las {@code duplicadas} antes de fusionarlas en {@code canonica}:
+     * cada lista quedará con una sola fila del grupo ({@code grupo}, que incluye la canónica), así que su número de
+     * canciones pierde todas las filas del grupo menos una. También incrementa su versión.
+     * Debe ejecutarse antes de {@link #apuntarDuplicadasACanonica} y {@link #quitarDuplicadasDeListas}.
+     *
+     * @return El número de listas afectadas.
+     */
+    @Modifying
+    @Query(value = "UPDATE listas_reproduccion l SET version = version + 1,"
+            + " numero_canciones = numero_canciones + 1 - (SELECT COUNT(*) FROM lista_reproduccion_canciones lrc"
+            + "   WHERE lrc.lista_reproduccion_id = l.id AND lrc.cancion_id IN (:grupo))"
+            + " WHERE id IN (SELECT lrc.lista_reproduccion_id FROM lista_reproduccion_canciones lrc WHERE lrc.cancion_id IN (:duplicadas))",
+            nativeQuery = true)
+    int descontarDuplicadasDeListas(@Param("grupo") Collection<Long> grupo, @Param("duplicadas") Collection<Long> duplicadas);
+
+    /**
+     * Pares {@code [id, version]} de las listas indicadas, para publicar sus cambios con la versión que dejó
+     * {@link #descontarDuplicadasDeListas}.
+     */
+    @Query(value = "SELECT id, version FROM listas_reproduccion WHERE id IN (:ids)", nativeQuery = true)
+    List<Object[]> buscarVersionesListas(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Añade la canción canónica a las listas que contienen alguna duplicada y aún no la tienen.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO lista_reproduccion_canciones (lista_reproduccion_id, cancion_id)"
+            + " SELECT DISTINCT d.lista_reproduccion_id, :canonica FROM lista_reproduccion_canciones d"
+            + " WHERE d.cancion_id IN (:duplicadas) AND NOT EXISTS (SELECT 1 FROM lista_reproduccion_canciones c"
+            + "   WHERE c.lista_reproduccion_id = d.lista_reproduccion_id AND c.cancion_id = :canonica)",
+            nativeQuery = true)
+    int apuntarDuplicadasACanonica(@Param("canonica") Long canonica, @Param("duplicadas") Collection<Long> duplicadas);
+
+    /**
+     * Borra las filas de la tabla de unión de las canciones indicadas.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM lista_reproduccion_canciones WHERE cancion_id IN (:ids)", nativeQuery = true)
+    int quitarDuplicadasDeListas(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Borra las canciones indicadas sin cargarlas.
+     *
+     * @return El número de canciones borradas.
+     */
+    @Modifying
+    @Query("delete from Cancion c where c.id in :ids")
+    int borrarPorIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select c.id from Cancion c where c.id in :ids")
+    List<Long> findIdsByIdIn(@Param("ids") Collection<Long> ids);
 }
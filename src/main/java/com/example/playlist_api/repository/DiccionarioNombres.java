@@ -0,0 +1,192 @@
+package com.example.playlist_api.repository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Diccionarios en memoria de las tablas de nombres ({@code artistas}, {@code albumes}, {@code generos}): traducen cada
+ * nombre a su ID y cada ID a su nombre. Cada nombre se guarda una sola vez por proceso, así que todas las canciones
+ * cargadas comparten la misma instancia de {@code String} para el mismo artista, álbum o género.
+ * <p>
+ * Cada tabla se carga entera la primera vez que se usa. Los nombres nuevos se registran con {@code MERGE} en la
+ * transacción de quien los pide, sin ocupar otra conexión, y solo pasan al diccionario cuando esa transacción se
+ * confirma: si se deshace, el diccionario no guarda un ID que no llegó a existir. Hasta entonces, esa transacción los
+ * resuelve desde su propio registro. Si dos transacciones registran el mismo nombre a la vez, la segunda espera a la
+ * primera y reutiliza su fila. Los IDs que no están en memoria y no registró la transacción en curso ya están
+ * confirmados (por ejemplo, los insertó la variante reactiva), así que se guardan en cuanto se leen.
+ */
+@Repository
+public class DiccionarioNombres implements MeterBinder {
+
+    /** Tablas de nombres referenciadas desde {@code canciones}. */
+    public enum Tabla {
+        ARTISTAS, ALBUMES, GENEROS;
+
+        String nombreTabla() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Tabla, Diccionario> diccionarios = new EnumMap<>(Tabla.class);
+
+    public DiccionarioNombres(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        for (Tabla tabla : Tabla.values()) {
+            diccionarios.put(tabla, new Diccionario(tabla));
+        }
+    }
+
+    /**
+     * ID del nombre en la tabla, insertándolo si aún no existe.
+     */
+    public long idDe(Tabla tabla, String nombre) {
+        Diccionario diccionario = diccionarios.get(tabla);
+        Long id = diccionario.buscarId(nombre);
+        if (id != null) {
+            return id;
+        }
+        Map<String, Long> propios = registradosEnLaTransaccion(diccionario);
+        if (propios != null && propios.containsKey(nombre)) {
+            return propios.get(nombre);
+        }
+        jdbcTemplate.update("MERGE INTO " + tabla.nombreTabla() + " (nombre) KEY (nombre) VALUES (?)", nombre);
+        id = jdbcTemplate.queryForObject("SELECT id FROM " + tabla.nombreTabla() + " WHERE nombre = ?", Long.class, nombre);
+        guardarAlConfirmar(diccionario, id, nombre);
+        return id;
+    }
+
+    /**
+     * Nombre con ese ID en la tabla, siempre la misma instancia para el mismo ID.
+     */
+    public String nombreDe(Tabla tabla, long id) {
+        Diccionario diccionario = diccionarios.get(tabla);
+        String nombre = diccionario.buscarNombre(id);
+        if (nombre != null) {
+            return nombre;
+        }
+        Map<String, Long> propios = registradosEnLaTransaccion(diccionario);
+        if (propios != null) {
+            for (Map.Entry<String, Long> registrado : propios.entrySet()) {
+                if (registrado.getValue() == id) {
+                    return registrado.getKey();
+                }
+            }
+        }
+        List<String> leidos = jdbcTemplate.queryForList("SELECT nombre FROM " + tabla.nombreTabla() + " WHERE id = ?",
+                String.class, id);
+        if (leidos.isEmpty()) {
+            throw new IllegalStateException("No existe el ID " + id + " en " + tabla.nombreTabla());
+        }
+        return diccionario.guardar(id, leidos.get(0));
+    }
+
+    /**
+     * Guarda un nombre que acaba de registrar {@link #idDe}: en cuanto se confirme la transacción en curso, o ya si no
+     * hay ninguna. Hasta la confirmación queda en el registro de la transacción.
+     */
+    private void guardarAlConfirmar(Diccionario diccionario, long id, String nombre) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            diccionario.guardar(id, nombre);
+            return;
+        }
+        Map<String, Long> propios = registradosEnLaTransaccion(diccionario);
+        if (propios == null) {
+            Map<String, Long> nuevos = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(diccionario, nuevos);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    nuevos.forEach((registrado, registradoId) -> diccionario.guardar(registradoId, registrado));
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(diccionario);
+                }
+            });
+            propios = nuevos;
+        }
+        propios.put(nombre, id);
+    }
+
+    /**
+     * Nombres de la tabla que registró la transacción en curso y aún no están en el diccionario, o {@code null}.
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Long> registradosEnLaTransaccion(Diccionario diccionario) {
+        return (Map<String, Long>) TransactionSynchronizationManager.getResource(diccionario);
+    }
+
+    int getEntradas(Tabla tabla) {
+        return diccionarios.get(tabla).nombres.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Tabla tabla : Tabla.values()) {
+            Gauge.builder("playlist.dictionary.entries", this, d -> d.getEntradas(tabla))
+                    .description("Nombres distintos en memoria de cada tabla de nombres")
+                    .tag("tabla", tabla.nombreTabla())
+                    .register(registry);
+        }
+    }
+
+    /** Las dos direcciones de una tabla de nombres. */
+    private final class Diccionario {
+        private final Tabla tabla;
+        private final ConcurrentHashMap<String, Long> ids = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<Long, String> nombres = new ConcurrentHashMap<>();
+        private volatile boolean cargado;
+
+        Diccionario(Tabla tabla) {
+            this.tabla = tabla;
+        }
+
+        Long buscarId(String nombre) {
+            cargar();
+            return ids.get(nombre);
+        }
+
+        String buscarNombre(long id) {
+            cargar();
+            return nombres.get(id);
+        }
+
+        /**
+         * Guarda la pareja y devuelve la instancia de nombre que comparte todo el proceso.
+         */
+        String guardar(long id, String nombre) {
+            String existente = nombres.putIfAbsent(id, nombre);
+            String canonico = existente != null ? existente : nombre;
+            ids.putIfAbsent(canonico, id);
+            return canonico;
+        }
+
+        private void cargar() {
+            if (cargado) {
+                return;
+            }
+            synchronized (this) {
+                if (!cargado) {
+                    jdbcTemplate.query("SELECT id, nombre FROM " + tabla.nombreTabla(),
+                            (RowCallbackHandler) rs -> guardar(rs.getLong(1), rs.getString(2)));
+                    cargado = true;
+                }
+            }
+        }
+    }
+}
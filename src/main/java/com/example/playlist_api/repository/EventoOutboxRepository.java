@@ -0,0 +1,17 @@
+package com.example.playlist_api.repository;
+
+import com.example.playlist_api.entity.EventoOutbox;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface EventoOutboxRepository extends JpaRepository<EventoOutbox, Long> {
+
+    /**
+     * Eventos pendientes más antiguos, en orden de ID.
+     */
+    List<EventoOutbox> findAllByOrderByIdAsc(Limit limit);
+}
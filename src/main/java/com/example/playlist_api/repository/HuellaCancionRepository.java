@@ -0,0 +1,84 @@
+package com.example.playlist_api.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lecturas y escrituras de la columna {@code huella} de {@code canciones} sin pasar por entidades: el relleno de
+ * las huellas que faltan y la búsqueda de grupos de canciones duplicadas. Las usa {@code DeduplicadorCanciones}.
+ */
+@Repository
+public class HuellaCancionRepository {
+
+    /** Canción sin huella, con los campos de los que se calcula. */
+    public record CancionSinHuella(long id, String titulo, String artista, String album) {
+    }
+
+    /** Huella calculada para una canción. */
+    public record HuellaAsignada(long id, String huella) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public HuellaCancionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Hasta {@code limite} canciones sin huella, por orden de ID.
+     */
+    public List<CancionSinHuella> buscarSinHuella(int limite) {
+        return jdbcTemplate.query("SELECT c.id, c.titulo, a.nombre, al.nombre FROM canciones c"
+                        + " JOIN artistas a ON a.id = c.artista_id JOIN albumes al ON al.id = c.album_id"
+                        + " WHERE c.huella IS NULL ORDER BY c.id LIMIT ?",
+                (rs, fila) -> new CancionSinHuella(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4)),
+                limite);
+    }
+
+    /**
+     * Guarda las huellas en un único lote JDBC, sin incrementar la versión. Una actualización de la canción puede
+     * recalcular su huella entre la lectura y este lote; la condición {@code huella IS NULL} evita pisar esa huella
+     * con la calculada a partir de los campos antiguos.
+     */
+    public void asignarHuellas(List<HuellaAsignada> huellas) {
+        jdbcTemplate.batchUpdate("UPDATE canciones SET huella = ? WHERE id = ? AND huella IS NULL", huellas, huellas.size(),
+                (ps, huella) -> {
+                    ps.setString(1, huella.huella());
+                    ps.setLong(2, huella.id());
+                });
+    }
+
+    /**
+     * Grupos de canciones con la misma huella, cada uno con sus IDs de menor a mayor. Recorre el índice de huellas
+     * en orden, así que cada grupo llega en filas consecutivas.
+     */
+    public List<long[]> buscarGruposDuplicados() {
+        List<long[]> grupos = new ArrayList<>();
+        List<Long> grupoActual = new ArrayList<>();
+        String[] huellaActual = {null};
+        jdbcTemplate.query("SELECT huella, id FROM canciones WHERE huella IN"
+                        + " (SELECT huella FROM canciones WHERE huella IS NOT NULL GROUP BY huella HAVING COUNT(*) > 1)"
+                        + " ORDER BY huella, id",
+                (RowCallbackHandler) rs -> {
+                    String huella = rs.getString(1);
+                    if (!huella.equals(huellaActual[0])) {
+                        cerrarGrupo(grupos, grupoActual);
+                        huellaActual[0] = huella;
+                    }
+                    grupoActual.add(rs.getLong(2));
+                });
+        cerrarGrupo(grupos, grupoActual);
+        return grupos;
+    }
+
+    private static void cerrarGrupo(List<long[]> grupos, List<Long> grupo) {
+        if (!grupo.isEmpty()) {
+            grupos.add(grupo.stream().mapToLong(Long::longValue).toArray());
+            grupo.clear();
+        }
+    }
+}
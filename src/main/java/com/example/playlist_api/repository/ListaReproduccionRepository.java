@@ -1,12 +1,82 @@
 package com.example.playlist_api.repository;
 
+import com.example.playlist_api.dto.ListaReproduccionResumenDto;
 import com.example.playlist_api.entity.ListaReproduccion;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ListaReproduccionRepository extends JpaRepository<ListaReproduccion, Long> {
     Optional<ListaReproduccion> findByNombre(String nombre);
     boolean existsByNombre(String nombre);
+
+    @Query("select distinct l from ListaReproduccion l left join fetch l.canciones where l.id in :ids")
+    List<ListaReproduccion> findAllWithCancionesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Resumen de todas las listas leyendo solo columnas de {@code listas_reproduccion}, sin la tabla de unión.
+     */
+    @Query("select new com.example.playlist_api.dto.ListaReproduccionResumenDto(l.id, l.nombre, l.descripcion, l.numeroCanciones, l.version)"
+            + " from ListaReproduccion l order by l.id")
+    List<ListaReproduccionResumenDto> findAllResumenes();
+
+    /**
+     * Añade a {@code destino} las canciones que están en alguna de las listas {@code origenes} y que aún no tiene,
+     * con un único {@code INSERT ... SELECT} sobre la tabla de unión.
+     *
+     * @return El número de canciones añadidas.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO lista_reproduccion_canciones (lista_reproduccion_id, cancion_id)"
+            + " SELECT DISTINCT :destino, o.cancion_id FROM lista_reproduccion_canciones o"
+            + " WHERE o.lista_reproduccion_id IN (:origenes)"
+            + " AND NOT EXISTS (SELECT 1 FROM lista_reproduccion_canciones d"
+            + " WHERE d.lista_reproduccion_id = :destino AND d.cancion_id = o.cancion_id)",
+            nativeQuery = true)
+    int insertarUnion(@Param("destino") Long destino, @Param("origenes") Collection<Long> origenes);
+
+    /**
+     * Añade a {@code destino} las canciones que están en todas las listas {@code origenes} y que aún no tiene.
+     * Como la clave primaria impide repetir una canción en una lista, estar en todas equivale a aparecer
+     * {@code numeroOrigenes} veces.
+     *
+     * @return El número de canciones añadidas.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO lista_reproduccion_canciones (lista_reproduccion_id, cancion_id)"
+            + " SELECT :destino, o.cancion_id FROM lista_reproduccion_canciones o"
+            + " WHERE o.lista_reproduccion_id IN (:origenes)"
+            + " AND NOT EXISTS (SELECT 1 FROM lista_reproduccion_canciones d"
+            + " WHERE d.lista_reproduccion_id = :destino AND d.cancion_id = o.cancion_id)"
+            + " GROUP BY o.cancion_id HAVING COUNT(*) = :numeroOrigenes",
+            nativeQuery = true)
+    int insertarInterseccion(@Param("destino") Long destino, @Param("origenes") Collection<Long> origenes,
+                             @Param("numeroOrigenes") long numeroOrigenes);
+
+    /**
+     * Añade a {@code destino} las canciones de {@code base} que no están en ninguna de las listas {@code restadas}
+     * y que aún no tiene.
+     *
+     * @return El número de canciones añadidas.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO lista_reproduccion_canciones (lista_reproduccion_id, cancion_id)"
+            + " SELECT :destino, o.cancion_id FROM lista_reproduccion_canciones o"
+            + " WHERE o.lista_reproduccion_id = :base"
+            + " AND NOT EXISTS (SELECT 1 FROM lista_reproduccion_canciones r"
+            + " WHERE r.lista_reproduccion_id IN (:restadas) AND r.cancion_id = o.cancion_id)"
+            + " AND NOT EXISTS (SELECT 1 FROM lista_reproduccion_canciones d"
+            + " WHERE d.lista_reproduccion_id = :destino AND d.cancion_id = o.cancion_id)",
+            nativeQuery = true)
+    int insertarDiferencia(@Param("destino") Long destino, @Param("base") Long base,
+                           @Param("restadas") Collection<Long> restadas);
+
+    @Query("select l.id from ListaReproduccion l where l.id in :ids")
+    List<Long> findIdsByIdIn(@Param("ids") Collection<Long> ids);
 }
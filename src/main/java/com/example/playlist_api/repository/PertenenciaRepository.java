@@ -0,0 +1,66 @@
+package com.example.playlist_api.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * Lecturas de la tabla de unión {@code lista_reproduccion_canciones} como IDs primitivos, sin pasar por entidades.
+ * Las usa {@code IndicePertenencia} para construirse y mantenerse.
+ */
+@Repository
+public class PertenenciaRepository {
+
+    /** Recibe cada fila de la tabla de unión. */
+    @FunctionalInterface
+    public interface ConsumidorPertenencia {
+        void aceptar(long listaId, long cancionId);
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PertenenciaRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Recorre toda la tabla de unión en el orden de su clave primaria (lista y, dentro de ella, canción).
+     */
+    public void recorrer(ConsumidorPertenencia consumidor) {
+        jdbcTemplate.query("SELECT lista_reproduccion_id, cancion_id FROM lista_reproduccion_canciones"
+                        + " ORDER BY lista_reproduccion_id, cancion_id",
+                (RowCallbackHandler) rs -> consumidor.aceptar(rs.getLong(1), rs.getLong(2)));
+    }
+
+    /**
+     * IDs de las canciones de una lista, ordenados de menor a mayor.
+     */
+    public long[] buscarCancionesDeLista(long listaId) {
+        return jdbcTemplate.query("SELECT cancion_id FROM lista_reproduccion_canciones"
+                + " WHERE lista_reproduccion_id = ? ORDER BY cancion_id", PertenenciaRepository::leerIds, listaId);
+    }
+
+    /**
+     * IDs de las listas que contienen una canción, ordenados de menor a mayor.
+     */
+    public long[] buscarListasDeCancion(long cancionId) {
+        return jdbcTemplate.query("SELECT lista_reproduccion_id FROM lista_reproduccion_canciones"
+                + " WHERE cancion_id = ? ORDER BY lista_reproduccion_id", PertenenciaRepository::leerIds, cancionId);
+    }
+
+    private static long[] leerIds(ResultSet rs) throws SQLException {
+        long[] ids = new long[16];
+        int tamano = 0;
+        while (rs.next()) {
+            if (tamano == ids.length) {
+                ids = Arrays.copyOf(ids, tamano * 2);
+            }
+            ids[tamano++] = rs.getLong(1);
+        }
+        return Arrays.copyOf(ids, tamano);
+    }
+}
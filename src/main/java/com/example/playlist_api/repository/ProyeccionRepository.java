@@ -0,0 +1,58 @@
+package com.example.playlist_api.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Consultas de proyección dinámica: seleccionan únicamente las columnas pedidas de una entidad,
+ * sin hidratar la entidad completa ni sus asociaciones.
+ */
+@Repository
+public class ProyeccionRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Selecciona los atributos indicados de todas las filas de la entidad, o de una sola si se indica su ID.
+     *
+     * @param entidad Clase de la entidad JPA.
+     * @param campos Nombres de atributos básicos (no asociaciones) a seleccionar, en el orden de salida.
+     * @param id ID de la fila a seleccionar, o {@code null} para todas.
+     * @return Una lista de mapas atributo → valor con solo los campos pedidos.
+     */
+    public List<Map<String, Object>> buscarCampos(Class<?> entidad, List<String> campos, Long id) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<?> root = query.from(entidad);
+        List<Selection<?>> selecciones = new ArrayList<>(campos.size());
+        for (String campo : campos) {
+            selecciones.add(root.get(campo).alias(campo));
+        }
+        query.multiselect(selecciones);
+        if (id != null) {
+            query.where(cb.equal(root.get("id"), id));
+        }
+        List<Tuple> tuplas = entityManager.createQuery(query).getResultList();
+        List<Map<String, Object>> resultado = new ArrayList<>(tuplas.size());
+        for (Tuple tupla : tuplas) {
+            Map<String, Object> fila = new LinkedHashMap<>();
+            for (String campo : campos) {
+                fila.put(campo, tupla.get(campo));
+            }
+            resultado.add(fila);
+        }
+        return resultado;
+    }
+}
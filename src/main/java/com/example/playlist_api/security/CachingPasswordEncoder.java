@@ -0,0 +1,85 @@
+package com.example.playlist_api.security;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link PasswordEncoder} que recuerda durante un tiempo corto las comprobaciones correctas de {@link #matches}
+ * para no repetir BCrypt en logins repetidos con las mismas credenciales.
+ * La clave de la caché es el hash almacenado junto con un HMAC-SHA256 de la contraseña con una clave aleatoria
+ * generada al arrancar, de modo que en memoria no se guarda la contraseña ni un hash rápido reutilizable fuera del proceso.
+ * Solo se recuerdan los aciertos: una contraseña incorrecta siempre pasa por el codificador delegado.
+ */
+public class CachingPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegado;
+    private final long ttlMs;
+    private final int maxEntradas;
+    private final SecretKeySpec claveHmac;
+    private final ConcurrentHashMap<String, Long> verificadas = new ConcurrentHashMap<>();
+
+    public CachingPasswordEncoder(PasswordEncoder delegado, long ttlMs, int maxEntradas) {
+        this.delegado = delegado;
+        this.ttlMs = ttlMs;
+        this.maxEntradas = maxEntradas;
+        byte[] clave = new byte[32];
+        new SecureRandom().nextBytes(clave);
+        this.claveHmac = new SecretKeySpec(clave, "HmacSHA256");
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegado.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null || ttlMs <= 0) {
+            return delegado.matches(rawPassword, encodedPassword);
+        }
+        long ahora = System.currentTimeMillis();
+        String clave = encodedPassword + '\n' + hmac(rawPassword);
+        Long expira = verificadas.get(clave);
+        if (expira != null && expira > ahora) {
+            return true;
+        }
+        boolean coincide = delegado.matches(rawPassword, encodedPassword);
+        if (coincide) {
+            if (verificadas.size() >= maxEntradas) {
+                verificadas.values().removeIf(e -> e <= ahora);
+                if (verificadas.size() >= maxEntradas) {
+                    verificadas.clear();
+                }
+            }
+            verificadas.put(clave, ahora + ttlMs);
+        }
+        return coincide;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegado.upgradeEncoding(encodedPassword);
+    }
+
+    int size() {
+        return verificadas.size();
+    }
+
+    private String hmac(CharSequence rawPassword) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(claveHmac);
+            byte[] digest = mac.doFinal(rawPassword.toString().getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 no disponible", e);
+        }
+    }
+}
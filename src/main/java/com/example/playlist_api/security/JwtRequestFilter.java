@@ -1,5 +1,6 @@
 package com.example.playlist_api.security;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.UnsupportedJwtException;
@@ -67,15 +68,16 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         final String authorizationHeader = request.getHeader(authorizationHeaderName);
 
         String username = null;
-        String jwt = null;
+        Claims claims = null;
 
         // Verifica si el encabezado de autorización existe y comienza con el prefijo JWT (ej. "Bearer ").
         if (authorizationHeader != null && authorizationHeader.startsWith(jwtPrefix + " ")) {
             // Extrae el token JWT eliminando el prefijo.
-            jwt = authorizationHeader.substring(jwtPrefix.length() + 1);
+            String jwt = authorizationHeader.substring(jwtPrefix.length() + 1);
             try {
-                // Intenta extraer el nombre de usuario del token JWT.
-                username = jwtUtil.extractUsername(jwt);
+                // Verifica la firma y extrae los claims una sola vez; de ellos sale el nombre de usuario.
+                claims = jwtUtil.extractAllClaims(jwt);
+                username = claims.getSubject();
             } catch (IllegalArgumentException e) {
                 // Registra una advertencia si el token no se pudo obtener.
                 logger.warn("No se pudo obtener el token JWT", e);
@@ -95,8 +97,8 @@ public class JwtRequestFilter extends OncePerRequestFilter {
             // Carga los detalles del usuario usando el UserDetailsService.
             UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
 
-            // Valida el token JWT con los detalles del usuario.
-            if (jwtUtil.validateToken(jwt, userDetails)) {
+            // Valida el token JWT con los detalles del usuario (tipo de acceso y no revocado incluidos).
+            if (jwtUtil.validateToken(claims, userDetails)) {
                 // Si el token es válido, crea un objeto de autenticación.
                 UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
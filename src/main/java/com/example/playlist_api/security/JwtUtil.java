@@ -1,10 +1,12 @@
 package com.example.playlist_api.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
@@ -14,12 +16,15 @@ import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
  * Clase de utilidad para la generación, validación y extracción de información de tokens JWT (JSON Web Tokens).
  * Utiliza la librería jjwt para realizar las operaciones criptográficas y de parsing.
+ * Emite tokens de acceso de vida corta y tokens de refresco de vida larga, ambos con un identificador único ({@code jti})
+ * que permite revocarlos antes de su expiración.
  */
 @Component
 public class JwtUtil {
@@ -32,6 +37,27 @@ public class JwtUtil {
     @Value("${jwt.expiration.ms}")
     private long jwtExpirationInMs;
 
+    // Tiempo de expiración del token de refresco en milisegundos.
+    @Value("${jwt.refresh-expiration.ms:604800000}")
+    private long refreshExpirationInMs;
+
+    // Claim con el tipo de token y sus valores posibles.
+    static final String CLAIM_TIPO = "typ";
+    static final String TIPO_ACCESO = "access";
+    static final String TIPO_REFRESCO = "refresh";
+
+    // Tokens revocados antes de su expiración (logout y tokens de refresco ya usados).
+    private final ListaRevocacionTokens revocados;
+
+    /**
+     * Constructor que crea la lista de revocación.
+     *
+     * @param anchoBucketRevocacionMs Ancho en milisegundos de cada bucket de expiración de la lista de revocación.
+     */
+    public JwtUtil(@Value("${jwt.revocation.bucket-ms:60000}") long anchoBucketRevocacionMs) {
+        this.revocados = new ListaRevocacionTokens(anchoBucketRevocacionMs);
+    }
+
     /**
      * Genera la clave secreta de firma a partir de la cadena de texto configurada.
      * La clave se codifica en UTF-8 y se utiliza para algoritmos HMAC SHA.
@@ -87,22 +113,11 @@ public class JwtUtil {
      * @param token El token JWT a parsear.
      * @return Un objeto {@link Claims} que contiene todos los claims del token.
      */
-    private Claims extractAllClaims(String token) {
+    public Claims extractAllClaims(String token) {
         // Construye un parser JWT, establece la clave de firma y parsea el token.
         return Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(token).getBody();
     }
 
-    /**
-     * Verifica si el token JWT ha expirado.
-     *
-     * @param token El token JWT a verificar.
-     * @return {@code true} si el token ha expirado, {@code false} en caso contrario.
-     */
-    private Boolean isTokenExpired(String token) {
-        // Compara la fecha de expiración del token con la fecha actual.
-        return extractExpiration(token).before(new Date());
-    }
-
     /**
      * Genera un token JWT para un usuario dado.
      * Incluye el nombre de usuario como "subject" y los roles del usuario como un "claim" personalizado.
@@ -117,38 +132,130 @@ public class JwtUtil {
                          .map(GrantedAuthority::getAuthority)
                          .collect(Collectors.joining(","));
         claims.put("roles", roles);
+        claims.put(CLAIM_TIPO, TIPO_ACCESO);
         // Crea el token JWT con los claims, el subject (nombre de usuario) y la información de expiración/firma.
-        return createToken(claims, userDetails.getUsername());
+        return createToken(claims, userDetails.getUsername(), jwtExpirationInMs);
+    }
+
+    /**
+     * Genera un token de refresco para un usuario dado. Solo sirve para obtener un nuevo par de tokens
+     * en {@code /api/auth/refresh}; {@code JwtRequestFilter} no lo acepta como token de acceso.
+     *
+     * @param userDetails Los detalles del usuario para quien se generará el token.
+     * @return El token de refresco generado como una cadena de texto.
+     */
+    public String generateRefreshToken(UserDetails userDetails) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(CLAIM_TIPO, TIPO_REFRESCO);
+        return createToken(claims, userDetails.getUsername(), refreshExpirationInMs);
     }
 
     /**
-     * Crea el token JWT final con los claims, el subject, la fecha de emisión, la fecha de expiración y la firma.
+     * Crea el token JWT final con los claims, el subject, el identificador único, la fecha de emisión,
+     * la fecha de expiración y la firma.
      *
      * @param claims Los claims personalizados a incluir en el token.
      * @param subject El "subject" del token (generalmente el nombre de usuario).
+     * @param duracionMs Tiempo de vida del token en milisegundos.
      * @return El token JWT compactado y firmado.
      */
-    private String createToken(Map<String, Object> claims, String subject) {
+    private String createToken(Map<String, Object> claims, String subject, long duracionMs) {
+        long ahora = System.currentTimeMillis();
         return Jwts.builder()
                 .setClaims(claims) // Establece los claims.
                 .setSubject(subject) // Establece el subject.
-                .setIssuedAt(new Date(System.currentTimeMillis())) // Establece la fecha de emisión.
-                .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationInMs)) // Establece la fecha de expiración.
+                .setId(UUID.randomUUID().toString()) // Identificador único (jti) para poder revocar el token.
+                .setIssuedAt(new Date(ahora)) // Establece la fecha de emisión.
+                .setExpiration(new Date(ahora + duracionMs)) // Establece la fecha de expiración.
                 .signWith(getSigningKey(), SignatureAlgorithm.HS512) // Firma el token con la clave secreta y el algoritmo HS512.
                 .compact(); // Compacta el token en su representación final de cadena.
     }
 
+    /**
+     * Indica si los claims corresponden a un token de acceso. Los tokens emitidos antes de existir el claim de tipo
+     * se consideran de acceso.
+     *
+     * @param claims Claims de un token ya verificado.
+     * @return {@code true} si es un token de acceso.
+     */
+    public boolean isAccessToken(Claims claims) {
+        Object tipo = claims.get(CLAIM_TIPO);
+        return tipo == null || TIPO_ACCESO.equals(tipo);
+    }
+
+    /**
+     * Comprueba en tiempo constante si el token ha sido revocado.
+     *
+     * @param claims Claims de un token ya verificado.
+     * @return {@code true} si el token tiene {@code jti} y está en la lista de revocación.
+     */
+    public boolean isTokenRevoked(Claims claims) {
+        return claims.getId() != null && revocados.estaRevocado(claims.getId(), claims.getExpiration().getTime());
+    }
+
+    /**
+     * Revoca un token (de acceso o de refresco) hasta su expiración. Los tokens inválidos o ya expirados se ignoran.
+     *
+     * @param token El token JWT a revocar.
+     */
+    public void revokeToken(String token) {
+        try {
+            Claims claims = extractAllClaims(token);
+            if (claims.getId() != null) {
+                revocados.revocar(claims.getId(), claims.getExpiration().getTime(), System.currentTimeMillis());
+            }
+        } catch (JwtException | IllegalArgumentException e) {
+            // Un token inválido o expirado ya no puede usarse: no hay nada que revocar.
+        }
+    }
+
+    /**
+     * Valida un token de refresco y lo revoca, de modo que cada token de refresco solo pueda usarse una vez
+     * (rotación). Si dos peticiones usan el mismo token a la vez, solo una tiene éxito.
+     *
+     * @param refreshToken El token de refresco recibido.
+     * @return El nombre de usuario del token.
+     * @throws BadCredentialsException Si el token no es válido, no es de refresco, ha expirado o ya fue usado.
+     */
+    public String consumeRefreshToken(String refreshToken) {
+        final Claims claims;
+        try {
+            claims = extractAllClaims(refreshToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new BadCredentialsException("Token de refresco inválido");
+        }
+        if (!TIPO_REFRESCO.equals(claims.get(CLAIM_TIPO)) || claims.getId() == null
+                || !revocados.revocar(claims.getId(), claims.getExpiration().getTime(), System.currentTimeMillis())) {
+            throw new BadCredentialsException("Token de refresco inválido");
+        }
+        return claims.getSubject();
+    }
+
     /**
      * Valida un token JWT dado contra los detalles de un usuario.
-     * Verifica que el nombre de usuario en el token coincida con el del usuario y que el token no haya expirado.
+     * Verifica que el nombre de usuario en el token coincida con el del usuario, que el token no haya expirado,
+     * que sea un token de acceso y que no haya sido revocado.
      *
      * @param token El token JWT a validar.
      * @param userDetails Los detalles del usuario con los que se comparará el token.
      * @return {@code true} si el token es válido para el usuario, {@code false} en caso contrario.
      */
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        // El token es válido si el nombre de usuario coincide y el token no ha expirado.
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return validateToken(extractAllClaims(token), userDetails);
+    }
+
+    /**
+     * Igual que {@link #validateToken(String, UserDetails)} pero sobre los claims de un token ya parseado,
+     * para no verificar la firma dos veces.
+     *
+     * @param claims Claims del token JWT.
+     * @param userDetails Los detalles del usuario con los que se comparará el token.
+     * @return {@code true} si el token es válido para el usuario, {@code false} en caso contrario.
+     */
+    public Boolean validateToken(Claims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername())
+                && !claims.getExpiration().before(new Date())
+                && isAccessToken(claims)
+                && !isTokenRevoked(claims);
     }
 }
@@ -0,0 +1,86 @@
+package com.example.playlist_api.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Limita los intentos de login fallidos por nombre de usuario y por IP con un bloqueo de duración exponencial.
+ * Los primeros {@code fallosLibres} fallos no bloquean; a partir de ahí cada fallo bloquea la clave durante
+ * {@code bloqueoBaseMs * 2^(fallos - fallosLibres)}, hasta {@code bloqueoMaxMs}.
+ * Una clave sin fallos durante {@code olvidoMs} vuelve a empezar de cero.
+ */
+@Component
+public class LimitadorIntentosLogin {
+
+    private record Estado(int fallos, long ultimoFalloMs, long bloqueadoHastaMs) {
+    }
+
+    private final ConcurrentHashMap<String, Estado> estados = new ConcurrentHashMap<>();
+    private final int fallosLibres;
+    private final long bloqueoBaseMs;
+    private final long bloqueoMaxMs;
+    private final long olvidoMs;
+    private final int maxClaves;
+
+    public LimitadorIntentosLogin(@Value("${app.login-throttle.free-failures:5}") int fallosLibres,
+                                  @Value("${app.login-throttle.base-delay-ms:1000}") long bloqueoBaseMs,
+                                  @Value("${app.login-throttle.max-delay-ms:300000}") long bloqueoMaxMs,
+                                  @Value("${app.login-throttle.reset-after-ms:900000}") long olvidoMs,
+                                  @Value("${app.login-throttle.max-keys:100000}") int maxClaves) {
+        this.fallosLibres = fallosLibres;
+        this.bloqueoBaseMs = bloqueoBaseMs;
+        this.bloqueoMaxMs = bloqueoMaxMs;
+        this.olvidoMs = olvidoMs;
+        this.maxClaves = maxClaves;
+    }
+
+    /**
+     * @return Los milisegundos que faltan para que el usuario o la IP puedan volver a intentarlo; 0 si no están bloqueados.
+     */
+    public long milisegundosBloqueo(String username, String ip, long ahoraMs) {
+        return Math.max(restante(claveUsuario(username), ahoraMs), restante(claveIp(ip), ahoraMs));
+    }
+
+    public void registrarFallo(String username, String ip, long ahoraMs) {
+        if (estados.size() > maxClaves) {
+            estados.values().removeIf(estado -> ahoraMs - estado.ultimoFalloMs() > olvidoMs);
+        }
+        fallar(claveUsuario(username), ahoraMs);
+        fallar(claveIp(ip), ahoraMs);
+    }
+
+    /**
+     * Un login correcto reinicia el contador del usuario. El de la IP no, para que una cuenta válida no sirva
+     * para seguir probando contraseñas de otras cuentas desde la misma IP.
+     */
+    public void registrarExito(String username) {
+        estados.remove(claveUsuario(username));
+    }
+
+    private long restante(String clave, long ahoraMs) {
+        Estado estado = estados.get(clave);
+        return estado == null ? 0L : Math.max(0L, estado.bloqueadoHastaMs() - ahoraMs);
+    }
+
+    private void fallar(String clave, long ahoraMs) {
+        estados.compute(clave, (k, estado) -> {
+            int fallos = (estado == null || ahoraMs - estado.ultimoFalloMs() > olvidoMs) ? 1 : estado.fallos() + 1;
+            long bloqueoMs = 0L;
+            if (fallos > fallosLibres) {
+                int exponente = Math.min(fallos - fallosLibres - 1, 30);
+                bloqueoMs = Math.min(bloqueoMaxMs, bloqueoBaseMs << exponente);
+            }
+            return new Estado(fallos, ahoraMs, ahoraMs + bloqueoMs);
+        });
+    }
+
+    private static String claveUsuario(String username) {
+        return "u:" + username;
+    }
+
+    private static String claveIp(String ip) {
+        return "ip:" + ip;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.playlist_api.security;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lista de tokens revocados (por {@code jti}) agrupados en buckets según su fecha de expiración.
+ * Como cada token trae su expiración, la comprobación va directamente a su bucket: una búsqueda en un mapa
+ * y otra en un conjunto, en tiempo constante. Un token revocado solo tiene que recordarse hasta que expira;
+ * a partir de ahí lo rechaza la propia validación de {@code exp}, así que los buckets vencidos se descartan enteros.
+ */
+class ListaRevocacionTokens {
+
+    private final long anchoBucketMs;
+    private final ConcurrentHashMap<Long, Set<String>> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong ultimoBucketPurgado = new AtomicLong(Long.MIN_VALUE);
+
+    ListaRevocacionTokens(long anchoBucketMs) {
+        this.anchoBucketMs = anchoBucketMs;
+    }
+
+    /**
+     * Revoca el token con el {@code jti} dado.
+     *
+     * @return {@code true} si el token no estaba ya revocado.
+     */
+    boolean revocar(String jti, long expiraMs, long ahoraMs) {
+        purgarVencidos(ahoraMs);
+        return buckets.computeIfAbsent(expiraMs / anchoBucketMs, k -> ConcurrentHashMap.newKeySet()).add(jti);
+    }
+
+    boolean estaRevocado(String jti, long expiraMs) {
+        Set<String> bucket = buckets.get(expiraMs / anchoBucketMs);
+        return bucket != null && bucket.contains(jti);
+    }
+
+    int size() {
+        return buckets.values().stream().mapToInt(Set::size).sum();
+    }
+
+    private void purgarVencidos(long ahoraMs) {
+        long bucketActual = ahoraMs / anchoBucketMs;
+        long ultimo = ultimoBucketPurgado.get();
+        // Como mucho una purga por bucket de tiempo; los buckets anteriores al actual solo contienen tokens ya expirados.
+        if (bucketActual > ultimo && ultimoBucketPurgado.compareAndSet(ultimo, bucketActual)) {
+            buckets.keySet().removeIf(bucket -> bucket < bucketActual);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.playlist_api.security;
 
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -16,7 +17,8 @@ import java.util.stream.Collectors;
 
 /**
  * Implementación personalizada de {@link UserDetailsService} para cargar los detalles del usuario.
- * Esta clase carga usuarios desde las propiedades de la aplicación (en memoria) y codifica sus contraseñas.
+ * Esta clase carga usuarios desde las propiedades de la aplicación (en memoria) y codifica sus contraseñas
+ * una sola vez al arrancar, ya que este método se invoca en cada login y en cada petición con JWT.
  */
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
@@ -40,6 +42,10 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     // Inyector de contraseñas para codificar las contraseñas de los usuarios.
     private final PasswordEncoder passwordEncoder;
 
+    // Contraseñas ya codificadas: BCrypt es deliberadamente lento y no debe repetirse en cada carga.
+    private String adminPasswordCodificada;
+    private String regularPasswordCodificada;
+
     /**
      * Constructor para inyectar el codificador de contraseñas.
      *
@@ -48,7 +54,16 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     public UserDetailsServiceImpl(PasswordEncoder passwordEncoder) {
         this.passwordEncoder = passwordEncoder;
     }
-    
+
+    /**
+     * Codifica las contraseñas configuradas una única vez, tras la inyección de las propiedades.
+     */
+    @PostConstruct
+    void codificarContrasenas() {
+        adminPasswordCodificada = passwordEncoder.encode(adminPassword);
+        regularPasswordCodificada = passwordEncoder.encode(regularPassword);
+    }
+
     /**
      * Carga los detalles del usuario por su nombre de usuario.
      * Este método es invocado por Spring Security durante el proceso de autenticación.
@@ -59,16 +74,17 @@ public class UserDetailsServiceImpl implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        // Se devuelve siempre un User nuevo: Spring Security borra la contraseña del principal tras autenticar.
         // Verifica si el nombre de usuario coincide con el del administrador.
         if (adminUsername.equals(username)) {
             return new User(adminUsername,
-                            passwordEncoder.encode(adminPassword), // Codifica la contraseña antes de devolverla.
+                            adminPasswordCodificada, // Contraseña codificada al arrancar.
                             getAuthorities(adminRoles)); // Obtiene las autoridades (roles) del administrador.
         } 
         // Verifica si el nombre de usuario coincide con el del usuario regular.
         else if (regularUsername.equals(username)) {
             return new User(regularUsername,
-                            passwordEncoder.encode(regularPassword), // Codifica la contraseña.
+                            regularPasswordCodificada, // Contraseña codificada al arrancar.
                             getAuthorities(regularRoles)); // Obtiene las autoridades (roles) del usuario regular.
         } 
         // Si el usuario no es encontrado en las configuraciones en memoria.
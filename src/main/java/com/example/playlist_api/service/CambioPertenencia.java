@@ -0,0 +1,10 @@
+package com.example.playlist_api.service;
+
+/**
+ * Aviso de {@link IndicePertenencia} tras aplicar un cambio: las canciones cuyas coincidencias con otras canciones en
+ * las mismas listas pueden haber cambiado. Se publica en el hilo del índice, ya con el cambio visible en él.
+ *
+ * @param canciones IDs de las canciones afectadas, de menor a mayor.
+ */
+public record CambioPertenencia(long[] canciones) {
+}
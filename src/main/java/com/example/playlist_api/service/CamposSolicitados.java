@@ -0,0 +1,43 @@
+package com.example.playlist_api.service;
+
+import com.example.playlist_api.exception.BadRequestException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Validación del parámetro {@code fields} de las lecturas con proyección parcial.
+ */
+final class CamposSolicitados {
+
+    private CamposSolicitados() {
+    }
+
+    /**
+     * Normaliza los campos solicitados: elimina espacios y duplicados y rechaza los que no están permitidos.
+     *
+     * @param campos Campos solicitados por el cliente (admite valores separados por comas).
+     * @param permitidos Campos que el recurso expone, en su orden canónico.
+     * @return Los campos a seleccionar; todos los permitidos si no se solicitó ninguno.
+     * @throws BadRequestException Si algún campo no existe en el recurso.
+     */
+    static List<String> validar(List<String> campos, List<String> permitidos) {
+        LinkedHashSet<String> resultado = new LinkedHashSet<>();
+        if (campos != null) {
+            for (String campo : campos) {
+                for (String parte : campo.split(",")) {
+                    String nombre = parte.trim();
+                    if (nombre.isEmpty()) {
+                        continue;
+                    }
+                    if (!permitidos.contains(nombre)) {
+                        throw new BadRequestException("Campo desconocido en 'fields': " + nombre + ". Campos válidos: " + String.join(",", permitidos));
+                    }
+                    resultado.add(nombre);
+                }
+            }
+        }
+        return resultado.isEmpty() ? permitidos : new ArrayList<>(resultado);
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.playlist_api.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Canal de cambios de listas de reproducción y canciones servido como Server-Sent Events en {@code GET /api/listas/changes}.
+ * Los servicios publican un {@link EventoCambio} por cada escritura y el canal lo recibe solo cuando la transacción
+ * se confirma, de modo que los clientes nunca ven cambios que luego se deshacen.
+ * <p>
+ * Los últimos eventos se guardan en un historial circular en memoria: un cliente que se reconecta con
+ * {@code Last-Event-ID} recibe lo que se perdió. Si ese ID ya no está en el historial (o es de otra ejecución del
+ * servidor) se le envía un evento {@value #EVENTO_REINICIO} para que vuelva a leer el estado completo.
+ * Cada suscriptor tiene una cola acotada; si un cliente lento la llena, se cierra su conexión en lugar de retener
+ * memoria o frenar a los demás, y al reconectarse recupera lo pendiente desde el historial.
+ */
+@Component
+public class CanalCambios implements MeterBinder {
+
+    /** Nombre del evento que pide al cliente descartar su estado y volver a leerlo completo. */
+    public static final String EVENTO_REINICIO = "reset";
+
+    private final int capacidadHistorial;
+    private final int capacidadSuscriptor;
+    private final long timeoutMs;
+    // Prefijo de los IDs de evento: distingue los IDs de esta ejecución de los de una anterior del servidor.
+    private final String instancia = Long.toString(System.currentTimeMillis(), 36);
+    private final ScheduledExecutorService emisores;
+
+    // Historial circular: el evento con secuencia s ocupa la posición (s - 1) % capacidadHistorial. Protegido por sí mismo.
+    private final EventoCambio[] historial;
+    private long ultimaSecuencia;
+
+    private final Set<Suscriptor> suscriptores = ConcurrentHashMap.newKeySet();
+    private final AtomicLong publicados = new AtomicLong();
+    private final AtomicLong desconectadosPorDesbordamiento = new AtomicLong();
+
+    public CanalCambios(@Value("${app.changes.history-size:1024}") int capacidadHistorial,
+                        @Value("${app.changes.subscriber-buffer:256}") int capacidadSuscriptor,
+                        @Value("${app.changes.timeout-ms:1800000}") long timeoutMs,
+                        @Value("${app.changes.heartbeat-ms:15000}") long intervaloLatidoMs,
+                        @Value("${app.changes.dispatch-threads:2}") int hilos) {
+        this.capacidadHistorial = capacidadHistorial;
+        this.capacidadSuscriptor = capacidadSuscriptor;
+        this.timeoutMs = timeoutMs;
+        this.historial = new EventoCambio[capacidadHistorial];
+        AtomicInteger contador = new AtomicInteger();
+        this.emisores = Executors.newScheduledThreadPool(hilos, r -> {
+            Thread thread = new Thread(r, "canal-cambios-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Comentario periódico para que proxies y balanceadores no cierren las conexiones inactivas.
+        emisores.scheduleAtFixedRate(this::enviarLatido, intervaloLatidoMs, intervaloLatidoMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Suscribe un cliente al canal.
+     *
+     * @param ultimoIdRecibido Valor de la cabecera {@code Last-Event-ID}, o {@code null} en la primera conexión.
+     * @return El emisor SSE que el controlador devuelve como respuesta.
+     */
+    public SseEmitter suscribir(String ultimoIdRecibido) {
+        return suscribir(ultimoIdRecibido, new SseEmitter(timeoutMs));
+    }
+
+    SseEmitter suscribir(String ultimoIdRecibido, SseEmitter emisor) {
+        Suscriptor suscriptor;
+        synchronized (historial) {
+            List<Entrada> pendientes = ultimoIdRecibido == null ? List.of() : pendientesDesde(ultimoIdRecibido);
+            suscriptor = new Suscriptor(emisor, capacidadSuscriptor + pendientes.size());
+            suscriptor.cola.addAll(pendientes);
+            suscriptores.add(suscriptor);
+        }
+        emisor.onCompletion(() -> suscriptores.remove(suscriptor));
+        emisor.onError(e -> suscriptores.remove(suscriptor));
+        emisor.onTimeout(emisor::complete);
+        programarEnvio(suscriptor);
+        return emisor;
+    }
+
+    /**
+     * Recibe un cambio una vez confirmada la transacción que lo produjo (o al instante si no había transacción)
+     * y lo encola para todos los suscriptores.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void publicar(EventoCambio evento) {
+        List<Suscriptor> desbordados = new ArrayList<>();
+        synchronized (historial) {
+            long secuencia = ++ultimaSecuencia;
+            historial[(int) ((secuencia - 1) % capacidadHistorial)] = evento;
+            Entrada entrada = new Entrada(id(secuencia), null, evento);
+            for (Suscriptor suscriptor : suscriptores) {
+                if (!suscriptor.cola.offer(entrada)) {
+                    desbordados.add(suscriptor);
+                }
+            }
+        }
+        publicados.incrementAndGet();
+        for (Suscriptor suscriptor : desbordados) {
+            // El cliente recuperará desde el historial lo que no llegó a recibir al reconectarse con Last-Event-ID.
+            suscriptores.remove(suscriptor);
+            desconectadosPorDesbordamiento.incrementAndGet();
+            suscriptor.emisor.complete();
+        }
+        for (Suscriptor suscriptor : suscriptores) {
+            programarEnvio(suscriptor);
+        }
+    }
+
+    int getSuscriptores() {
+        return suscriptores.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("playlist.changes.subscribers", suscriptores, Set::size)
+                .description("Clientes suscritos al canal de cambios")
+                .register(registry);
+        FunctionCounter.builder("playlist.changes.published", publicados, AtomicLong::get)
+                .description("Cambios confirmados publicados en el canal")
+                .register(registry);
+        FunctionCounter.builder("playlist.changes.dropped-subscribers", desconectadosPorDesbordamiento, AtomicLong::get)
+                .description("Suscriptores desconectados por llenar su cola")
+                .register(registry);
+    }
+
+    @PreDestroy
+    void detener() {
+        emisores.shutdownNow();
+        for (Suscriptor suscriptor : suscriptores) {
+            suscriptor.emisor.complete();
+        }
+        suscriptores.clear();
+    }
+
+    /**
+     * Eventos posteriores al ID indicado, o un único evento de reinicio si el historial ya no los cubre.
+     * Debe llamarse con el cerrojo del historial.
+     */
+    private List<Entrada> pendientesDesde(String ultimoIdRecibido) {
+        long desde = secuencia(ultimoIdRecibido);
+        long primeraDisponible = Math.max(1, ultimaSecuencia - capacidadHistorial + 1);
+        if (desde < 0 || desde > ultimaSecuencia || desde + 1 < primeraDisponible) {
+            return List.of(new Entrada(id(ultimaSecuencia), EVENTO_REINICIO, EVENTO_REINICIO));
+        }
+        List<Entrada> pendientes = new ArrayList<>((int) (ultimaSecuencia - desde));
+        for (long secuencia = desde + 1; secuencia <= ultimaSecuencia; secuencia++) {
+            pendientes.add(new Entrada(id(secuencia), null, historial[(int) ((secuencia - 1) % capacidadHistorial)]));
+        }
+        return pendientes;
+    }
+
+    private String id(long secuencia) {
+        return instancia + "-" + secuencia;
+    }
+
+    /** Secuencia de un ID de esta ejecución, o -1 si el ID no es válido o es de otra ejecución. */
+    private long secuencia(String id) {
+        int separador = id.lastIndexOf('-');
+        if (separador < 0 || !id.substring(0, separador).equals(instancia)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(id.substring(separador + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void programarEnvio(Suscriptor suscriptor) {
+        if (!suscriptor.cola.isEmpty() && suscriptor.enviando.compareAndSet(false, true)) {
+            emisores.execute(() -> enviar(suscriptor));
+        }
+    }
+
+    /**
+     * Vacía la cola de un suscriptor. Solo hay un envío en curso por suscriptor, así que los eventos salen en orden.
+     */
+    private void enviar(Suscriptor suscriptor) {
+        try {
+            Entrada entrada;
+            while ((entrada = suscriptor.cola.poll()) != null) {
+                SseEmitter.SseEventBuilder evento = SseEmitter.event().id(entrada.id()).data(entrada.datos());
+                if (entrada.nombre() != null) {
+                    evento.name(entrada.nombre());
+                }
+                suscriptor.emisor.send(evento);
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Cliente desconectado o emisor ya completado: el contenedor notifica el cierre al emisor.
+            suscriptores.remove(suscriptor);
+        } finally {
+            suscriptor.enviando.set(false);
+        }
+        if (suscriptores.contains(suscriptor)) {
+            programarEnvio(suscriptor);
+        }
+    }
+
+    private void enviarLatido() {
+        for (Suscriptor suscriptor : suscriptores) {
+            try {
+                suscriptor.emisor.send(SseEmitter.event().comment("ping"));
+            } catch (IOException | IllegalStateException e) {
+                suscriptores.remove(suscriptor);
+            }
+        }
+    }
+
+    private record Entrada(String id, String nombre, Object datos) {
+    }
+
+    private static final class Suscriptor {
+        private final SseEmitter emisor;
+        private final ArrayBlockingQueue<Entrada> cola;
+        private final AtomicBoolean enviando = new AtomicBoolean();
+
+        private Suscriptor(SseEmitter emisor, int capacidad) {
+            this.emisor = emisor;
+            this.cola = new ArrayBlockingQueue<>(capacidad);
+        }
+    }
+}
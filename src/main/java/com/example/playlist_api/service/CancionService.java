@@ -1,30 +1,73 @@
 package com.example.playlist_api.service;
 
 import com.example.playlist_api.dto.CancionDto;
+import com.example.playlist_api.dto.CancionRelacionadaDto;
+import com.example.playlist_api.dto.FusionDuplicadosDto;
+import com.example.playlist_api.dto.LoteResponseDto;
 import com.example.playlist_api.entity.Cancion;
+import com.example.playlist_api.exception.BadRequestException;
+import com.example.playlist_api.exception.CancionDuplicadaException;
+import com.example.playlist_api.exception.PreconditionFailedException;
 import com.example.playlist_api.exception.ResourceNotFoundException;
 import com.example.playlist_api.repository.CancionRepository;
+import com.example.playlist_api.repository.ProyeccionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class CancionService {
 
+    /** Número máximo de IDs aceptados en una lectura por lotes. */
+    public static final int MAX_IDS_POR_LOTE = 500;
+
+    /** Canciones relacionadas que se devuelven si no se indica límite, o {@code app.recommendations.top-k} si es menor. */
+    public static final int LIMITE_RELACIONADAS_POR_DEFECTO = 10;
+
+    /** Campos que admite el parámetro {@code fields}, en su orden canónico. */
+    static final List<String> CAMPOS_CANCION = List.of("id", "titulo", "artista", "album", "anno", "genero", "version");
+
     private final CancionRepository cancionRepository;
+    private final ProyeccionRepository proyeccionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final IndicePertenencia indicePertenencia;
+    private final RecomendadorCanciones recomendadorCanciones;
+    private final DeduplicadorCanciones deduplicadorCanciones;
 
     @Autowired
-    public CancionService(CancionRepository cancionRepository) {
+    public CancionService(CancionRepository cancionRepository, ProyeccionRepository proyeccionRepository,
+                          ApplicationEventPublisher eventPublisher, IndicePertenencia indicePertenencia,
+                          RecomendadorCanciones recomendadorCanciones, DeduplicadorCanciones deduplicadorCanciones) {
         this.cancionRepository = cancionRepository;
+        this.proyeccionRepository = proyeccionRepository;
+        this.eventPublisher = eventPublisher;
+        this.indicePertenencia = indicePertenencia;
+        this.recomendadorCanciones = recomendadorCanciones;
+        this.deduplicadorCanciones = deduplicadorCanciones;
     }
 
+    /**
+     * Crea una canción si no existe ya otra con el mismo título, artista y álbum, salvo mayúsculas, acentos o espacios.
+     *
+     * @throws CancionDuplicadaException Si existe; el mensaje incluye su ID.
+     */
     @Transactional
     public CancionDto crearCancion(CancionDto cancionDto) {
         Cancion cancion = mapToEntity(cancionDto);
+        cancion.setHuella(HuellaCancion.de(cancion.getTitulo(), cancion.getArtista(), cancion.getAlbum()));
+        cancionRepository.buscarIdPorHuella(cancion.getHuella()).ifPresent(existente -> {
+            throw new CancionDuplicadaException(existente);
+        });
         Cancion savedCancion = cancionRepository.save(cancion);
+        eventPublisher.publishEvent(EventoCambio.cancion(EventoCambio.Accion.CREATED, savedCancion.getId(), savedCancion.getVersion()));
         return mapToDto(savedCancion);
     }
 
@@ -35,6 +78,31 @@ public class CancionService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Obtiene todas las canciones seleccionando en la base de datos solo las columnas solicitadas.
+     *
+     * @param campos Campos a devolver (ver {@link #CAMPOS_CANCION}).
+     * @return Una lista de mapas campo → valor.
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> obtenerTodasLasCanciones(List<String> campos) {
+        return proyeccionRepository.buscarCampos(Cancion.class, CamposSolicitados.validar(campos, CAMPOS_CANCION), null);
+    }
+
+    /**
+     * Obtiene una canción seleccionando en la base de datos solo las columnas solicitadas.
+     *
+     * @param id ID de la canción.
+     * @param campos Campos a devolver (ver {@link #CAMPOS_CANCION}).
+     * @return Un mapa campo → valor.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> obtenerCancionPorId(Long id, List<String> campos) {
+        return proyeccionRepository.buscarCampos(Cancion.class, CamposSolicitados.validar(campos, CAMPOS_CANCION), id).stream()
+                .findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException("Cancion", "id", id.toString()));
+    }
+
     @Transactional(readOnly = true)
     public CancionDto obtenerCancionPorId(Long id) {
         Cancion cancion = cancionRepository.findById(id)
@@ -42,27 +110,145 @@ public class CancionService {
         return mapToDto(cancion);
     }
 
+    /**
+     * Obtiene varias canciones por ID con una única consulta {@code IN}.
+     *
+     * @param ids IDs solicitados; los duplicados se ignoran.
+     * @return Las canciones encontradas en el orden solicitado y los IDs que no existen.
+     * @throws BadRequestException Si se solicitan más de {@link #MAX_IDS_POR_LOTE} IDs.
+     */
+    @Transactional(readOnly = true)
+    public LoteResponseDto<CancionDto> obtenerCancionesPorIds(List<Long> ids) {
+        LinkedHashSet<Long> idsUnicos = new LinkedHashSet<>(ids);
+        if (idsUnicos.size() > MAX_IDS_POR_LOTE) {
+            throw new BadRequestException("No se pueden solicitar más de " + MAX_IDS_POR_LOTE + " canciones a la vez.");
+        }
+        Map<Long, Cancion> porId = cancionRepository.findAllById(idsUnicos).stream()
+                .collect(Collectors.toMap(Cancion::getId, Function.identity()));
+        List<CancionDto> encontradas = new ArrayList<>(porId.size());
+        List<Long> noEncontradas = new ArrayList<>();
+        for (Long id : idsUnicos) {
+            Cancion cancion = porId.get(id);
+            if (cancion != null) {
+                encontradas.add(mapToDto(cancion));
+            } else {
+                noEncontradas.add(id);
+            }
+        }
+        return new LoteResponseDto<>(encontradas, noEncontradas);
+    }
+
+    /**
+     * Obtiene los IDs de las listas de reproducción que contienen una canción desde {@link IndicePertenencia}, sin
+     * cargar entidades. Solo se consulta la base de datos cuando la canción no está en ninguna lista, para distinguir
+     * una canción sin listas de una que no existe.
+     *
+     * @param id ID de la canción.
+     * @return Los IDs de las listas, de menor a mayor.
+     * @throws ResourceNotFoundException Si la canción no existe.
+     */
+    public long[] obtenerIdsListasDeCancion(Long id) {
+        long[] listas = indicePertenencia.listasDeCancion(id);
+        if (listas.length == 0 && !cancionRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Cancion", "id", id.toString());
+        }
+        return listas;
+    }
+
+    /**
+     * Canciones que más listas comparten con la indicada, de más a menos listas en común, según el último cálculo
+     * de {@link RecomendadorCanciones}.
+     *
+     * @param limite Número máximo de canciones, entre 1 y {@code app.recommendations.top-k}; {@code null} para usar
+     *               {@link #LIMITE_RELACIONADAS_POR_DEFECTO}, recortado a {@code top-k}.
+     */
+    public List<CancionRelacionadaDto> obtenerCancionesRelacionadas(Long id, Integer limite) {
+        if (limite == null) {
+            limite = Math.min(LIMITE_RELACIONADAS_POR_DEFECTO, recomendadorCanciones.getTopK());
+        }
+        if (limite < 1 || limite > recomendadorCanciones.getTopK()) {
+            throw new BadRequestException("El límite de canciones relacionadas debe estar entre 1 y " + recomendadorCanciones.getTopK() + ".");
+        }
+        RecomendadorCanciones.Relacionadas relacionadas = recomendadorCanciones.relacionadas(id);
+        if (relacionadas.canciones().length == 0 && !cancionRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Cancion", "id", id.toString());
+        }
+        int total = Math.min(limite, relacionadas.canciones().length);
+        List<CancionRelacionadaDto> resultado = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            resultado.add(new CancionRelacionadaDto(relacionadas.canciones()[i], relacionadas.listasEnComun()[i]));
+        }
+        return resultado;
+    }
+
     @Transactional
     public CancionDto actualizarCancion(Long id, CancionDto cancionDto) {
+        return actualizarCancion(id, cancionDto, null);
+    }
+
+    /**
+     * Actualiza una canción comprobando que su versión actual coincide con la esperada por el cliente.
+     * Las escrituras concurrentes que superen la comprobación se detectan igualmente al confirmar gracias a {@code @Version}.
+     *
+     * @param id ID de la canción a actualizar.
+     * @param cancionDto DTO con los nuevos datos.
+     * @param versionEsperada Versión que el cliente leyó ({@code If-Match}); {@code null} para no comprobarla.
+     * @return La canción actualizada con su nueva versión.
+     */
+    @Transactional
+    public CancionDto actualizarCancion(Long id, CancionDto cancionDto, Long versionEsperada) {
         Cancion existingCancion = cancionRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Cancion", "id", id.toString()));
+        if (versionEsperada != null && !versionEsperada.equals(existingCancion.getVersion())) {
+            throw new PreconditionFailedException("Cancion", id.toString(), versionEsperada, existingCancion.getVersion());
+        }
 
         existingCancion.setTitulo(cancionDto.getTitulo());
         existingCancion.setArtista(cancionDto.getArtista());
         existingCancion.setAlbum(cancionDto.getAlbum());
         existingCancion.setAnno(cancionDto.getAnno());
         existingCancion.setGenero(cancionDto.getGenero());
+        String huella = HuellaCancion.de(cancionDto.getTitulo(), cancionDto.getArtista(), cancionDto.getAlbum());
+        if (!huella.equals(existingCancion.getHuella())) {
+            cancionRepository.buscarOtraIdPorHuella(huella, id).ifPresent(existente -> {
+                throw new CancionDuplicadaException(existente);
+            });
+            existingCancion.setHuella(huella);
+        }
 
         Cancion updatedCancion = cancionRepository.save(existingCancion);
+        cancionRepository.flush(); // Incrementa la versión antes de devolverla al cliente.
+        eventPublisher.publishEvent(EventoCambio.cancion(EventoCambio.Accion.UPDATED, updatedCancion.getId(), updatedCancion.getVersion()));
         return mapToDto(updatedCancion);
     }
 
+    /**
+     * Elimina una canción y la quita de todas las listas que la contienen con tres sentencias por conjuntos,
+     * sin cargar ninguna lista: el coste no depende de en cuántas listas esté la canción más allá de los índices.
+     * Las listas afectadas ven descontado su {@code numeroCanciones} e incrementada su versión: los {@code ETag} que
+     * guardaban los clientes dejan de coincidir en las escrituras con {@code If-Match}, y las escrituras optimistas
+     * concurrentes sobre esas listas fallan y se reintentan.
+     * Se publica un único evento de borrado de la canción: los suscriptores deben dar por modificadas las listas que
+     * la contenían, en lugar de recibir un evento por lista.
+     *
+     * @param id ID de la canción a eliminar.
+     * @throws ResourceNotFoundException Si la canción no existe.
+     */
     @Transactional
     public void eliminarCancion(Long id) {
-        if (!cancionRepository.existsById(id)) {
+        cancionRepository.descontarDeListas(id);
+        cancionRepository.quitarDeListas(id);
+        if (cancionRepository.borrarPorId(id) == 0) {
             throw new ResourceNotFoundException("Cancion", "id", id.toString());
         }
-        cancionRepository.deleteById(id);
+        eventPublisher.publishEvent(EventoCambio.cancion(EventoCambio.Accion.DELETED, id, null));
+    }
+
+    /**
+     * Fusiona las canciones duplicadas del catálogo; ver {@link DeduplicadorCanciones}.
+     */
+    public FusionDuplicadosDto fusionarCancionesDuplicadas() {
+        return deduplicadorCanciones.fusionarDuplicadas();
     }
 
     private CancionDto mapToDto(Cancion cancion) {
@@ -72,7 +258,8 @@ public class CancionService {
                 cancion.getArtista(),
                 cancion.getAlbum(),
                 cancion.getAnno(),
-                cancion.getGenero()
+                cancion.getGenero(),
+                cancion.getVersion()
         );
     }
 
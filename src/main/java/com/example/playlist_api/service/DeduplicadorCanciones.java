@@ -0,0 +1,204 @@
+package com.example.playlist_api.service;
+
+import com.example.playlist_api.dto.FusionDuplicadosDto;
+import com.example.playlist_api.repository.CancionRepository;
+import com.example.playlist_api.repository.HuellaCancionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Detección y fusión de canciones duplicadas por su {@link HuellaCancion}.
+ * <p>
+ * Al arrancar rellena por lotes las huellas de las canciones anteriores a la columna, para que el alta y la
+ * modificación de canciones puedan rechazar duplicados con una búsqueda por índice. La fusión recorre el índice de
+ * huellas, agrupa las canciones con la misma huella y conserva en cada grupo la más antigua: las listas que contenían
+ * alguna duplicada pasan a contener la conservada (una sola vez) y las duplicadas se borran. Cada grupo se fusiona en
+ * su propia transacción con sentencias por conjuntos, y los grupos se reparten entre {@code app.dedup.parallelism}
+ * hilos. Dos grupos que comparten una lista pueden bloquearse entre sí; los que fallan se reintentan uno a uno al final.
+ */
+@Service
+public class DeduplicadorCanciones {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeduplicadorCanciones.class);
+
+    record ResultadoGrupo(int eliminadas, int listas) {
+    }
+
+    private final CancionRepository cancionRepository;
+    private final HuellaCancionRepository huellaCancionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int paralelismo;
+    private final int tamanoLote;
+
+    private final Counter eliminadas;
+    private final Timer duracionFusion;
+
+    private ExecutorService fusionadores;
+
+    public DeduplicadorCanciones(CancionRepository cancionRepository,
+                                 HuellaCancionRepository huellaCancionRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 ApplicationEventPublisher eventPublisher,
+                                 @Value("${app.dedup.parallelism:4}") int paralelismo,
+                                 @Value("${app.dedup.batch-size:500}") int tamanoLote,
+                                 MeterRegistry registry) {
+        this.cancionRepository = cancionRepository;
+        this.huellaCancionRepository = huellaCancionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.paralelismo = paralelismo;
+        this.tamanoLote = tamanoLote;
+
+        this.eliminadas = Counter.builder("playlist.dedup.merged")
+                .description("Canciones duplicadas fusionadas en otra")
+                .register(registry);
+        this.duracionFusion = Timer.builder("playlist.dedup.run")
+                .description("Duración de cada fusión de canciones duplicadas")
+                .register(registry);
+    }
+
+    @PostConstruct
+    void iniciar() {
+        AtomicInteger numero = new AtomicInteger();
+        fusionadores = Executors.newFixedThreadPool(paralelismo, r -> {
+            Thread thread = new Thread(r, "deduplicador-canciones-" + numero.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        fusionadores.execute(() -> {
+            try {
+                int rellenadas = rellenarHuellas();
+                if (rellenadas > 0) {
+                    logger.info("Huellas calculadas para {} canciones existentes", rellenadas);
+                }
+            } catch (RuntimeException e) {
+                // La siguiente fusión vuelve a intentarlo.
+                logger.warn("No se pudieron calcular las huellas pendientes: {}", e.toString());
+            }
+        });
+    }
+
+    @PreDestroy
+    void detener() throws InterruptedException {
+        fusionadores.shutdownNow();
+        fusionadores.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Calcula por lotes las huellas de las canciones que aún no la tienen.
+     *
+     * @return El número de canciones procesadas.
+     */
+    int rellenarHuellas() {
+        int total = 0;
+        List<HuellaCancionRepository.CancionSinHuella> lote;
+        do {
+            lote = huellaCancionRepository.buscarSinHuella(tamanoLote);
+            if (!lote.isEmpty()) {
+                huellaCancionRepository.asignarHuellas(lote.stream()
+                        .map(c -> new HuellaCancionRepository.HuellaAsignada(c.id(), HuellaCancion.de(c.titulo(), c.artista(), c.album())))
+                        .toList());
+                total += lote.size();
+            }
+        } while (lote.size() == tamanoLote);
+        return total;
+    }
+
+    /**
+     * Fusiona todas las canciones duplicadas. Las fusiones no se solapan: una segunda llamada espera a la primera.
+     *
+     * @return Cuántos grupos se encontraron y fusionaron, y cuántas canciones y listas se vieron afectadas.
+     */
+    public synchronized FusionDuplicadosDto fusionarDuplicadas() {
+        long inicio = System.nanoTime();
+        rellenarHuellas();
+        List<long[]> grupos = huellaCancionRepository.buscarGruposDuplicados();
+
+        List<Future<ResultadoGrupo>> enCurso = new ArrayList<>(grupos.size());
+        for (long[] grupo : grupos) {
+            enCurso.add(fusionadores.submit(() -> fusionarGrupo(grupo)));
+        }
+        int canciones = 0;
+        int listas = 0;
+        List<long[]> fallidos = new ArrayList<>();
+        for (int i = 0; i < grupos.size(); i++) {
+            try {
+                ResultadoGrupo resultado = enCurso.get(i).get();
+                canciones += resultado.eliminadas();
+                listas += resultado.listas();
+            } catch (ExecutionException e) {
+                fallidos.add(grupos.get(i));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Fusión de canciones duplicadas interrumpida", e);
+            }
+        }
+        int pendientes = 0;
+        for (long[] grupo : fallidos) {
+            try {
+                ResultadoGrupo resultado = fusionarGrupo(grupo);
+                canciones += resultado.eliminadas();
+                listas += resultado.listas();
+            } catch (RuntimeException e) {
+                pendientes++;
+                logger.warn("No se pudo fusionar el grupo de canciones {}: {}", Arrays.toString(grupo), e.toString());
+            }
+        }
+
+        eliminadas.increment(canciones);
+        duracionFusion.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        logger.info("Fusión de duplicadas: {} grupos, {} canciones eliminadas, {} listas actualizadas, {} grupos pendientes",
+                grupos.size(), canciones, listas, pendientes);
+        return new FusionDuplicadosDto(grupos.size(), canciones, listas, pendientes);
+    }
+
+    /**
+     * Fusiona un grupo en su canción más antigua ({@code grupo[0]}) con cuatro sentencias por conjuntos y publica
+     * un cambio por cada lista modificada, con la versión que le dejó la fusión, y un borrado por cada duplicada.
+     */
+    ResultadoGrupo fusionarGrupo(long[] grupo) {
+        List<Long> todas = Arrays.stream(grupo).boxed().toList();
+        Long canonica = todas.get(0);
+        List<Long> duplicadas = todas.subList(1, todas.size());
+        return transactionTemplate.execute(status -> {
+            List<Long> listas = cancionRepository.buscarIdsListasConCanciones(duplicadas);
+            List<Object[]> versiones = List.of();
+            if (!listas.isEmpty()) {
+                cancionRepository.descontarDuplicadasDeListas(todas, duplicadas);
+                versiones = cancionRepository.buscarVersionesListas(listas);
+                cancionRepository.apuntarDuplicadasACanonica(canonica, duplicadas);
+                cancionRepository.quitarDuplicadasDeListas(duplicadas);
+            }
+            int borradas = cancionRepository.borrarPorIds(duplicadas);
+            for (Object[] version : versiones) {
+                eventPublisher.publishEvent(EventoCambio.lista(EventoCambio.Accion.UPDATED,
+                        ((Number) version[0]).longValue(), ((Number) version[1]).longValue()));
+            }
+            for (Long cancionId : duplicadas) {
+                eventPublisher.publishEvent(EventoCambio.cancion(EventoCambio.Accion.DELETED, cancionId, null));
+            }
+            return new ResultadoGrupo(borradas, listas.size());
+        });
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.playlist_api.service;
+
+import com.example.playlist_api.entity.EventoOutbox;
+import com.example.playlist_api.repository.EventoOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Despachador del outbox transaccional: lee por lotes los eventos que {@link RegistroOutbox} escribió junto con cada
+ * cambio, los entrega a los destinos activos ({@code app.outbox.sinks}) y solo entonces los borra.
+ * Si la aplicación cae o un destino falla entre la entrega y el borrado, el lote se vuelve a entregar:
+ * la entrega es al menos una vez.
+ * <p>
+ * Cada lote va en orden de ID, pero el ID se asigna al insertar y no al confirmar: con escrituras concurrentes,
+ * un evento con un ID menor puede confirmarse, y por tanto entregarse, después que otro con un ID mayor. Los
+ * consumidores no deben usar el ID como marca de agua; ver {@link MensajeOutbox}.
+ * <p>
+ * Un único hilo despacha, así que los lotes no se solapan. Se despierta tras cada commit que publica un cambio y,
+ * además, cada {@code app.outbox.poll-interval-ms} para recoger lo que quedó pendiente (reinicios, destinos caídos).
+ * Publica como métricas los eventos entregados, el retraso desde la escritura hasta la entrega, la duración de
+ * cada lote, los fallos y los eventos pendientes ({@code playlist.outbox.*}).
+ */
+@Service
+public class DespachadorOutbox {
+
+    private static final Logger logger = LoggerFactory.getLogger(DespachadorOutbox.class);
+
+    private final EventoOutboxRepository eventoOutboxRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final List<DestinoEventos> destinos;
+    private final boolean habilitado;
+    private final int tamanoLote;
+    private final long intervaloSondeoMs;
+
+    private final AtomicBoolean despertarProgramado = new AtomicBoolean();
+    private ScheduledExecutorService despachador;
+
+    private final Counter entregados;
+    private final Counter fallos;
+    private final Timer retraso;
+    private final Timer duracionLote;
+
+    public DespachadorOutbox(EventoOutboxRepository eventoOutboxRepository,
+                             PlatformTransactionManager transactionManager,
+                             List<DestinoEventos> disponibles,
+                             @Value("${app.outbox.enabled:true}") boolean habilitado,
+                             @Value("${app.outbox.sinks:in-process}") List<String> activos,
+                             @Value("${app.outbox.batch-size:500}") int tamanoLote,
+                             @Value("${app.outbox.poll-interval-ms:1000}") long intervaloSondeoMs,
+                             MeterRegistry registry) {
+        this.eventoOutboxRepository = eventoOutboxRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.habilitado = habilitado;
+        this.tamanoLote = tamanoLote;
+        this.intervaloSondeoMs = intervaloSondeoMs;
+        Map<String, DestinoEventos> porNombre = disponibles.stream()
+                .collect(Collectors.toMap(DestinoEventos::getNombre, Function.identity()));
+        this.destinos = new ArrayList<>(activos.size());
+        for (String nombre : activos) {
+            DestinoEventos destino = porNombre.get(nombre.trim());
+            if (destino == null) {
+                throw new IllegalStateException("Destino de eventos desconocido en app.outbox.sinks: '" + nombre
+                        + "'. Disponibles: " + porNombre.keySet());
+            }
+            destinos.add(destino);
+        }
+
+        this.entregados = Counter.builder("playlist.outbox.dispatched")
+                .description("Eventos del outbox entregados a todos los destinos")
+                .register(registry);
+        this.fallos = Counter.builder("playlist.outbox.failures")
+                .description("Intentos de despacho fallidos")
+                .register(registry);
+        this.retraso = Timer.builder("playlist.outbox.dispatch.lag")
+                .description("Tiempo desde que se escribe un evento hasta que se entrega")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        this.duracionLote = Timer.builder("playlist.outbox.batch")
+                .description("Duración de cada lote de despacho")
+                .register(registry);
+        Gauge.builder("playlist.outbox.pending", eventoOutboxRepository, EventoOutboxRepository::count)
+                .description("Eventos del outbox pendientes de entregar")
+                .register(registry);
+    }
+
+    @PostConstruct
+    void iniciar() {
+        if (!habilitado) {
+            return;
+        }
+        despachador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "despachador-outbox");
+            thread.setDaemon(true);
+            return thread;
+        });
+        despachador.scheduleWithFixedDelay(this::despacharSinPropagar, 0, intervaloSondeoMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void detener() throws InterruptedException {
+        if (despachador == null) {
+            return;
+        }
+        despachador.shutdown();
+        despachador.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Programa un despacho inmediato cuando se confirma una transacción con cambios, para no esperar al siguiente
+     * sondeo. Varias confirmaciones seguidas comparten el mismo despacho.
+     */
+    @TransactionalEventListener
+    public void despertar(EventoCambio evento) {
+        if (despachador != null && despertarProgramado.compareAndSet(false, true)) {
+            despachador.execute(() -> {
+                despertarProgramado.set(false);
+                despacharSinPropagar();
+            });
+        }
+    }
+
+    /**
+     * Entrega todo lo pendiente, lote a lote, hasta vaciar el outbox o hasta el primer fallo.
+     *
+     * @return El número de eventos entregados.
+     */
+    int despachar() {
+        int total = 0;
+        int entregadosLote;
+        do {
+            entregadosLote = despacharLote();
+            total += entregadosLote;
+        } while (entregadosLote == tamanoLote);
+        return total;
+    }
+
+    /**
+     * Entrega a todos los destinos los {@code tamanoLote} eventos más antiguos y los borra con un único DELETE.
+     * Si un destino falla, la excepción se propaga y el lote sigue en el outbox para el siguiente intento.
+     *
+     * @return El número de eventos entregados.
+     */
+    int despacharLote() {
+        List<EventoOutbox> lote = transactionTemplate.execute(status ->
+                eventoOutboxRepository.findAllByOrderByIdAsc(Limit.of(tamanoLote)));
+        if (lote == null || lote.isEmpty()) {
+            return 0;
+        }
+        long inicio = System.nanoTime();
+        List<MensajeOutbox> mensajes = new ArrayList<>(lote.size());
+        List<Long> ids = new ArrayList<>(lote.size());
+        for (EventoOutbox evento : lote) {
+            mensajes.add(new MensajeOutbox(evento.getId(), new EventoCambio(
+                    EventoCambio.Tipo.valueOf(evento.getTipo()), EventoCambio.Accion.valueOf(evento.getAccion()),
+                    evento.getRecursoId(), evento.getVersionRecurso()), evento.getCreadoEn()));
+            ids.add(evento.getId());
+        }
+        for (DestinoEventos destino : destinos) {
+            destino.entregar(mensajes);
+        }
+        transactionTemplate.executeWithoutResult(status -> eventoOutboxRepository.deleteAllByIdInBatch(ids));
+
+        Instant ahora = Instant.now();
+        for (MensajeOutbox mensaje : mensajes) {
+            retraso.record(Duration.between(mensaje.creadoEn(), ahora));
+        }
+        entregados.increment(mensajes.size());
+        duracionLote.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        return mensajes.size();
+    }
+
+    private void despacharSinPropagar() {
+        try {
+            despachar();
+        } catch (RuntimeException e) {
+            fallos.increment();
+            logger.warn("No se pudo despachar el lote del outbox; se reintentará en {} ms: {}", intervaloSondeoMs, e.toString());
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.playlist_api.service;
+
+import java.util.List;
+
+/**
+ * Destino al que {@link DespachadorOutbox} entrega los eventos del outbox. Los destinos activos se eligen por
+ * nombre con {@code app.outbox.sinks}; basta con declarar otro bean que implemente esta interfaz para añadir uno.
+ */
+public interface DestinoEventos {
+
+    /**
+     * Nombre con el que se activa el destino en {@code app.outbox.sinks}.
+     */
+    String getNombre();
+
+    /**
+     * Entrega un lote de eventos. Si lanza una excepción, el lote completo se reintenta más tarde,
+     * también en los destinos que ya lo habían recibido.
+     *
+     * @param lote Eventos a entregar, en orden de ID dentro del lote. Un lote posterior puede traer IDs menores,
+     *             de transacciones que se confirmaron más tarde.
+     */
+    void entregar(List<MensajeOutbox> lote);
+}
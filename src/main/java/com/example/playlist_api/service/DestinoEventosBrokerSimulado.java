@@ -0,0 +1,75 @@
+package com.example.playlist_api.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Broker de mensajes simulado en memoria, para probar el despacho sin un broker real: cada lote tarda
+ * {@code app.outbox.mock-broker.latency-ms} en "publicarse" y falla con probabilidad {@code failure-rate}.
+ * Conserva los últimos {@code max-retained} mensajes recibidos.
+ */
+@Component
+public class DestinoEventosBrokerSimulado implements DestinoEventos {
+
+    private final long latenciaMs;
+    private final double probabilidadFallo;
+    private final int maxRetenidos;
+    private final ArrayDeque<MensajeOutbox> recibidos = new ArrayDeque<>();
+    private final AtomicLong totalRecibidos = new AtomicLong();
+
+    public DestinoEventosBrokerSimulado(@Value("${app.outbox.mock-broker.latency-ms:5}") long latenciaMs,
+                                        @Value("${app.outbox.mock-broker.failure-rate:0}") double probabilidadFallo,
+                                        @Value("${app.outbox.mock-broker.max-retained:10000}") int maxRetenidos) {
+        this.latenciaMs = latenciaMs;
+        this.probabilidadFallo = probabilidadFallo;
+        this.maxRetenidos = maxRetenidos;
+    }
+
+    @Override
+    public String getNombre() {
+        return "mock-broker";
+    }
+
+    @Override
+    public void entregar(List<MensajeOutbox> lote) {
+        if (latenciaMs > 0) {
+            try {
+                Thread.sleep(latenciaMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Publicación en el broker simulado interrumpida", e);
+            }
+        }
+        if (probabilidadFallo > 0 && ThreadLocalRandom.current().nextDouble() < probabilidadFallo) {
+            throw new IllegalStateException("Fallo simulado del broker al publicar " + lote.size() + " eventos");
+        }
+        synchronized (recibidos) {
+            for (MensajeOutbox mensaje : lote) {
+                if (recibidos.size() == maxRetenidos) {
+                    recibidos.removeFirst();
+                }
+                recibidos.addLast(mensaje);
+            }
+        }
+        totalRecibidos.addAndGet(lote.size());
+    }
+
+    /**
+     * Últimos mensajes recibidos, del más antiguo al más reciente.
+     */
+    public List<MensajeOutbox> getRecibidos() {
+        synchronized (recibidos) {
+            return new ArrayList<>(recibidos);
+        }
+    }
+
+    public long getTotalRecibidos() {
+        return totalRecibidos.get();
+    }
+}
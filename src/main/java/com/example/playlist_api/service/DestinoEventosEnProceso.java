@@ -0,0 +1,30 @@
+package com.example.playlist_api.service;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Entrega cada evento del outbox a los listeners de la propia aplicación ({@code @EventListener MensajeOutbox}),
+ * por ejemplo para invalidar cachés. Una excepción en un listener hace que se reintente el lote.
+ */
+@Component
+public class DestinoEventosEnProceso implements DestinoEventos {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public DestinoEventosEnProceso(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public String getNombre() {
+        return "in-process";
+    }
+
+    @Override
+    public void entregar(List<MensajeOutbox> lote) {
+        lote.forEach(eventPublisher::publishEvent);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.playlist_api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Añade los eventos del outbox como líneas JSON a un fichero local ({@code app.outbox.file.path}) y fuerza cada lote
+ * a disco antes de darlo por entregado. El fichero se abre con la primera entrega.
+ */
+@Component
+public class DestinoEventosFichero implements DestinoEventos {
+
+    private final Path ruta;
+    private final ObjectMapper objectMapper;
+    private FileChannel channel;
+
+    public DestinoEventosFichero(@Value("${app.outbox.file.path:./data/outbox/eventos.jsonl}") String ruta,
+                                 ObjectMapper objectMapper) {
+        this.ruta = Paths.get(ruta);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public String getNombre() {
+        return "file";
+    }
+
+    @Override
+    public synchronized void entregar(List<MensajeOutbox> lote) {
+        try {
+            ByteArrayOutputStream lineas = new ByteArrayOutputStream(lote.size() * 128);
+            for (MensajeOutbox mensaje : lote) {
+                objectMapper.writeValue(lineas, mensaje);
+                lineas.write('\n');
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(lineas.toByteArray());
+            FileChannel destino = abrir();
+            while (buffer.hasRemaining()) {
+                destino.write(buffer);
+            }
+            destino.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo escribir en el fichero de eventos: " + ruta, e);
+        }
+    }
+
+    private FileChannel abrir() throws IOException {
+        if (channel == null) {
+            if (ruta.getParent() != null) {
+                Files.createDirectories(ruta.getParent());
+            }
+            channel = FileChannel.open(ruta, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+
+    @PreDestroy
+    synchronized void cerrar() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+}
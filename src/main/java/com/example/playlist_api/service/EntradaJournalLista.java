@@ -0,0 +1,22 @@
+package com.example.playlist_api.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+/**
+ * Entrada del journal de escritura diferida: representa una actualización de lista de reproducción
+ * aceptada pero todavía no aplicada en la base de datos.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EntradaJournalLista {
+    private long version;
+    private Long listaId;
+    private String nombre;
+    private String descripcion;
+    private Set<Long> cancionIds;
+}
@@ -0,0 +1,320 @@
+package com.example.playlist_api.service;
+
+import com.example.playlist_api.dto.ListaReproduccionRequestDto;
+import com.example.playlist_api.entity.ListaReproduccion;
+import com.example.playlist_api.exception.ActualizacionRechazadaException;
+import com.example.playlist_api.exception.BadRequestException;
+import com.example.playlist_api.exception.ResourceNotFoundException;
+import com.example.playlist_api.repository.CancionRepository;
+import com.example.playlist_api.repository.ListaReproduccionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Modo opcional de escritura diferida (write-behind) para las actualizaciones de listas de reproducción.
+ * Las actualizaciones se registran en un journal local durable y se confirman inmediatamente con un token de versión;
+ * un escritor en segundo plano las aplica a la base de datos por lotes. Las lecturas que indican una versión mínima
+ * fuerzan la aplicación de lo pendiente antes de leer, garantizando que el cliente ve sus propias escrituras.
+ * <p>
+ * Antes de confirmar una actualización se comprueba que la lista y las canciones existen y que el nombre no lo usa otra
+ * lista. Si al aplicarla se rechaza igualmente (p. ej. porque una canción se borró entretanto), el rechazo se recuerda
+ * y la lectura con su token de versión responde con {@link ActualizacionRechazadaException}. Un fallo transitorio
+ * de la base de datos no descarta nada: el lote sigue pendiente en el journal y se reintenta.
+ */
+@Service
+public class EscrituraDiferidaListaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EscrituraDiferidaListaService.class);
+
+    /** Número de rechazos recordados para responder a las lecturas con su token de versión. */
+    static final int MAX_RECHAZOS = 1000;
+
+    private final ListaReproduccionService listaReproduccionService;
+    private final ListaReproduccionRepository listaReproduccionRepository;
+    private final CancionRepository cancionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.write-behind.enabled:false}")
+    private boolean habilitada;
+
+    @Value("${app.write-behind.journal-dir:./data/journal}")
+    private String journalDir;
+
+    @Value("${app.write-behind.batch-size:500}")
+    private int tamanoLote;
+
+    @Value("${app.write-behind.flush-interval-ms:200}")
+    private long intervaloFlushMs;
+
+    private final ConcurrentLinkedQueue<EntradaJournalLista> pendientes = new ConcurrentLinkedQueue<>();
+    private final AtomicLong versionAplicada = new AtomicLong();
+    /** Última actualización pendiente de cada lista, para validar los nombres contra lo que aún no se ha aplicado. */
+    private final Map<Long, EntradaJournalLista> ultimasPendientes = new ConcurrentHashMap<>();
+    /** Motivo de rechazo de las últimas actualizaciones rechazadas, por versión. */
+    private final Map<Long, String> rechazadas = Collections.synchronizedMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, String> eldest) {
+            return size() > MAX_RECHAZOS;
+        }
+    });
+    /** Lote que falló por un error transitorio; se reintenta antes de tomar entradas nuevas. */
+    private List<EntradaJournalLista> loteEnCurso;
+    private JournalListasReproduccion journal;
+    private ScheduledExecutorService escritor;
+
+    @Autowired
+    public EscrituraDiferidaListaService(ListaReproduccionService listaReproduccionService,
+                                         ListaReproduccionRepository listaReproduccionRepository,
+                                         CancionRepository cancionRepository,
+                                         PlatformTransactionManager transactionManager,
+                                         ObjectMapper objectMapper) {
+        this.listaReproduccionService = listaReproduccionService;
+        this.listaReproduccionRepository = listaReproduccionRepository;
+        this.cancionRepository = cancionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    void iniciar() {
+        if (!habilitada) {
+            return;
+        }
+        journal = new JournalListasReproduccion(Paths.get(journalDir), objectMapper);
+        List<EntradaJournalLista> recuperadas = journal.recuperarPendientes();
+        versionAplicada.set(recuperadas.isEmpty() ? journal.getUltimaVersion() : recuperadas.get(0).getVersion() - 1);
+        if (!recuperadas.isEmpty()) {
+            pendientes.addAll(recuperadas);
+            recuperadas.forEach(entrada -> ultimasPendientes.put(entrada.getListaId(), entrada));
+            logger.info("Reproduciendo {} actualizaciones pendientes del journal de listas de reproducción", recuperadas.size());
+            vaciarSinPropagar();
+        }
+        escritor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "escritura-diferida-listas");
+            thread.setDaemon(true);
+            return thread;
+        });
+        escritor.scheduleWithFixedDelay(this::vaciarSinPropagar, intervaloFlushMs, intervaloFlushMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void detener() throws IOException {
+        if (escritor == null) {
+            return;
+        }
+        escritor.shutdown();
+        vaciarSinPropagar();
+        journal.close();
+    }
+
+    /**
+     * Indica si el modo de escritura diferida está activo ({@code app.write-behind.enabled}).
+     *
+     * @return {@code true} si las actualizaciones deben encolarse en lugar de aplicarse de forma síncrona.
+     */
+    public boolean isHabilitada() {
+        return habilitada;
+    }
+
+    /**
+     * Registra de forma durable una actualización de lista de reproducción y devuelve su token de versión.
+     * Antes se comprueba de forma síncrona, como en la actualización directa, que la lista y las canciones existen
+     * y que ninguna otra lista usa ya el nombre, teniendo en cuenta también las actualizaciones aún pendientes.
+     *
+     * @param id ID de la lista de reproducción a actualizar.
+     * @param listaReproduccionRequestDto DTO con los nuevos datos de la lista.
+     * @return Versión asignada a la actualización.
+     * @throws ResourceNotFoundException Si la lista o alguna de las canciones no existe.
+     * @throws BadRequestException Si otra lista ya tiene ese nombre.
+     */
+    public long encolarActualizacion(Long id, ListaReproduccionRequestDto listaReproduccionRequestDto) {
+        ListaReproduccion lista = listaReproduccionRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("ListaReproduccion", "id", id.toString()));
+        validarCanciones(listaReproduccionRequestDto.getCancionIds());
+        EntradaJournalLista entrada = new EntradaJournalLista(0L, id,
+                listaReproduccionRequestDto.getNombre(),
+                listaReproduccionRequestDto.getDescripcion(),
+                listaReproduccionRequestDto.getCancionIds());
+        // El append y el encolado deben ocurrir en el mismo orden de versión, y la comprobación del nombre
+        // no debe cruzarse con otra actualización que lo reclame a la vez.
+        synchronized (pendientes) {
+            validarNombre(id, lista.getNombre(), entrada.getNombre());
+            long version = journal.append(entrada);
+            pendientes.add(entrada);
+            ultimasPendientes.put(id, entrada);
+            return version;
+        }
+    }
+
+    /**
+     * Garantiza que todas las actualizaciones con versión menor o igual a {@code version} se han aplicado
+     * en la base de datos, aplicándolas de forma síncrona si el escritor en segundo plano aún no lo ha hecho.
+     *
+     * @param version Versión mínima que el cliente necesita observar; {@code null} si no hay requisito.
+     * @throws ActualizacionRechazadaException Si la actualización con esa versión se rechazó al aplicarla.
+     */
+    public void esperarVersion(Long version) {
+        if (!habilitada || version == null) {
+            return;
+        }
+        if (versionAplicada.get() < version) {
+            vaciar();
+        }
+        String motivo = rechazadas.get(version);
+        if (motivo != null) {
+            throw new ActualizacionRechazadaException(version, motivo);
+        }
+    }
+
+    private void validarCanciones(Set<Long> cancionIds) {
+        if (cancionIds == null || cancionIds.isEmpty()) {
+            return;
+        }
+        Set<Long> existentes = new HashSet<>(cancionRepository.findIdsByIdIn(cancionIds));
+        for (Long cancionId : cancionIds) {
+            if (!existentes.contains(cancionId)) {
+                throw new ResourceNotFoundException("Cancion", "id", cancionId.toString());
+            }
+        }
+    }
+
+    /**
+     * Comprueba que el nombre estará libre cuando se aplique la actualización: que no lo reclama otra actualización
+     * pendiente y que la lista que lo tiene en la base de datos, si la hay, es esta o va a cambiarlo.
+     */
+    private void validarNombre(Long id, String nombreActual, String nombre) {
+        EntradaJournalLista propia = ultimasPendientes.get(id);
+        if (nombre.equals(propia != null ? propia.getNombre() : nombreActual)) {
+            return;
+        }
+        for (EntradaJournalLista otra : ultimasPendientes.values()) {
+            if (!otra.getListaId().equals(id) && nombre.equals(otra.getNombre())) {
+                throw new BadRequestException("Ya existe otra lista de reproducción con el nombre: " + nombre);
+            }
+        }
+        Optional<ListaReproduccion> conNombre = listaReproduccionRepository.findByNombre(nombre);
+        if (conNombre.isPresent() && !conNombre.get().getId().equals(id)) {
+            EntradaJournalLista renombrada = ultimasPendientes.get(conNombre.get().getId());
+            if (renombrada == null || nombre.equals(renombrada.getNombre())) {
+                throw new BadRequestException("Ya existe otra lista de reproducción con el nombre: " + nombre);
+            }
+        }
+    }
+
+    private void vaciarSinPropagar() {
+        try {
+            vaciar();
+        } catch (RuntimeException e) {
+            logger.error("Error al aplicar el lote de escritura diferida de listas de reproducción", e);
+        }
+    }
+
+    /**
+     * Aplica lo pendiente lote a lote. El checkpoint solo avanza cuando todo el lote se ha aplicado o rechazado
+     * definitivamente; si falla por un error transitorio, el lote se conserva y se propaga el error.
+     */
+    private synchronized void vaciar() {
+        while (true) {
+            if (loteEnCurso == null) {
+                List<EntradaJournalLista> lote = new ArrayList<>(tamanoLote);
+                EntradaJournalLista entrada;
+                while (lote.size() < tamanoLote && (entrada = pendientes.poll()) != null) {
+                    lote.add(entrada);
+                }
+                if (lote.isEmpty()) {
+                    return;
+                }
+                loteEnCurso = lote;
+            }
+            aplicarLote(loteEnCurso);
+            long ultima = loteEnCurso.get(loteEnCurso.size() - 1).getVersion();
+            loteEnCurso.forEach(entrada -> ultimasPendientes.remove(entrada.getListaId(), entrada));
+            versionAplicada.set(ultima);
+            journal.checkpoint(ultima);
+            loteEnCurso = null;
+        }
+    }
+
+    private void aplicarLote(List<EntradaJournalLista> lote) {
+        // Cada actualización reemplaza la lista completa, así que de cada lista basta con aplicar la última.
+        Map<Long, List<EntradaJournalLista>> porLista = new LinkedHashMap<>();
+        for (EntradaJournalLista entrada : lote) {
+            List<EntradaJournalLista> deLista = porLista.remove(entrada.getListaId());
+            if (deLista == null) {
+                deLista = new ArrayList<>();
+            }
+            deLista.add(entrada);
+            porLista.put(entrada.getListaId(), deLista);
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    porLista.values().forEach(entradas -> aplicar(entradas.get(entradas.size() - 1))));
+            return;
+        } catch (RuntimeException e) {
+            logger.warn("Fallo al aplicar el lote de escritura diferida; se reintenta lista por lista", e);
+        }
+        // Si se repite el lote por un error transitorio, las listas ya aplicadas se vuelven a escribir con el mismo contenido.
+        for (List<EntradaJournalLista> entradas : porLista.values()) {
+            aplicarUltimaValida(entradas);
+        }
+    }
+
+    /**
+     * Aplica la actualización más reciente de la lista que no se rechace, para no perder las anteriores ya confirmadas
+     * al cliente cuando la última no es válida. Los errores transitorios se propagan sin registrar nada.
+     */
+    private void aplicarUltimaValida(List<EntradaJournalLista> entradas) {
+        for (int i = entradas.size() - 1; i >= 0; i--) {
+            EntradaJournalLista entrada = entradas.get(i);
+            try {
+                aplicar(entrada);
+                return;
+            } catch (RuntimeException e) {
+                if (!esRechazoDefinitivo(e)) {
+                    throw e;
+                }
+                logger.warn("Se rechaza la actualización diferida versión {} de la lista {}: {}",
+                        entrada.getVersion(), entrada.getListaId(), e.getMessage());
+                rechazadas.put(entrada.getVersion(), e.getMessage());
+            }
+        }
+    }
+
+    private static boolean esRechazoDefinitivo(RuntimeException e) {
+        return e instanceof ResourceNotFoundException
+                || e instanceof BadRequestException
+                || e instanceof DataIntegrityViolationException;
+    }
+
+    private void aplicar(EntradaJournalLista entrada) {
+        listaReproduccionService.actualizarListaReproduccion(entrada.getListaId(),
+                new ListaReproduccionRequestDto(entrada.getNombre(), entrada.getDescripcion(), entrada.getCancionIds()));
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.playlist_api.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.Locale;
+
+/**
+ * Cambio confirmado en una lista de reproducción o en una canción, tal como se envía a los suscriptores
+ * de {@code GET /api/listas/changes}: solo el recurso, la acción, su ID y la versión resultante,
+ * para que el cliente decida si tiene que volver a leerlo.
+ *
+ * @param tipo Tipo de recurso modificado.
+ * @param accion Acción realizada.
+ * @param id ID del recurso.
+ * @param version Versión tras el cambio; {@code null} si no se conoce (p. ej. en algunos borrados).
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record EventoCambio(Tipo tipo, Accion accion, Long id, Long version) {
+
+    public enum Tipo {
+        LISTA, CANCION;
+
+        @JsonValue
+        public String valor() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    public enum Accion {
+        CREATED, UPDATED, DELETED;
+
+        @JsonValue
+        public String valor() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    public static EventoCambio lista(Accion accion, Long id, Long version) {
+        return new EventoCambio(Tipo.LISTA, accion, id, version);
+    }
+
+    public static EventoCambio cancion(Accion accion, Long id, Long version) {
+        return new EventoCambio(Tipo.CANCION, accion, id, version);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.playlist_api.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Huella de una canción para detectar duplicados: dos canciones cuyo título, artista y álbum solo difieren en
+ * mayúsculas, acentos o espacios tienen la misma huella. La comparten las variantes MVC y reactiva.
+ */
+public final class HuellaCancion {
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+    private static final char SEPARADOR = '\u001F';
+
+    private HuellaCancion() {
+    }
+
+    /**
+     * Calcula la huella de una canción.
+     *
+     * @return SHA-256 en hexadecimal de los tres campos normalizados.
+     */
+    public static String de(String titulo, String artista, String album) {
+        String clave = normalizar(titulo) + SEPARADOR + normalizar(artista) + SEPARADOR + normalizar(album);
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(clave.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no está disponible", e);
+        }
+    }
+
+    /**
+     * Quita acentos y otras marcas (descomponiendo los caracteres), pasa a minúsculas y reduce cada secuencia de
+     * espacios a uno solo.
+     */
+    static String normalizar(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        String sinMarcas = MARCAS.matcher(Normalizer.normalize(valor, Normalizer.Form.NFKD)).replaceAll("");
+        return ESPACIOS.matcher(sinMarcas.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+}
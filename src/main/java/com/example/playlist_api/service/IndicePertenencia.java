@@ -0,0 +1,324 @@
+package com.example.playlist_api.service;
+
+import com.example.playlist_api.repository.PertenenciaRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Índice en memoria de qué canciones tiene cada lista de reproducción y en qué listas está cada canción, con los IDs
+ * guardados como arrays {@code long[]} ordenados. Responde a {@code GET /api/canciones/{id}/listas} sin tocar la
+ * base de datos.
+ * <p>
+ * Se construye al arrancar recorriendo la tabla de unión y se mantiene con los {@link EventoCambio} confirmados: cada
+ * cambio de una lista vuelve a leer sus canciones con una consulta por la clave primaria y aplica la diferencia.
+ * Un único hilo aplica las actualizaciones en orden, así que cada lectura de la base de datos es posterior a la
+ * anterior y el índice nunca retrocede; las consultas leen los arrays sin bloqueo, porque nunca se modifican en sitio
+ * (cada cambio publica un array nuevo). El índice va unos milisegundos por detrás de cada confirmación.
+ */
+@Component
+public class IndicePertenencia implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndicePertenencia.class);
+
+    private static final long[] VACIO = new long[0];
+
+    // Coste aproximado de cada entrada de los mapas, además de sus IDs: nodo del mapa, clave Long y cabecera del array.
+    private static final long BYTES_POR_ENTRADA = 32 + 16 + 16;
+
+    private final PertenenciaRepository pertenenciaRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ConcurrentHashMap<Long, long[]> listasPorCancion = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, long[]> cancionesPorLista = new ConcurrentHashMap<>();
+    // Solo los modifica el hilo actualizador.
+    private volatile long parejas;
+    private volatile boolean construido;
+
+    private ExecutorService actualizador;
+
+    public IndicePertenencia(PertenenciaRepository pertenenciaRepository, ApplicationEventPublisher eventPublisher) {
+        this.pertenenciaRepository = pertenenciaRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostConstruct
+    void iniciar() {
+        actualizador = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "indice-pertenencia");
+            thread.setDaemon(true);
+            return thread;
+        });
+        actualizador.execute(this::reconstruir);
+    }
+
+    @PreDestroy
+    void detener() throws InterruptedException {
+        actualizador.shutdownNow();
+        actualizador.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * IDs de las listas que contienen la canción, de menor a mayor. Mientras el índice se construye, se consultan
+     * en la base de datos.
+     */
+    public long[] listasDeCancion(long cancionId) {
+        if (!construido) {
+            return pertenenciaRepository.buscarListasDeCancion(cancionId);
+        }
+        return listasPorCancion.getOrDefault(cancionId, VACIO).clone();
+    }
+
+    /**
+     * IDs de las canciones de la lista, de menor a mayor. Mientras el índice se construye, se consultan en la base de datos.
+     */
+    public long[] cancionesDeLista(long listaId) {
+        if (!construido) {
+            return pertenenciaRepository.buscarCancionesDeLista(listaId);
+        }
+        return cancionesPorLista.getOrDefault(listaId, VACIO).clone();
+    }
+
+    /**
+     * Indica si el índice ya se construyó; antes, las consultas van a la base de datos.
+     */
+    public boolean isConstruido() {
+        return construido;
+    }
+
+    /** IDs de todas las canciones que están en alguna lista, sin orden. */
+    long[] cancionesIndexadas() {
+        return listasPorCancion.keySet().stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /** Como {@link #listasDeCancion} pero sin copiar el array, que no debe modificarse; solo con el índice construido. */
+    long[] listasDeCancionSinCopiar(long cancionId) {
+        return listasPorCancion.getOrDefault(cancionId, VACIO);
+    }
+
+    /** Como {@link #cancionesDeLista} pero sin copiar el array, que no debe modificarse; solo con el índice construido. */
+    long[] cancionesDeListaSinCopiar(long listaId) {
+        return cancionesPorLista.getOrDefault(listaId, VACIO);
+    }
+
+    /**
+     * Recibe cada cambio una vez confirmada su transacción y encola su aplicación en el índice.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alConfirmarCambio(EventoCambio evento) {
+        actualizador.execute(() -> {
+            try {
+                aplicar(evento);
+            } catch (RuntimeException e) {
+                // El siguiente cambio de la misma lista la vuelve a leer completa.
+                logger.warn("No se pudo aplicar {} al índice de pertenencia: {}", evento, e.toString());
+            }
+        });
+    }
+
+    void aplicar(EventoCambio evento) {
+        if (evento.tipo() == EventoCambio.Tipo.LISTA) {
+            long[] canciones = evento.accion() == EventoCambio.Accion.DELETED
+                    ? VACIO
+                    : pertenenciaRepository.buscarCancionesDeLista(evento.id());
+            reemplazarCancionesDeLista(evento.id(), canciones);
+        } else if (evento.accion() == EventoCambio.Accion.DELETED) {
+            quitarCancion(evento.id());
+        }
+    }
+
+    /**
+     * Carga el índice completo recorriendo la tabla de unión en orden de lista, de modo que los arrays de cada
+     * canción se rellenan ya ordenados.
+     */
+    void reconstruir() {
+        long inicio = System.nanoTime();
+        Construccion construccion = new Construccion();
+        pertenenciaRepository.recorrer(construccion);
+        construccion.terminar();
+        construido = true;
+        logger.info("Índice de pertenencia construido: {} listas, {} canciones, {} pertenencias en {} ms",
+                cancionesPorLista.size(), listasPorCancion.size(), parejas,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+    }
+
+    /**
+     * Sustituye las canciones de una lista y actualiza el índice inverso solo para las que entran o salen,
+     * recorriendo a la vez los dos arrays ordenados.
+     */
+    private void reemplazarCancionesDeLista(long listaId, long[] nuevas) {
+        long[] anteriores = cancionesPorLista.getOrDefault(listaId, VACIO);
+        int i = 0;
+        int j = 0;
+        while (i < anteriores.length || j < nuevas.length) {
+            if (j == nuevas.length || (i < anteriores.length && anteriores[i] < nuevas[j])) {
+                quitar(listasPorCancion, anteriores[i++], listaId);
+            } else if (i == anteriores.length || nuevas[j] < anteriores[i]) {
+                agregar(listasPorCancion, nuevas[j++], listaId);
+            } else {
+                i++;
+                j++;
+            }
+        }
+        if (nuevas.length == 0) {
+            cancionesPorLista.remove(listaId);
+        } else {
+            cancionesPorLista.put(listaId, nuevas);
+        }
+        parejas += nuevas.length - anteriores.length;
+        if (!Arrays.equals(anteriores, nuevas)) {
+            // Cada canción que entra o sale cambia sus coincidencias con todas las de la lista.
+            eventPublisher.publishEvent(new CambioPertenencia(unir(anteriores, nuevas)));
+        }
+    }
+
+    private void quitarCancion(long cancionId) {
+        long[] listas = listasPorCancion.remove(cancionId);
+        if (listas == null) {
+            return;
+        }
+        long[] afectadas = {cancionId};
+        for (long listaId : listas) {
+            quitar(cancionesPorLista, listaId, cancionId);
+            afectadas = unir(afectadas, cancionesPorLista.getOrDefault(listaId, VACIO));
+        }
+        parejas -= listas.length;
+        eventPublisher.publishEvent(new CambioPertenencia(afectadas));
+    }
+
+    /** Unión de dos arrays ordenados, también ordenada y sin repetidos. */
+    private static long[] unir(long[] a, long[] b) {
+        long[] union = new long[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < a.length || j < b.length) {
+            if (j == b.length || (i < a.length && a[i] < b[j])) {
+                union[k++] = a[i++];
+            } else if (i == a.length || b[j] < a[i]) {
+                union[k++] = b[j++];
+            } else {
+                union[k++] = a[i++];
+                j++;
+            }
+        }
+        return k == union.length ? union : Arrays.copyOf(union, k);
+    }
+
+    private static void agregar(Map<Long, long[]> indice, long clave, long valor) {
+        long[] actuales = indice.getOrDefault(clave, VACIO);
+        int posicion = Arrays.binarySearch(actuales, valor);
+        if (posicion >= 0) {
+            return;
+        }
+        int insercion = -posicion - 1;
+        long[] nuevos = new long[actuales.length + 1];
+        System.arraycopy(actuales, 0, nuevos, 0, insercion);
+        nuevos[insercion] = valor;
+        System.arraycopy(actuales, insercion, nuevos, insercion + 1, actuales.length - insercion);
+        indice.put(clave, nuevos);
+    }
+
+    private static void quitar(Map<Long, long[]> indice, long clave, long valor) {
+        long[] actuales = indice.getOrDefault(clave, VACIO);
+        int posicion = Arrays.binarySearch(actuales, valor);
+        if (posicion < 0) {
+            return;
+        }
+        if (actuales.length == 1) {
+            indice.remove(clave);
+            return;
+        }
+        long[] nuevos = new long[actuales.length - 1];
+        System.arraycopy(actuales, 0, nuevos, 0, posicion);
+        System.arraycopy(actuales, posicion + 1, nuevos, posicion, nuevos.length - posicion);
+        indice.put(clave, nuevos);
+    }
+
+    long getParejas() {
+        return parejas;
+    }
+
+    /**
+     * Memoria aproximada del índice: cada pertenencia ocupa un {@code long} en cada dirección, más el coste fijo de
+     * cada entrada de los mapas.
+     */
+    long getBytesEstimados() {
+        return (listasPorCancion.size() + cancionesPorLista.size()) * BYTES_POR_ENTRADA + 2 * parejas * Long.BYTES;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("playlist.membership.bytes", this, IndicePertenencia::getBytesEstimados)
+                .description("Memoria aproximada del índice de pertenencia de canciones a listas")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("playlist.membership.pairs", this, IndicePertenencia::getParejas)
+                .description("Pares lista-canción en el índice de pertenencia")
+                .register(registry);
+    }
+
+    /** Recibe las filas de la tabla de unión ordenadas por lista y llena los dos mapas. */
+    private final class Construccion implements PertenenciaRepository.ConsumidorPertenencia {
+        private final Map<Long, IdsCrecientes> porCancion = new HashMap<>();
+        private long listaActualId;
+        private IdsCrecientes listaActual;
+        private long total;
+
+        @Override
+        public void aceptar(long listaId, long cancionId) {
+            if (listaActual == null || listaId != listaActualId) {
+                guardarListaActual();
+                listaActual = new IdsCrecientes();
+                listaActualId = listaId;
+            }
+            listaActual.add(cancionId);
+            porCancion.computeIfAbsent(cancionId, id -> new IdsCrecientes()).add(listaId);
+            total++;
+        }
+
+        void terminar() {
+            guardarListaActual();
+            porCancion.forEach((cancionId, listas) -> listasPorCancion.put(cancionId, listas.toArray()));
+            parejas = total;
+        }
+
+        private void guardarListaActual() {
+            if (listaActual != null) {
+                cancionesPorLista.put(listaActualId, listaActual.toArray());
+            }
+        }
+    }
+
+    /** Array de IDs que crece al añadir, para la construcción inicial. */
+    private static final class IdsCrecientes {
+        private long[] ids = new long[4];
+        private int tamano;
+
+        void add(long id) {
+            if (tamano == ids.length) {
+                ids = Arrays.copyOf(ids, tamano * 2);
+            }
+            ids[tamano++] = id;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(ids, tamano);
+        }
+    }
+}
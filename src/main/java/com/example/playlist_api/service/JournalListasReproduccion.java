@@ -0,0 +1,139 @@
+package com.example.playlist_api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Journal local y durable (append-only) para las actualizaciones de listas de reproducción en modo de escritura diferida.
+ * Cada entrada se escribe como una línea JSON y se fuerza a disco antes de confirmar la petición al cliente.
+ * Un fichero de checkpoint guarda la última versión aplicada en la base de datos, de modo que al reiniciar
+ * solo se reproducen las entradas pendientes.
+ */
+class JournalListasReproduccion implements AutoCloseable {
+
+    private final ObjectMapper objectMapper;
+    private final Path journalPath;
+    private final Path checkpointPath;
+    private FileChannel channel;
+    private long ultimaVersion;
+
+    JournalListasReproduccion(Path directorio, ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.journalPath = directorio.resolve("listas-journal.log");
+        this.checkpointPath = directorio.resolve("listas-journal.checkpoint");
+        try {
+            Files.createDirectories(directorio);
+            this.channel = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el journal de listas de reproducción: " + journalPath, e);
+        }
+    }
+
+    /**
+     * Lee las entradas que aún no han sido aplicadas según el checkpoint.
+     * Debe invocarse una única vez, al arrancar, antes de cualquier {@link #append}.
+     *
+     * @return Las entradas pendientes en orden de versión.
+     */
+    synchronized List<EntradaJournalLista> recuperarPendientes() {
+        long checkpoint = leerCheckpoint();
+        ultimaVersion = checkpoint;
+        List<EntradaJournalLista> pendientes = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(journalPath, StandardCharsets.UTF_8)) {
+            String linea;
+            while ((linea = reader.readLine()) != null) {
+                if (linea.isBlank()) {
+                    continue;
+                }
+                EntradaJournalLista entrada;
+                try {
+                    entrada = objectMapper.readValue(linea, EntradaJournalLista.class);
+                } catch (IOException e) {
+                    // Una última línea incompleta (caída durante la escritura) nunca fue confirmada al cliente.
+                    break;
+                }
+                ultimaVersion = Math.max(ultimaVersion, entrada.getVersion());
+                if (entrada.getVersion() > checkpoint) {
+                    pendientes.add(entrada);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el journal de listas de reproducción: " + journalPath, e);
+        }
+        return pendientes;
+    }
+
+    /**
+     * Asigna la siguiente versión a la entrada y la añade de forma durable al journal.
+     *
+     * @param entrada Entrada a registrar (su versión se sobrescribe).
+     * @return La versión asignada.
+     */
+    synchronized long append(EntradaJournalLista entrada) {
+        entrada.setVersion(ultimaVersion + 1);
+        try {
+            byte[] linea = (objectMapper.writeValueAsString(entrada) + "\n").getBytes(StandardCharsets.UTF_8);
+            ByteBuffer buffer = ByteBuffer.wrap(linea);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo escribir en el journal de listas de reproducción", e);
+        }
+        ultimaVersion = entrada.getVersion();
+        return ultimaVersion;
+    }
+
+    /**
+     * Registra que todas las entradas hasta {@code versionAplicada} están en la base de datos.
+     * Si no queda ninguna entrada pendiente, el journal se trunca para que no crezca indefinidamente.
+     *
+     * @param versionAplicada Última versión aplicada.
+     */
+    synchronized void checkpoint(long versionAplicada) {
+        try {
+            Path tmp = checkpointPath.resolveSibling(checkpointPath.getFileName() + ".tmp");
+            Files.writeString(tmp, Long.toString(versionAplicada), StandardCharsets.UTF_8);
+            Files.move(tmp, checkpointPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (versionAplicada >= ultimaVersion) {
+                channel.truncate(0);
+                channel.force(true);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo actualizar el checkpoint del journal de listas de reproducción", e);
+        }
+    }
+
+    synchronized long getUltimaVersion() {
+        return ultimaVersion;
+    }
+
+    private long leerCheckpoint() {
+        if (!Files.exists(checkpointPath)) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(Files.readString(checkpointPath, StandardCharsets.UTF_8).trim());
+        } catch (IOException | NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+}
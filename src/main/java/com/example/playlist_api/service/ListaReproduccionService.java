@@ -1,40 +1,75 @@
 package com.example.playlist_api.service;
 
+import com.example.playlist_api.dto.CombinacionListasRequestDto;
 import com.example.playlist_api.dto.ListaReproduccionRequestDto;
 import com.example.playlist_api.dto.ListaReproduccionResponseDto;
+import com.example.playlist_api.dto.ListaReproduccionResumenDto;
 import com.example.playlist_api.dto.CancionDto;
+import com.example.playlist_api.dto.LoteResponseDto;
 import com.example.playlist_api.entity.ListaReproduccion;
 import com.example.playlist_api.entity.Cancion;
 import com.example.playlist_api.exception.BadRequestException;
+import com.example.playlist_api.exception.PreconditionFailedException;
 import com.example.playlist_api.exception.ResourceNotFoundException;
 import com.example.playlist_api.repository.ListaReproduccionRepository;
 import com.example.playlist_api.repository.CancionRepository;
+import com.example.playlist_api.repository.ProyeccionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
 public class ListaReproduccionService {
 
+    /**
+     * Número máximo de intentos para las operaciones conmutativas (añadir o quitar una canción)
+     * que fallan por un conflicto de versión con otra escritura concurrente.
+     */
+    static final int MAX_INTENTOS_OPTIMISTAS = 3;
+
+    /** Campos que admite el parámetro {@code fields}, en su orden canónico. */
+    static final List<String> CAMPOS_LISTA = List.of("id", "nombre", "descripcion", "version", "numeroCanciones", "canciones");
+
     private final ListaReproduccionRepository listaReproduccionRepository;
     private final CancionRepository cancionRepository;
+    private final ProyeccionRepository proyeccionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public ListaReproduccionService(ListaReproduccionRepository listaReproduccionRepository, CancionRepository cancionRepository) {
+    public ListaReproduccionService(ListaReproduccionRepository listaReproduccionRepository, CancionRepository cancionRepository,
+                                    ProyeccionRepository proyeccionRepository, PlatformTransactionManager transactionManager,
+                                    ApplicationEventPublisher eventPublisher) {
         this.listaReproduccionRepository = listaReproduccionRepository;
         this.cancionRepository = cancionRepository;
+        this.proyeccionRepository = proyeccionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
     }
 
+    /**
+     * Crea una lista de reproducción con un único INSERT. La unicidad del nombre la garantiza la restricción
+     * {@link ListaReproduccion#UK_NOMBRE}: un nombre duplicado se propaga como {@link DataIntegrityViolationException}
+     * y se responde con HTTP 409 (Conflict).
+     */
     @Transactional
     public ListaReproduccionResponseDto crearListaReproduccion(ListaReproduccionRequestDto listaReproduccionRequestDto) {
-        if (listaReproduccionRepository.existsByNombre(listaReproduccionRequestDto.getNombre())) {
-            throw new BadRequestException("Ya existe una lista de reproducción con el nombre: " + listaReproduccionRequestDto.getNombre());
-        }
         ListaReproduccion listaReproduccion = new ListaReproduccion();
         listaReproduccion.setNombre(listaReproduccionRequestDto.getNombre());
         listaReproduccion.setDescripcion(listaReproduccionRequestDto.getDescripcion());
@@ -50,14 +85,12 @@ public class ListaReproduccionService {
         }
         
         ListaReproduccion savedListaReproduccion = listaReproduccionRepository.save(listaReproduccion);
+        publicarCambio(EventoCambio.Accion.CREATED, savedListaReproduccion);
         return mapToResponseDto(savedListaReproduccion);
     }
     
     @Transactional
     public ListaReproduccionResponseDto crearListaReproduccionConCancion(String nombreLista, String descripcionLista, Long idCancion) {
-        if (listaReproduccionRepository.existsByNombre(nombreLista)) {
-            throw new BadRequestException("Ya existe una lista de reproducción con el nombre: " + nombreLista);
-        }
         Cancion cancion = cancionRepository.findById(idCancion)
                 .orElseThrow(() -> new ResourceNotFoundException("Cancion", "id", idCancion.toString()));
 
@@ -67,9 +100,41 @@ public class ListaReproduccionService {
         listaReproduccion.addCancion(cancion);
 
         ListaReproduccion savedListaReproduccion = listaReproduccionRepository.save(listaReproduccion);
+        publicarCambio(EventoCambio.Accion.CREATED, savedListaReproduccion);
         return mapToResponseDto(savedListaReproduccion);
     }
 
+    /**
+     * Crea la lista de reproducción si no existe ninguna con el mismo nombre; en caso contrario devuelve la existente.
+     * Es idempotente para clientes que reintentan: si una petición concurrente gana la carrera del INSERT,
+     * la restricción única lo detecta y se devuelve la lista creada por ella.
+     *
+     * @param listaReproduccionRequestDto DTO con los datos de la lista (el nombre actúa como clave).
+     * @return El resultado con la lista y si fue creada por esta petición.
+     */
+    public ResultadoCreacionLista crearListaReproduccionSiNoExiste(ListaReproduccionRequestDto listaReproduccionRequestDto) {
+        String nombre = listaReproduccionRequestDto.getNombre();
+        ResultadoCreacionLista existente = buscarExistente(nombre);
+        if (existente != null) {
+            return existente;
+        }
+        try {
+            return new ResultadoCreacionLista(
+                    transactionTemplate.execute(status -> crearListaReproduccion(listaReproduccionRequestDto)), true);
+        } catch (DataIntegrityViolationException e) {
+            existente = buscarExistente(nombre);
+            if (existente == null) {
+                throw e;
+            }
+            return existente;
+        }
+    }
+
+    private ResultadoCreacionLista buscarExistente(String nombre) {
+        return transactionTemplate.execute(status -> listaReproduccionRepository.findByNombre(nombre)
+                .map(lista -> new ResultadoCreacionLista(mapToResponseDto(lista), false))
+                .orElse(null));
+    }
 
     @Transactional(readOnly = true)
     public List<ListaReproduccionResponseDto> obtenerTodasLasListasReproduccion() {
@@ -78,6 +143,97 @@ public class ListaReproduccionService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Obtiene un resumen de todas las listas de reproducción con su número de canciones, sin cargar las canciones:
+     * el número se lee de la columna {@code numero_canciones}, así que la consulta no toca la tabla de unión.
+     *
+     * @return Los resúmenes ordenados por ID.
+     */
+    @Transactional(readOnly = true)
+    public List<ListaReproduccionResumenDto> obtenerResumenListasReproduccion() {
+        return listaReproduccionRepository.findAllResumenes();
+    }
+
+    /**
+     * Obtiene todas las listas de reproducción con solo los campos solicitados. Si no se pide {@code canciones},
+     * la consulta selecciona únicamente las columnas de la lista y no toca la tabla de unión.
+     *
+     * @param campos Campos a devolver (ver {@link #CAMPOS_LISTA}).
+     * @return Una lista de mapas campo → valor.
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> obtenerTodasLasListasReproduccion(List<String> campos) {
+        List<String> seleccion = CamposSolicitados.validar(campos, CAMPOS_LISTA);
+        if (!seleccion.contains("canciones")) {
+            return proyeccionRepository.buscarCampos(ListaReproduccion.class, seleccion, null);
+        }
+        return listaReproduccionRepository.findAll().stream()
+                .map(lista -> filtrarCampos(mapToResponseDto(lista), seleccion))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Obtiene una lista de reproducción con solo los campos solicitados.
+     *
+     * @param id ID de la lista de reproducción.
+     * @param campos Campos a devolver (ver {@link #CAMPOS_LISTA}).
+     * @return Un mapa campo → valor.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> obtenerListaReproduccionPorId(Long id, List<String> campos) {
+        List<String> seleccion = CamposSolicitados.validar(campos, CAMPOS_LISTA);
+        if (!seleccion.contains("canciones")) {
+            return proyeccionRepository.buscarCampos(ListaReproduccion.class, seleccion, id).stream()
+                    .findFirst()
+                    .orElseThrow(() -> new ResourceNotFoundException("ListaReproduccion", "id", id.toString()));
+        }
+        return filtrarCampos(obtenerListaReproduccionPorId(id), seleccion);
+    }
+
+    private Map<String, Object> filtrarCampos(ListaReproduccionResponseDto dto, List<String> campos) {
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        for (String campo : campos) {
+            switch (campo) {
+                case "id" -> resultado.put(campo, dto.getId());
+                case "nombre" -> resultado.put(campo, dto.getNombre());
+                case "descripcion" -> resultado.put(campo, dto.getDescripcion());
+                case "version" -> resultado.put(campo, dto.getVersion());
+                case "numeroCanciones" -> resultado.put(campo, dto.getCanciones().size());
+                case "canciones" -> resultado.put(campo, dto.getCanciones());
+                default -> throw new IllegalStateException("Campo no soportado: " + campo);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Obtiene varias listas de reproducción por ID, con sus canciones, en una única consulta {@code IN}.
+     *
+     * @param ids IDs solicitados; los duplicados se ignoran.
+     * @return Las listas encontradas en el orden solicitado y los IDs que no existen.
+     * @throws BadRequestException Si se solicitan más de {@link CancionService#MAX_IDS_POR_LOTE} IDs.
+     */
+    @Transactional(readOnly = true)
+    public LoteResponseDto<ListaReproduccionResponseDto> obtenerListasReproduccionPorIds(List<Long> ids) {
+        LinkedHashSet<Long> idsUnicos = new LinkedHashSet<>(ids);
+        if (idsUnicos.size() > CancionService.MAX_IDS_POR_LOTE) {
+            throw new BadRequestException("No se pueden solicitar más de " + CancionService.MAX_IDS_POR_LOTE + " listas de reproducción a la vez.");
+        }
+        Map<Long, ListaReproduccion> porId = listaReproduccionRepository.findAllWithCancionesByIdIn(idsUnicos).stream()
+                .collect(Collectors.toMap(ListaReproduccion::getId, Function.identity()));
+        List<ListaReproduccionResponseDto> encontradas = new ArrayList<>(porId.size());
+        List<Long> noEncontradas = new ArrayList<>();
+        for (Long id : idsUnicos) {
+            ListaReproduccion listaReproduccion = porId.get(id);
+            if (listaReproduccion != null) {
+                encontradas.add(mapToResponseDto(listaReproduccion));
+            } else {
+                noEncontradas.add(id);
+            }
+        }
+        return new LoteResponseDto<>(encontradas, noEncontradas);
+    }
+
     @Transactional(readOnly = true)
     public ListaReproduccionResponseDto obtenerListaReproduccionPorNombre(String nombre) {
         ListaReproduccion listaReproduccion = listaReproduccionRepository.findByNombre(nombre)
@@ -94,8 +250,24 @@ public class ListaReproduccionService {
 
     @Transactional
     public ListaReproduccionResponseDto actualizarListaReproduccion(Long id, ListaReproduccionRequestDto listaReproduccionRequestDto) {
+        return actualizarListaReproduccion(id, listaReproduccionRequestDto, null);
+    }
+
+    /**
+     * Actualiza una lista de reproducción comprobando que su versión actual coincide con la esperada por el cliente.
+     *
+     * @param id ID de la lista de reproducción a actualizar.
+     * @param listaReproduccionRequestDto DTO con los nuevos datos.
+     * @param versionEsperada Versión que el cliente leyó ({@code If-Match}); {@code null} para no comprobarla.
+     * @return La lista actualizada con su nueva versión.
+     */
+    @Transactional
+    public ListaReproduccionResponseDto actualizarListaReproduccion(Long id, ListaReproduccionRequestDto listaReproduccionRequestDto, Long versionEsperada) {
         ListaReproduccion existingListaReproduccion = listaReproduccionRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("ListaReproduccion", "id", id.toString()));
+        if (versionEsperada != null && !versionEsperada.equals(existingListaReproduccion.getVersion())) {
+            throw new PreconditionFailedException("ListaReproduccion", id.toString(), versionEsperada, existingListaReproduccion.getVersion());
+        }
 
         if (!existingListaReproduccion.getNombre().equals(listaReproduccionRequestDto.getNombre()) &&
             listaReproduccionRepository.existsByNombre(listaReproduccionRequestDto.getNombre())) {
@@ -105,27 +277,164 @@ public class ListaReproduccionService {
         existingListaReproduccion.setNombre(listaReproduccionRequestDto.getNombre());
         existingListaReproduccion.setDescripcion(listaReproduccionRequestDto.getDescripcion());
 
-        existingListaReproduccion.getCanciones().clear(); // Limpiar canciones existentes
+        // Sustituye las canciones existentes; setCanciones mantiene también numeroCanciones.
+        Set<Cancion> cancionesParaActualizar = new HashSet<>();
         if (listaReproduccionRequestDto.getCancionIds() != null && !listaReproduccionRequestDto.getCancionIds().isEmpty()) {
-            Set<Cancion> cancionesParaActualizar = new HashSet<>();
             for (Long cancionId : listaReproduccionRequestDto.getCancionIds()) {
                 Cancion cancion = cancionRepository.findById(cancionId)
                     .orElseThrow(() -> new ResourceNotFoundException("Cancion", "id", cancionId.toString()));
                 cancionesParaActualizar.add(cancion);
             }
-            existingListaReproduccion.setCanciones(cancionesParaActualizar);
         }
+        existingListaReproduccion.setCanciones(cancionesParaActualizar);
 
         ListaReproduccion updatedListaReproduccion = listaReproduccionRepository.save(existingListaReproduccion);
+        listaReproduccionRepository.flush(); // Incrementa la versión antes de devolverla al cliente.
+        publicarCambio(EventoCambio.Accion.UPDATED, updatedListaReproduccion);
         return mapToResponseDto(updatedListaReproduccion);
     }
 
+    /**
+     * Añade una canción a una lista de reproducción. Al ser una operación conmutativa, si otra escritura
+     * concurrente modifica la lista se reintenta en una nueva transacción hasta {@link #MAX_INTENTOS_OPTIMISTAS} veces.
+     *
+     * @param id ID de la lista de reproducción.
+     * @param idCancion ID de la canción a añadir.
+     * @return La lista de reproducción actualizada.
+     */
+    public ListaReproduccionResponseDto agregarCancion(Long id, Long idCancion) {
+        return conReintentosOptimistas(() -> {
+            ListaReproduccion listaReproduccion = listaReproduccionRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("ListaReproduccion", "id", id.toString()));
+            Cancion cancion = cancionRepository.findById(idCancion)
+                    .orElseThrow(() -> new ResourceNotFoundException("Cancion", "id", idCancion.toString()));
+            listaReproduccion.addCancion(cancion);
+            listaReproduccionRepository.flush();
+            publicarCambio(EventoCambio.Accion.UPDATED, listaReproduccion);
+            return mapToResponseDto(listaReproduccion);
+        });
+    }
+
+    /**
+     * Quita una canción de una lista de reproducción, con los mismos reintentos que {@link #agregarCancion}.
+     *
+     * @param id ID de la lista de reproducción.
+     * @param idCancion ID de la canción a quitar.
+     * @return La lista de reproducción actualizada.
+     */
+    public ListaReproduccionResponseDto quitarCancion(Long id, Long idCancion) {
+        return conReintentosOptimistas(() -> {
+            ListaReproduccion listaReproduccion = listaReproduccionRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("ListaReproduccion", "id", id.toString()));
+            Cancion cancion = listaReproduccion.getCanciones().stream()
+                    .filter(c -> idCancion.equals(c.getId()))
+                    .findFirst()
+                    .orElseThrow(() -> new ResourceNotFoundException("Cancion", "id", idCancion.toString()));
+            listaReproduccion.removeCancion(cancion);
+            listaReproduccionRepository.flush();
+            publicarCambio(EventoCambio.Accion.UPDATED, listaReproduccion);
+            return mapToResponseDto(listaReproduccion);
+        });
+    }
+
+    /**
+     * Crea una lista de reproducción con el resultado de combinar otras (ver {@link #combinarEnLista}).
+     *
+     * @param peticion Operación, listas de origen y nombre y descripción de la lista nueva.
+     * @return El resumen de la lista creada.
+     */
+    @Transactional
+    public ListaReproduccionResumenDto combinarEnNuevaLista(CombinacionListasRequestDto peticion) {
+        if (peticion.getNombre() == null || peticion.getNombre().isBlank()) {
+            throw new BadRequestException("El nombre de la lista no puede estar vacío ni ser nulo.");
+        }
+        List<Long> origenes = validarOrigenes(peticion);
+        ListaReproduccion listaReproduccion = new ListaReproduccion();
+        listaReproduccion.setNombre(peticion.getNombre());
+        listaReproduccion.setDescripcion(peticion.getDescripcion());
+        // El INSERT de la lista tiene que llegar a la base de datos antes que las filas de la tabla de unión.
+        listaReproduccion = listaReproduccionRepository.saveAndFlush(listaReproduccion);
+        listaReproduccion.setNumeroCanciones(insertarCombinacion(peticion.getOperacion(), listaReproduccion.getId(), origenes));
+        listaReproduccionRepository.flush();
+        publicarCambio(EventoCambio.Accion.CREATED, listaReproduccion);
+        return mapToResumenDto(listaReproduccion);
+    }
+
+    /**
+     * Añade a una lista de reproducción existente el resultado de combinar otras. Las canciones no pasan por la JVM:
+     * la operación se resuelve con un único {@code INSERT ... SELECT} sobre la tabla de unión, que solo inserta las
+     * que la lista aún no tiene, y después se suman al contador {@code numeroCanciones} con la comprobación de versión
+     * habitual. Como añadir es conmutativo, los conflictos con otras escrituras se reintentan igual que en
+     * {@link #agregarCancion}.
+     *
+     * @param id ID de la lista de destino; puede ser también una de las de origen.
+     * @param peticion Operación y listas de origen.
+     * @return El resumen de la lista actualizada.
+     */
+    public ListaReproduccionResumenDto combinarEnLista(Long id, CombinacionListasRequestDto peticion) {
+        return conReintentosOptimistas(() -> {
+            ListaReproduccion listaReproduccion = listaReproduccionRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("ListaReproduccion", "id", id.toString()));
+            int insertadas = insertarCombinacion(peticion.getOperacion(), id, validarOrigenes(peticion));
+            if (insertadas > 0) {
+                listaReproduccion.setNumeroCanciones(listaReproduccion.getNumeroCanciones() + insertadas);
+                listaReproduccionRepository.flush();
+                publicarCambio(EventoCambio.Accion.UPDATED, listaReproduccion);
+            }
+            return mapToResumenDto(listaReproduccion);
+        });
+    }
+
+    /**
+     * Quita los orígenes repetidos, comprueba cuántos admite la operación y que todos existen.
+     */
+    private List<Long> validarOrigenes(CombinacionListasRequestDto peticion) {
+        List<Long> origenes = List.copyOf(new LinkedHashSet<>(peticion.getOrigenes()));
+        if (peticion.getOperacion() == CombinacionListasRequestDto.Operacion.CLONAR && origenes.size() != 1) {
+            throw new BadRequestException("La operación clonar necesita exactamente una lista de origen.");
+        }
+        if (peticion.getOperacion() != CombinacionListasRequestDto.Operacion.CLONAR && origenes.size() < 2) {
+            throw new BadRequestException("La operación " + peticion.getOperacion().valor() + " necesita al menos dos listas de origen distintas.");
+        }
+        if (origenes.size() > CancionService.MAX_IDS_POR_LOTE) {
+            throw new BadRequestException("No se pueden combinar más de " + CancionService.MAX_IDS_POR_LOTE + " listas de reproducción a la vez.");
+        }
+        Set<Long> existentes = new HashSet<>(listaReproduccionRepository.findIdsByIdIn(origenes));
+        for (Long origen : origenes) {
+            if (!existentes.contains(origen)) {
+                throw new ResourceNotFoundException("ListaReproduccion", "id", origen.toString());
+            }
+        }
+        return origenes;
+    }
+
+    private int insertarCombinacion(CombinacionListasRequestDto.Operacion operacion, Long destino, List<Long> origenes) {
+        return switch (operacion) {
+            case CLONAR, UNION -> listaReproduccionRepository.insertarUnion(destino, origenes);
+            case INTERSECCION -> listaReproduccionRepository.insertarInterseccion(destino, origenes, origenes.size());
+            case DIFERENCIA -> listaReproduccionRepository.insertarDiferencia(destino, origenes.get(0), origenes.subList(1, origenes.size()));
+        };
+    }
+
+    private <T> T conReintentosOptimistas(Supplier<T> operacion) {
+        for (int intento = 1; ; intento++) {
+            try {
+                return transactionTemplate.execute(status -> operacion.get());
+            } catch (OptimisticLockingFailureException e) {
+                if (intento >= MAX_INTENTOS_OPTIMISTAS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
 
     @Transactional
     public void eliminarListaReproduccionPorNombre(String nombre) {
         ListaReproduccion listaReproduccion = listaReproduccionRepository.findByNombre(nombre)
                 .orElseThrow(() -> new ResourceNotFoundException("ListaReproduccion", "nombre", nombre));
         listaReproduccionRepository.delete(listaReproduccion);
+        publicarCambio(EventoCambio.Accion.DELETED, listaReproduccion);
     }
     
     @Transactional
@@ -133,17 +442,31 @@ public class ListaReproduccionService {
         ListaReproduccion listaReproduccion = listaReproduccionRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("ListaReproduccion", "id", id.toString()));
         listaReproduccionRepository.delete(listaReproduccion);
+        publicarCambio(EventoCambio.Accion.DELETED, listaReproduccion);
+    }
+
+    /**
+     * Publica el cambio para {@link CanalCambios}, que solo lo recibe si la transacción en curso se confirma.
+     */
+    private void publicarCambio(EventoCambio.Accion accion, ListaReproduccion listaReproduccion) {
+        eventPublisher.publishEvent(EventoCambio.lista(accion, listaReproduccion.getId(), listaReproduccion.getVersion()));
+    }
+
+    private ListaReproduccionResumenDto mapToResumenDto(ListaReproduccion listaReproduccion) {
+        return new ListaReproduccionResumenDto(listaReproduccion.getId(), listaReproduccion.getNombre(),
+                listaReproduccion.getDescripcion(), listaReproduccion.getNumeroCanciones(), listaReproduccion.getVersion());
     }
 
     private ListaReproduccionResponseDto mapToResponseDto(ListaReproduccion listaReproduccion) {
         Set<CancionDto> cancionDtos = listaReproduccion.getCanciones().stream()
-                .map(cancion -> new CancionDto(cancion.getId(), cancion.getTitulo(), cancion.getArtista(), cancion.getAlbum(), cancion.getAnno(), cancion.getGenero()))
+                .map(cancion -> new CancionDto(cancion.getId(), cancion.getTitulo(), cancion.getArtista(), cancion.getAlbum(), cancion.getAnno(), cancion.getGenero(), cancion.getVersion()))
                 .collect(Collectors.toSet());
         return new ListaReproduccionResponseDto(
                 listaReproduccion.getId(),
                 listaReproduccion.getNombre(),
                 listaReproduccion.getDescripcion(),
-                cancionDtos
+                cancionDtos,
+                listaReproduccion.getVersion()
         );
     }
 }
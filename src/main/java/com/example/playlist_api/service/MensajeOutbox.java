@@ -0,0 +1,17 @@
+package com.example.playlist_api.service;
+
+import java.time.Instant;
+
+/**
+ * Evento del outbox tal como se entrega a un {@link DestinoEventos}.
+ * La entrega es al menos una vez: un consumidor puede recibir el mismo mensaje más de una vez
+ * y debe descartar los repetidos guardando los {@code id} ya vistos, no comparando con el mayor recibido:
+ * un mensaje con un ID menor puede llegar después si su transacción se confirmó más tarde. Para ordenar
+ * los cambios de un mismo recurso se usa la versión del {@link EventoCambio}.
+ *
+ * @param id ID del evento en el outbox, asignado al insertarlo (no al confirmar la transacción).
+ * @param evento El cambio confirmado.
+ * @param creadoEn Momento en que se escribió el evento, en la transacción del cambio.
+ */
+public record MensajeOutbox(long id, EventoCambio evento, Instant creadoEn) {
+}
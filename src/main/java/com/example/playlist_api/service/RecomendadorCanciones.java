@@ -0,0 +1,380 @@
+package com.example.playlist_api.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Canciones relacionadas por coincidencia en listas de reproducción: para cada canción guarda en memoria las
+ * {@code app.recommendations.top-k} canciones que comparten más listas con ella y en cuántas coinciden. Responde a
+ * {@code GET /api/canciones/{id}/relacionadas} sin calcular nada en la petición.
+ * <p>
+ * Las coincidencias se cuentan sobre {@link IndicePertenencia}, recorriendo las listas de cada canción y las canciones
+ * de cada lista. La primera vez se calculan todas las canciones; después, cada {@code app.recommendations.refresh-ms}
+ * se recalculan solo las que {@link CambioPertenencia} marcó como afectadas. Cada cálculo reparte las canciones entre
+ * los hilos de un {@link ForkJoinPool} propio ({@code app.recommendations.parallelism}); como cada canción se calcula
+ * entera en un solo hilo, no hay resultados parciales que combinar. Solo se guarda el top-K de cada canción, no la
+ * matriz completa, así que la memoria crece con el número de canciones y no con el de pares que coinciden.
+ */
+@Component
+public class RecomendadorCanciones {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecomendadorCanciones.class);
+
+    // Canciones por tarea a partir de las cuales ya no se divide el trabajo.
+    private static final int CANCIONES_POR_TAREA = 256;
+
+    /**
+     * Canciones relacionadas con una, de más a menos listas en común (y de menor a mayor ID si empatan).
+     *
+     * @param canciones IDs de las canciones relacionadas.
+     * @param listasEnComun número de listas que comparte cada una con la canción consultada.
+     */
+    public record Relacionadas(long[] canciones, int[] listasEnComun) {
+        static final Relacionadas VACIAS = new Relacionadas(new long[0], new int[0]);
+    }
+
+    private final IndicePertenencia indicePertenencia;
+    private final int topK;
+    private final long intervaloMs;
+    private final int paralelismo;
+
+    private final ConcurrentHashMap<Long, Relacionadas> relacionadas = new ConcurrentHashMap<>();
+    private final Set<Long> pendientes = ConcurrentHashMap.newKeySet();
+    private final ThreadLocal<Contador> contadores = ThreadLocal.withInitial(Contador::new);
+    // Solo lo modifica el hilo programador.
+    private volatile boolean calculado;
+
+    private final Timer duracionCalculo;
+
+    private ForkJoinPool calculadores;
+    private ScheduledExecutorService programador;
+
+    public RecomendadorCanciones(IndicePertenencia indicePertenencia,
+                                 @Value("${app.recommendations.top-k:20}") int topK,
+                                 @Value("${app.recommendations.refresh-ms:5000}") long intervaloMs,
+                                 @Value("${app.recommendations.parallelism:0}") int paralelismo,
+                                 MeterRegistry registry) {
+        this.indicePertenencia = indicePertenencia;
+        this.topK = topK;
+        this.intervaloMs = intervaloMs;
+        this.paralelismo = paralelismo > 0 ? paralelismo : Runtime.getRuntime().availableProcessors();
+
+        this.duracionCalculo = Timer.builder("playlist.recommendations.compute")
+                .description("Duración de cada cálculo de canciones relacionadas")
+                .register(registry);
+        Gauge.builder("playlist.recommendations.songs", relacionadas, ConcurrentHashMap::size)
+                .description("Canciones con canciones relacionadas calculadas")
+                .register(registry);
+        Gauge.builder("playlist.recommendations.pending", pendientes, Set::size)
+                .description("Canciones pendientes de recalcular")
+                .register(registry);
+    }
+
+    @PostConstruct
+    void iniciar() {
+        calculadores = new ForkJoinPool(paralelismo, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("recomendador-canciones-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+        programador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "recomendador-canciones");
+            thread.setDaemon(true);
+            return thread;
+        });
+        programador.scheduleWithFixedDelay(this::actualizarSinPropagar, intervaloMs, intervaloMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void detener() throws InterruptedException {
+        programador.shutdownNow();
+        calculadores.shutdownNow();
+        programador.awaitTermination(5, TimeUnit.SECONDS);
+        calculadores.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Canciones relacionadas con la indicada, ya calculadas. Vacío si la canción no está en ninguna lista o si aún
+     * no se ha hecho el primer cálculo.
+     */
+    public Relacionadas relacionadas(long cancionId) {
+        return relacionadas.getOrDefault(cancionId, Relacionadas.VACIAS);
+    }
+
+    /** Número máximo de canciones relacionadas que se guardan por canción. */
+    public int getTopK() {
+        return topK;
+    }
+
+    /**
+     * Marca para recalcular las canciones afectadas por un cambio del índice de pertenencia.
+     */
+    @EventListener
+    public void alCambiarPertenencia(CambioPertenencia cambio) {
+        for (long cancionId : cambio.canciones()) {
+            pendientes.add(cancionId);
+        }
+    }
+
+    private void actualizarSinPropagar() {
+        try {
+            actualizar();
+        } catch (RuntimeException e) {
+            // Las canciones que quedaron pendientes se recalculan en la siguiente pasada.
+            logger.warn("No se pudieron calcular las canciones relacionadas: {}", e.toString());
+        }
+    }
+
+    /**
+     * Calcula todas las canciones la primera vez que el índice está construido y, después, solo las pendientes.
+     */
+    void actualizar() {
+        if (!indicePertenencia.isConstruido()) {
+            return;
+        }
+        long[] canciones;
+        if (!calculado) {
+            // El cálculo completo ya ve los cambios anteriores; los que lleguen durante él quedan pendientes.
+            pendientes.clear();
+            canciones = indicePertenencia.cancionesIndexadas();
+        } else {
+            canciones = extraerPendientes();
+            if (canciones.length == 0) {
+                return;
+            }
+        }
+        long inicio = System.nanoTime();
+        try {
+            calculadores.invoke(new Calculo(canciones, 0, canciones.length));
+        } catch (RuntimeException e) {
+            if (calculado) {
+                for (long cancionId : canciones) {
+                    pendientes.add(cancionId);
+                }
+            }
+            throw e;
+        }
+        long duracion = System.nanoTime() - inicio;
+        duracionCalculo.record(duracion, TimeUnit.NANOSECONDS);
+        if (!calculado) {
+            calculado = true;
+            logger.info("Canciones relacionadas calculadas para {} canciones en {} ms",
+                    canciones.length, TimeUnit.NANOSECONDS.toMillis(duracion));
+        }
+    }
+
+    private long[] extraerPendientes() {
+        long[] canciones = new long[pendientes.size()];
+        int tamano = 0;
+        for (Iterator<Long> it = pendientes.iterator(); it.hasNext(); ) {
+            if (tamano == canciones.length) {
+                canciones = Arrays.copyOf(canciones, tamano * 2 + 1);
+            }
+            canciones[tamano++] = it.next();
+            it.remove();
+        }
+        return Arrays.copyOf(canciones, tamano);
+    }
+
+    /**
+     * Cuenta con cuántas listas coincide la canción con cada otra canción y guarda las {@code topK} con más
+     * coincidencias, o borra su entrada si ya no está en ninguna lista.
+     */
+    void calcular(long cancionId) {
+        long[] listas = indicePertenencia.listasDeCancionSinCopiar(cancionId);
+        if (listas.length == 0) {
+            relacionadas.remove(cancionId);
+            return;
+        }
+        Contador contador = contadores.get();
+        contador.limpiar();
+        for (long listaId : listas) {
+            for (long otraId : indicePertenencia.cancionesDeListaSinCopiar(listaId)) {
+                if (otraId != cancionId) {
+                    contador.incrementar(otraId);
+                }
+            }
+        }
+        relacionadas.put(cancionId, contador.mejores(topK));
+    }
+
+    /** Divide las canciones a calcular en mitades hasta llegar a {@link #CANCIONES_POR_TAREA}. */
+    private final class Calculo extends RecursiveAction {
+        private final long[] canciones;
+        private final int desde;
+        private final int hasta;
+
+        Calculo(long[] canciones, int desde, int hasta) {
+            this.canciones = canciones;
+            this.desde = desde;
+            this.hasta = hasta;
+        }
+
+        @Override
+        protected void compute() {
+            if (hasta - desde <= CANCIONES_POR_TAREA) {
+                for (int i = desde; i < hasta; i++) {
+                    calcular(canciones[i]);
+                }
+                return;
+            }
+            int mitad = (desde + hasta) >>> 1;
+            invokeAll(new Calculo(canciones, desde, mitad), new Calculo(canciones, mitad, hasta));
+        }
+    }
+
+    /**
+     * Tabla de direccionamiento abierto de ID de canción a número de coincidencias, reutilizada por cada hilo entre
+     * canciones. Un contador a cero marca una posición libre, y las posiciones ocupadas se apuntan para poder
+     * recorrerlas y vaciarlas sin barrer toda la tabla.
+     */
+    static final class Contador {
+        private long[] claves = new long[64];
+        private int[] cuentas = new int[64];
+        private int[] ocupadas = new int[32];
+        private int tamano;
+
+        void limpiar() {
+            for (int i = 0; i < tamano; i++) {
+                cuentas[ocupadas[i]] = 0;
+            }
+            tamano = 0;
+        }
+
+        void incrementar(long clave) {
+            int mascara = claves.length - 1;
+            int posicion = (int) (clave * 0x9E3779B97F4A7C15L >>> 32) & mascara;
+            while (cuentas[posicion] != 0) {
+                if (claves[posicion] == clave) {
+                    cuentas[posicion]++;
+                    return;
+                }
+                posicion = (posicion + 1) & mascara;
+            }
+            claves[posicion] = clave;
+            cuentas[posicion] = 1;
+            ocupadas[tamano++] = posicion;
+            if (tamano == ocupadas.length) {
+                crecer();
+            }
+        }
+
+        private void crecer() {
+            long[] clavesAnteriores = claves;
+            int[] cuentasAnteriores = cuentas;
+            int[] ocupadasAnteriores = ocupadas;
+            int anteriores = tamano;
+            claves = new long[clavesAnteriores.length * 2];
+            cuentas = new int[claves.length];
+            ocupadas = new int[claves.length / 2];
+            tamano = 0;
+            int mascara = claves.length - 1;
+            for (int i = 0; i < anteriores; i++) {
+                int origen = ocupadasAnteriores[i];
+                long clave = clavesAnteriores[origen];
+                int posicion = (int) (clave * 0x9E3779B97F4A7C15L >>> 32) & mascara;
+                while (cuentas[posicion] != 0) {
+                    posicion = (posicion + 1) & mascara;
+                }
+                claves[posicion] = clave;
+                cuentas[posicion] = cuentasAnteriores[origen];
+                ocupadas[tamano++] = posicion;
+            }
+        }
+
+        /**
+         * Las {@code k} claves con más coincidencias, seleccionadas con un montículo de mínimos de tamaño {@code k}
+         * cuya raíz es la peor candidata que se conserva.
+         */
+        Relacionadas mejores(int k) {
+            int capacidad = Math.min(k, tamano);
+            long[] ids = new long[capacidad];
+            int[] coincidencias = new int[capacidad];
+            int enMonticulo = 0;
+            for (int i = 0; i < tamano; i++) {
+                int posicion = ocupadas[i];
+                long id = claves[posicion];
+                int cuenta = cuentas[posicion];
+                if (enMonticulo < capacidad) {
+                    ids[enMonticulo] = id;
+                    coincidencias[enMonticulo] = cuenta;
+                    subir(ids, coincidencias, enMonticulo++);
+                } else if (capacidad > 0 && peor(coincidencias[0], ids[0], cuenta, id)) {
+                    ids[0] = id;
+                    coincidencias[0] = cuenta;
+                    bajar(ids, coincidencias, 0, enMonticulo);
+                }
+            }
+            // Sacar la raíz repetidamente deja el array ordenado de mejor a peor.
+            for (int fin = enMonticulo - 1; fin > 0; fin--) {
+                intercambiar(ids, coincidencias, 0, fin);
+                bajar(ids, coincidencias, 0, fin);
+            }
+            return new Relacionadas(ids, coincidencias);
+        }
+
+        /** Si la candidata {@code (cuentaA, idA)} es peor que {@code (cuentaB, idB)}: menos coincidencias o, si empatan, mayor ID. */
+        private static boolean peor(int cuentaA, long idA, int cuentaB, long idB) {
+            return cuentaA < cuentaB || (cuentaA == cuentaB && idA > idB);
+        }
+
+        private static void subir(long[] ids, int[] coincidencias, int i) {
+            while (i > 0) {
+                int padre = (i - 1) >>> 1;
+                if (!peor(coincidencias[i], ids[i], coincidencias[padre], ids[padre])) {
+                    return;
+                }
+                intercambiar(ids, coincidencias, i, padre);
+                i = padre;
+            }
+        }
+
+        private static void bajar(long[] ids, int[] coincidencias, int i, int tamano) {
+            while (true) {
+                int izquierdo = 2 * i + 1;
+                if (izquierdo >= tamano) {
+                    return;
+                }
+                int menor = izquierdo;
+                int derecho = izquierdo + 1;
+                if (derecho < tamano && peor(coincidencias[derecho], ids[derecho], coincidencias[izquierdo], ids[izquierdo])) {
+                    menor = derecho;
+                }
+                if (!peor(coincidencias[menor], ids[menor], coincidencias[i], ids[i])) {
+                    return;
+                }
+                intercambiar(ids, coincidencias, i, menor);
+                i = menor;
+            }
+        }
+
+        private static void intercambiar(long[] ids, int[] coincidencias, int a, int b) {
+            long id = ids[a];
+            ids[a] = ids[b];
+            ids[b] = id;
+            int cuenta = coincidencias[a];
+            coincidencias[a] = coincidencias[b];
+            coincidencias[b] = cuenta;
+        }
+    }
+}
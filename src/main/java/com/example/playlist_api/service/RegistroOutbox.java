@@ -0,0 +1,38 @@
+package com.example.playlist_api.service;
+
+import com.example.playlist_api.entity.EventoOutbox;
+import com.example.playlist_api.repository.EventoOutboxRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+/**
+ * Escribe en el outbox cada {@link EventoCambio} que publican los servicios. Se ejecuta de forma síncrona dentro
+ * de la transacción de la escritura: el evento se confirma o se deshace junto con el cambio que describe.
+ */
+@Component
+public class RegistroOutbox {
+
+    private final EventoOutboxRepository eventoOutboxRepository;
+    private final boolean habilitado;
+
+    public RegistroOutbox(EventoOutboxRepository eventoOutboxRepository,
+                          @Value("${app.outbox.enabled:true}") boolean habilitado) {
+        this.eventoOutboxRepository = eventoOutboxRepository;
+        this.habilitado = habilitado;
+    }
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(EventoCambio evento) {
+        if (!habilitado) {
+            return;
+        }
+        eventoOutboxRepository.save(new EventoOutbox(null, evento.tipo().name(), evento.accion().name(),
+                evento.id(), evento.version(), Instant.now()));
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.playlist_api.service;
+
+import com.example.playlist_api.dto.ListaReproduccionResponseDto;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Resultado de una creación idempotente de lista de reproducción: la lista y si esta petición la creó.
+ */
+@Getter
+@AllArgsConstructor
+public class ResultadoCreacionLista {
+    private final ListaReproduccionResponseDto listaReproduccion;
+    private final boolean creada;
+}
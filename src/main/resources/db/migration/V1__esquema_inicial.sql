@@ -0,0 +1,27 @@
+-- Esquema inicial: canciones, listas de reproducción y su tabla de unión.
+
+CREATE TABLE canciones (
+    id      BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    titulo  VARCHAR(255) NOT NULL,
+    artista VARCHAR(255) NOT NULL,
+    album   VARCHAR(255) NOT NULL,
+    anno    VARCHAR(255) NOT NULL,
+    genero  VARCHAR(255) NOT NULL,
+    version BIGINT
+);
+
+CREATE TABLE listas_reproduccion (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nombre      VARCHAR(255) NOT NULL,
+    descripcion VARCHAR(255),
+    version     BIGINT,
+    CONSTRAINT uk_listas_reproduccion_nombre UNIQUE (nombre)
+);
+
+CREATE TABLE lista_reproduccion_canciones (
+    lista_reproduccion_id BIGINT NOT NULL,
+    cancion_id            BIGINT NOT NULL,
+    PRIMARY KEY (lista_reproduccion_id, cancion_id),
+    CONSTRAINT fk_lrc_lista_reproduccion FOREIGN KEY (lista_reproduccion_id) REFERENCES listas_reproduccion (id),
+    CONSTRAINT fk_lrc_cancion FOREIGN KEY (cancion_id) REFERENCES canciones (id)
+);
@@ -0,0 +1,3 @@
+-- La clave primaria de la tabla de unión empieza por lista_reproduccion_id, por lo que no sirve
+-- para buscar las listas que contienen una canción ni para borrar una canción referenciada.
+CREATE INDEX idx_lrc_cancion ON lista_reproduccion_canciones (cancion_id);
@@ -0,0 +1,10 @@
+-- Outbox transaccional: cada escritura de canciones o listas añade aquí su evento en la misma transacción.
+-- DespachadorOutbox lo entrega por lotes a los destinos configurados y lo borra después (entrega al menos una vez).
+CREATE TABLE outbox_eventos (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    tipo            VARCHAR(16)                 NOT NULL,
+    accion          VARCHAR(16)                 NOT NULL,
+    recurso_id      BIGINT                      NOT NULL,
+    version_recurso BIGINT,
+    creado_en       TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
@@ -0,0 +1,6 @@
+-- Número de canciones de cada lista, mantenido por la aplicación junto con la tabla de unión, para que los listados
+-- de listas de reproducción no tengan que contar (ni cargar) las filas de lista_reproduccion_canciones.
+ALTER TABLE listas_reproduccion ADD COLUMN numero_canciones INT DEFAULT 0 NOT NULL;
+
+UPDATE listas_reproduccion l
+SET numero_canciones = (SELECT COUNT(*) FROM lista_reproduccion_canciones lrc WHERE lrc.lista_reproduccion_id = l.id);
@@ -0,0 +1,6 @@
+-- Huella de cada canción: SHA-256 de su título, artista y álbum normalizados (sin mayúsculas, acentos ni espacios
+-- repetidos). La calcula la aplicación; las filas anteriores la reciben al arrancar. El índice no es único porque
+-- puede haber duplicados previos hasta que se fusionen.
+ALTER TABLE canciones ADD COLUMN huella VARCHAR(64);
+
+CREATE INDEX idx_canciones_huella ON canciones (huella);
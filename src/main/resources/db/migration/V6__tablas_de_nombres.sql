@@ -0,0 +1,45 @@
+-- Artistas, álbumes y géneros pasan a tablas de nombres: cada canción guarda el ID de cada valor en lugar de repetir
+-- el texto en todas las filas. Cada tabla es un diccionario de nombres distintos (un álbum se identifica solo por su
+-- nombre, igual que antes).
+CREATE TABLE artistas (
+    id     BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nombre VARCHAR(255) NOT NULL,
+    CONSTRAINT uk_artistas_nombre UNIQUE (nombre)
+);
+
+CREATE TABLE albumes (
+    id     BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nombre VARCHAR(255) NOT NULL,
+    CONSTRAINT uk_albumes_nombre UNIQUE (nombre)
+);
+
+CREATE TABLE generos (
+    id     BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nombre VARCHAR(255) NOT NULL,
+    CONSTRAINT uk_generos_nombre UNIQUE (nombre)
+);
+
+INSERT INTO artistas (nombre) SELECT DISTINCT artista FROM canciones;
+INSERT INTO albumes (nombre) SELECT DISTINCT album FROM canciones;
+INSERT INTO generos (nombre) SELECT DISTINCT genero FROM canciones;
+
+ALTER TABLE canciones ADD COLUMN artista_id BIGINT;
+ALTER TABLE canciones ADD COLUMN album_id BIGINT;
+ALTER TABLE canciones ADD COLUMN genero_id BIGINT;
+
+UPDATE canciones c SET
+    artista_id = (SELECT a.id FROM artistas a WHERE a.nombre = c.artista),
+    album_id = (SELECT al.id FROM albumes al WHERE al.nombre = c.album),
+    genero_id = (SELECT g.id FROM generos g WHERE g.nombre = c.genero);
+
+ALTER TABLE canciones ALTER COLUMN artista_id SET NOT NULL;
+ALTER TABLE canciones ALTER COLUMN album_id SET NOT NULL;
+ALTER TABLE canciones ALTER COLUMN genero_id SET NOT NULL;
+
+ALTER TABLE canciones ADD CONSTRAINT fk_canciones_artista FOREIGN KEY (artista_id) REFERENCES artistas (id);
+ALTER TABLE canciones ADD CONSTRAINT fk_canciones_album FOREIGN KEY (album_id) REFERENCES albumes (id);
+ALTER TABLE canciones ADD CONSTRAINT fk_canciones_genero FOREIGN KEY (genero_id) REFERENCES generos (id);
+
+ALTER TABLE canciones DROP COLUMN artista;
+ALTER TABLE canciones DROP COLUMN album;
+ALTER TABLE canciones DROP COLUMN genero;
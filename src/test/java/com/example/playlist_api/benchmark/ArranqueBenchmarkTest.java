@@ -0,0 +1,77 @@
+package com.example.playlist_api.benchmark;
+
+import com.example.playlist_api.PlaylistApiApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Mide el tiempo de arranque del contexto con el esquema gestionado por {@code ddl-auto=update}
+ * frente a migraciones Flyway + {@code ddl-auto=validate}, sobre una base de datos H2 en fichero ya creada
+ * y sobre una base de datos en memoria nueva en cada arranque (arranque en frío del perfil por defecto).
+ * Se ejecuta bajo demanda: {@code ./mvnw test -Dgroups=benchmark -Dbenchmark.excluded= -Dtest=ArranqueBenchmarkTest}.
+ */
+@Tag("benchmark")
+class ArranqueBenchmarkTest {
+
+    private static final int ARRANQUES = 5;
+
+    @TempDir
+    Path datos;
+
+    @Test
+    void compararGestionDeEsquema() {
+        String urlUpdate = "jdbc:h2:file:" + datos.resolve("update") + ";DB_CLOSE_ON_EXIT=FALSE";
+        String urlValidate = "jdbc:h2:file:" + datos.resolve("validate") + ";DB_CLOSE_ON_EXIT=FALSE";
+
+        long update = medianaArranqueMs(
+                "--spring.profiles.active=persistente",
+                "--spring.datasource.url=" + urlUpdate,
+                "--spring.flyway.enabled=false",
+                "--spring.jpa.hibernate.ddl-auto=update");
+        long validate = medianaArranqueMs(
+                "--spring.profiles.active=persistente",
+                "--spring.datasource.url=" + urlValidate);
+
+        System.out.printf("ddl-auto=update            : %d ms%n", update);
+        System.out.printf("flyway + ddl-auto=validate : %d ms%n", validate);
+    }
+
+    @Test
+    void compararGestionDeEsquemaEnMemoria() {
+        // ${random.uuid} da una base de datos vacía en cada arranque.
+        String url = "--spring.datasource.url=jdbc:h2:mem:arranque-${random.uuid}";
+
+        long update = medianaArranqueMs(url,
+                "--spring.flyway.enabled=false",
+                "--spring.jpa.hibernate.ddl-auto=update");
+        long validate = medianaArranqueMs(url);
+
+        System.out.printf("memoria, ddl-auto=update            : %d ms%n", update);
+        System.out.printf("memoria, flyway + ddl-auto=validate : %d ms%n", validate);
+    }
+
+    private long medianaArranqueMs(String... args) {
+        arrancar(args); // Primer arranque: crea el esquema y calienta la JVM; no se mide.
+        long[] tiempos = new long[ARRANQUES];
+        for (int i = 0; i < ARRANQUES; i++) {
+            tiempos[i] = arrancar(args);
+        }
+        Arrays.sort(tiempos);
+        return tiempos[ARRANQUES / 2];
+    }
+
+    private long arrancar(String... args) {
+        long inicio = System.nanoTime();
+        try (ConfigurableApplicationContext ignored = new SpringApplicationBuilder(PlaylistApiApplication.class)
+                .properties("server.port=0", "logging.level.root=WARN")
+                .run(args)) {
+            return (System.nanoTime() - inicio) / 1_000_000;
+        }
+    }
+}
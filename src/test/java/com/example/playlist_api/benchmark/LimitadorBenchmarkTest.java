@@ -0,0 +1,67 @@
+package com.example.playlist_api.benchmark;
+
+import com.example.playlist_api.filter.RateLimitFilter;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Mide el coste por petición de {@link RateLimitFilter} (sin el resto de la cadena), con 1 y con 4 hilos
+ * compartiendo usuario y ruta, es decir, compitiendo por el mismo bucket.
+ * Incluye el coste de {@code OncePerRequestFilter} y de normalizar la ruta, no solo el del bucket.
+ * Se ejecuta bajo demanda: {@code ./mvnw test -Dgroups=benchmark -Dbenchmark.excluded= -Dtest=LimitadorBenchmarkTest}.
+ */
+@Tag("benchmark")
+class LimitadorBenchmarkTest {
+
+    private static final int PETICIONES = 2_000_000;
+
+    // Límite alto para medir solo el camino de admisión, que es el de cada petición normal.
+    private final RateLimitFilter filter = new RateLimitFilter(true, Integer.MAX_VALUE, 1e9, "", 100_000);
+
+    @Test
+    void costePorPeticion() throws Exception {
+        medir(1); // Calentamiento.
+        System.out.printf("1 hilo  : %.0f ns/peticion%n", medir(1));
+        System.out.printf("4 hilos : %.0f ns/peticion%n", medir(4));
+    }
+
+    private double medir(int hilos) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        try {
+            List<Callable<Void>> tareas = new ArrayList<>();
+            for (int h = 0; h < hilos; h++) {
+                tareas.add(() -> {
+                    SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                            "user", null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+                    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/canciones/42");
+                    MockHttpServletResponse response = new MockHttpServletResponse();
+                    for (int i = 0; i < PETICIONES; i++) {
+                        request.removeAttribute(RateLimitFilter.class.getName() + ".FILTERED");
+                        filter.doFilter(request, response, (req, res) -> { });
+                    }
+                    return null;
+                });
+            }
+            long inicio = System.nanoTime();
+            for (Future<Void> resultado : executor.invokeAll(tareas)) {
+                resultado.get();
+            }
+            // Tiempo real dividido entre todas las peticiones: coste medio por petición con los hilos en paralelo.
+            return (double) (System.nanoTime() - inicio) / ((long) PETICIONES * hilos);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
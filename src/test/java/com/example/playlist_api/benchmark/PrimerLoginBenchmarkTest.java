@@ -0,0 +1,153 @@
+package com.example.playlist_api.benchmark;
+
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide el tiempo desde que se lanza el proceso hasta el primer {@code POST /api/auth/login} con respuesta 200,
+ * y la memoria residente (RSS) en ese momento, con el jar normal, con cada optimización del perfil "arranque-rapido"
+ * (inicialización diferida, AOT y AppCDS) y con la imagen nativa.
+ * Necesita el empaquetado del perfil Maven correspondiente:
+ * {@code ./mvnw -Parranque-rapido package -DskipTests} y/o {@code ./mvnw -Pnative native:compile -DskipTests};
+ * después {@code ./mvnw test -Dgroups=benchmark -Dbenchmark.excluded= -Dtest=PrimerLoginBenchmarkTest}.
+ */
+@Tag("benchmark")
+class PrimerLoginBenchmarkTest {
+
+    private static final int ARRANQUES = 5;
+    private static final Path DIRECTORIO = Path.of("target", "arranque-rapido");
+    private static final String JAR = "playlist-api-0.0.1-SNAPSHOT.jar";
+    private static final Path BINARIO_NATIVO = Path.of("target", "playlist-api");
+    private static final String LOGIN = "{\"username\":\"admin\",\"password\":\"adminpass\"}";
+
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+
+    @Test
+    void compararModosDeArranque() throws Exception {
+        Assumptions.assumeTrue(Files.exists(DIRECTORIO.resolve("application.jsa")),
+                "Falta el empaquetado: ./mvnw -Parranque-rapido package");
+
+        Medicion normal = medianaJvm();
+        Medicion diferida = medianaJvm("-Dspring.profiles.active=arranque-rapido");
+        Medicion aot = medianaJvm("-Dspring.profiles.active=arranque-rapido", "-Dspring.aot.enabled=true");
+        Medicion cds = medianaJvm("-Dspring.profiles.active=arranque-rapido", "-Dspring.aot.enabled=true",
+                "-XX:SharedArchiveFile=application.jsa");
+
+        System.out.printf("normal                        : %s%n", normal);
+        System.out.printf("inicializacion diferida       : %s%n", diferida);
+        System.out.printf("diferida + AOT                : %s%n", aot);
+        System.out.printf("diferida + AOT + AppCDS       : %s%n", cds);
+    }
+
+    @Test
+    void medirImagenNativa() throws Exception {
+        Assumptions.assumeTrue(Files.isExecutable(BINARIO_NATIVO),
+                "Falta la imagen nativa: ./mvnw -Pnative native:compile");
+
+        Medicion nativa = mediana(BINARIO_NATIVO.getParent(),
+                List.of(BINARIO_NATIVO.toAbsolutePath().toString(), "--logging.level.root=WARN"));
+        System.out.printf("imagen nativa                 : %s%n", nativa);
+    }
+
+    private Medicion medianaJvm(String... opcionesJvm) throws Exception {
+        List<String> comando = new ArrayList<>();
+        comando.add(ProcessHandle.current().info().command().orElse("java"));
+        comando.addAll(Arrays.asList(opcionesJvm));
+        comando.addAll(List.of("-Dlogging.level.root=WARN", "-jar", JAR));
+        return mediana(DIRECTORIO, comando);
+    }
+
+    private Medicion mediana(Path directorio, List<String> comando) throws Exception {
+        long[] tiempos = new long[ARRANQUES];
+        long[] rss = new long[ARRANQUES];
+        for (int i = 0; i < ARRANQUES; i++) {
+            Medicion medicion = hastaPrimerLogin(directorio, comando);
+            tiempos[i] = medicion.ms();
+            rss[i] = medicion.rssKb();
+        }
+        Arrays.sort(tiempos);
+        Arrays.sort(rss);
+        return new Medicion(tiempos[ARRANQUES / 2], rss[ARRANQUES / 2]);
+    }
+
+    private Medicion hastaPrimerLogin(Path directorio, List<String> comandoBase) throws Exception {
+        int puerto = puertoLibre();
+        List<String> comando = new ArrayList<>(comandoBase);
+        comando.add("--server.port=" + puerto);
+
+        HttpRequest login = HttpRequest.newBuilder(URI.create("http://localhost:" + puerto + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(LOGIN))
+                .build();
+
+        long inicio = System.nanoTime();
+        Process proceso = new ProcessBuilder(comando)
+                .directory(directorio.toFile())
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            while (true) {
+                if (!proceso.isAlive()) {
+                    throw new IllegalStateException("La aplicación terminó antes del primer login: " + comando);
+                }
+                try {
+                    if (httpClient.send(login, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        long ms = (System.nanoTime() - inicio) / 1_000_000;
+                        return new Medicion(ms, rssKb(proceso.pid()));
+                    }
+                } catch (ConnectException e) {
+                    // El servidor todavía no escucha.
+                }
+                Thread.sleep(5);
+            }
+        } finally {
+            proceso.destroy();
+            proceso.waitFor(10, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Memoria residente del proceso según {@code /proc/<pid>/status} (solo Linux); -1 si no está disponible.
+     */
+    private static long rssKb(long pid) throws IOException {
+        Path status = Path.of("/proc", Long.toString(pid), "status");
+        if (!Files.exists(status)) {
+            return -1;
+        }
+        return Files.readAllLines(status).stream()
+                .filter(linea -> linea.startsWith("VmRSS:"))
+                .mapToLong(linea -> Long.parseLong(linea.replaceAll("\\D", "")))
+                .findFirst()
+                .orElse(-1);
+    }
+
+    private static int puertoLibre() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private record Medicion(long ms, long rssKb) {
+        @Override
+        public String toString() {
+            return String.format("%d ms, %d MB RSS", ms, rssKb / 1024);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.playlist_api.benchmark;
+
+import com.example.playlist_api.dto.CancionDto;
+import com.example.playlist_api.dto.ListaReproduccionResponseDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compara bytes enviados y CPU de serialización de una lista de reproducción en JSON, CBOR y Smile,
+ * con y sin gzip, para listas de 1k y 100k canciones.
+ * Se ejecuta bajo demanda: {@code ./mvnw test -Dgroups=benchmark -Dbenchmark.excluded=}.
+ */
+@Tag("benchmark")
+class SerializacionBenchmarkTest {
+
+    private static final int ITERACIONES = 20;
+
+    @Test
+    void compararFormatos() throws IOException {
+        Map<String, ObjectMapper> formatos = new LinkedHashMap<>();
+        formatos.put("json", new ObjectMapper());
+        formatos.put("cbor", new CBORMapper());
+        formatos.put("smile", new SmileMapper());
+
+        System.out.printf("%-8s %-6s %12s %12s %14s%n", "canciones", "formato", "bytes", "bytes gzip", "us/serializ.");
+        for (int canciones : new int[] {1_000, 100_000}) {
+            ListaReproduccionResponseDto lista = crearLista(canciones);
+            for (Map.Entry<String, ObjectMapper> formato : formatos.entrySet()) {
+                ObjectMapper mapper = formato.getValue();
+                byte[] bytes = mapper.writeValueAsBytes(lista);
+                for (int i = 0; i < ITERACIONES; i++) {
+                    mapper.writeValueAsBytes(lista); // calentamiento
+                }
+                long inicio = System.nanoTime();
+                for (int i = 0; i < ITERACIONES; i++) {
+                    mapper.writeValueAsBytes(lista);
+                }
+                long microsPorSerializacion = (System.nanoTime() - inicio) / ITERACIONES / 1_000;
+                System.out.printf("%-8d %-6s %12d %12d %14d%n", canciones, formato.getKey(), bytes.length, gzip(bytes), microsPorSerializacion);
+            }
+        }
+    }
+
+    private static ListaReproduccionResponseDto crearLista(int canciones) {
+        Set<CancionDto> cancionDtos = new HashSet<>(canciones * 2);
+        for (long i = 1; i <= canciones; i++) {
+            cancionDtos.add(new CancionDto(i, "Titulo " + i, "Artista " + (i % 500), "Album " + (i % 2_000), Long.toString(1960 + i % 60), "Genero " + (i % 20), 0L));
+        }
+        return new ListaReproduccionResponseDto(1L, "Lista de prueba", "Lista generada para el benchmark", cancionDtos, 0L);
+    }
+
+    private static int gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.size();
+    }
+}
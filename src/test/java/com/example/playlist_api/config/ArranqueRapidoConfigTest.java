@@ -0,0 +1,39 @@
+package com.example.playlist_api.config;
+
+import com.example.playlist_api.service.CancionService;
+import com.example.playlist_api.service.DeduplicadorCanciones;
+import com.example.playlist_api.service.DespachadorOutbox;
+import com.example.playlist_api.service.EscrituraDiferidaListaService;
+import com.example.playlist_api.service.IndicePertenencia;
+import com.example.playlist_api.service.RecomendadorCanciones;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:arranque-rapido;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("arranque-rapido")
+class ArranqueRapidoConfigTest {
+
+    @Autowired
+    private ConfigurableListableBeanFactory beanFactory;
+
+    @Test
+    void beansEnSegundoPlano_seCreanAlArrancar() {
+        for (Class<?> tipo : new Class<?>[]{EscrituraDiferidaListaService.class, DespachadorOutbox.class,
+                IndicePertenencia.class, RecomendadorCanciones.class, DeduplicadorCanciones.class}) {
+            String[] nombres = beanFactory.getBeanNamesForType(tipo, false, false);
+            assertEquals(1, nombres.length, tipo.getSimpleName());
+            assertTrue(beanFactory.containsSingleton(nombres[0]), tipo.getSimpleName() + " debería crearse al arrancar");
+        }
+    }
+
+    @Test
+    void restoDeBeans_esperanASuPrimerUso() {
+        String[] nombres = beanFactory.getBeanNamesForType(CancionService.class, false, false);
+        assertFalse(beanFactory.containsSingleton(nombres[0]));
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.playlist_api.config;
+
+import com.example.playlist_api.dto.ListaReproduccionResponseDto;
+import com.example.playlist_api.entity.Cancion;
+import com.example.playlist_api.service.EntradaJournalLista;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NativeRuntimeHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    NativeRuntimeHintsTest() {
+        new NativeRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void registerHints_registraDtosYJournalParaJackson() {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(ListaReproduccionResponseDto.class)
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(EntradaJournalLista.class).test(hints));
+    }
+
+    @Test
+    void registerHints_registraEntidadesParaHibernate() {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(Cancion.class)
+                .withMemberCategory(MemberCategory.DECLARED_FIELDS).test(hints));
+    }
+
+    @Test
+    void registerHints_registraClasesDeJjwtCargadasPorNombre() {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(TypeReference.of("io.jsonwebtoken.impl.DefaultJwtBuilder"))
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints));
+        assertTrue(RuntimeHintsPredicates.resource().forResource("META-INF/services/io.jsonwebtoken.io.Serializer").test(hints));
+    }
+}
@@ -3,6 +3,7 @@ package com.example.playlist_api.controller;
 
 import com.example.playlist_api.dto.AuthRequestDto;
 import com.example.playlist_api.security.JwtUtil;
+import com.example.playlist_api.security.LimitadorIntentosLogin;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,8 +24,14 @@ import java.util.Collections;
 
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -47,6 +54,9 @@ class AuthControllerTest {
     @MockBean
     private UserDetailsService userDetailsService;
 
+    @MockBean
+    private LimitadorIntentosLogin limitadorIntentosLogin;
+
     @Test
     void createAuthenticationToken_success() throws Exception {
         AuthRequestDto requestDto = new AuthRequestDto();
@@ -65,6 +75,27 @@ class AuthControllerTest {
                 .content(objectMapper.writeValueAsString(requestDto)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.token").value("mockedJwtToken"));
+
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+        verify(limitadorIntentosLogin).registrarExito("admin");
+    }
+
+    @Test
+    void createAuthenticationToken_bloqueadoTrasFallos_returnsTooManyRequests() throws Exception {
+        AuthRequestDto requestDto = new AuthRequestDto();
+        requestDto.setUsername("admin");
+        requestDto.setPassword("wrongpass");
+
+        when(limitadorIntentosLogin.milisegundosBloqueo(eq("admin"), anyString(), anyLong())).thenReturn(1_500L);
+
+        mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(jsonPath("$.error").value("Too Many Requests"));
+
+        verify(authenticationManager, never()).authenticate(any());
     }
 
     @Test
@@ -82,6 +113,35 @@ class AuthControllerTest {
                 .andExpect(status().isUnauthorized())
                 .andExpect(jsonPath("$.error").value("Unauthorized"))
                 .andExpect(jsonPath("$.message").value("Credenciales inválidas."));
+
+        verify(limitadorIntentosLogin).registrarFallo(eq("wronguser"), anyString(), anyLong());
+    }
+
+    @Test
+    void refreshToken_success_devuelveNuevosTokens() throws Exception {
+        UserDetails userDetails = new User("admin", "encodedpass", Collections.emptyList());
+
+        when(jwtUtil.consumeRefreshToken("refresh-viejo")).thenReturn("admin");
+        when(userDetailsService.loadUserByUsername("admin")).thenReturn(userDetails);
+        when(jwtUtil.generateToken(userDetails)).thenReturn("nuevoAcceso");
+        when(jwtUtil.generateRefreshToken(userDetails)).thenReturn("nuevoRefresh");
+
+        mockMvc.perform(post("/api/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"refreshToken\":\"refresh-viejo\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").value("nuevoAcceso"))
+                .andExpect(jsonPath("$.refreshToken").value("nuevoRefresh"));
+    }
+
+    @Test
+    void refreshToken_tokenYaUsado_returnsUnauthorized() throws Exception {
+        when(jwtUtil.consumeRefreshToken("refresh-usado")).thenThrow(new BadCredentialsException("Token de refresco inválido"));
+
+        mockMvc.perform(post("/api/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"refreshToken\":\"refresh-usado\"}"))
+                .andExpect(status().isUnauthorized());
     }
 
     @Test
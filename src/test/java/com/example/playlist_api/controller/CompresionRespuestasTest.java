@@ -0,0 +1,109 @@
+package com.example.playlist_api.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comprueba contra Tomcat real la compresión configurada en {@code server.compression.*}: gzip a partir de 2 KB
+ * para JSON y CBOR. {@link HttpClient} no descomprime por sí mismo, así que se ve la respuesta tal como viaja.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.datasource.url=jdbc:h2:mem:compresion;DB_CLOSE_DELAY=-1")
+class CompresionRespuestasTest {
+
+    private static final int CANCIONES = 30;
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient cliente = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private String token;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        HttpResponse<String> login = cliente.send(HttpRequest.newBuilder(uri("/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"admin\",\"password\":\"adminpass\"}"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        token = objectMapper.readTree(login.body()).get("token").asText();
+
+        HttpResponse<byte[]> existentes = get("/api/canciones", "application/json");
+        if (objectMapper.readTree(cuerpo(existentes)).size() >= CANCIONES) {
+            return;
+        }
+        for (int i = 0; i < CANCIONES; i++) {
+            HttpResponse<String> creada = cliente.send(HttpRequest.newBuilder(uri("/api/canciones"))
+                    .header("Authorization", "Bearer " + token)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"titulo\":\"Cancion " + i + "\",\"artista\":\"Artista " + i
+                            + "\",\"album\":\"Album\",\"anno\":\"2024\",\"genero\":\"Rock\"}"))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(201, creada.statusCode(), creada.body());
+        }
+    }
+
+    @Test
+    void respuestaJsonGrande_seComprimeConGzip() throws Exception {
+        HttpResponse<byte[]> respuesta = get("/api/canciones", "application/json");
+
+        assertEquals(200, respuesta.statusCode());
+        assertEquals("gzip", respuesta.headers().firstValue("Content-Encoding").orElse(null));
+        byte[] json = cuerpo(respuesta);
+        assertEquals(CANCIONES, objectMapper.readTree(json).size());
+        assertTrue(respuesta.body().length < json.length);
+    }
+
+    @Test
+    void respuestaCborGrande_seComprimeConGzip() throws Exception {
+        HttpResponse<byte[]> respuesta = get("/api/canciones", "application/cbor");
+
+        assertEquals(200, respuesta.statusCode());
+        assertTrue(respuesta.headers().firstValue("Content-Type").orElse("").startsWith("application/cbor"));
+        assertEquals("gzip", respuesta.headers().firstValue("Content-Encoding").orElse(null));
+    }
+
+    @Test
+    void respuestaPequena_noSeComprime() throws Exception {
+        HttpResponse<byte[]> respuesta = get("/api/canciones/1", "application/json");
+
+        assertEquals(200, respuesta.statusCode());
+        assertTrue(respuesta.body().length < 2048);
+        assertTrue(respuesta.headers().firstValue("Content-Encoding").isEmpty());
+    }
+
+    private HttpResponse<byte[]> get(String ruta, String accept) throws IOException, InterruptedException {
+        return cliente.send(HttpRequest.newBuilder(uri(ruta))
+                .header("Authorization", "Bearer " + token)
+                .header("Accept", accept)
+                .header("Accept-Encoding", "gzip")
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static byte[] cuerpo(HttpResponse<byte[]> respuesta) throws IOException {
+        if (respuesta.headers().firstValue("Content-Encoding").isEmpty()) {
+            return respuesta.body();
+        }
+        try (GZIPInputStream entrada = new GZIPInputStream(new ByteArrayInputStream(respuesta.body()))) {
+            return entrada.readAllBytes();
+        }
+    }
+
+    private URI uri(String ruta) {
+        return URI.create("http://localhost:" + port + ruta);
+    }
+}
@@ -6,6 +6,8 @@ import com.example.playlist_api.dto.ListaReproduccionResponseDto;
 import com.example.playlist_api.dto.CancionDto;
 import com.example.playlist_api.exception.BadRequestException;
 import com.example.playlist_api.exception.ResourceNotFoundException;
+import com.example.playlist_api.service.CanalCambios;
+import com.example.playlist_api.service.EscrituraDiferidaListaService;
 import com.example.playlist_api.service.ListaReproduccionService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -52,6 +54,14 @@ class ListaReproduccionControllerTest {
     private ListaReproduccionService listaReproduccionService;
 
 
+    @MockBean
+    private EscrituraDiferidaListaService escrituraDiferidaListaService;
+
+
+    @MockBean
+    private CanalCambios canalCambios;
+
+
     @MockBean
     private UserDetailsService userDetailsService;
 
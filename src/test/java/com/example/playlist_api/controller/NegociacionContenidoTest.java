@@ -0,0 +1,96 @@
+package com.example.playlist_api.controller;
+
+import com.example.playlist_api.dto.CancionDto;
+import com.example.playlist_api.security.JwtAuthenticationEntryPoint;
+import com.example.playlist_api.security.JwtRequestFilter;
+import com.example.playlist_api.security.JwtUtil;
+import com.example.playlist_api.service.CancionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Los mismos DTOs se sirven en JSON, CBOR o Smile según la cabecera {@code Accept}. Sin los filtros de seguridad:
+ * aquí solo importa la elección del conversor de mensajes.
+ */
+@WebMvcTest(controllers = CancionController.class)
+@AutoConfigureMockMvc(addFilters = false)
+@WithMockUser(roles = "USER")
+class NegociacionContenidoTest {
+
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private CancionService cancionService;
+
+    @MockBean
+    private UserDetailsService userDetailsService;
+
+    @MockBean
+    private JwtUtil jwtUtil;
+
+    @MockBean
+    private JwtRequestFilter jwtRequestFilter;
+
+    @MockBean
+    private JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
+
+    private final List<CancionDto> canciones = List.of(
+            new CancionDto(1L, "Titulo1", "Artista1", "Album1", "2000", "Pop"),
+            new CancionDto(2L, "Titulo2", "Artista2", "Album2", "2001", "Rock"));
+
+    @BeforeEach
+    void setUp() {
+        when(cancionService.obtenerTodasLasCanciones()).thenReturn(canciones);
+    }
+
+    @Test
+    void acceptCbor_respondeEnCbor() throws Exception {
+        byte[] cuerpo = mockMvc.perform(get("/api/canciones").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertArrayEquals(canciones.toArray(), new CBORMapper().readValue(cuerpo, CancionDto[].class));
+    }
+
+    @Test
+    void acceptSmile_respondeEnSmile() throws Exception {
+        byte[] cuerpo = mockMvc.perform(get("/api/canciones").accept(SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertArrayEquals(canciones.toArray(), new SmileMapper().readValue(cuerpo, CancionDto[].class));
+    }
+
+    @Test
+    void sinAccept_respondeEnJson() throws Exception {
+        byte[] cuerpo = mockMvc.perform(get("/api/canciones"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertArrayEquals(canciones.toArray(), new ObjectMapper().readValue(cuerpo, CancionDto[].class));
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.playlist_api.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitFilterTest {
+
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(true, 4, 2, 10, 100, 0.5, 0.5, 1);
+    private final LimitadorConcurrenciaAdaptativo limitador = filter.getLimitador();
+
+    private MockHttpServletResponse ejecutar(String metodo, String uri, AtomicInteger ejecuciones) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(metodo, uri), response, (req, res) -> ejecuciones.incrementAndGet());
+        return response;
+    }
+
+    @Test
+    void limiteOcupado_responde503ConRetryAfterSinEjecutarLaPeticion() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limitador.adquirir(LimitadorConcurrenciaAdaptativo.Prioridad.LECTURA));
+        }
+        AtomicInteger ejecuciones = new AtomicInteger();
+
+        MockHttpServletResponse rechazada = ejecutar("GET", "/api/canciones", ejecuciones);
+
+        assertEquals(0, ejecuciones.get());
+        assertEquals(503, rechazada.getStatus());
+        assertEquals("1", rechazada.getHeader("Retry-After"));
+        assertTrue(rechazada.getContentAsString().contains("\"status\":503"));
+        assertEquals(1, limitador.getRechazos(LimitadorConcurrenciaAdaptativo.Prioridad.LECTURA));
+    }
+
+    @Test
+    void lasEscriturasSeRechazanAntesQueLasLecturas() throws Exception {
+        assertTrue(limitador.adquirir(LimitadorConcurrenciaAdaptativo.Prioridad.LECTURA));
+        assertTrue(limitador.adquirir(LimitadorConcurrenciaAdaptativo.Prioridad.LECTURA));
+        AtomicInteger ejecuciones = new AtomicInteger();
+
+        // Con write-share 0.5 las escrituras solo disponen de 2 de los 4 huecos.
+        assertEquals(503, ejecutar("POST", "/api/listas", ejecuciones).getStatus());
+        assertEquals(200, ejecutar("GET", "/api/listas", ejecuciones).getStatus());
+        assertEquals(1, ejecuciones.get());
+        assertEquals(1, limitador.getRechazos(LimitadorConcurrenciaAdaptativo.Prioridad.ESCRITURA));
+    }
+
+    @Test
+    void elLimiteBajaConLatenciaAltaOErroresYSubeConPeticionesRapidas() {
+        limitador.adquirir(LimitadorConcurrenciaAdaptativo.Prioridad.LECTURA);
+        limitador.liberar(200_000_000L, false);
+        assertEquals(2, limitador.getLimite());
+
+        limitador.adquirir(LimitadorConcurrenciaAdaptativo.Prioridad.LECTURA);
+        limitador.liberar(1_000_000L, false);
+        assertEquals(3, limitador.getLimite());
+
+        limitador.adquirir(LimitadorConcurrenciaAdaptativo.Prioridad.LECTURA);
+        limitador.liberar(1_000_000L, true);
+        assertEquals(2, limitador.getLimite());
+        assertEquals(0, limitador.getEnCurso());
+    }
+
+    @Test
+    void rutasFueraDeCancionesYListas_noSeLimitan() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            limitador.adquirir(LimitadorConcurrenciaAdaptativo.Prioridad.LECTURA);
+        }
+        AtomicInteger ejecuciones = new AtomicInteger();
+
+        assertEquals(200, ejecutar("POST", "/api/auth/login", ejecuciones).getStatus());
+        assertEquals(1, ejecuciones.get());
+    }
+
+    @Test
+    void publicaLimiteYRechazosComoMetricas() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        filter.bindTo(registry);
+        for (int i = 0; i < 4; i++) {
+            limitador.adquirir(LimitadorConcurrenciaAdaptativo.Prioridad.LECTURA);
+        }
+        ejecutar("DELETE", "/api/canciones/1", new AtomicInteger());
+
+        assertEquals(4.0, registry.get("playlist.concurrency.limit").gauge().value());
+        assertEquals(4.0, registry.get("playlist.concurrency.in-flight").gauge().value());
+        assertEquals(1.0, registry.get("playlist.concurrency.rejected").tag("priority", "write").functionCounter().count());
+    }
+}
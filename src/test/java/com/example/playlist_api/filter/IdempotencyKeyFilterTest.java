@@ -0,0 +1,193 @@
+package com.example.playlist_api.filter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyKeyFilterTest {
+
+    private final IdempotencyKeyFilter filter = new IdempotencyKeyFilter(100, 60_000L, 1_000L);
+
+    private MockHttpServletRequest post(String uri, String key) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        if (key != null) {
+            request.addHeader(IdempotencyKeyFilter.IDEMPOTENCY_KEY_HEADER, key);
+        }
+        return request;
+    }
+
+    private FilterChain creando(AtomicInteger ejecuciones, int status) {
+        return (req, res) -> {
+            int n = ejecuciones.incrementAndGet();
+            HttpServletResponse http = (HttpServletResponse) res;
+            http.setStatus(status);
+            http.setHeader("Location", "http://localhost/api/canciones/" + n);
+            http.setContentType("application/json");
+            http.getWriter().write("{\"id\":" + n + "}");
+        };
+    }
+
+    @Test
+    void mismaClave_reintentoSeRespondeDesdeMemoria() throws Exception {
+        AtomicInteger ejecuciones = new AtomicInteger();
+
+        MockHttpServletResponse primera = new MockHttpServletResponse();
+        filter.doFilter(post("/api/canciones", "abc"), primera, creando(ejecuciones, 201));
+        MockHttpServletResponse reintento = new MockHttpServletResponse();
+        filter.doFilter(post("/api/canciones", "abc"), reintento, creando(ejecuciones, 201));
+
+        assertEquals(1, ejecuciones.get());
+        assertEquals(201, reintento.getStatus());
+        assertEquals("http://localhost/api/canciones/1", reintento.getHeader("Location"));
+        assertEquals("{\"id\":1}", reintento.getContentAsString());
+        assertEquals("true", reintento.getHeader(IdempotencyKeyFilter.IDEMPOTENT_REPLAYED_HEADER));
+    }
+
+    @Test
+    void mismaClaveConOtroCuerpo_responde422SinEjecutarla() throws Exception {
+        AtomicInteger ejecuciones = new AtomicInteger();
+        MockHttpServletRequest primera = post("/api/canciones", "k1");
+        primera.setContent("{\"titulo\":\"I1\"}".getBytes(StandardCharsets.UTF_8));
+        MockHttpServletRequest distinta = post("/api/canciones", "k1");
+        distinta.setContent("{\"titulo\":\"I2\"}".getBytes(StandardCharsets.UTF_8));
+
+        filter.doFilter(primera, new MockHttpServletResponse(), creando(ejecuciones, 201));
+        MockHttpServletResponse respuesta = new MockHttpServletResponse();
+        filter.doFilter(distinta, respuesta, creando(ejecuciones, 201));
+
+        assertEquals(1, ejecuciones.get());
+        assertEquals(422, respuesta.getStatus());
+        assertTrue(respuesta.getContentAsString().contains("Idempotency-Key"));
+    }
+
+    @Test
+    void cuerpoLeido_llegaIntactoAlControlador() throws Exception {
+        MockHttpServletRequest request = post("/api/canciones", "cuerpo");
+        request.setContent("{\"titulo\":\"I1\"}".getBytes(StandardCharsets.UTF_8));
+        StringBuilder recibido = new StringBuilder();
+
+        filter.doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> recibido.append(new String(req.getInputStream().readAllBytes(), StandardCharsets.UTF_8)));
+
+        assertEquals("{\"titulo\":\"I1\"}", recibido.toString());
+    }
+
+    @Test
+    void respuestaDeError_noSeAlmacenaYElReintentoSeEjecuta() throws Exception {
+        AtomicInteger ejecuciones = new AtomicInteger();
+
+        filter.doFilter(post("/api/listas", "xyz"), new MockHttpServletResponse(), creando(ejecuciones, 409));
+        filter.doFilter(post("/api/listas", "xyz"), new MockHttpServletResponse(), creando(ejecuciones, 201));
+
+        assertEquals(2, ejecuciones.get());
+    }
+
+    @Test
+    void sinCabecera_siempreSeEjecuta() throws Exception {
+        AtomicInteger ejecuciones = new AtomicInteger();
+
+        filter.doFilter(post("/api/canciones", null), new MockHttpServletResponse(), creando(ejecuciones, 201));
+        filter.doFilter(post("/api/canciones", null), new MockHttpServletResponse(), creando(ejecuciones, 201));
+
+        assertEquals(2, ejecuciones.get());
+    }
+
+    @Test
+    void primeraCompletadaEntreConsultaYReserva_elDuplicadoReenviaSuRespuesta() throws Exception {
+        AtomicInteger consultas = new AtomicInteger();
+        AlmacenRespuestasIdempotentes almacen = new AlmacenRespuestasIdempotentes(100, 60_000L) {
+            @Override
+            synchronized RespuestaAlmacenada obtener(String clave, long ahoraMs) {
+                RespuestaAlmacenada almacenada = super.obtener(clave, ahoraMs);
+                if (consultas.incrementAndGet() == 1) {
+                    // La primera petición termina justo después de que el duplicado no encontrara nada.
+                    completar(clave, new RespuestaAlmacenada(201, "http://localhost/api/canciones/1", "application/json",
+                            "{\"id\":1}".getBytes(StandardCharsets.UTF_8), expiracionDesde(ahoraMs),
+                            IdempotencyKeyFilter.huellaPeticion(null, new byte[0])));
+                }
+                return almacenada;
+            }
+        };
+        IdempotencyKeyFilter conCarrera = new IdempotencyKeyFilter(almacen, 1_000L);
+        AtomicInteger ejecuciones = new AtomicInteger();
+
+        MockHttpServletResponse duplicada = new MockHttpServletResponse();
+        conCarrera.doFilter(post("/api/canciones", "carrera"), duplicada, creando(ejecuciones, 201));
+
+        assertEquals(0, ejecuciones.get());
+        assertEquals(201, duplicada.getStatus());
+        assertEquals("{\"id\":1}", duplicada.getContentAsString());
+        assertEquals("true", duplicada.getHeader(IdempotencyKeyFilter.IDEMPOTENT_REPLAYED_HEADER));
+    }
+
+    @Test
+    void cuerpoLeido_sePuedeLeerDeFormaAsincrona() throws Exception {
+        MockHttpServletRequest request = post("/api/canciones", "asincrona");
+        request.setContent("{\"titulo\":\"I1\"}".getBytes(StandardCharsets.UTF_8));
+        StringBuilder recibido = new StringBuilder();
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            ServletInputStream entrada = req.getInputStream();
+            entrada.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    recibido.append(new String(entrada.readAllBytes(), StandardCharsets.UTF_8));
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    recibido.append('|');
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    fail(t);
+                }
+            });
+        });
+
+        assertEquals("{\"titulo\":\"I1\"}|", recibido.toString());
+    }
+
+    @Test
+    void duplicadoConcurrente_esperaALaPrimeraPeticion() throws Exception {
+        AtomicInteger ejecuciones = new AtomicInteger();
+        FilterChain lenta = (req, res) -> {
+            ejecuciones.incrementAndGet();
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            creando(new AtomicInteger(), 201).doFilter(req, res);
+        };
+
+        MockHttpServletResponse primera = new MockHttpServletResponse();
+        Thread hilo = new Thread(() -> {
+            try {
+                filter.doFilter(post("/api/canciones", "concurrente"), primera, lenta);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        hilo.start();
+        Thread.sleep(50);
+        MockHttpServletResponse duplicada = new MockHttpServletResponse();
+        filter.doFilter(post("/api/canciones", "concurrente"), duplicada, lenta);
+        hilo.join();
+
+        assertEquals(1, ejecuciones.get());
+        assertEquals(201, duplicada.getStatus());
+        assertEquals(primera.getContentAsString(), duplicada.getContentAsString());
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.playlist_api.filter;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    private final RateLimitFilter filter = new RateLimitFilter(true, 5, 1.0, "GET /api/canciones=2/1", 1_000);
+
+    private void autenticar(String usuario) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(usuario, null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private MockHttpServletResponse get(String uri, AtomicInteger ejecuciones) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> ejecuciones.incrementAndGet();
+        filter.doFilter(new MockHttpServletRequest("GET", uri), response, chain);
+        return response;
+    }
+
+    @Test
+    void superarElLimiteDeLaRuta_responde429ConRetryAfter() throws Exception {
+        autenticar("user");
+        AtomicInteger ejecuciones = new AtomicInteger();
+
+        get("/api/canciones", ejecuciones);
+        get("/api/canciones", ejecuciones);
+        MockHttpServletResponse rechazada = get("/api/canciones", ejecuciones);
+
+        assertEquals(2, ejecuciones.get());
+        assertEquals(429, rechazada.getStatus());
+        assertEquals("1", rechazada.getHeader("Retry-After"));
+        assertTrue(rechazada.getContentAsString().contains("\"status\":429"));
+        assertTrue(rechazada.getContentAsString().contains("\"path\":\"/api/canciones\""));
+    }
+
+    @Test
+    void cadaUsuarioTieneSuPropioBucket() throws Exception {
+        AtomicInteger ejecuciones = new AtomicInteger();
+
+        autenticar("user");
+        get("/api/canciones", ejecuciones);
+        get("/api/canciones", ejecuciones);
+        autenticar("admin");
+        MockHttpServletResponse otroUsuario = get("/api/canciones", ejecuciones);
+
+        assertEquals(200, otroUsuario.getStatus());
+        assertEquals(3, ejecuciones.get());
+    }
+
+    @Test
+    void rutasConId_compartenElBucketPorDefecto() throws Exception {
+        autenticar("user");
+        AtomicInteger ejecuciones = new AtomicInteger();
+
+        for (int id = 1; id <= 5; id++) {
+            get("/api/canciones/" + id, ejecuciones);
+        }
+        MockHttpServletResponse rechazada = get("/api/canciones/6", ejecuciones);
+
+        assertEquals(5, ejecuciones.get());
+        assertEquals(429, rechazada.getStatus());
+        assertEquals("/api/canciones/{id}/listas", RateLimitFilter.normalizarRuta("/api/canciones/42/listas"));
+    }
+
+    @Test
+    void peticionSinAutenticar_noSeLimita() throws Exception {
+        AtomicInteger ejecuciones = new AtomicInteger();
+
+        for (int i = 0; i < 10; i++) {
+            get("/api/canciones", ejecuciones);
+        }
+
+        assertEquals(10, ejecuciones.get());
+    }
+
+    @Test
+    void limitador_recargaTokensConElTiempo() {
+        LimitadorTokenBucket limitador = new LimitadorTokenBucket(100);
+        LimitadorTokenBucket.Limite limite = new LimitadorTokenBucket.Limite(2, 10.0);
+        long t0 = 0L;
+
+        assertEquals(0L, limitador.intentarConsumir("k", limite, t0));
+        assertEquals(0L, limitador.intentarConsumir("k", limite, t0));
+        long espera = limitador.intentarConsumir("k", limite, t0);
+
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), espera);
+        assertEquals(0L, limitador.intentarConsumir("k", limite, t0 + espera));
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.playlist_api.repository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiccionarioNombresTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private DiccionarioNombres diccionario;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:diccionario-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        for (String tabla : List.of("artistas", "albumes", "generos")) {
+            jdbcTemplate.execute("CREATE TABLE " + tabla + " (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,"
+                    + " nombre VARCHAR(255) NOT NULL, CONSTRAINT uk_" + tabla + "_nombre UNIQUE (nombre))");
+        }
+        jdbcTemplate.update("INSERT INTO artistas (nombre) VALUES ('Queen'), ('Muse')");
+        diccionario = new DiccionarioNombres(jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    @Test
+    void nombreDe_devuelveLaMismaInstanciaParaElMismoId() {
+        long id = diccionario.idDe(DiccionarioNombres.Tabla.ARTISTAS, new String("Queen"));
+
+        String primera = diccionario.nombreDe(DiccionarioNombres.Tabla.ARTISTAS, id);
+        String segunda = diccionario.nombreDe(DiccionarioNombres.Tabla.ARTISTAS, id);
+
+        assertEquals("Queen", primera);
+        assertSame(primera, segunda);
+        // La tabla se cargó entera al usarla por primera vez; no se ha insertado nada.
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM artistas", Integer.class));
+    }
+
+    @Test
+    void idDe_registraLosNombresNuevosUnaSolaVezAunqueLleguenALaVez() throws Exception {
+        ExecutorService hilos = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Long>> tareas = IntStream.range(0, 32)
+                    .<Callable<Long>>mapToObj(i -> () -> diccionario.idDe(DiccionarioNombres.Tabla.GENEROS, "Rock"))
+                    .toList();
+            List<Long> ids = hilos.invokeAll(tareas).stream().map(DiccionarioNombresTest::resultado).distinct().toList();
+
+            assertEquals(1, ids.size());
+            assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM generos WHERE nombre = 'Rock'", Integer.class));
+            assertEquals("Rock", diccionario.nombreDe(DiccionarioNombres.Tabla.GENEROS, ids.get(0)));
+        } finally {
+            hilos.shutdownNow();
+        }
+    }
+
+    @Test
+    void idDe_reutilizaElIdSiOtroProcesoYaInsertoElNombre() {
+        diccionario.idDe(DiccionarioNombres.Tabla.ALBUMES, "Origin of Symmetry");
+        // Otra instancia de la aplicación inserta un álbum después de que este diccionario cargara la tabla.
+        jdbcTemplate.update("INSERT INTO albumes (nombre) VALUES ('Absolution')");
+        Long idExistente = jdbcTemplate.queryForObject("SELECT id FROM albumes WHERE nombre = 'Absolution'", Long.class);
+
+        assertEquals(idExistente, diccionario.idDe(DiccionarioNombres.Tabla.ALBUMES, "Absolution"));
+        assertEquals("Absolution", diccionario.nombreDe(DiccionarioNombres.Tabla.ALBUMES, idExistente));
+    }
+
+    @Test
+    void idDe_soloGuardaElNombreSiLaTransaccionSeConfirma() {
+        transactionTemplate.executeWithoutResult(estado -> {
+            long id = diccionario.idDe(DiccionarioNombres.Tabla.GENEROS, "Jazz");
+            // Dentro de la transacción se resuelve en los dos sentidos sin pasar por el diccionario compartido.
+            assertEquals(id, diccionario.idDe(DiccionarioNombres.Tabla.GENEROS, "Jazz"));
+            assertEquals("Jazz", diccionario.nombreDe(DiccionarioNombres.Tabla.GENEROS, id));
+            assertEquals(0, diccionario.getEntradas(DiccionarioNombres.Tabla.GENEROS));
+            estado.setRollbackOnly();
+        });
+        assertEquals(0, diccionario.getEntradas(DiccionarioNombres.Tabla.GENEROS));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM generos", Integer.class));
+
+        Long id = transactionTemplate.execute(estado -> diccionario.idDe(DiccionarioNombres.Tabla.GENEROS, "Jazz"));
+        assertEquals(1, diccionario.getEntradas(DiccionarioNombres.Tabla.GENEROS));
+        assertEquals(id, jdbcTemplate.queryForObject("SELECT id FROM generos WHERE nombre = 'Jazz'", Long.class));
+    }
+
+    @Test
+    void nombreDe_guardaEnseguidaLosIdsConfirmadosFueraDelProceso() {
+        diccionario.idDe(DiccionarioNombres.Tabla.ARTISTAS, "Queen");
+        // Otro proceso inserta un artista después de que este diccionario cargara la tabla.
+        jdbcTemplate.update("INSERT INTO artistas (nombre) VALUES ('Blur')");
+        Long id = jdbcTemplate.queryForObject("SELECT id FROM artistas WHERE nombre = 'Blur'", Long.class);
+        transactionTemplate.setReadOnly(true);
+
+        transactionTemplate.executeWithoutResult(estado -> {
+            String primera = diccionario.nombreDe(DiccionarioNombres.Tabla.ARTISTAS, id);
+            assertEquals(3, diccionario.getEntradas(DiccionarioNombres.Tabla.ARTISTAS));
+            assertSame(primera, diccionario.nombreDe(DiccionarioNombres.Tabla.ARTISTAS, id));
+        });
+    }
+
+    @Test
+    void metricas_publicanLasEntradasDeCadaTabla() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        diccionario.bindTo(registry);
+        diccionario.idDe(DiccionarioNombres.Tabla.ARTISTAS, "Blur");
+
+        assertEquals(3, registry.get("playlist.dictionary.entries").tag("tabla", "artistas").gauge().value());
+        assertEquals(0, registry.get("playlist.dictionary.entries").tag("tabla", "generos").gauge().value());
+    }
+
+    private static Long resultado(Future<Long> futuro) {
+        try {
+            return futuro.get();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
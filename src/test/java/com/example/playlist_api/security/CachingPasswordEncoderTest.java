@@ -0,0 +1,61 @@
+package com.example.playlist_api.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingPasswordEncoderTest {
+
+    private final AtomicInteger comprobaciones = new AtomicInteger();
+
+    private final PasswordEncoder contador = new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return "{test}" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            comprobaciones.incrementAndGet();
+            return encodedPassword.equals(encode(rawPassword));
+        }
+    };
+
+    @Test
+    void matchesCorrecto_seRecuerdaYNoRepiteElDelegado() {
+        CachingPasswordEncoder encoder = new CachingPasswordEncoder(contador, 60_000L, 100);
+        String hash = encoder.encode("secreta");
+
+        assertTrue(encoder.matches("secreta", hash));
+        assertTrue(encoder.matches("secreta", hash));
+
+        assertEquals(1, comprobaciones.get());
+    }
+
+    @Test
+    void matchesIncorrecto_siempreConsultaAlDelegado() {
+        CachingPasswordEncoder encoder = new CachingPasswordEncoder(contador, 60_000L, 100);
+        String hash = encoder.encode("secreta");
+        encoder.matches("secreta", hash);
+
+        assertFalse(encoder.matches("otra", hash));
+        assertFalse(encoder.matches("otra", hash));
+
+        assertEquals(3, comprobaciones.get());
+    }
+
+    @Test
+    void ttlCero_desactivaLaCache() {
+        CachingPasswordEncoder encoder = new CachingPasswordEncoder(contador, 0L, 100);
+        String hash = encoder.encode("secreta");
+
+        encoder.matches("secreta", hash);
+        encoder.matches("secreta", hash);
+
+        assertEquals(2, comprobaciones.get());
+        assertEquals(0, encoder.size());
+    }
+}
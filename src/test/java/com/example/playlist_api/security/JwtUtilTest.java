@@ -0,0 +1,67 @@
+package com.example.playlist_api.security;
+
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilTest {
+
+    private final JwtUtil jwtUtil = new JwtUtil(60_000L);
+    private final UserDetails admin = new User("admin", "x", AuthorityUtils.createAuthorityList("ROLE_ADMIN"));
+
+    JwtUtilTest() {
+        ReflectionTestUtils.setField(jwtUtil, "secretString", "Th1sIsMyN3wSup3rS3cur3AndV3ryL0ngK3yF0rJWTSp1ngB00tAppl1c4t10nPl34s3W0rkN0w");
+        ReflectionTestUtils.setField(jwtUtil, "jwtExpirationInMs", 60_000L);
+        ReflectionTestUtils.setField(jwtUtil, "refreshExpirationInMs", 600_000L);
+    }
+
+    @Test
+    void generateToken_incluyeJtiYEsValido() {
+        String token = jwtUtil.generateToken(admin);
+
+        Claims claims = jwtUtil.extractAllClaims(token);
+        assertNotNull(claims.getId());
+        assertTrue(jwtUtil.validateToken(token, admin));
+    }
+
+    @Test
+    void revokeToken_invalidaElTokenDeAcceso() {
+        String token = jwtUtil.generateToken(admin);
+
+        jwtUtil.revokeToken(token);
+
+        assertTrue(jwtUtil.isTokenRevoked(jwtUtil.extractAllClaims(token)));
+        assertFalse(jwtUtil.validateToken(token, admin));
+        assertTrue(jwtUtil.validateToken(jwtUtil.generateToken(admin), admin));
+    }
+
+    @Test
+    void refreshToken_noSirveComoTokenDeAccesoYSoloSePuedeUsarUnaVez() {
+        String refresh = jwtUtil.generateRefreshToken(admin);
+
+        assertFalse(jwtUtil.validateToken(refresh, admin));
+        assertEquals("admin", jwtUtil.consumeRefreshToken(refresh));
+        assertThrows(BadCredentialsException.class, () -> jwtUtil.consumeRefreshToken(refresh));
+        assertThrows(BadCredentialsException.class, () -> jwtUtil.consumeRefreshToken(jwtUtil.generateToken(admin)));
+    }
+
+    @Test
+    void listaRevocacion_descartaLosBucketsVencidos() {
+        ListaRevocacionTokens lista = new ListaRevocacionTokens(1_000L);
+        lista.revocar("a", 1_500L, 0L);
+        lista.revocar("b", 5_500L, 0L);
+
+        assertTrue(lista.estaRevocado("a", 1_500L));
+        lista.revocar("c", 9_000L, 3_000L);
+
+        assertFalse(lista.estaRevocado("a", 1_500L));
+        assertTrue(lista.estaRevocado("b", 5_500L));
+        assertEquals(2, lista.size());
+    }
+}
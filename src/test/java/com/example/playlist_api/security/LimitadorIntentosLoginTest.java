@@ -0,0 +1,54 @@
+package com.example.playlist_api.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LimitadorIntentosLoginTest {
+
+    private final LimitadorIntentosLogin limitador = new LimitadorIntentosLogin(2, 1_000L, 8_000L, 60_000L, 1_000);
+
+    @Test
+    void fallosLibres_noBloquean() {
+        limitador.registrarFallo("admin", "10.0.0.1", 0L);
+        limitador.registrarFallo("admin", "10.0.0.1", 0L);
+
+        assertEquals(0L, limitador.milisegundosBloqueo("admin", "10.0.0.1", 0L));
+    }
+
+    @Test
+    void fallosSucesivos_bloqueanConEsperaExponencialHastaElMaximo() {
+        for (int i = 0; i < 3; i++) {
+            limitador.registrarFallo("admin", "10.0.0.1", 0L);
+        }
+        assertEquals(1_000L, limitador.milisegundosBloqueo("admin", "10.0.0.1", 0L));
+
+        limitador.registrarFallo("admin", "10.0.0.1", 0L);
+        assertEquals(2_000L, limitador.milisegundosBloqueo("admin", "10.0.0.1", 0L));
+
+        for (int i = 0; i < 10; i++) {
+            limitador.registrarFallo("admin", "10.0.0.1", 0L);
+        }
+        assertEquals(8_000L, limitador.milisegundosBloqueo("admin", "10.0.0.1", 0L));
+    }
+
+    @Test
+    void bloqueoPorIp_afectaAOtrosUsuarios() {
+        limitador.registrarFallo("a", "10.0.0.1", 0L);
+        limitador.registrarFallo("b", "10.0.0.1", 0L);
+        limitador.registrarFallo("c", "10.0.0.1", 0L);
+
+        assertEquals(1_000L, limitador.milisegundosBloqueo("d", "10.0.0.1", 0L));
+        assertEquals(0L, limitador.milisegundosBloqueo("d", "10.0.0.2", 0L));
+    }
+
+    @Test
+    void loginCorrecto_reiniciaElContadorDelUsuario() {
+        for (int i = 0; i < 3; i++) {
+            limitador.registrarFallo("admin", "10.0.0.1", 0L);
+        }
+        limitador.registrarExito("admin");
+
+        assertEquals(0L, limitador.milisegundosBloqueo("admin", "10.0.0.2", 0L));
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.playlist_api.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CanalCambiosTest {
+
+    private static final Pattern ID = Pattern.compile("id:(\\S+)");
+
+    private CanalCambios canal;
+
+    /** Emisor que registra el texto de cada evento en lugar de escribirlo en una respuesta HTTP. */
+    private static class EmisorRegistrado extends SseEmitter {
+        final BlockingQueue<String> eventos = new LinkedBlockingQueue<>();
+        final CountDownLatch completado = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            StringBuilder texto = new StringBuilder();
+            for (ResponseBodyEmitter.DataWithMediaType parte : builder.build()) {
+                texto.append(parte.getData());
+            }
+            eventos.add(texto.toString());
+        }
+
+        @Override
+        public synchronized void complete() {
+            completado.countDown();
+        }
+
+        String siguiente() throws InterruptedException {
+            String evento = eventos.poll(5, TimeUnit.SECONDS);
+            assertNotNull(evento, "No llegó el evento esperado");
+            return evento;
+        }
+    }
+
+    private static String id(String evento) {
+        Matcher matcher = ID.matcher(evento);
+        assertTrue(matcher.find(), evento);
+        return matcher.group(1);
+    }
+
+    private static EventoCambio cambio(long id) {
+        return EventoCambio.lista(EventoCambio.Accion.UPDATED, id, 1L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        canal.detener();
+    }
+
+    @Test
+    void publicar_enviaElEventoATodosLosSuscriptores() throws Exception {
+        canal = new CanalCambios(16, 16, 60_000, 60_000, 1);
+        EmisorRegistrado uno = new EmisorRegistrado();
+        EmisorRegistrado otro = new EmisorRegistrado();
+        canal.suscribir(null, uno);
+        canal.suscribir(null, otro);
+
+        canal.publicar(EventoCambio.cancion(EventoCambio.Accion.CREATED, 7L, 0L));
+
+        assertTrue(uno.siguiente().contains(EventoCambio.cancion(EventoCambio.Accion.CREATED, 7L, 0L).toString()));
+        assertTrue(otro.siguiente().contains("id=7"));
+    }
+
+    @Test
+    void reconexionConLastEventId_reenviaEnOrdenLosEventosPerdidos() throws Exception {
+        canal = new CanalCambios(16, 16, 60_000, 60_000, 1);
+        EmisorRegistrado primero = new EmisorRegistrado();
+        canal.suscribir(null, primero);
+        canal.publicar(cambio(1));
+        String idPrimero = id(primero.siguiente());
+        canal.publicar(cambio(2));
+        canal.publicar(cambio(3));
+
+        EmisorRegistrado reconectado = new EmisorRegistrado();
+        canal.suscribir(idPrimero, reconectado);
+
+        assertTrue(reconectado.siguiente().contains("id=2"));
+        assertTrue(reconectado.siguiente().contains("id=3"));
+        canal.publicar(cambio(4));
+        assertTrue(reconectado.siguiente().contains("id=4"));
+        assertNull(reconectado.eventos.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void lastEventIdFueraDelHistorialODeOtraEjecucion_enviaReinicio() throws Exception {
+        canal = new CanalCambios(2, 16, 60_000, 60_000, 1);
+        EmisorRegistrado primero = new EmisorRegistrado();
+        canal.suscribir(null, primero);
+        for (long i = 1; i <= 4; i++) {
+            canal.publicar(cambio(i));
+        }
+        String idPrimero = id(primero.siguiente());
+
+        EmisorRegistrado atrasado = new EmisorRegistrado();
+        canal.suscribir(idPrimero, atrasado);
+        String reinicio = atrasado.siguiente();
+        assertTrue(reinicio.contains("event:" + CanalCambios.EVENTO_REINICIO), reinicio);
+
+        // Tras el reinicio el cliente continúa desde el último evento, que sí está en el historial.
+        EmisorRegistrado continuado = new EmisorRegistrado();
+        canal.suscribir(id(reinicio), continuado);
+        canal.publicar(cambio(5));
+        assertTrue(continuado.siguiente().contains("id=5"));
+
+        EmisorRegistrado deOtraEjecucion = new EmisorRegistrado();
+        canal.suscribir("otra-3", deOtraEjecucion);
+        assertTrue(deOtraEjecucion.siguiente().contains("event:" + CanalCambios.EVENTO_REINICIO));
+    }
+
+    @Test
+    void suscriptorLento_seDesconectaAlLlenarSuColaSinAfectarAlResto() throws Exception {
+        canal = new CanalCambios(64, 2, 60_000, 60_000, 2);
+        CountDownLatch liberar = new CountDownLatch(1);
+        EmisorRegistrado lento = new EmisorRegistrado() {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                try {
+                    liberar.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.send(builder);
+            }
+        };
+        EmisorRegistrado rapido = new EmisorRegistrado();
+        canal.suscribir(null, lento);
+        canal.suscribir(null, rapido);
+
+        for (long i = 1; i <= 5; i++) {
+            canal.publicar(cambio(i));
+            assertTrue(rapido.siguiente().contains("id=" + i));
+        }
+
+        assertTrue(lento.completado.await(5, TimeUnit.SECONDS));
+        assertEquals(1, canal.getSuscriptores());
+        liberar.countDown();
+    }
+}
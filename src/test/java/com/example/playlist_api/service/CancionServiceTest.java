@@ -1,17 +1,26 @@
 package com.example.playlist_api.service;
 
 import com.example.playlist_api.dto.CancionDto;
+import com.example.playlist_api.dto.CancionRelacionadaDto;
+import com.example.playlist_api.dto.LoteResponseDto;
 import com.example.playlist_api.entity.Cancion;
+import com.example.playlist_api.exception.PreconditionFailedException;
 import com.example.playlist_api.exception.ResourceNotFoundException;
+import com.example.playlist_api.exception.BadRequestException;
+import com.example.playlist_api.exception.CancionDuplicadaException;
 import com.example.playlist_api.repository.CancionRepository;
+import com.example.playlist_api.repository.ProyeccionRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.HashSet;
 
@@ -25,6 +34,21 @@ class CancionServiceTest {
     @Mock
     private CancionRepository cancionRepository;
 
+    @Mock
+    private ProyeccionRepository proyeccionRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private IndicePertenencia indicePertenencia;
+
+    @Mock
+    private RecomendadorCanciones recomendadorCanciones;
+
+    @Mock
+    private DeduplicadorCanciones deduplicadorCanciones;
+
     @InjectMocks
     private CancionService cancionService;
 
@@ -41,6 +65,7 @@ class CancionServiceTest {
         assertEquals(1L, result.getId());
         assertEquals("Titulo Test", result.getTitulo());
         verify(cancionRepository, times(1)).save(any(Cancion.class));
+        verify(eventPublisher).publishEvent(EventoCambio.cancion(EventoCambio.Accion.CREATED, 1L, null));
     }
 
     @Test
@@ -104,6 +129,35 @@ class CancionServiceTest {
         verify(cancionRepository, times(1)).save(any(Cancion.class));
     }
 
+    @Test
+    void crearCancion_duplicada_laRechazaSinGuardar() {
+        CancionDto cancionDto = new CancionDto(null, "Canción  Test", "ARTISTA Test", "Album Test", "2023", "Pop");
+        when(cancionRepository.buscarIdPorHuella(HuellaCancion.de("cancion test", "artista test", "album test")))
+                .thenReturn(Optional.of(4L));
+
+        CancionDuplicadaException e = assertThrows(CancionDuplicadaException.class, () -> cancionService.crearCancion(cancionDto));
+        assertTrue(e.getMessage().contains("'4'"));
+        verify(cancionRepository, never()).save(any(Cancion.class));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void actualizarCancion_aDuplicadaDeOtra_laRechazaYSinCambiarLaHuellaNoLaBusca() {
+        Long id = 1L;
+        Cancion existingCancion = new Cancion(id, "Titulo", "Artista", "Album", "2020", "Pop", new HashSet<>(), 2L);
+        existingCancion.setHuella(HuellaCancion.de("Titulo", "Artista", "Album"));
+        when(cancionRepository.findById(id)).thenReturn(Optional.of(existingCancion));
+        when(cancionRepository.buscarOtraIdPorHuella(HuellaCancion.de("Otro", "Artista", "Album"), id)).thenReturn(Optional.of(7L));
+
+        assertThrows(CancionDuplicadaException.class,
+                () -> cancionService.actualizarCancion(id, new CancionDto(id, "Otro", "Artista", "Album", "2020", "Pop")));
+        verify(cancionRepository, never()).save(any(Cancion.class));
+
+        when(cancionRepository.save(any(Cancion.class))).thenAnswer(inv -> inv.getArgument(0));
+        cancionService.actualizarCancion(id, new CancionDto(id, "TITULO", "Artista", "Album", "2021", "Rock"));
+        verify(cancionRepository, times(1)).buscarOtraIdPorHuella(any(), any());
+    }
+
     @Test
     void actualizarCancion_notFound_throwsResourceNotFoundException() {
         Long id = 99L;
@@ -119,22 +173,120 @@ class CancionServiceTest {
     @Test
     void eliminarCancion_success() {
         Long id = 1L;
-        when(cancionRepository.existsById(id)).thenReturn(true);
-        doNothing().when(cancionRepository).deleteById(id);
+        when(cancionRepository.descontarDeListas(id)).thenReturn(3);
+        when(cancionRepository.quitarDeListas(id)).thenReturn(3);
+        when(cancionRepository.borrarPorId(id)).thenReturn(1);
 
         cancionService.eliminarCancion(id);
 
-        verify(cancionRepository, times(1)).existsById(id);
-        verify(cancionRepository, times(1)).deleteById(id);
+        // Primero se descuentan las listas (necesita las filas de la tabla de unión), luego se borran esas filas y la canción.
+        InOrder orden = inOrder(cancionRepository);
+        orden.verify(cancionRepository).descontarDeListas(id);
+        orden.verify(cancionRepository).quitarDeListas(id);
+        orden.verify(cancionRepository).borrarPorId(id);
+        verify(cancionRepository, never()).findById(anyLong());
+        verify(eventPublisher).publishEvent(EventoCambio.cancion(EventoCambio.Accion.DELETED, id, null));
     }
 
     @Test
     void eliminarCancion_notFound_throwsResourceNotFoundException() {
         Long id = 99L;
-        when(cancionRepository.existsById(id)).thenReturn(false);
+        when(cancionRepository.borrarPorId(id)).thenReturn(0);
 
         assertThrows(ResourceNotFoundException.class, () -> cancionService.eliminarCancion(id));
-        verify(cancionRepository, times(1)).existsById(id);
-        verify(cancionRepository, never()).deleteById(anyLong());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void actualizarCancion_versionDistinta_throwsPreconditionFailedException() {
+        Long id = 1L;
+        Cancion existingCancion = new Cancion(id, "Titulo", "Artista", "Album", "2020", "Pop", new HashSet<>(), 4L);
+        CancionDto cancionDto = new CancionDto(id, "Nuevo", "Artista", "Album", "2020", "Pop");
+
+        when(cancionRepository.findById(id)).thenReturn(Optional.of(existingCancion));
+
+        assertThrows(PreconditionFailedException.class, () -> cancionService.actualizarCancion(id, cancionDto, 3L));
+        verify(cancionRepository, never()).save(any(Cancion.class));
+    }
+
+    @Test
+    void obtenerCancionesPorIds_preservaElOrdenYReportaLosInexistentes() {
+        Cancion cancion1 = new Cancion(1L, "Titulo1", "Artista1", "Album1", "2000", "Pop", new HashSet<>());
+        Cancion cancion3 = new Cancion(3L, "Titulo3", "Artista3", "Album3", "2003", "Rock", new HashSet<>());
+        when(cancionRepository.findAllById(any())).thenReturn(Arrays.asList(cancion1, cancion3));
+
+        LoteResponseDto<CancionDto> lote = cancionService.obtenerCancionesPorIds(Arrays.asList(3L, 2L, 1L, 3L));
+
+        assertEquals(Arrays.asList(3L, 1L), lote.getElementos().stream().map(CancionDto::getId).toList());
+        assertEquals(List.of(2L), lote.getIdsNoEncontrados());
+        verify(cancionRepository, times(1)).findAllById(any());
+    }
+
+    @Test
+    void obtenerTodasLasCanciones_conCampos_seleccionaSoloEsasColumnas() {
+        List<Map<String, Object>> filas = List.of(Map.of("id", 1L, "titulo", "Titulo1"));
+        when(proyeccionRepository.buscarCampos(Cancion.class, List.of("id", "titulo"), null)).thenReturn(filas);
+
+        List<Map<String, Object>> result = cancionService.obtenerTodasLasCanciones(List.of("id,titulo"));
+
+        assertEquals(filas, result);
+        verify(cancionRepository, never()).findAll();
+    }
+
+    @Test
+    void obtenerTodasLasCanciones_campoDesconocido_throwsBadRequestException() {
+        assertThrows(BadRequestException.class, () -> cancionService.obtenerTodasLasCanciones(List.of("id,listasReproduccion")));
+        verifyNoInteractions(proyeccionRepository);
+    }
+
+    @Test
+    void obtenerIdsListasDeCancion_respondeDesdeElIndiceSinConsultarLaBaseDeDatos() {
+        when(indicePertenencia.listasDeCancion(7L)).thenReturn(new long[]{2L, 5L});
+
+        assertArrayEquals(new long[]{2L, 5L}, cancionService.obtenerIdsListasDeCancion(7L));
+        verifyNoInteractions(cancionRepository);
+    }
+
+    @Test
+    void obtenerIdsListasDeCancion_sinListas_distingueLaCancionInexistente() {
+        when(indicePertenencia.listasDeCancion(anyLong())).thenReturn(new long[0]);
+        when(cancionRepository.existsById(7L)).thenReturn(true);
+        when(cancionRepository.existsById(99L)).thenReturn(false);
+
+        assertArrayEquals(new long[0], cancionService.obtenerIdsListasDeCancion(7L));
+        assertThrows(ResourceNotFoundException.class, () -> cancionService.obtenerIdsListasDeCancion(99L));
+    }
+
+    @Test
+    void obtenerCancionesRelacionadas_recortaAlLimiteSinConsultarLaBaseDeDatos() {
+        when(recomendadorCanciones.getTopK()).thenReturn(20);
+        when(recomendadorCanciones.relacionadas(7L)).thenReturn(
+                new RecomendadorCanciones.Relacionadas(new long[]{3L, 9L, 4L}, new int[]{5, 2, 1}));
+
+        List<CancionRelacionadaDto> relacionadas = cancionService.obtenerCancionesRelacionadas(7L, 2);
+
+        assertEquals(List.of(new CancionRelacionadaDto(3L, 5), new CancionRelacionadaDto(9L, 2)), relacionadas);
+        verifyNoInteractions(cancionRepository);
+    }
+
+    @Test
+    void obtenerCancionesRelacionadas_sinLimite_noPasaDeTopK() {
+        when(recomendadorCanciones.getTopK()).thenReturn(3);
+        when(recomendadorCanciones.relacionadas(7L)).thenReturn(
+                new RecomendadorCanciones.Relacionadas(new long[]{3L, 9L, 4L}, new int[]{5, 2, 1}));
+
+        assertEquals(3, cancionService.obtenerCancionesRelacionadas(7L, null).size());
+    }
+
+    @Test
+    void obtenerCancionesRelacionadas_validaElLimiteYLaCancion() {
+        when(recomendadorCanciones.getTopK()).thenReturn(20);
+        when(recomendadorCanciones.relacionadas(anyLong())).thenReturn(
+                new RecomendadorCanciones.Relacionadas(new long[0], new int[0]));
+        when(cancionRepository.existsById(99L)).thenReturn(false);
+
+        assertThrows(BadRequestException.class, () -> cancionService.obtenerCancionesRelacionadas(7L, 0));
+        assertThrows(BadRequestException.class, () -> cancionService.obtenerCancionesRelacionadas(7L, 21));
+        assertThrows(ResourceNotFoundException.class, () -> cancionService.obtenerCancionesRelacionadas(99L, 10));
     }
 }
@@ -0,0 +1,126 @@
+package com.example.playlist_api.service;
+
+import com.example.playlist_api.dto.FusionDuplicadosDto;
+import com.example.playlist_api.repository.CancionRepository;
+import com.example.playlist_api.repository.HuellaCancionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeduplicadorCancionesTest {
+
+    @Mock
+    private CancionRepository cancionRepository;
+
+    @Mock
+    private HuellaCancionRepository huellaCancionRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private DeduplicadorCanciones deduplicador;
+
+    @BeforeEach
+    void setUp() {
+        deduplicador = new DeduplicadorCanciones(cancionRepository, huellaCancionRepository, transactionManager,
+                eventPublisher, 2, 2, registry);
+        deduplicador.iniciar();
+        // Espera al relleno de huellas del arranque, que no encuentra ninguna pendiente.
+        verify(huellaCancionRepository, timeout(1000)).buscarSinHuella(2);
+        clearInvocations(huellaCancionRepository);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        deduplicador.detener();
+    }
+
+    @Test
+    void huella_ignoraMayusculasAcentosYEspacios() {
+        assertEquals(HuellaCancion.de("Canción  del Mariachi", "Los Lobos", "Desperado"),
+                HuellaCancion.de(" cancion del  MARIACHI", "los lobos", "DESPERADO "));
+        assertNotEquals(HuellaCancion.de("Canción", "Los Lobos", "Desperado"),
+                HuellaCancion.de("Canción", "Los Lobos", "Desperado II"));
+        // El separador evita que el texto pase de un campo a otro.
+        assertNotEquals(HuellaCancion.de("a b", "c", "d"), HuellaCancion.de("a", "b c", "d"));
+        assertEquals(64, HuellaCancion.de("a", "b", "c").length());
+    }
+
+    @Test
+    void rellenarHuellas_procesaPorLotesHastaQueNoQuedan() {
+        when(huellaCancionRepository.buscarSinHuella(2)).thenReturn(
+                List.of(new HuellaCancionRepository.CancionSinHuella(1, "T", "A", "B"),
+                        new HuellaCancionRepository.CancionSinHuella(2, "t", "a", "b")),
+                List.of(new HuellaCancionRepository.CancionSinHuella(3, "Otra", "A", "B")));
+
+        assertEquals(3, deduplicador.rellenarHuellas());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<HuellaCancionRepository.HuellaAsignada>> lotes = ArgumentCaptor.forClass(List.class);
+        verify(huellaCancionRepository, times(2)).asignarHuellas(lotes.capture());
+        List<HuellaCancionRepository.HuellaAsignada> primero = lotes.getAllValues().get(0);
+        assertEquals(primero.get(0).huella(), primero.get(1).huella());
+        assertEquals(HuellaCancion.de("Otra", "A", "B"), lotes.getAllValues().get(1).get(0).huella());
+    }
+
+    @Test
+    void fusionarDuplicadas_conservaLaMasAntiguaYPublicaLosCambios() {
+        when(huellaCancionRepository.buscarGruposDuplicados()).thenReturn(List.of(new long[]{3, 8, 9}));
+        when(cancionRepository.buscarIdsListasConCanciones(List.of(8L, 9L))).thenReturn(List.of(20L, 21L));
+        when(cancionRepository.buscarVersionesListas(List.of(20L, 21L)))
+                .thenReturn(List.of(new Object[]{20L, 4L}, new Object[]{21L, 1L}));
+        when(cancionRepository.borrarPorIds(List.of(8L, 9L))).thenReturn(2);
+
+        FusionDuplicadosDto resultado = deduplicador.fusionarDuplicadas();
+
+        assertEquals(new FusionDuplicadosDto(1, 2, 2, 0), resultado);
+        InOrder enOrden = inOrder(cancionRepository);
+        enOrden.verify(cancionRepository).descontarDuplicadasDeListas(List.of(3L, 8L, 9L), List.of(8L, 9L));
+        enOrden.verify(cancionRepository).buscarVersionesListas(List.of(20L, 21L));
+        enOrden.verify(cancionRepository).apuntarDuplicadasACanonica(3L, List.of(8L, 9L));
+        enOrden.verify(cancionRepository).quitarDuplicadasDeListas(List.of(8L, 9L));
+        enOrden.verify(cancionRepository).borrarPorIds(List.of(8L, 9L));
+        verify(eventPublisher).publishEvent(EventoCambio.lista(EventoCambio.Accion.UPDATED, 20L, 4L));
+        verify(eventPublisher).publishEvent(EventoCambio.lista(EventoCambio.Accion.UPDATED, 21L, 1L));
+        verify(eventPublisher).publishEvent(EventoCambio.cancion(EventoCambio.Accion.DELETED, 8L, null));
+        verify(eventPublisher).publishEvent(EventoCambio.cancion(EventoCambio.Accion.DELETED, 9L, null));
+        assertEquals(2, registry.get("playlist.dedup.merged").counter().count());
+    }
+
+    @Test
+    void fusionarDuplicadas_reintentaLosGruposBloqueadosYCuentaLosQueSiguenFallando() {
+        when(huellaCancionRepository.buscarGruposDuplicados()).thenReturn(List.of(new long[]{1, 2}, new long[]{5, 6}));
+        when(cancionRepository.buscarIdsListasConCanciones(any())).thenReturn(List.of());
+        when(cancionRepository.borrarPorIds(List.of(2L)))
+                .thenThrow(new CannotAcquireLockException("bloqueada"))
+                .thenReturn(1);
+        when(cancionRepository.borrarPorIds(List.of(6L))).thenThrow(new CannotAcquireLockException("bloqueada"));
+
+        FusionDuplicadosDto resultado = deduplicador.fusionarDuplicadas();
+
+        assertEquals(new FusionDuplicadosDto(2, 1, 0, 1), resultado);
+        verify(cancionRepository, never()).descontarDuplicadasDeListas(any(), any());
+        verify(huellaCancionRepository, atLeastOnce()).buscarSinHuella(anyInt());
+    }
+}
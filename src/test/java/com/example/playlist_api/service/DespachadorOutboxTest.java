@@ -0,0 +1,132 @@
+package com.example.playlist_api.service;
+
+import com.example.playlist_api.entity.EventoOutbox;
+import com.example.playlist_api.repository.EventoOutboxRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DespachadorOutboxTest {
+
+    @Mock
+    private EventoOutboxRepository eventoOutboxRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    /** Destino que recuerda los lotes recibidos y puede fallar un número de veces. */
+    private static class DestinoRegistrado implements DestinoEventos {
+        final List<List<MensajeOutbox>> lotes = new ArrayList<>();
+        int fallosPendientes;
+
+        @Override
+        public String getNombre() {
+            return "registrado";
+        }
+
+        @Override
+        public void entregar(List<MensajeOutbox> lote) {
+            if (fallosPendientes > 0) {
+                fallosPendientes--;
+                throw new IllegalStateException("destino caído");
+            }
+            lotes.add(lote);
+        }
+    }
+
+    private DespachadorOutbox despachador(int tamanoLote, DestinoEventos... destinos) {
+        return new DespachadorOutbox(eventoOutboxRepository, transactionManager, List.of(destinos), true,
+                List.of("registrado"), tamanoLote, 60_000, registry);
+    }
+
+    private static List<EventoOutbox> eventos(long desde, long hasta) {
+        List<EventoOutbox> eventos = new ArrayList<>();
+        for (long id = desde; id <= hasta; id++) {
+            eventos.add(new EventoOutbox(id, "LISTA", "UPDATED", 100 + id, id, Instant.now().minusMillis(50)));
+        }
+        return eventos;
+    }
+
+    @Test
+    void despachar_entregaPorLotesEnOrdenYBorraCadaLoteEntregado() {
+        DestinoRegistrado destino = new DestinoRegistrado();
+        when(eventoOutboxRepository.findAllByOrderByIdAsc(any(Limit.class)))
+                .thenReturn(eventos(1, 2), eventos(3, 4), eventos(5, 5));
+
+        assertEquals(5, despachador(2, destino).despachar());
+
+        assertEquals(3, destino.lotes.size());
+        assertEquals(List.of(1L, 2L), destino.lotes.get(0).stream().map(MensajeOutbox::id).toList());
+        assertEquals(EventoCambio.lista(EventoCambio.Accion.UPDATED, 105L, 5L), destino.lotes.get(2).get(0).evento());
+        verify(eventoOutboxRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(eventoOutboxRepository).deleteAllByIdInBatch(List.of(5L));
+        assertEquals(5, registry.get("playlist.outbox.dispatched").counter().count());
+        assertTrue(registry.get("playlist.outbox.dispatch.lag").timer().mean(TimeUnit.MILLISECONDS) >= 50);
+    }
+
+    @Test
+    void destinoFalla_elLoteNoSeBorraYSeVuelveAEntregar() {
+        DestinoRegistrado destino = new DestinoRegistrado();
+        destino.fallosPendientes = 1;
+        when(eventoOutboxRepository.findAllByOrderByIdAsc(any(Limit.class))).thenReturn(eventos(1, 3));
+        DespachadorOutbox despachador = despachador(10, destino);
+
+        assertThrows(IllegalStateException.class, despachador::despachar);
+        verify(eventoOutboxRepository, never()).deleteAllByIdInBatch(any());
+
+        assertEquals(3, despachador.despachar());
+        assertEquals(List.of(1L, 2L, 3L), destino.lotes.get(0).stream().map(MensajeOutbox::id).toList());
+        verify(eventoOutboxRepository).deleteAllByIdInBatch(List.of(1L, 2L, 3L));
+    }
+
+    @Test
+    void destinoDesconocido_fallaAlArrancar() {
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> new DespachadorOutbox(
+                eventoOutboxRepository, transactionManager, List.of(new DestinoRegistrado()), true,
+                List.of("kafka"), 10, 60_000, registry));
+        assertTrue(e.getMessage().contains("kafka"));
+    }
+
+    @Test
+    void destinoFichero_anadeUnaLineaJsonPorEvento(@TempDir Path directorio) throws Exception {
+        Path ruta = directorio.resolve("outbox/eventos.jsonl");
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        DestinoEventosFichero fichero = new DestinoEventosFichero(ruta.toString(), objectMapper);
+
+        fichero.entregar(List.of(new MensajeOutbox(1, EventoCambio.cancion(EventoCambio.Accion.CREATED, 7L, 0L),
+                Instant.parse("2026-01-01T00:00:00Z"))));
+        fichero.entregar(List.of(new MensajeOutbox(2, EventoCambio.cancion(EventoCambio.Accion.DELETED, 7L, null),
+                Instant.parse("2026-01-01T00:00:01Z"))));
+        fichero.cerrar();
+
+        List<String> lineas = Files.readAllLines(ruta, StandardCharsets.UTF_8);
+        assertEquals(2, lineas.size());
+        assertEquals("{\"id\":1,\"evento\":{\"tipo\":\"cancion\",\"accion\":\"created\",\"id\":7,\"version\":0},"
+                + "\"creadoEn\":\"2026-01-01T00:00:00Z\"}", lineas.get(0));
+        assertTrue(lineas.get(1).contains("\"accion\":\"deleted\""));
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.playlist_api.service;
+
+import com.example.playlist_api.dto.ListaReproduccionRequestDto;
+import com.example.playlist_api.entity.ListaReproduccion;
+import com.example.playlist_api.exception.ActualizacionRechazadaException;
+import com.example.playlist_api.exception.BadRequestException;
+import com.example.playlist_api.exception.ResourceNotFoundException;
+import com.example.playlist_api.repository.CancionRepository;
+import com.example.playlist_api.repository.ListaReproduccionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EscrituraDiferidaListaServiceTest {
+
+    @Mock
+    private ListaReproduccionService listaReproduccionService;
+
+    @Mock
+    private ListaReproduccionRepository listaReproduccionRepository;
+
+    @Mock
+    private CancionRepository cancionRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path journalDir;
+
+    private EscrituraDiferidaListaService service;
+
+    private EscrituraDiferidaListaService nuevoServicio() {
+        EscrituraDiferidaListaService nuevo = new EscrituraDiferidaListaService(
+                listaReproduccionService, listaReproduccionRepository, cancionRepository, transactionManager, new ObjectMapper());
+        ReflectionTestUtils.setField(nuevo, "habilitada", true);
+        ReflectionTestUtils.setField(nuevo, "journalDir", journalDir.toString());
+        ReflectionTestUtils.setField(nuevo, "tamanoLote", 100);
+        // Intervalo largo para que solo las lecturas con versión disparen la escritura durante la prueba.
+        ReflectionTestUtils.setField(nuevo, "intervaloFlushMs", 60_000L);
+        return nuevo;
+    }
+
+    /** La lista 1 se llama "Lista" y existen las canciones 1 y 2. */
+    private void conListaYCanciones() {
+        when(listaReproduccionRepository.findById(1L))
+                .thenReturn(Optional.of(new ListaReproduccion(1L, "Lista", "Desc", Set.of())));
+        lenient().when(cancionRepository.findIdsByIdIn(anyCollection())).thenReturn(List.of(1L, 2L));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (service != null) {
+            service.detener();
+        }
+    }
+
+    @Test
+    void encolarActualizacion_devuelveVersionesCrecientesSinTocarLaBaseDeDatos() {
+        service = nuevoServicio();
+        service.iniciar();
+        conListaYCanciones();
+
+        long v1 = service.encolarActualizacion(1L, new ListaReproduccionRequestDto("Lista", "Desc", Set.of(1L)));
+        long v2 = service.encolarActualizacion(1L, new ListaReproduccionRequestDto("Lista", "Desc", Set.of(1L, 2L)));
+
+        assertTrue(v2 > v1);
+        verify(listaReproduccionService, never()).actualizarListaReproduccion(anyLong(), any());
+    }
+
+    @Test
+    void encolarActualizacion_listaInexistente_throwsResourceNotFoundException() {
+        service = nuevoServicio();
+        service.iniciar();
+        when(listaReproduccionRepository.findById(99L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> service.encolarActualizacion(99L, new ListaReproduccionRequestDto("Lista", "Desc", null)));
+    }
+
+    @Test
+    void esperarVersion_aplicaSoloLaUltimaActualizacionPorLista() {
+        service = nuevoServicio();
+        service.iniciar();
+        conListaYCanciones();
+
+        service.encolarActualizacion(1L, new ListaReproduccionRequestDto("Lista", "Desc", Set.of(1L)));
+        long version = service.encolarActualizacion(1L, new ListaReproduccionRequestDto("Lista", "Desc", Set.of(1L, 2L)));
+        service.esperarVersion(version);
+
+        ArgumentCaptor<ListaReproduccionRequestDto> captor = ArgumentCaptor.forClass(ListaReproduccionRequestDto.class);
+        verify(listaReproduccionService, times(1)).actualizarListaReproduccion(eq(1L), captor.capture());
+        assertEquals(Set.of(1L, 2L), captor.getValue().getCancionIds());
+    }
+
+    @Test
+    void encolarActualizacion_cancionInexistente_seRechazaSinRegistrarla() {
+        service = nuevoServicio();
+        service.iniciar();
+        conListaYCanciones();
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> service.encolarActualizacion(1L, new ListaReproduccionRequestDto("Lista", "Desc", Set.of(1L, 3L))));
+        service.esperarVersion(1L);
+
+        verify(listaReproduccionService, never()).actualizarListaReproduccion(anyLong(), any());
+    }
+
+    @Test
+    void encolarActualizacion_nombreDeOtraLista_throwsBadRequestException() {
+        service = nuevoServicio();
+        service.iniciar();
+        conListaYCanciones();
+        when(listaReproduccionRepository.findByNombre("Otra"))
+                .thenReturn(Optional.of(new ListaReproduccion(2L, "Otra", "Desc", Set.of())));
+
+        assertThrows(BadRequestException.class,
+                () -> service.encolarActualizacion(1L, new ListaReproduccionRequestDto("Otra", "Desc", null)));
+    }
+
+    @Test
+    void encolarActualizacion_nombreReclamadoPorOtraActualizacionPendiente_throwsBadRequestException() {
+        service = nuevoServicio();
+        service.iniciar();
+        conListaYCanciones();
+        when(listaReproduccionRepository.findById(2L))
+                .thenReturn(Optional.of(new ListaReproduccion(2L, "Dos", "Desc", Set.of())));
+        when(listaReproduccionRepository.findByNombre("Nueva")).thenReturn(Optional.empty());
+
+        service.encolarActualizacion(2L, new ListaReproduccionRequestDto("Nueva", "Desc", null));
+
+        assertThrows(BadRequestException.class,
+                () -> service.encolarActualizacion(1L, new ListaReproduccionRequestDto("Nueva", "Desc", null)));
+    }
+
+    @Test
+    void esperarVersion_errorTransitorio_conservaLaActualizacionYLaReintenta() {
+        service = nuevoServicio();
+        service.iniciar();
+        conListaYCanciones();
+        when(listaReproduccionService.actualizarListaReproduccion(eq(1L), any()))
+                .thenThrow(new CannotAcquireLockException("bloqueo"))
+                .thenThrow(new CannotAcquireLockException("bloqueo"))
+                .thenReturn(null);
+
+        long version = service.encolarActualizacion(1L, new ListaReproduccionRequestDto("Lista", "Desc", Set.of(1L)));
+        assertThrows(CannotAcquireLockException.class, () -> service.esperarVersion(version));
+        service.esperarVersion(version);
+
+        verify(listaReproduccionService, times(3)).actualizarListaReproduccion(eq(1L), any());
+    }
+
+    @Test
+    void esperarVersion_ultimaActualizacionRechazada_aplicaLaAnteriorYReportaElRechazo() {
+        service = nuevoServicio();
+        service.iniciar();
+        conListaYCanciones();
+        // La canción 2 se borra después de aceptar la segunda actualización.
+        when(listaReproduccionService.actualizarListaReproduccion(eq(1L), argThat(dto -> dto.getCancionIds().contains(2L))))
+                .thenThrow(new ResourceNotFoundException("Cancion", "id", "2"));
+
+        long anterior = service.encolarActualizacion(1L, new ListaReproduccionRequestDto("Lista", "Desc", Set.of(1L)));
+        long rechazada = service.encolarActualizacion(1L, new ListaReproduccionRequestDto("Lista", "Desc", Set.of(1L, 2L)));
+
+        ActualizacionRechazadaException ex = assertThrows(ActualizacionRechazadaException.class,
+                () -> service.esperarVersion(rechazada));
+        assertTrue(ex.getMessage().contains("Cancion"));
+        assertDoesNotThrow(() -> service.esperarVersion(anterior));
+        verify(listaReproduccionService).actualizarListaReproduccion(eq(1L),
+                argThat(dto -> dto != null && dto.getCancionIds().equals(Set.of(1L))));
+    }
+
+    @Test
+    void iniciar_reproduceLasEntradasPendientesDelJournal() throws Exception {
+        JournalListasReproduccion journal = new JournalListasReproduccion(journalDir, new ObjectMapper());
+        journal.recuperarPendientes();
+        journal.append(new EntradaJournalLista(0L, 7L, "Lista", "Desc", Set.of(3L)));
+        journal.close();
+
+        service = nuevoServicio();
+        service.iniciar();
+
+        verify(listaReproduccionService, times(1)).actualizarListaReproduccion(eq(7L), any(ListaReproduccionRequestDto.class));
+    }
+}
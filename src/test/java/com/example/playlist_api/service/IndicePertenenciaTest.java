@@ -0,0 +1,93 @@
+package com.example.playlist_api.service;
+
+import com.example.playlist_api.repository.PertenenciaRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IndicePertenenciaTest {
+
+    @Mock
+    private PertenenciaRepository pertenenciaRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private IndicePertenencia indice;
+
+    @BeforeEach
+    void setUp() {
+        indice = new IndicePertenencia(pertenenciaRepository, eventPublisher);
+        // Tabla de unión: lista 1 → {10, 20}, lista 2 → {20, 30}, lista 3 → {20}.
+        doAnswer(inv -> {
+            PertenenciaRepository.ConsumidorPertenencia consumidor = inv.getArgument(0);
+            consumidor.aceptar(1, 10);
+            consumidor.aceptar(1, 20);
+            consumidor.aceptar(2, 20);
+            consumidor.aceptar(2, 30);
+            consumidor.aceptar(3, 20);
+            return null;
+        }).when(pertenenciaRepository).recorrer(any());
+        indice.reconstruir();
+    }
+
+    @Test
+    void reconstruir_cargaLasDosDireccionesOrdenadas() {
+        assertArrayEquals(new long[]{1, 2, 3}, indice.listasDeCancion(20));
+        assertArrayEquals(new long[]{2}, indice.listasDeCancion(30));
+        assertArrayEquals(new long[]{20, 30}, indice.cancionesDeLista(2));
+        assertArrayEquals(new long[0], indice.listasDeCancion(99));
+        assertEquals(5, indice.getParejas());
+        verify(pertenenciaRepository, never()).buscarListasDeCancion(anyLong());
+    }
+
+    @Test
+    void cambioDeLista_aplicaSoloLaDiferenciaEnElIndiceInverso() {
+        when(pertenenciaRepository.buscarCancionesDeLista(1)).thenReturn(new long[]{20, 30, 40});
+
+        indice.aplicar(EventoCambio.lista(EventoCambio.Accion.UPDATED, 1L, 4L));
+
+        assertArrayEquals(new long[0], indice.listasDeCancion(10));
+        assertArrayEquals(new long[]{1, 2, 3}, indice.listasDeCancion(20));
+        assertArrayEquals(new long[]{1, 2}, indice.listasDeCancion(30));
+        assertArrayEquals(new long[]{1}, indice.listasDeCancion(40));
+        assertEquals(6, indice.getParejas());
+        // Las que salen, las que entran y las que siguen en la lista cambian sus coincidencias.
+        ArgumentCaptor<CambioPertenencia> cambio = ArgumentCaptor.forClass(CambioPertenencia.class);
+        verify(eventPublisher).publishEvent(cambio.capture());
+        assertArrayEquals(new long[]{10, 20, 30, 40}, cambio.getValue().canciones());
+    }
+
+    @Test
+    void borrados_deListaYDeCancion_quitanSusPertenencias() {
+        indice.aplicar(EventoCambio.lista(EventoCambio.Accion.DELETED, 3L, 1L));
+        assertArrayEquals(new long[]{1, 2}, indice.listasDeCancion(20));
+
+        indice.aplicar(EventoCambio.cancion(EventoCambio.Accion.DELETED, 20L, null));
+        assertArrayEquals(new long[0], indice.listasDeCancion(20));
+        assertArrayEquals(new long[]{10}, indice.cancionesDeLista(1));
+        assertArrayEquals(new long[]{30}, indice.cancionesDeLista(2));
+        assertEquals(2, indice.getParejas());
+        verify(pertenenciaRepository, never()).buscarCancionesDeLista(anyLong());
+    }
+
+    @Test
+    void metricas_publicanLasParejasYLaMemoriaEstimada() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        indice.bindTo(registry);
+
+        assertEquals(5, registry.get("playlist.membership.pairs").gauge().value());
+        // 3 listas y 3 canciones en los mapas, y cada pareja guardada en las dos direcciones.
+        assertEquals(6 * 64 + 2 * 5 * Long.BYTES, registry.get("playlist.membership.bytes").gauge().value());
+    }
+}
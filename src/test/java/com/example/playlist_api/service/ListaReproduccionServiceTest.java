@@ -1,24 +1,34 @@
 package com.example.playlist_api.service;
 
+import com.example.playlist_api.dto.CombinacionListasRequestDto;
 import com.example.playlist_api.dto.ListaReproduccionRequestDto;
 import com.example.playlist_api.dto.ListaReproduccionResponseDto;
+import com.example.playlist_api.dto.ListaReproduccionResumenDto;
 import com.example.playlist_api.dto.CancionDto;
+import com.example.playlist_api.dto.LoteResponseDto;
 import com.example.playlist_api.entity.ListaReproduccion;
 import com.example.playlist_api.entity.Cancion;
 import com.example.playlist_api.exception.BadRequestException;
+import com.example.playlist_api.exception.PreconditionFailedException;
 import com.example.playlist_api.exception.ResourceNotFoundException;
 import com.example.playlist_api.repository.ListaReproduccionRepository;
 import com.example.playlist_api.repository.CancionRepository;
+import com.example.playlist_api.repository.ProyeccionRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.Optional;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.Arrays;
 
@@ -35,6 +45,15 @@ class ListaReproduccionServiceTest {
     @Mock
     private CancionRepository cancionRepository;
 
+    @Mock
+    private ProyeccionRepository proyeccionRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ListaReproduccionService listaReproduccionService;
 
@@ -43,7 +62,6 @@ class ListaReproduccionServiceTest {
         ListaReproduccionRequestDto requestDto = new ListaReproduccionRequestDto("Mi Lista", "Descripción", Collections.emptySet());
         ListaReproduccion listaReproduccion = new ListaReproduccion(1L, "Mi Lista", "Descripción", new HashSet<>());
         
-        when(listaReproduccionRepository.existsByNombre("Mi Lista")).thenReturn(false);
         when(listaReproduccionRepository.save(any(ListaReproduccion.class))).thenReturn(listaReproduccion);
 
         ListaReproduccionResponseDto responseDto = listaReproduccionService.crearListaReproduccion(requestDto);
@@ -54,12 +72,12 @@ class ListaReproduccionServiceTest {
     }
     
     @Test
-    void crearListaReproduccion_nameAlreadyExists_throwsBadRequestException() {
+    void crearListaReproduccion_nameAlreadyExists_propagatesDataIntegrityViolation() {
         ListaReproduccionRequestDto requestDto = new ListaReproduccionRequestDto("Existente", "Desc", Collections.emptySet());
-        when(listaReproduccionRepository.existsByNombre("Existente")).thenReturn(true);
+        when(listaReproduccionRepository.save(any(ListaReproduccion.class))).thenThrow(new DataIntegrityViolationException(ListaReproduccion.UK_NOMBRE));
 
-        assertThrows(BadRequestException.class, () -> listaReproduccionService.crearListaReproduccion(requestDto));
-        verify(listaReproduccionRepository, never()).save(any(ListaReproduccion.class));
+        assertThrows(DataIntegrityViolationException.class, () -> listaReproduccionService.crearListaReproduccion(requestDto));
+        verify(listaReproduccionRepository, never()).existsByNombre(anyString());
     }
 
     @Test
@@ -70,7 +88,6 @@ class ListaReproduccionServiceTest {
         Cancion cancion1 = new Cancion(1L, "Titulo1", "Artista1", "Album1", "2000", "Pop", new HashSet<>());
         Cancion cancion2 = new Cancion(2L, "Titulo2", "Artista2", "Album2", "2001", "Rock", new HashSet<>());
         
-        when(listaReproduccionRepository.existsByNombre(anyString())).thenReturn(false);
         when(cancionRepository.findById(1L)).thenReturn(Optional.of(cancion1));
         when(cancionRepository.findById(2L)).thenReturn(Optional.of(cancion2));
         
@@ -94,7 +111,6 @@ class ListaReproduccionServiceTest {
         
         Cancion cancion1 = new Cancion(1L, "Titulo1", "Artista1", "Album1", "2000", "Pop", new HashSet<>());
         
-        when(listaReproduccionRepository.existsByNombre(anyString())).thenReturn(false);
         when(cancionRepository.findById(1L)).thenReturn(Optional.of(cancion1));
         when(cancionRepository.findById(6L)).thenReturn(Optional.empty()); // Simula que la canción 6 no existe
 
@@ -109,7 +125,6 @@ class ListaReproduccionServiceTest {
         Long songId = 1L;
         Cancion cancion = new Cancion(songId, "Titulo", "Artista", "Album", "2020", "Pop", new HashSet<>());
         
-        when(listaReproduccionRepository.existsByNombre(anyString())).thenReturn(false);
         when(cancionRepository.findById(songId)).thenReturn(Optional.of(cancion));
         
         ListaReproduccion savedPlaylist = new ListaReproduccion(1L, "Nueva Lista", "Desc", new HashSet<>(Collections.singletonList(cancion)));
@@ -125,19 +140,19 @@ class ListaReproduccionServiceTest {
     }
 
     @Test
-    void crearListaReproduccionConCancion_playlistNameAlreadyExists_throwsBadRequestException() {
+    void crearListaReproduccionConCancion_playlistNameAlreadyExists_propagatesDataIntegrityViolation() {
         Long songId = 1L;
-        when(listaReproduccionRepository.existsByNombre("Existente")).thenReturn(true);
+        Cancion cancion = new Cancion(songId, "Titulo", "Artista", "Album", "2020", "Pop", new HashSet<>());
+        when(cancionRepository.findById(songId)).thenReturn(Optional.of(cancion));
+        when(listaReproduccionRepository.save(any(ListaReproduccion.class))).thenThrow(new DataIntegrityViolationException(ListaReproduccion.UK_NOMBRE));
 
-        assertThrows(BadRequestException.class, () -> listaReproduccionService.crearListaReproduccionConCancion("Existente", "Desc", songId));
-        verify(listaReproduccionRepository, never()).save(any(ListaReproduccion.class));
-        verify(cancionRepository, never()).findById(anyLong());
+        assertThrows(DataIntegrityViolationException.class, () -> listaReproduccionService.crearListaReproduccionConCancion("Existente", "Desc", songId));
+        verify(listaReproduccionRepository, never()).existsByNombre(anyString());
     }
 
     @Test
     void crearListaReproduccionConCancion_songNotFound_throwsResourceNotFoundException() {
         Long songId = 99L;
-        when(listaReproduccionRepository.existsByNombre(anyString())).thenReturn(false);
         when(cancionRepository.findById(songId)).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> listaReproduccionService.crearListaReproduccionConCancion("Nueva Lista", "Desc", songId));
@@ -300,6 +315,7 @@ class ListaReproduccionServiceTest {
 
         verify(listaReproduccionRepository, times(1)).findById(playlistId);
         verify(listaReproduccionRepository, times(1)).delete(playlist);
+        verify(eventPublisher).publishEvent(EventoCambio.lista(EventoCambio.Accion.DELETED, playlistId, null));
     }
 
     @Test
@@ -310,5 +326,214 @@ class ListaReproduccionServiceTest {
         assertThrows(ResourceNotFoundException.class, () -> listaReproduccionService.eliminarListaReproduccionPorId(playlistId));
         verify(listaReproduccionRepository, times(1)).findById(playlistId);
         verify(listaReproduccionRepository, never()).delete(any(ListaReproduccion.class));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void actualizarListaReproduccion_versionDistinta_throwsPreconditionFailedException() {
+        Long playlistId = 1L;
+        ListaReproduccion existingPlaylist = new ListaReproduccion(playlistId, "Original", "Desc Original", new HashSet<>(), 3L);
+        ListaReproduccionRequestDto requestDto = new ListaReproduccionRequestDto("Original", "Nueva Desc", Collections.emptySet());
+
+        when(listaReproduccionRepository.findById(playlistId)).thenReturn(Optional.of(existingPlaylist));
+
+        assertThrows(PreconditionFailedException.class, () -> listaReproduccionService.actualizarListaReproduccion(playlistId, requestDto, 2L));
+        verify(listaReproduccionRepository, never()).save(any(ListaReproduccion.class));
+    }
+
+    @Test
+    void agregarCancion_conflictoDeVersion_reintentaYAgrega() {
+        Long playlistId = 1L;
+        Cancion cancion = new Cancion(5L, "Titulo", "Artista", "Album", "2020", "Pop", new HashSet<>());
+        ListaReproduccion playlist = new ListaReproduccion(playlistId, "Lista", "Desc", new HashSet<>());
+
+        when(listaReproduccionRepository.findById(playlistId)).thenReturn(Optional.of(playlist));
+        when(cancionRepository.findById(5L)).thenReturn(Optional.of(cancion));
+        doThrow(new ObjectOptimisticLockingFailureException(ListaReproduccion.class, playlistId))
+                .doNothing()
+                .when(listaReproduccionRepository).flush();
+
+        ListaReproduccionResponseDto responseDto = listaReproduccionService.agregarCancion(playlistId, 5L);
+
+        assertEquals(1, responseDto.getCanciones().size());
+        verify(listaReproduccionRepository, times(2)).flush();
+        // Solo publica el intento que supera el conflicto de versión.
+        verify(eventPublisher).publishEvent(EventoCambio.lista(EventoCambio.Accion.UPDATED, playlistId, null));
+    }
+
+    @Test
+    void agregarCancion_conflictoPersistente_propagaLaExcepcion() {
+        Long playlistId = 1L;
+        Cancion cancion = new Cancion(5L, "Titulo", "Artista", "Album", "2020", "Pop", new HashSet<>());
+
+        when(listaReproduccionRepository.findById(playlistId)).thenAnswer(inv -> Optional.of(new ListaReproduccion(playlistId, "Lista", "Desc", new HashSet<>())));
+        when(cancionRepository.findById(5L)).thenReturn(Optional.of(cancion));
+        doThrow(new ObjectOptimisticLockingFailureException(ListaReproduccion.class, playlistId))
+                .when(listaReproduccionRepository).flush();
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> listaReproduccionService.agregarCancion(playlistId, 5L));
+        verify(listaReproduccionRepository, times(ListaReproduccionService.MAX_INTENTOS_OPTIMISTAS)).flush();
+    }
+
+    @Test
+    void crearListaReproduccionSiNoExiste_yaExiste_devuelveLaExistenteSinInsertar() {
+        ListaReproduccionRequestDto requestDto = new ListaReproduccionRequestDto("Existente", "Desc", Collections.emptySet());
+        ListaReproduccion existente = new ListaReproduccion(4L, "Existente", "Desc", new HashSet<>());
+        when(listaReproduccionRepository.findByNombre("Existente")).thenReturn(Optional.of(existente));
+
+        ResultadoCreacionLista resultado = listaReproduccionService.crearListaReproduccionSiNoExiste(requestDto);
+
+        assertFalse(resultado.isCreada());
+        assertEquals(4L, resultado.getListaReproduccion().getId());
+        verify(listaReproduccionRepository, never()).save(any(ListaReproduccion.class));
+    }
+
+    @Test
+    void crearListaReproduccionSiNoExiste_carreraPerdida_devuelveLaCreadaPorLaOtraPeticion() {
+        ListaReproduccionRequestDto requestDto = new ListaReproduccionRequestDto("Nueva", "Desc", Collections.emptySet());
+        ListaReproduccion ganadora = new ListaReproduccion(9L, "Nueva", "Desc", new HashSet<>());
+        when(listaReproduccionRepository.findByNombre("Nueva")).thenReturn(Optional.empty(), Optional.of(ganadora));
+        when(listaReproduccionRepository.save(any(ListaReproduccion.class))).thenThrow(new DataIntegrityViolationException(ListaReproduccion.UK_NOMBRE));
+
+        ResultadoCreacionLista resultado = listaReproduccionService.crearListaReproduccionSiNoExiste(requestDto);
+
+        assertFalse(resultado.isCreada());
+        assertEquals(9L, resultado.getListaReproduccion().getId());
+    }
+
+    @Test
+    void obtenerListasReproduccionPorIds_preservaElOrdenYReportaLosInexistentes() {
+        ListaReproduccion lista1 = new ListaReproduccion(1L, "Lista1", "Desc1", new HashSet<>());
+        ListaReproduccion lista2 = new ListaReproduccion(2L, "Lista2", "Desc2", new HashSet<>());
+        when(listaReproduccionRepository.findAllWithCancionesByIdIn(any())).thenReturn(Arrays.asList(lista1, lista2));
+
+        LoteResponseDto<ListaReproduccionResponseDto> lote = listaReproduccionService.obtenerListasReproduccionPorIds(Arrays.asList(2L, 5L, 1L));
+
+        assertEquals(Arrays.asList(2L, 1L), lote.getElementos().stream().map(ListaReproduccionResponseDto::getId).toList());
+        assertEquals(List.of(5L), lote.getIdsNoEncontrados());
+    }
+
+    @Test
+    void obtenerTodasLasListasReproduccion_sinCanciones_noCargaLasCanciones() {
+        List<Map<String, Object>> filas = List.of(Map.of("id", 1L, "nombre", "Lista1"));
+        when(proyeccionRepository.buscarCampos(ListaReproduccion.class, List.of("id", "nombre"), null)).thenReturn(filas);
+
+        List<Map<String, Object>> result = listaReproduccionService.obtenerTodasLasListasReproduccion(List.of("id", "nombre"));
+
+        assertEquals(filas, result);
+        verify(listaReproduccionRepository, never()).findAll();
+    }
+
+    @Test
+    void obtenerListaReproduccionPorId_conCanciones_devuelveSoloLosCamposPedidos() {
+        Cancion cancion = new Cancion(1L, "Titulo", "Artista", "Album", "2020", "Pop", new HashSet<>());
+        ListaReproduccion lista = new ListaReproduccion(1L, "Lista", "Desc", new HashSet<>(Set.of(cancion)));
+        when(listaReproduccionRepository.findById(1L)).thenReturn(Optional.of(lista));
+
+        Map<String, Object> result = listaReproduccionService.obtenerListaReproduccionPorId(1L, List.of("nombre,canciones"));
+
+        assertEquals(List.of("nombre", "canciones"), List.copyOf(result.keySet()));
+        verifyNoInteractions(proyeccionRepository);
+    }
+    @Test
+    void agregarYQuitarCancion_mantienenElNumeroDeCanciones() {
+        Long playlistId = 1L;
+        Cancion cancion = new Cancion(5L, "Titulo", "Artista", "Album", "2020", "Pop", new HashSet<>());
+        ListaReproduccion playlist = new ListaReproduccion(playlistId, "Lista", "Desc", new HashSet<>());
+        when(listaReproduccionRepository.findById(playlistId)).thenReturn(Optional.of(playlist));
+        when(cancionRepository.findById(5L)).thenReturn(Optional.of(cancion));
+
+        listaReproduccionService.agregarCancion(playlistId, 5L);
+        listaReproduccionService.agregarCancion(playlistId, 5L);
+        assertEquals(1, playlist.getNumeroCanciones());
+
+        listaReproduccionService.quitarCancion(playlistId, 5L);
+        assertEquals(0, playlist.getNumeroCanciones());
+    }
+
+    @Test
+    void actualizarListaReproduccion_sinCanciones_poneElNumeroDeCancionesACero() {
+        Long playlistId = 1L;
+        Cancion cancion = new Cancion(5L, "Titulo", "Artista", "Album", "2020", "Pop", new HashSet<>());
+        ListaReproduccion existente = new ListaReproduccion(playlistId, "Lista", "Desc", new HashSet<>(Set.of(cancion)));
+        assertEquals(1, existente.getNumeroCanciones());
+        when(listaReproduccionRepository.findById(playlistId)).thenReturn(Optional.of(existente));
+        when(listaReproduccionRepository.save(any(ListaReproduccion.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        listaReproduccionService.actualizarListaReproduccion(playlistId,
+                new ListaReproduccionRequestDto("Lista", "Desc", Collections.emptySet()), null);
+
+        assertEquals(0, existente.getNumeroCanciones());
+    }
+
+    @Test
+    void obtenerResumenListasReproduccion_noCargaLasCanciones() {
+        List<ListaReproduccionResumenDto> resumenes = List.of(new ListaReproduccionResumenDto(1L, "Lista1", "Desc1", 3, 0L));
+        when(listaReproduccionRepository.findAllResumenes()).thenReturn(resumenes);
+
+        assertEquals(resumenes, listaReproduccionService.obtenerResumenListasReproduccion());
+        verify(listaReproduccionRepository, never()).findAll();
+        verifyNoInteractions(cancionRepository);
+    }
+
+    @Test
+    void combinarEnNuevaLista_interseccion_insertaEnLaBaseDeDatosYCuentaLasCanciones() {
+        CombinacionListasRequestDto peticion = new CombinacionListasRequestDto(
+                CombinacionListasRequestDto.Operacion.INTERSECCION, List.of(1L, 2L, 1L), "Comunes", "Desc");
+        when(listaReproduccionRepository.findIdsByIdIn(List.of(1L, 2L))).thenReturn(List.of(2L, 1L));
+        when(listaReproduccionRepository.saveAndFlush(any(ListaReproduccion.class))).thenAnswer(inv -> {
+            ListaReproduccion nueva = inv.getArgument(0);
+            nueva.setId(9L);
+            return nueva;
+        });
+        when(listaReproduccionRepository.insertarInterseccion(9L, List.of(1L, 2L), 2)).thenReturn(4);
+
+        ListaReproduccionResumenDto resumen = listaReproduccionService.combinarEnNuevaLista(peticion);
+
+        assertEquals(9L, resumen.getId());
+        assertEquals(4, resumen.getNumeroCanciones());
+        verifyNoInteractions(cancionRepository);
+        verify(eventPublisher).publishEvent(EventoCambio.lista(EventoCambio.Accion.CREATED, 9L, null));
+    }
+
+    @Test
+    void combinarEnLista_diferencia_restaLasDemasListasDeLaPrimera() {
+        ListaReproduccion destino = new ListaReproduccion(3L, "Destino", "Desc", new HashSet<>());
+        destino.setNumeroCanciones(2);
+        when(listaReproduccionRepository.findById(3L)).thenReturn(Optional.of(destino));
+        when(listaReproduccionRepository.findIdsByIdIn(List.of(1L, 2L, 4L))).thenReturn(List.of(1L, 2L, 4L));
+        when(listaReproduccionRepository.insertarDiferencia(3L, 1L, List.of(2L, 4L))).thenReturn(5);
+
+        ListaReproduccionResumenDto resumen = listaReproduccionService.combinarEnLista(3L, new CombinacionListasRequestDto(
+                CombinacionListasRequestDto.Operacion.DIFERENCIA, List.of(1L, 2L, 4L), null, null));
+
+        assertEquals(7, resumen.getNumeroCanciones());
+        verify(listaReproduccionRepository).flush();
+        verify(eventPublisher).publishEvent(EventoCambio.lista(EventoCambio.Accion.UPDATED, 3L, null));
+    }
+
+    @Test
+    void combinarEnLista_sinCancionesNuevas_noCambiaLaVersionNiPublica() {
+        ListaReproduccion destino = new ListaReproduccion(3L, "Destino", "Desc", new HashSet<>());
+        when(listaReproduccionRepository.findById(3L)).thenReturn(Optional.of(destino));
+        when(listaReproduccionRepository.findIdsByIdIn(List.of(1L))).thenReturn(List.of(1L));
+        when(listaReproduccionRepository.insertarUnion(3L, List.of(1L))).thenReturn(0);
+
+        listaReproduccionService.combinarEnLista(3L, new CombinacionListasRequestDto(
+                CombinacionListasRequestDto.Operacion.CLONAR, List.of(1L), null, null));
+
+        verify(listaReproduccionRepository, never()).flush();
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void combinarEnNuevaLista_origenInexistenteOInsuficiente_noCreaLaLista() {
+        when(listaReproduccionRepository.findIdsByIdIn(List.of(1L, 99L))).thenReturn(List.of(1L));
+
+        assertThrows(ResourceNotFoundException.class, () -> listaReproduccionService.combinarEnNuevaLista(new CombinacionListasRequestDto(
+                CombinacionListasRequestDto.Operacion.UNION, List.of(1L, 99L), "Nueva", null)));
+        assertThrows(BadRequestException.class, () -> listaReproduccionService.combinarEnNuevaLista(new CombinacionListasRequestDto(
+                CombinacionListasRequestDto.Operacion.UNION, List.of(1L, 1L), "Nueva", null)));
+        verify(listaReproduccionRepository, never()).saveAndFlush(any(ListaReproduccion.class));
     }
 }
@@ -0,0 +1,114 @@
+package com.example.playlist_api.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RecomendadorCancionesTest {
+
+    @Mock
+    private IndicePertenencia indicePertenencia;
+
+    private final Map<Long, long[]> listasPorCancion = new HashMap<>();
+    private final Map<Long, long[]> cancionesPorLista = new HashMap<>();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private RecomendadorCanciones recomendador;
+
+    @BeforeEach
+    void setUp() {
+        // Lista 1 → {10, 20, 30}, lista 2 → {10, 20}, lista 3 → {10, 30, 40}, lista 4 → {20, 40}.
+        listasPorCancion.put(10L, new long[]{1, 2, 3});
+        listasPorCancion.put(20L, new long[]{1, 2, 4});
+        listasPorCancion.put(30L, new long[]{1, 3});
+        listasPorCancion.put(40L, new long[]{3, 4});
+        cancionesPorLista.put(1L, new long[]{10, 20, 30});
+        cancionesPorLista.put(2L, new long[]{10, 20});
+        cancionesPorLista.put(3L, new long[]{10, 30, 40});
+        cancionesPorLista.put(4L, new long[]{20, 40});
+        lenient().when(indicePertenencia.isConstruido()).thenReturn(true);
+        lenient().when(indicePertenencia.cancionesIndexadas()).thenAnswer(inv ->
+                listasPorCancion.keySet().stream().mapToLong(Long::longValue).toArray());
+        lenient().when(indicePertenencia.listasDeCancionSinCopiar(anyLong())).thenAnswer(inv ->
+                listasPorCancion.getOrDefault(inv.<Long>getArgument(0), new long[0]));
+        lenient().when(indicePertenencia.cancionesDeListaSinCopiar(anyLong())).thenAnswer(inv ->
+                cancionesPorLista.getOrDefault(inv.<Long>getArgument(0), new long[0]));
+
+        recomendador = new RecomendadorCanciones(indicePertenencia, 2, 60_000, 2, registry);
+        recomendador.iniciar();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        recomendador.detener();
+    }
+
+    @Test
+    void primerCalculo_guardaElTopKDeCadaCancionOrdenado() {
+        recomendador.actualizar();
+
+        // 10 coincide con 20 en dos listas, con 30 en dos y con 40 en una: empatan 20 y 30 y gana el menor ID.
+        RecomendadorCanciones.Relacionadas relacionadas = recomendador.relacionadas(10);
+        assertArrayEquals(new long[]{20, 30}, relacionadas.canciones());
+        assertArrayEquals(new int[]{2, 2}, relacionadas.listasEnComun());
+        assertArrayEquals(new long[]{10, 20}, recomendador.relacionadas(40).canciones());
+        assertEquals(0, recomendador.relacionadas(99).canciones().length);
+        assertEquals(4, registry.get("playlist.recommendations.songs").gauge().value());
+    }
+
+    @Test
+    void cambios_recalculanSoloLasCancionesAfectadas() {
+        recomendador.actualizar();
+        clearInvocations(indicePertenencia);
+
+        // La canción 30 sale de la lista 1.
+        listasPorCancion.put(30L, new long[]{3});
+        cancionesPorLista.put(1L, new long[]{10, 20});
+        recomendador.alCambiarPertenencia(new CambioPertenencia(new long[]{10, 20, 30}));
+        assertEquals(3, registry.get("playlist.recommendations.pending").gauge().value());
+        recomendador.actualizar();
+
+        assertArrayEquals(new long[]{20, 30}, recomendador.relacionadas(10).canciones());
+        assertArrayEquals(new int[]{2, 1}, recomendador.relacionadas(10).listasEnComun());
+        assertArrayEquals(new long[]{10, 40}, recomendador.relacionadas(30).canciones());
+        verify(indicePertenencia, never()).listasDeCancionSinCopiar(40L);
+        verify(indicePertenencia, never()).cancionesIndexadas();
+        assertEquals(0, registry.get("playlist.recommendations.pending").gauge().value());
+    }
+
+    @Test
+    void cancionSinListas_pierdeSusRelacionadas() {
+        recomendador.actualizar();
+
+        listasPorCancion.remove(40L);
+        recomendador.alCambiarPertenencia(new CambioPertenencia(new long[]{40}));
+        recomendador.actualizar();
+
+        assertEquals(0, recomendador.relacionadas(40).canciones().length);
+    }
+
+    @Test
+    void contador_creceConservandoLasCuentas() {
+        RecomendadorCanciones.Contador contador = new RecomendadorCanciones.Contador();
+        for (long id = 1; id <= 1000; id++) {
+            for (int veces = 0; veces < id % 7; veces++) {
+                contador.incrementar(id);
+            }
+        }
+
+        RecomendadorCanciones.Relacionadas mejores = contador.mejores(3);
+        assertArrayEquals(new long[]{6, 13, 20}, mejores.canciones());
+        assertArrayEquals(new int[]{6, 6, 6}, mejores.listasEnComun());
+    }
+}